@@ -0,0 +1,439 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Compile time counterpart of {@code ModelProcessor}.
+ * <p/>
+ * Finds every class annotated with {@code @Table} while it is being compiled and writes a model index to
+ * {@value #INDEX_RESOURCE}. {@code Cassinate.Builder} loads that index at runtime instead of scanning the classpath.
+ * <p/>
+ * Index format (tab separated, one record per line):
+ * <pre>
+ *   model   &lt;table&gt;  &lt;class&gt;  &lt;nested 0|1&gt;
+ *   options &lt;attribute=value&gt;...  (of {@code @TableOptions})
+ *   index   &lt;column&gt;  &lt;attribute=value&gt;...  (of a field's {@code @SecondaryIndex})
+ *   view    &lt;attribute=value&gt;...  (of a {@code @MaterializedView})
+ *   column  &lt;column&gt; &lt;field&gt;  &lt;cql type or -&gt;  &lt;java.lang.reflect.Modifier bits&gt;  &lt;key&gt;
+ *           &lt;annotations&gt;
+ * </pre>
+ * where key is {@code -}, {@code partition:<position>} or {@code clustering:<position>}, and annotations are the
+ * comma separated binary names of the field's annotations, or {@code -} if it has none.
+ * <p/>
+ * Annotations are recorded as their attributes, defaults included, and turned into CQL at runtime by the same
+ * classes that read them by reflection. An array attribute is repeated once per element. Backslashes, tabs and line
+ * breaks in values are escaped with a backslash.
+ * <p/>
+ * Column, index and view records belong to the model record above them.
+ */
+@SupportedAnnotationTypes(ModelIndexProcessor.TABLE)
+public class ModelIndexProcessor extends AbstractProcessor {
+    public static final String INDEX_RESOURCE = "META-INF/cassinate/models.index";
+    public static final String INDEX_HEADER = "# cassinate model index v2";
+
+    static final String TABLE = "com.datastax.driver.mapping.annotations.Table";
+    static final String COLUMN = "com.datastax.driver.mapping.annotations.Column";
+    static final String PARTITION_KEY = "com.datastax.driver.mapping.annotations.PartitionKey";
+    static final String CLUSTERING_COLUMN = "com.datastax.driver.mapping.annotations.ClusteringColumn";
+
+    static final String TRANSIENT = "com.datastax.driver.mapping.annotations.Transient";
+    static final String FROZEN = "com.datastax.driver.mapping.annotations.Frozen";
+    static final String UDT = "com.datastax.driver.mapping.annotations.UDT";
+    static final String TABLE_OPTIONS = "net.csthings.cassinate.TableOptions";
+    static final String SECONDARY_INDEX = "net.csthings.cassinate.SecondaryIndex";
+    static final String MATERIALIZED_VIEW = "net.csthings.cassinate.MaterializedView";
+    static final String MATERIALIZED_VIEWS = "net.csthings.cassinate.MaterializedViews";
+
+    /**
+     * Same mappings as {@code TypeResolver}, keyed on the qualified java type name
+     */
+    private static final Map<String, String> mappings;
+
+    static {
+        mappings = new HashMap<>();
+        mappings.put("java.lang.String", "text");
+        mappings.put("boolean", "boolean");
+        mappings.put("java.lang.Boolean", "boolean");
+        mappings.put("byte", "tinyint");
+        mappings.put("java.lang.Byte", "tinyint");
+        mappings.put("short", "smallint");
+        mappings.put("java.lang.Short", "smallint");
+        mappings.put("int", "int");
+        mappings.put("java.lang.Integer", "int");
+        mappings.put("long", "bigint");
+        mappings.put("java.lang.Long", "bigint");
+        mappings.put("float", "float");
+        mappings.put("java.lang.Float", "float");
+        mappings.put("double", "double");
+        mappings.put("java.lang.Double", "double");
+        mappings.put("java.math.BigDecimal", "decimal");
+        mappings.put("java.math.BigInteger", "varint");
+        mappings.put("java.nio.ByteBuffer", "blob");
+        mappings.put("java.util.UUID", "timeuuid");
+        mappings.put("java.util.Date", "timestamp");
+        mappings.put("java.time.Instant", "timestamp");
+        mappings.put("com.datastax.driver.core.LocalDate", "date");
+        mappings.put("java.time.LocalDate", "date");
+        mappings.put("java.time.LocalTime", "time");
+        mappings.put("java.net.InetAddress", "inet");
+        mappings.put("java.net.Inet4Address", "inet");
+        mappings.put("java.net.Inet6Address", "inet");
+        mappings.put("int[]", "list<int>");
+        mappings.put("long[]", "list<bigint>");
+        mappings.put("float[]", "list<float>");
+        mappings.put("double[]", "list<double>");
+    }
+
+    private final List<String> records = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS)
+                    index((TypeElement) element);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the records for {@link clazz} to the index
+     * @param clazz class annotated with {@code @Table}
+     */
+    private void index(TypeElement clazz) {
+        String name = stringValue(findAnnotation(clazz, TABLE), "name");
+        String className = processingEnv.getElementUtils().getBinaryName(clazz).toString();
+        if (name.isEmpty())
+            name = className;
+        boolean nested = clazz.getNestingKind() == NestingKind.MEMBER;
+        records.add(join("model", name, className, nested ? "1" : "0"));
+        AnnotationMirror options = findAnnotation(clazz, TABLE_OPTIONS);
+        if (options != null)
+            records.add(join("options", attributes(options)));
+
+        List<String> indexes = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(clazz.getEnclosedElements())) {
+            if (findAnnotation(field, TRANSIENT) != null)
+                continue;
+            String fieldName = field.getSimpleName().toString();
+            String columnName = fieldName.toLowerCase();
+            AnnotationMirror col = findAnnotation(field, COLUMN);
+            if (col != null && !stringValue(col, "name").isEmpty())
+                columnName = stringValue(col, "name");
+
+            String type = fieldType(field);
+            if (type == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Cassinate: no cql type for " + field.asType() + ", mark it @Transient or ignore it", field);
+                type = "-";
+            }
+
+            String key = "-";
+            AnnotationMirror partitionKey = findAnnotation(field, PARTITION_KEY);
+            AnnotationMirror clusteringColumn = findAnnotation(field, CLUSTERING_COLUMN);
+            if (partitionKey != null)
+                key = "partition:" + stringValue(partitionKey, "value");
+            else if (clusteringColumn != null)
+                key = "clustering:" + stringValue(clusteringColumn, "value");
+
+            records.add(join("column", columnName, fieldName, type, String.valueOf(modifiers(field.getModifiers())),
+                    key, annotationNames(field)));
+            AnnotationMirror index = findAnnotation(field, SECONDARY_INDEX);
+            if (index != null)
+                indexes.add(join("index", columnName, attributes(index)));
+        }
+        records.addAll(indexes);
+        for (AnnotationMirror view : materializedViews(clazz)) {
+            records.add(join("view", attributes(view)));
+        }
+    }
+
+    /**
+     * @return the {@code @MaterializedView}s of {@link clazz}, whether repeated or not
+     */
+    private List<AnnotationMirror> materializedViews(TypeElement clazz) {
+        List<AnnotationMirror> views = new ArrayList<>();
+        AnnotationMirror view = findAnnotation(clazz, MATERIALIZED_VIEW);
+        if (view != null)
+            views.add(view);
+        AnnotationMirror container = findAnnotation(clazz, MATERIALIZED_VIEWS);
+        if (container != null) {
+            for (AnnotationValue value : listValue(container, "value")) {
+                views.add((AnnotationMirror) value.getValue());
+            }
+        }
+        return views;
+    }
+
+    private void writeIndex() {
+        if (records.isEmpty())
+            return;
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    INDEX_RESOURCE);
+            try (Writer writer = file.openWriter()) {
+                writer.write(INDEX_HEADER);
+                writer.write('\n');
+                for (String record : records) {
+                    writer.write(record);
+                    writer.write('\n');
+                }
+            }
+        }
+        catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the cql type of {@link field}, applying {@code @Frozen}
+     * @param field
+     * @return the cql type or null if it has no mapping
+     */
+    private String fieldType(VariableElement field) {
+        AnnotationMirror frozen = findAnnotation(field, FROZEN);
+        String frozenType = stringValue(frozen, "value");
+        if (!frozenType.isEmpty())
+            return frozenType;
+        String type = cqlType(field.asType());
+        if (type != null && frozen != null && isCollection(type))
+            return "frozen<" + type + ">";
+        return type;
+    }
+
+    /**
+     * Resolves the cql type of {@link type} or null if it (or one of its type arguments) has no mapping
+     * @param type
+     * @return
+     */
+    private String cqlType(TypeMirror type) {
+        if (type.getKind().isPrimitive() || type.getKind() == TypeKind.ARRAY)
+            return mappings.get(type.toString());
+        if (type.getKind() != TypeKind.DECLARED)
+            return null;
+
+        DeclaredType declared = (DeclaredType) type;
+        TypeElement element = (TypeElement) declared.asElement();
+        String raw = element.getQualifiedName().toString();
+        List<? extends TypeMirror> args = declared.getTypeArguments();
+        if ("java.util.Optional".equals(raw) && args.size() == 1)
+            return cqlType(args.get(0));
+        if (("java.util.List".equals(raw) || "java.util.Set".equals(raw)) && args.size() == 1) {
+            String elementType = elementType(args.get(0));
+            if (elementType == null)
+                return null;
+            return ("java.util.List".equals(raw) ? "list<" : "set<") + elementType + ">";
+        }
+        if ("java.util.Map".equals(raw) && args.size() == 2) {
+            String key = elementType(args.get(0));
+            String value = elementType(args.get(1));
+            if (key == null || value == null)
+                return null;
+            return "map<" + key + ", " + value + ">";
+        }
+
+        if (element.getKind() == ElementKind.ENUM)
+            return "text";
+        AnnotationMirror udt = findAnnotation(element, UDT);
+        if (udt != null) {
+            String name = stringValue(udt, "name");
+            return "frozen<" + (Boolean.parseBoolean(stringValue(udt, "caseSensitiveType")) ? "\"" + name + "\""
+                    : name.toLowerCase()) + ">";
+        }
+        return mappings.get(raw);
+    }
+
+    /**
+     * Resolves a collection element, freezing it if it is a collection
+     */
+    private String elementType(TypeMirror type) {
+        String element = cqlType(type);
+        if (element != null && isCollection(element))
+            return "frozen<" + element + ">";
+        return element;
+    }
+
+    private static boolean isCollection(String type) {
+        return type.startsWith("list<") || type.startsWith("set<") || type.startsWith("map<");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> listValue(AnnotationMirror mirror, String attribute) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils()
+                .getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : values.entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(attribute) && e.getValue().getValue() instanceof List)
+                return (List<? extends AnnotationValue>) e.getValue().getValue();
+        }
+        return new ArrayList<>();
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotation))
+                return mirror;
+        }
+        return null;
+    }
+
+    /**
+     * @return the comma separated binary names of the annotations on {@link element}, as {@code Class#getName()}
+     * returns them, or - if it has none
+     */
+    private String annotationNames(Element element) {
+        List<String> names = new ArrayList<>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            names.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        return names.isEmpty() ? "-" : String.join(",", names);
+    }
+
+    /**
+     * Records every attribute of {@link mirror}, defaults included, as tab separated {@code name=value} fields
+     * @param mirror
+     * @return the fields, repeating an array attribute once per element
+     */
+    private String attributes(AnnotationMirror mirror) {
+        List<String> fields = new ArrayList<>();
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils()
+                .getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : values.entrySet()) {
+            String name = e.getKey().getSimpleName().toString();
+            Object value = e.getValue().getValue();
+            if (value instanceof List) {
+                for (Object element : (List<?>) value) {
+                    fields.add(name + "=" + escape(String.valueOf(((AnnotationValue) element).getValue())));
+                }
+            }
+            else {
+                fields.add(name + "=" + escape(String.valueOf(value)));
+            }
+        }
+        return String.join("\t", fields);
+    }
+
+    /**
+     * Escapes backslashes, tabs and line breaks, like {@code MigrationPlan} does
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private String stringValue(AnnotationMirror mirror, String attribute) {
+        if (mirror == null)
+            return "";
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils()
+                .getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : values.entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(attribute))
+                return String.valueOf(e.getValue().getValue());
+        }
+        return "";
+    }
+
+    /**
+     * Converts {@link modifiers} to the {@link java.lang.reflect.Modifier} bits returned by
+     * {@code Field#getModifiers()}
+     * @param modifiers
+     * @return
+     */
+    private static int modifiers(Set<Modifier> modifiers) {
+        int mods = 0;
+        for (Modifier modifier : modifiers) {
+            switch (modifier) {
+            case PUBLIC:
+                mods |= java.lang.reflect.Modifier.PUBLIC;
+                break;
+            case PROTECTED:
+                mods |= java.lang.reflect.Modifier.PROTECTED;
+                break;
+            case PRIVATE:
+                mods |= java.lang.reflect.Modifier.PRIVATE;
+                break;
+            case STATIC:
+                mods |= java.lang.reflect.Modifier.STATIC;
+                break;
+            case FINAL:
+                mods |= java.lang.reflect.Modifier.FINAL;
+                break;
+            case TRANSIENT:
+                mods |= java.lang.reflect.Modifier.TRANSIENT;
+                break;
+            case VOLATILE:
+                mods |= java.lang.reflect.Modifier.VOLATILE;
+                break;
+            default:
+                break;
+            }
+        }
+        return mods;
+    }
+
+    private static String join(String... values) {
+        return String.join("\t", values);
+    }
+}
@@ -0,0 +1,217 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.datastax.driver.core.DataType;
+
+import net.csthings.cassinate.Model;
+import net.csthings.cassinate.SchemaSnapshot;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Synthetic models, model classes and CQL scripts shared by the benchmarks
+ */
+final class BenchFixtures {
+    /** Package the generated {@code @Table} classes are compiled into */
+    static final String MODEL_PACKAGE = "net.csthings.cassinate.bench.models";
+
+    private static final String[] FIELD_TYPES = { "String", "long", "int", "boolean", "double", "java.util.Date",
+            "java.nio.ByteBuffer", "java.net.InetAddress", "java.util.List<String>", "java.util.Set<Integer>" };
+    private static final DataType[] COLUMN_TYPES = { DataType.text(), DataType.bigint(), DataType.cint(),
+            DataType.cboolean(), DataType.cdouble(), DataType.timestamp(), DataType.blob(), DataType.inet(),
+            DataType.list(DataType.text()), DataType.set(DataType.cint()) };
+
+    private BenchFixtures() {
+    }
+
+    static String tableName(int i) {
+        return "bench_table_" + i;
+    }
+
+    static String className(int i) {
+        return MODEL_PACKAGE + ".BenchModel" + i;
+    }
+
+    /**
+     * Writes {@link count} {@code @Table} classes with {@link columns} columns each under {@link dir}/src and
+     * compiles them into {@link dir}/classes against the benchmark's own classpath
+     * @return the classes directory
+     */
+    static Path compileModelClasses(Path dir, int count, int columns) throws IOException {
+        Path src = dir.resolve("src");
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path pkg = Files.createDirectories(src.resolve(MODEL_PACKAGE.replace('.', '/')));
+
+        List<String> args = new ArrayList<>(Arrays.asList("-nowarn", "-proc:none", "-d", classes.toString(), "-cp",
+                System.getProperty("java.class.path")));
+        for (int i = 0; i < count; i++) {
+            Path file = pkg.resolve("BenchModel" + i + ".java");
+            try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                w.write(modelSource(i, columns));
+            }
+            args.add(file.toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new IllegalStateException("Benchmarks must run on a JDK; no system Java compiler found");
+        if (compiler.run(null, null, null, args.toArray(new String[args.size()])) != 0)
+            throw new IllegalStateException("Could not compile the generated model classes in " + src);
+        return classes;
+    }
+
+    private static String modelSource(int i, int columns) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(MODEL_PACKAGE).append(";\n\n");
+        sb.append("import com.datastax.driver.mapping.annotations.*;\n\n");
+        sb.append("@Table(name = \"").append(tableName(i)).append("\")\n");
+        sb.append("public class BenchModel").append(i).append(" {\n");
+        sb.append("    @PartitionKey private java.util.UUID id;\n");
+        sb.append("    @ClusteringColumn private java.util.Date created;\n");
+        for (int c = 0; c < columns; c++) {
+            sb.append("    private ").append(FIELD_TYPES[c % FIELD_TYPES.length]).append(" col").append(c)
+                    .append(";\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * The models {@link net.csthings.cassinate.ModelProcessor} would build for the classes of
+     * {@link #compileModelClasses}, without the reflection
+     */
+    static List<Model> models(int count, int columns) {
+        List<Model> models = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Model model = new Model();
+            model.setName(tableName(i));
+            Map<String, DataType> cols = columns(columns);
+            model.setColumns(new HashMap<>(cols));
+            model.getPartitionKeys().add("id");
+            model.getClusteringColumns().add("created");
+            model.getPrimaryKeys().addAll(Arrays.asList("id", "created"));
+            models.add(model);
+        }
+        return models;
+    }
+
+    /**
+     * A snapshot of {@link count} tables matching {@link #models}, except that every {@link driftEvery}th table
+     * is missing its last column and has an extra one, and every {@link missingEvery}th table does not exist.
+     * Pass 0 to disable either.
+     */
+    static SchemaSnapshot snapshot(String keyspace, int count, int columns, int driftEvery, int missingEvery) {
+        SchemaSnapshot.Builder builder = SchemaSnapshot.builder(keyspace);
+        for (int i = 0; i < count; i++) {
+            if (missingEvery > 0 && i % missingEvery == 0)
+                continue;
+            Map<String, DataType> cols = columns(columns);
+            if (driftEvery > 0 && i % driftEvery == 0) {
+                cols.remove("col" + (columns - 1));
+                cols.put("legacy", DataType.text());
+            }
+            builder.addTable(tableName(i), cols, Arrays.asList("id", "created"));
+        }
+        return builder.build();
+    }
+
+    private static Map<String, DataType> columns(int columns) {
+        Map<String, DataType> cols = new LinkedHashMap<>();
+        cols.put("id", DataType.timeuuid());
+        cols.put("created", DataType.timestamp());
+        for (int c = 0; c < columns; c++) {
+            cols.put("col" + c, COLUMN_TYPES[c % COLUMN_TYPES.length]);
+        }
+        return cols;
+    }
+
+    /**
+     * Writes a script of roughly {@link bytes} bytes: a few CREATE TABLEs followed by INSERTs carrying quoted
+     * strings, escaped quotes and comments, the way seed data files usually look
+     * @return the number of statements written
+     */
+    static long writeScript(Path file, long bytes) throws IOException {
+        long statements = 0;
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (int t = 0; t < 4; t++) {
+                String create = "CREATE TABLE IF NOT EXISTS seed_" + t
+                        + " (\nid int,\nname text,\nnote text,\nPRIMARY KEY (id)\n);\n";
+                w.write(create);
+                written += create.length();
+                statements++;
+            }
+            for (long i = 0; written < bytes; i++) {
+                String line = (i % 64 == 0 ? "-- batch " + i + "; keep going\n" : "")
+                        + "INSERT INTO seed_" + (i & 3) + " (id, name, note) VALUES (" + i + ", 'name " + i
+                        + "', 'it''s row " + i + "; /* not a comment */');\n";
+                w.write(line);
+                written += line.length();
+                statements++;
+            }
+        }
+        return statements;
+    }
+
+    static void deleteRecursively(Path dir) {
+        if (dir == null || !Files.exists(dir))
+            return;
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path d, IOException e) throws IOException {
+                    Files.delete(d);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate.bench;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.datastax.driver.mapping.annotations.Table;
+
+import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
+
+import net.csthings.cassinate.Model;
+import net.csthings.cassinate.ModelProcessor;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Startup cost of finding {@code @Table} classes and turning them into {@link Model}s. The classes are
+ * generated and compiled into a temporary directory at setup, and the scanner is pointed at that directory only so
+ * the benchmark's own classpath does not leak into the numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ModelScanBenchmark {
+    @Param({ "10", "100", "1000", "5000" })
+    public int models;
+
+    @Param({ "10" })
+    public int columns;
+
+    @Param({ "4" })
+    public int threads;
+
+    private Path dir;
+    private Path classes;
+    private URLClassLoader loader;
+    private List<String> classNames;
+    private List<Class<?>> loadedClasses;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("cassinate-bench-models");
+        classes = BenchFixtures.compileModelClasses(dir, models, columns);
+        loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader());
+
+        classNames = new ArrayList<>(models);
+        loadedClasses = new ArrayList<>(models);
+        for (int i = 0; i < models; i++) {
+            classNames.add(BenchFixtures.className(i));
+            loadedClasses.add(Class.forName(BenchFixtures.className(i), false, loader));
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        loader.close();
+        BenchFixtures.deleteRecursively(dir);
+    }
+
+    private FastClasspathScanner scanner() {
+        return new FastClasspathScanner(BenchFixtures.MODEL_PACKAGE).overrideClasspath(classes.toString())
+                .overrideClassLoaders(loader);
+    }
+
+    /**
+     * Classpath scan only, as done when there is no model index
+     */
+    @Benchmark
+    public List<String> scan() {
+        return scanner().scan().getNamesOfClassesWithAnnotation(Table.class);
+    }
+
+    /**
+     * Reflection only, one class at a time the way the scanner's match processor calls it
+     */
+    @Benchmark
+    public List<Model> processMatch() {
+        ModelProcessor mp = new ModelProcessor();
+        for (Class<?> clazz : loadedClasses) {
+            mp.processMatch(clazz);
+        }
+        return mp.getModels();
+    }
+
+    /**
+     * Reflection only, fanned out over {@link #threads} threads
+     */
+    @Benchmark
+    public List<Model> processMatches() throws InterruptedException {
+        ModelProcessor mp = new ModelProcessor();
+        mp.processMatches(classNames, loader, executor);
+        return mp.getModels();
+    }
+
+    /**
+     * Scan then process on {@link #threads} threads, the full cost {@link net.csthings.cassinate.Cassinate.Builder}
+     * pays at build time without a model index
+     */
+    @Benchmark
+    public List<Model> scanAndProcess() throws InterruptedException {
+        ModelProcessor mp = new ModelProcessor();
+        List<String> names = scanner().scan(executor, threads).getNamesOfClassesWithAnnotation(Table.class);
+        mp.processMatches(names, loader, executor);
+        return mp.getModels();
+    }
+}
@@ -0,0 +1,108 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.csthings.cassinate.MigrationOp;
+import net.csthings.cassinate.Model;
+import net.csthings.cassinate.SchemaDiff;
+import net.csthings.cassinate.SchemaSnapshot;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Cost of diffing models against an in-memory {@link SchemaSnapshot} and of generating the CQL for the
+ * result. No cluster is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SchemaDiffBenchmark {
+    private static final String KEYSPACE = "bench";
+
+    @Param({ "10", "100", "1000", "5000" })
+    public int models;
+
+    @Param({ "10", "50" })
+    public int columns;
+
+    private List<Model> modelList;
+    /** Matches every model, the common restart case */
+    private SchemaSnapshot upToDate;
+    /** One table in 10 drifted and one in 20 missing */
+    private SchemaSnapshot drifted;
+    private SchemaSnapshot empty;
+
+    @Setup
+    public void setup() {
+        modelList = BenchFixtures.models(models, columns);
+        upToDate = BenchFixtures.snapshot(KEYSPACE, models, columns, 0, 0);
+        drifted = BenchFixtures.snapshot(KEYSPACE, models, columns, 10, 20);
+        empty = SchemaSnapshot.builder(KEYSPACE).build();
+    }
+
+    @Benchmark
+    public List<MigrationOp> diffUpToDate() {
+        return SchemaDiff.diff(modelList, upToDate);
+    }
+
+    @Benchmark
+    public List<String> diffDrifted() {
+        return SchemaDiff.toCql(SchemaDiff.diff(modelList, drifted));
+    }
+
+    /**
+     * First start against an empty keyspace: every model becomes a CREATE TABLE
+     */
+    @Benchmark
+    public List<String> diffEmpty() {
+        return SchemaDiff.toCql(SchemaDiff.diff(modelList, empty));
+    }
+
+    /**
+     * CREATE TABLE generation alone, without the diff
+     */
+    @Benchmark
+    public void createTableCql(Blackhole bh) {
+        for (Model model : modelList) {
+            bh.consume(MigrationOp.createTable(model).toCql());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.csthings.cassinate.CassinateHelper;
+import net.csthings.cassinate.CqlScriptReader;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Throughput of splitting CQL scripts into statements. {@link #stream()} is what
+ * {@link CassinateHelper#executeFile} and the bulk loader pay; {@link #getQueries()} also holds every statement in
+ * memory, so the 1024MB case needs a heap of a few GB ({@code -jvmArgs -Xmx4g}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScriptReaderBenchmark {
+    @Param({ "1", "64", "1024" })
+    public int sizeMb;
+
+    private Path dir;
+    private Path script;
+    private long statements;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("cassinate-bench-script");
+        script = dir.resolve("seed.cql");
+        statements = BenchFixtures.writeScript(script, sizeMb * 1024L * 1024L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public long stream() throws IOException {
+        long count = 0;
+        try (CqlScriptReader reader = CqlScriptReader.open(script)) {
+            while (reader.readStatement() != null) {
+                count++;
+            }
+        }
+        if (count != statements)
+            throw new IllegalStateException("Expected " + statements + " statements but read " + count);
+        return count;
+    }
+
+    @Benchmark
+    public List<String> getQueries() throws IOException {
+        return CassinateHelper.getQueries(script.toString());
+    }
+}
@@ -0,0 +1,88 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Summary of a {@link BulkLoader} run
+ */
+public class BulkLoadReport {
+    private final long rows;
+    private final long batches;
+    private final long statements;
+    private final long failures;
+    private final long elapsedNanos;
+
+    BulkLoadReport(long rows, long batches, long statements, long failures, long elapsedNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.statements = statements;
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of INSERTs sent as bound prepared statements
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of requests the rows were grouped into
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return number of statements that couldn't be prepared and were executed as is
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return number of failed requests
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkLoadReport [rows=%d, batches=%d, statements=%d, failures=%d, elapsedMs=%d, "
+                + "rowsPerSecond=%.1f]", rows, batches, statements, failures, getElapsed(TimeUnit.MILLISECONDS),
+                getRowsPerSecond());
+    }
+}
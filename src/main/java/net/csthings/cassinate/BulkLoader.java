@@ -0,0 +1,420 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Loads seed data scripts made of plain {@code INSERT ... VALUES (...)} statements.
+ * <p/>
+ * Each distinct {@code INSERT INTO table (columns)} shape is prepared once and its literals are bound to it. Rows are
+ * grouped into unlogged batches by partition key and sent with at most {@link #maxInFlight} requests in flight.
+ * Any other statement (or an INSERT with {@code USING}, {@code IF} or function calls) waits for the rows before it
+ * and is executed as is.
+ */
+public class BulkLoader {
+    public static final Logger LOG = LoggerFactory.getLogger(BulkLoader.class);
+    public static final int DEFAULT_MAX_IN_FLIGHT = 128;
+    public static final int DEFAULT_BATCH_SIZE = 20;
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final Pattern INSERT = Pattern.compile(
+            "^INSERT\\s+INTO\\s+([\\w.\"]+)\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    private final Session session;
+    private final int maxInFlight;
+    private final int batchSize;
+    private final int maxBuffered;
+    private final ProtocolVersion protocolVersion;
+    private final CodecRegistry codecRegistry;
+
+    private final Map<String, Shape> shapes = new HashMap<>();
+    private final Map<List<Object>, List<BoundStatement>> pending = new LinkedHashMap<>();
+    private final Semaphore inFlight;
+    private final AtomicLong failures = new AtomicLong();
+    private int buffered;
+    private long rows;
+    private long batches;
+    private long statements;
+
+    /**
+     * @param session session to load into, connected to the keyspace of the script
+     * @param maxInFlight maximum number of requests in flight
+     * @param batchSize maximum number of rows per batch
+     */
+    public BulkLoader(Session session, int maxInFlight, int batchSize) {
+        if (maxInFlight < 1 || batchSize < 1)
+            throw new IllegalArgumentException("maxInFlight and batchSize must be at least 1");
+        this.session = session;
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+        this.maxBuffered = batchSize * maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.protocolVersion = session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+        this.codecRegistry = session.getCluster().getConfiguration().getCodecRegistry();
+    }
+
+    /**
+     * Loads every statement of {@link script}
+     * @param script cql script
+     * @return the report
+     * @throws IOException
+     */
+    public BulkLoadReport load(Path script) throws IOException {
+        LOG.debug("Bulk loading file: {}", script);
+        long start = System.nanoTime();
+        long lastProgress = start;
+        try (CqlScriptReader reader = CqlScriptReader.open(script)) {
+            String query;
+            while ((query = reader.readStatement()) != null) {
+                if (!addInsert(query)) {
+                    flushAll();
+                    awaitInFlight();
+                    executeRaw(query);
+                }
+                long now = System.nanoTime();
+                if (now - lastProgress > PROGRESS_INTERVAL_NANOS) {
+                    LOG.info("Bulk load progress: {} rows, {} rows/s", rows, (long) (rows * 1e9 / (now - start)));
+                    lastProgress = now;
+                }
+            }
+            flushAll();
+            awaitInFlight();
+        }
+        BulkLoadReport report = new BulkLoadReport(rows, batches, statements, failures.get(),
+                System.nanoTime() - start);
+        LOG.info("Bulk loaded {}: {}", script, report);
+        return report;
+    }
+
+    /**
+     * Loads the rows of a {@link TableDataFile} into the table named in its header. Values are bound as the
+     * serialized bytes they were exported as, so the columns must still have the exported types.
+     * @param file
+     * @return the report
+     * @throws IOException
+     * @throws IllegalStateException if the table is missing a column of {@link file} or its type changed
+     */
+    public BulkLoadReport loadSnapshot(Path file) throws IOException {
+        LOG.debug("Bulk loading table data file: {}", file);
+        long start = System.nanoTime();
+        long lastProgress = start;
+        try (TableDataFile.Reader reader = new TableDataFile.Reader(file)) {
+            String table = Metadata.quote(reader.getTable());
+            checkColumns(reader);
+            List<String> columns = new ArrayList<>();
+            for (String column : reader.getColumns()) {
+                columns.add(Metadata.quote(column));
+            }
+            String key = table + '(' + String.join(",", columns) + ')';
+            Shape shape = prepare(table, String.join(", ", columns));
+            if (null == shape.statement)
+                throw new IllegalStateException("Could not prepare the insert of " + file + " into " + table);
+            // Unset values need protocol v4; before that a null is written as a tombstone
+            boolean unset = protocolVersion.compareTo(ProtocolVersion.V4) >= 0;
+
+            ByteBuffer[][] group;
+            while ((group = reader.nextGroup()) != null) {
+                for (ByteBuffer[] values : group) {
+                    BoundStatement bound = shape.statement.bind();
+                    for (int i = 0; i < values.length; i++) {
+                        if (null != values[i] || !unset)
+                            bound.setBytesUnsafe(i, values[i]);
+                    }
+                    buffer(key, bound);
+                }
+                long now = System.nanoTime();
+                if (now - lastProgress > PROGRESS_INTERVAL_NANOS) {
+                    LOG.info("Bulk load progress: {} rows, {} rows/s", rows, (long) (rows * 1e9 / (now - start)));
+                    lastProgress = now;
+                }
+            }
+            flushAll();
+            awaitInFlight();
+        }
+        BulkLoadReport report = new BulkLoadReport(rows, batches, statements, failures.get(),
+                System.nanoTime() - start);
+        LOG.info("Bulk loaded {}: {}", file, report);
+        return report;
+    }
+
+    private void checkColumns(TableDataFile.Reader reader) {
+        String keyspaceName = session.getLoggedKeyspace();
+        KeyspaceMetadata keyspace = null == keyspaceName ? null
+                : session.getCluster().getMetadata().getKeyspace(Metadata.quote(keyspaceName));
+        TableMetadata table = null == keyspace ? null : keyspace.getTable(Metadata.quote(reader.getTable()));
+        if (null == table)
+            throw new IllegalStateException("No table " + keyspaceName + "." + reader.getTable());
+        for (int i = 0; i < reader.getColumns().size(); i++) {
+            ColumnMetadata column = table.getColumn(Metadata.quote(reader.getColumns().get(i)));
+            if (null == column || !TypeResolver.sameType(column.getType(), CqlTypes.parse(reader.getTypes().get(i))))
+                throw new IllegalStateException(String.format("Column %s %s of %s doesn't match %s.%s",
+                        reader.getColumns().get(i), reader.getTypes().get(i), reader.getTable(), keyspaceName,
+                        table.getName()));
+        }
+    }
+
+    /**
+     * Binds {@link query} to the prepared statement of its shape and buffers it
+     * @param query
+     * @return false if {@link query} is not a plain INSERT that can be bound
+     */
+    private boolean addInsert(String query) {
+        Matcher matcher = INSERT.matcher(query);
+        if (!matcher.find())
+            return false;
+        List<String> literals = splitLiterals(query, matcher.end());
+        if (null == literals)
+            return false;
+
+        String key = matcher.group(1) + '(' + matcher.group(2).replaceAll("\\s", "") + ')';
+        Shape shape = shapes.get(key);
+        if (null == shape) {
+            shape = prepare(matcher.group(1), matcher.group(2));
+            shapes.put(key, shape);
+        }
+        if (null == shape.statement || shape.codecs.size() != literals.size())
+            return false;
+
+        BoundStatement bound = shape.statement.bind();
+        try {
+            for (int i = 0; i < literals.size(); i++) {
+                TypeCodec<Object> codec = shape.codecs.get(i);
+                bound.set(i, codec.parse(literals.get(i)), codec);
+            }
+        }
+        catch (InvalidTypeException | IllegalArgumentException e) {
+            // Function calls such as now() can't be parsed into values
+            LOG.debug("Could not bind literals, executing as is: {}", query, e);
+            return false;
+        }
+
+        buffer(key, bound);
+        return true;
+    }
+
+    /**
+     * Buffers {@link bound} with the rows of the same partition, sending the batch once full
+     * @param shape key of the statement's shape
+     * @param bound
+     */
+    private void buffer(String shape, BoundStatement bound) {
+        ByteBuffer routingKey = bound.getRoutingKey(protocolVersion, codecRegistry);
+        List<Object> group = Arrays.asList(shape, routingKey);
+        List<BoundStatement> batch = pending.computeIfAbsent(group, k -> new ArrayList<>(batchSize));
+        batch.add(bound);
+        rows++;
+        buffered++;
+        if (null == routingKey || batch.size() >= batchSize) {
+            pending.remove(group);
+            send(batch);
+        }
+        if (buffered >= maxBuffered)
+            flushAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Shape prepare(String table, String columns) {
+        int count = columns.split(",").length;
+        StringBuilder cql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columns)
+                .append(") VALUES (");
+        for (int i = 0; i < count; i++) {
+            cql.append(i == 0 ? "?" : ", ?");
+        }
+        cql.append(')');
+        try {
+            PreparedStatement statement = session.prepare(cql.toString());
+            List<TypeCodec<Object>> codecs = new ArrayList<>(statement.getVariables().size());
+            for (int i = 0; i < statement.getVariables().size(); i++) {
+                codecs.add(codecRegistry.codecFor(statement.getVariables().getType(i)));
+            }
+            LOG.debug("Prepared bulk insert: {}", cql);
+            return new Shape(statement, codecs);
+        }
+        catch (DriverException e) {
+            LOG.warn("Could not prepare {}, executing its rows as is", cql, e);
+            return new Shape(null, null);
+        }
+    }
+
+    private void flushAll() {
+        for (List<BoundStatement> batch : pending.values()) {
+            send(batch);
+        }
+        pending.clear();
+    }
+
+    private void send(List<BoundStatement> batch) {
+        buffered -= batch.size();
+        Statement statement;
+        if (batch.size() == 1) {
+            statement = batch.get(0);
+        }
+        else {
+            BatchStatement unlogged = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            unlogged.addAll(batch);
+            statement = unlogged;
+        }
+        batches++;
+
+        inFlight.acquireUninterruptibly();
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(statement);
+        }
+        catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet result) {
+                inFlight.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                inFlight.release();
+                failures.incrementAndGet();
+                LOG.error("Could not load batch of {} rows", batch.size(), t);
+            }
+        });
+    }
+
+    private void executeRaw(String query) {
+        statements++;
+        try {
+            LOG.debug("Executing query:\n===\n{}\n===", query);
+            session.execute(query);
+        }
+        catch (DriverException e) {
+            failures.incrementAndGet();
+            LOG.error("Could not execute query", e);
+        }
+    }
+
+    private void awaitInFlight() {
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    /**
+     * Splits the literals of a {@code VALUES (...)} list starting at {@link start}
+     * @param query
+     * @param start index just after the opening parenthesis
+     * @return the literals or null if anything follows the list
+     */
+    static List<String> splitLiterals(String query, int start) {
+        List<String> literals = new ArrayList<>();
+        int depth = 0;
+        int from = start;
+        boolean quoted = false;
+        for (int i = start; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (quoted) {
+                if (c == '\'') {
+                    if (i + 1 < query.length() && query.charAt(i + 1) == '\'')
+                        i++;
+                    else
+                        quoted = false;
+                }
+                continue;
+            }
+            switch (c) {
+            case '\'':
+                quoted = true;
+                break;
+            case '(':
+            case '[':
+            case '{':
+                depth++;
+                break;
+            case ']':
+            case '}':
+                depth--;
+                break;
+            case ')':
+                if (depth-- > 0)
+                    break;
+                literals.add(query.substring(from, i).trim());
+                // USING, IF NOT EXISTS etc. can't be batched as plain rows
+                return query.substring(i + 1).trim().isEmpty() ? literals : null;
+            case ',':
+                if (depth == 0) {
+                    literals.add(query.substring(from, i).trim());
+                    from = i + 1;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static class Shape {
+        private final PreparedStatement statement;
+        private final List<TypeCodec<Object>> codecs;
+
+        Shape(PreparedStatement statement, List<TypeCodec<Object>> codecs) {
+            this.statement = statement;
+            this.codecs = codecs;
+        }
+    }
+}
@@ -20,25 +20,42 @@ SOFTWARE.
  */
 package net.csthings.cassinate;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.driver.core.Cluster;
-import com.datastax.driver.core.ColumnMetadata;
 import com.datastax.driver.core.DataType;
-import com.datastax.driver.core.DataType.CollectionType;
-import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.PoolingOptions;
 import com.datastax.driver.core.Session;
-import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.exceptions.AlreadyExistsException;
 
 import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
+import io.github.lukehutch.fastclasspathscanner.scanner.ScanResult;
 
 /**
  * Created on: Jan 2, 2017
@@ -51,21 +68,401 @@ import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
  *   Cassinate cassinate = Cassinate.builder().contactPoint("192.168.0.1").ignoreAnnotation(JsonIgnore.class).build();
  * </pre>
  */
-public class Cassinate {
+public class Cassinate implements Closeable {
     public static final Logger LOG = LoggerFactory.getLogger(Cassinate.class);
 
     private String keyspaceName;
     private CassinateHelper helper;
+    private ScanReport scanReport;
+    private PreparedStatementRegistry statements;
+    private CassinateListener listener;
+    private MigrationLease migrationLease;
+    private volatile List<Model> models;
+    private final ModelProcessor mp;
+    private final List<ModelWatcher> watchers = new CopyOnWriteArrayList<>();
+    private FingerprintStore fingerprintStore;
+    private boolean warmUpStatements;
+    private boolean lazyValidation;
+    private boolean verifyOnly;
+    private boolean backgroundBuilds;
+    private boolean primaryKeyMigrations;
+    private boolean dropUndeclaredIndexes;
+    private boolean advisePartitions;
+    private PartitionAdvisor partitionAdvisor;
+    private volatile PartitionReport partitionReport;
+    private final AtomicReference<CompletableFuture<Void>> builds = new AtomicReference<>(
+            CompletableFuture.completedFuture(null));
+    private final Map<String, Model> modelsByClass = new ConcurrentHashMap<>();
+    private final Map<String, Model> modelsByTable = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> validations = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> tableGates = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
 
-    private Cassinate(String keyspaceName, ModelProcessor mp, CassinateHelper helper) {
-        this.keyspaceName = keyspaceName;
+    private Cassinate(Builder builder, CassinateHelper helper, List<Model> models, ScanReport scanReport,
+            FingerprintStore fingerprintStore, MigrationLease migrationLease) {
+        this.keyspaceName = builder.keyspaceName;
         this.helper = helper;
-        FastClasspathScanner scanner = new FastClasspathScanner();
-        FastClasspathScanner result = scanner.matchClassesWithAnnotation(ModelProcessor.annotation, mp);
-        result.scan();
+        this.migrationLease = migrationLease;
+        this.scanReport = scanReport;
+        this.listener = helper.getListener();
+        this.statements = new PreparedStatementRegistry(helper.session, keyspaceName, builder.statementCacheSize);
+        this.models = models;
+        this.mp = builder.mp;
+        this.fingerprintStore = fingerprintStore;
+        this.warmUpStatements = builder.warmUpStatements;
+        this.lazyValidation = builder.lazyValidation;
+        this.verifyOnly = builder.verifyOnly;
+        this.backgroundBuilds = builder.backgroundBuilds;
+        this.primaryKeyMigrations = builder.primaryKeyMigrations;
+        this.dropUndeclaredIndexes = builder.dropUndeclaredIndexes;
+        this.advisePartitions = builder.advisePartitions;
+        PartitionStatsSource stats = builder.partitionStats;
+        if (null == stats && helper.isConnected())
+            stats = new SystemStatsSource(helper.session);
+        this.partitionAdvisor = new PartitionAdvisor(stats, builder.partitionLimits);
+        for (Model model : models) {
+            String table = SchemaSnapshot.handleId(model.getName());
+            tableGates.put(table, new CompletableFuture<>());
+            modelsByTable.put(table, model);
+            if (null != model.getClassName())
+                modelsByClass.put(model.getClassName(), model);
+            statements.register(model);
+        }
+    }
+
+    /**
+     * Brings the keyspace in line with the models, opening each table's gate as soon as that table is done
+     * @throws RuntimeException if a schema change failed. Every gate still closed fails with it.
+     */
+    private void sync() {
+        try {
+            if (lazyValidation) {
+                // Tables are validated by ensure(), unless the fingerprint shows they all already are
+                if (null != fingerprintStore && fingerprintMatches(SchemaFingerprint.hash(keyspaceName, models))) {
+                    LOG.info("Schema fingerprint unchanged, all {} models are valid", models.size());
+                    tableGates.values().forEach(gate -> gate.complete(null));
+                }
+                ready.complete(null);
+                adviseOnBoot();
+                return;
+            }
+            syncModels(models, fingerprintStore);
+            if (warmUpStatements && helper.isConnected())
+                statements.warmUp(models).join();
+            tableGates.values().forEach(gate -> gate.complete(null));
+            ready.complete(null);
+            adviseOnBoot();
+        }
+        catch (RuntimeException e) {
+            tableGates.values().forEach(gate -> gate.completeExceptionally(e));
+            ready.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the {@link PartitionAdvisor} if {@link Builder#advisePartitions()} is on. Its failure only gets logged.
+     */
+    private void adviseOnBoot() {
+        if (!advisePartitions)
+            return;
+        try {
+            advisePartitions();
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Could not check the partition sizes of keyspace {}", keyspaceName, e);
+        }
+    }
 
-        List<Model> models = mp.getModels();
+    private void openGate(String table) {
+        CompletableFuture<Void> gate = tableGates.get(SchemaSnapshot.handleId(table));
+        if (null != gate)
+            gate.complete(null);
+    }
+
+    private void failGate(String table, Throwable error) {
+        if (lazyValidation)
+            return; // The next ensure() tries again
+        CompletableFuture<Void> gate = tableGates.get(SchemaSnapshot.handleId(table));
+        if (null != gate)
+            gate.completeExceptionally(error);
+    }
+
+    /**
+     * Validates {@link models}, unless {@link fingerprintStore} shows they were already applied
+     * @param models
+     * @param fingerprintStore store of the last applied fingerprint or null to always validate
+     */
+    private void syncModels(List<Model> models, FingerprintStore fingerprintStore) {
+        if (null == fingerprintStore) {
+            validateModels(models);
+            return;
+        }
+
+        String modelHash = SchemaFingerprint.hash(keyspaceName, models);
+        if (fingerprintMatches(modelHash)) {
+            LOG.info("Schema fingerprint unchanged, skipping validation of {} models", models.size());
+            return;
+        }
         validateModels(models);
+        saveFingerprint(modelHash);
+    }
+
+    /**
+     * Saves the fingerprint once the background builds are done, so a failed build is retried on the next start
+     * @param modelHash
+     */
+    private void saveFingerprint(String modelHash) {
+        builds.get().thenRun(() -> fingerprintStore.save(keyspaceName,
+                new SchemaFingerprint(modelHash, helper.getSchemaVersion())));
+    }
+
+    private boolean fingerprintMatches(String modelHash) {
+        SchemaFingerprint current = new SchemaFingerprint(modelHash, helper.getSchemaVersion());
+        return current.equals(fingerprintStore.load(keyspaceName));
+    }
+
+    /**
+     * Makes sure the table of {@link modelClass} matches its model, validating it on the calling thread the first
+     * time. Without {@link Builder#lazyValidation()} this waits for the table's startup sync.
+     * @param modelClass a scanned {@code @Table} class
+     * @throws IllegalArgumentException if {@link modelClass} is not a scanned model
+     * @throws RuntimeException if the table could not be migrated
+     */
+    public void ensure(Class<?> modelClass) {
+        join(ensure(modelFor(modelClass), null));
+    }
+
+    /**
+     * Like {@link #ensure(Class)}, for the model of {@link table}
+     * @param table
+     */
+    public void ensure(String table) {
+        join(ensure(modelFor(table), null));
+    }
+
+    /**
+     * Like {@link #ensure(Class)}, validating on {@link ForkJoinPool#commonPool()}
+     * @param modelClass
+     * @return a future completing once the table matches its model
+     */
+    public CompletableFuture<Void> ensureAsync(Class<?> modelClass) {
+        return ensure(modelFor(modelClass), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #ensureAsync(Class)}, for the model of {@link table}
+     * @param table
+     * @return a future completing once the table matches its model
+     */
+    public CompletableFuture<Void> ensureAsync(String table) {
+        return ensure(modelFor(table), ForkJoinPool.commonPool());
+    }
+
+    private Model modelFor(Class<?> modelClass) {
+        Model model = modelsByClass.get(modelClass.getName());
+        if (null == model)
+            throw new IllegalArgumentException("Not a model class: " + modelClass.getName());
+        return model;
+    }
+
+    private Model modelFor(String table) {
+        Model model = modelsByTable.get(SchemaSnapshot.handleId(table));
+        if (null == model)
+            throw new IllegalArgumentException("No model for table " + table);
+        return model;
+    }
+
+    /**
+     * Validates {@link model} once. Concurrent calls for the same table share the first call's validation; a
+     * failed validation is forgotten so the next call tries again.
+     * @param model
+     * @param executor executor to validate on or null for the calling thread
+     * @return a future completing once the table matches its model
+     */
+    private CompletableFuture<Void> ensure(Model model, Executor executor) {
+        String table = SchemaSnapshot.handleId(model.getName());
+        CompletableFuture<Void> gate = tableGates.get(table);
+        if (!lazyValidation || gate.isDone())
+            return gate;
+
+        CompletableFuture<Void> validation = new CompletableFuture<>();
+        CompletableFuture<Void> running = validations.putIfAbsent(table, validation);
+        if (null != running)
+            return running;
+
+        Runnable validate = () -> {
+            try {
+                validateModels(Collections.singletonList(model));
+                if (warmUpStatements && helper.isConnected())
+                    statements.warmUp(Collections.singletonList(model)).join();
+                gate.complete(null);
+                validation.complete(null);
+            }
+            catch (RuntimeException e) {
+                validations.remove(table, validation);
+                validation.completeExceptionally(e);
+            }
+        };
+        if (null == executor)
+            validate.run();
+        else
+            executor.execute(validate);
+        return validation;
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Watches {@link classDirectories} for recompiled {@code @Table} classes and syncs only the tables whose models
+     * changed. Meant for development and long running workers that reload model classes; the watcher is closed with
+     * this instance.
+     * @param classDirectories class output directories, such as {@code build/classes/main}
+     * @return the running watcher
+     * @throws IOException if a directory could not be watched
+     */
+    public ModelWatcher watch(Path... classDirectories) throws IOException {
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        if (null == parent)
+            parent = Cassinate.class.getClassLoader();
+        ModelWatcher watcher = new ModelWatcher(this, mp, Arrays.asList(classDirectories), parent);
+        watchers.add(watcher);
+        watcher.start();
+        return watcher;
+    }
+
+    /**
+     * Replaces the models of {@link changed} and brings only their tables in line with them
+     * @param changed reprocessed models
+     */
+    synchronized void resync(List<Model> changed) {
+        List<Model> updated = new ArrayList<>(models);
+        for (Model model : changed) {
+            String table = SchemaSnapshot.handleId(model.getName());
+            Model previous = modelsByTable.put(table, model);
+            if (null != previous)
+                updated.set(updated.indexOf(previous), model);
+            else
+                updated.add(model);
+            if (null != model.getClassName())
+                modelsByClass.put(model.getClassName(), model);
+            // A gate that failed stays failed; the resync gets a fresh one
+            tableGates.compute(table, (k, gate) -> null == gate || gate.isCompletedExceptionally()
+                    ? new CompletableFuture<>() : gate);
+            validations.remove(table);
+            statements.register(model);
+        }
+        models = updated;
+
+        validateModels(changed);
+        for (Model model : changed) {
+            openGate(model.getName());
+        }
+        if (null != fingerprintStore)
+            saveFingerprint(SchemaFingerprint.hash(keyspaceName, updated));
+    }
+
+    /**
+     * Completes once every model is in sync and, with {@link Builder#warmUpStatements()}, its statements are
+     * prepared. Already complete for instances from {@link Builder#build()}. With {@link Builder#lazyValidation()}
+     * it completes without validating anything; use {@link #ensure} instead.
+     * @return the future, failed if the schema could not be synced
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    /**
+     * Completes once {@link table} matches its model, which may be well before {@link #whenReady()} when other
+     * tables have more changes to apply. Use it to start serving the requests that only need some tables.
+     * <p/>
+     * It completes on the thread that synced the table, or on {@link ForkJoinPool#commonPool()} for statements
+     * that ran asynchronously, so the stages chained with {@code thenRun} run there too. Chain the work that takes
+     * long with {@code thenRunAsync} and an executor of its own.
+     * @param table name of a model's table
+     * @return the future, failed if the table could not be synced
+     * @throws IllegalArgumentException if no model has that table
+     */
+    public CompletableFuture<Void> whenTableReady(String table) {
+        CompletableFuture<Void> gate = tableGates.get(SchemaSnapshot.handleId(table));
+        if (null == gate)
+            throw new IllegalArgumentException("No model for table " + table);
+        return gate;
+    }
+
+    /**
+     * Completes once Cassandra has accepted every index and materialized view started by
+     * {@link Builder#buildIndexesInBackground()}. Already complete without it, or when nothing needed building.
+     * <p/>
+     * Cassandra keeps building the index or view data after accepting the statement; queries using them may miss
+     * rows until it is done.
+     * @return the future, failed if an index or view could not be created
+     */
+    public CompletableFuture<Void> whenIndexesBuilt() {
+        return builds.get();
+    }
+
+    /**
+     * Prepared statements for the models
+     * @return the registry
+     */
+    public PreparedStatementRegistry getStatements() {
+        return statements;
+    }
+
+    /**
+     * Timing breakdown of how the models were found
+     * @return the report
+     */
+    public ScanReport getScanReport() {
+        return scanReport;
+    }
+
+    /**
+     * Checks the row width of every model, and the sizes of their partitions when connected or given a
+     * {@link Builder#usePartitionStatsSource statistics source}
+     * @return the report, also available from {@link #getPartitionReport()}
+     */
+    public PartitionReport advisePartitions() {
+        PartitionReport report = partitionAdvisor.advise(keyspaceName, models);
+        partitionReport = report;
+        return report;
+    }
+
+    /**
+     * The last report of {@link #advisePartitions()}, run at startup by {@link Builder#advisePartitions()}
+     * @return the report or null if it hasn't run
+     */
+    public PartitionReport getPartitionReport() {
+        return partitionReport;
+    }
+
+    /**
+     * The helper Cassinate runs its queries with
+     * @return the helper
+     */
+    public CassinateHelper getHelper() {
+        return helper;
+    }
+
+    /**
+     * Closes the cached keyspace sessions, and the {@link Cluster} if Cassinate built it
+     */
+    @Override
+    public void close() {
+        for (ModelWatcher watcher : watchers) {
+            watcher.close();
+        }
+        helper.close();
     }
 
     /**
@@ -77,6 +474,33 @@ public class Cassinate {
         private Cluster cluster;
         private Session session;
         private List<String> contactPoints = new ArrayList<>();
+        private boolean useModelIndex = true;
+        private String[] scanPackages = new String[0];
+        private int scanThreads = 1;
+        private int ddlConcurrency = DdlExecutor.DEFAULT_CONCURRENCY;
+        private int ddlCheckpointInterval;
+        private FingerprintStore fingerprintStore;
+        private boolean fingerprintTable;
+        private boolean warmUpStatements;
+        private int statementCacheSize = PreparedStatementRegistry.DEFAULT_CACHE_SIZE;
+        private PoolingOptions poolingOptions = new PoolingOptions();
+        private List<CassinateListener> listeners = new ArrayList<>();
+        private boolean coordinateMigrations;
+        private LeaseStore leaseStore;
+        private int leaseTtlSeconds = MigrationLease.DEFAULT_TTL_SECONDS;
+        private long leaseWaitTimeoutSeconds = MigrationLease.DEFAULT_WAIT_TIMEOUT_SECONDS;
+        private boolean lazyValidation;
+        private Path plan;
+        private boolean verifyOnly;
+        private SchemaBackend schemaBackend;
+        private boolean dryRun;
+        private Path[] watchDirectories = new Path[0];
+        private boolean backgroundBuilds;
+        private boolean primaryKeyMigrations;
+        private boolean dropUndeclaredIndexes;
+        private boolean advisePartitions;
+        private PartitionLimits partitionLimits = new PartitionLimits();
+        private PartitionStatsSource partitionStats;
 
         /**
          * Sets the keyspace for Cassandra to connect to
@@ -162,22 +586,586 @@ public class Cassinate {
             return this;
         }
 
+        /**
+         * Sets the rule for Cassinate to always scan the classpath, even when a {@link ModelIndex} is present
+         * @return the updated {@link Builder}
+         */
+        public Builder ignoreModelIndex() {
+            this.useModelIndex = false;
+            return this;
+        }
+
+        /**
+         * Limits the classpath scan to {@link packages} and their subpackages instead of every jar on the classpath
+         * @param packages package names, e.g. {@code com.example.model}
+         * @return the updated {@link Builder}
+         */
+        public Builder scanPackages(String... packages) {
+            this.scanPackages = packages.clone();
+            return this;
+        }
+
+        /**
+         * Sets the number of threads used to scan the classpath and build the {@link Model}s
+         * @param threads number of threads, 1 to scan on the calling thread
+         * @return the updated {@link Builder}
+         */
+        public Builder scanThreads(int threads) {
+            if (threads < 1)
+                throw new IllegalArgumentException("threads must be at least 1");
+            this.scanThreads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of tables whose DDL runs at the same time
+         * @param concurrency number of tables, 1 to run the DDL one statement at a time
+         * @return the updated {@link Builder}
+         */
+        public Builder ddlConcurrency(int concurrency) {
+            if (concurrency < 1)
+                throw new IllegalArgumentException("concurrency must be at least 1");
+            this.ddlConcurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Sets how many DDL statements run between schema agreement checks. Agreement is always checked once all
+         * statements have run.
+         * @param statements number of statements, 0 to only check at the end
+         * @return the updated {@link Builder}
+         */
+        public Builder schemaAgreementCheckpoint(int statements) {
+            this.ddlCheckpointInterval = statements;
+            return this;
+        }
+
+        /**
+         * Remembers the fingerprint of the applied schema in {@link file}. Validation is skipped while neither the
+         * models nor the keyspace schema version have changed.
+         * <p/>
+         * Overridden by ({@link #cacheSchemaFingerprintInTable}, {@link #useFingerprintStore})
+         * @param file local file to keep the fingerprint in
+         * @return the updated {@link Builder}
+         */
+        public Builder cacheSchemaFingerprint(File file) {
+            return useFingerprintStore(new FileFingerprintStore(file));
+        }
+
+        /**
+         * Like {@link #cacheSchemaFingerprint}, but keeps the fingerprint in the
+         * {@value TableFingerprintStore#TABLE} table of the keyspace
+         * @return the updated {@link Builder}
+         */
+        public Builder cacheSchemaFingerprintInTable() {
+            this.fingerprintStore = null;
+            this.fingerprintTable = true;
+            return this;
+        }
+
+        /**
+         * Sets the {@link FingerprintStore} used to skip validation when nothing changed
+         * @param store
+         * @return the updated {@link Builder}
+         */
+        public Builder useFingerprintStore(FingerprintStore store) {
+            this.fingerprintStore = store;
+            this.fingerprintTable = false;
+            return this;
+        }
+
+        /**
+         * Prepares the {@link PreparedStatementRegistry.Operation} statements of every model while building
+         * @return the updated {@link Builder}
+         */
+        public Builder warmUpStatements() {
+            this.warmUpStatements = true;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of ad-hoc statements kept by {@link PreparedStatementRegistry#prepare}
+         * @param size
+         * @return the updated {@link Builder}
+         */
+        public Builder statementCacheSize(int size) {
+            this.statementCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the number of connections Cassinate opens to each host.
+         * <p/>
+         * Only applies when Cassinate builds the {@link Cluster} ({@link #addContactPoint})
+         * @param core connections kept open
+         * @param max connections opened under load
+         * @return the updated {@link Builder}
+         */
+        public Builder connectionsPerHost(int core, int max) {
+            poolingOptions.setConnectionsPerHost(HostDistance.LOCAL, core, max);
+            poolingOptions.setConnectionsPerHost(HostDistance.REMOTE, core, max);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight on each connection.
+         * <p/>
+         * Only applies when Cassinate builds the {@link Cluster} ({@link #addContactPoint})
+         * @param max
+         * @return the updated {@link Builder}
+         */
+        public Builder maxRequestsPerConnection(int max) {
+            poolingOptions.setMaxRequestsPerConnection(HostDistance.LOCAL, max);
+            poolingOptions.setMaxRequestsPerConnection(HostDistance.REMOTE, max);
+            return this;
+        }
+
+        /**
+         * Sets the {@link PoolingOptions} of the {@link Cluster} Cassinate builds.
+         * <p/>
+         * Overrides ({@link #connectionsPerHost}, {@link #maxRequestsPerConnection})
+         * @param poolingOptions
+         * @return the updated {@link Builder}
+         */
+        public Builder usePoolingOptions(PoolingOptions poolingOptions) {
+            this.poolingOptions = poolingOptions;
+            return this;
+        }
+
+        /**
+         * Adds a {@link CassinateListener} notified of scan, diff and DDL timings
+         * @param listener
+         * @return the updated {@link Builder}
+         */
+        public Builder addListener(CassinateListener listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Reads the schema from and sends DDL to {@link backend} instead of connecting to a cluster. Statements are
+         * not prepared, and {@link #cacheSchemaFingerprintInTable} and {@link #coordinateMigrations()} need a
+         * {@link #useFingerprintStore} or {@link #useLeaseStore} of their own.
+         * <p/>
+         * Overrides ({@link #addContactPoint}, {@link #useCluster}, {@link #useSession})
+         * @param backend e.g. an {@link InMemorySchemaBackend} in a unit test
+         * @return the updated {@link Builder}
+         */
+        public Builder useSchemaBackend(SchemaBackend backend) {
+            this.schemaBackend = backend;
+            return this;
+        }
+
+        /**
+         * Runs the whole build against an empty {@link InMemorySchemaBackend} and logs the DDL it would apply,
+         * without connecting to a cluster. The DDL is also available from
+         * {@code ((InMemorySchemaBackend) cassinate.getHelper().getBackend()).getExecutedStatements()}.
+         * <p/>
+         * Overrides ({@link #useSchemaBackend})
+         * @return the updated {@link Builder}
+         */
+        public Builder dryRun() {
+            this.schemaBackend = new InMemorySchemaBackend();
+            this.dryRun = true;
+            return this;
+        }
+
+        /**
+         * Keeps watching {@link classDirectories} after the build and syncs the tables of recompiled
+         * {@code @Table} classes. See {@link Cassinate#watch}.
+         * @param classDirectories class output directories, such as {@code build/classes/main}
+         * @return the updated {@link Builder}
+         */
+        public Builder watchModels(Path... classDirectories) {
+            this.watchDirectories = classDirectories;
+            return this;
+        }
+
+        /**
+         * Takes the models from a {@link MigrationPlan} written by {@link MigrationPlanner} instead of the model
+         * index or a classpath scan. No model class is loaded. The models are still diffed against the keyspace and
+         * any change is applied.
+         * <p/>
+         * Sets the keyspace to the plan's if {@link #useKeyspace} wasn't called
+         * @param plan plan file
+         * @return the updated {@link Builder}
+         */
+        public Builder usePlan(Path plan) {
+            this.plan = plan;
+            this.verifyOnly = false;
+            return this;
+        }
+
+        /**
+         * Like {@link #usePlan}, but only checks that the keyspace matches the plan. Building fails, listing the
+         * missing changes, if it doesn't.
+         * @param plan plan file
+         * @return the updated {@link Builder}
+         */
+        public Builder verifyPlan(Path plan) {
+            this.plan = plan;
+            this.verifyOnly = true;
+            return this;
+        }
+
+        /**
+         * Validates each table the first time {@link Cassinate#ensure} is called for it instead of validating every
+         * model while building. Startup then only pays for the tables that are used.
+         * <p/>
+         * With a fingerprint store ({@link #cacheSchemaFingerprint}), an unchanged fingerprint still marks every
+         * table as valid at once. The fingerprint is not saved in this mode.
+         * @return the updated {@link Builder}
+         */
+        public Builder lazyValidation() {
+            this.lazyValidation = true;
+            return this;
+        }
+
+        /**
+         * Creates the {@link SecondaryIndex}es and {@link MaterializedView}s without waiting for them, once the
+         * table changes are applied. Startup, {@link Cassinate#whenReady()} and {@link Cassinate#whenTableReady} no
+         * longer wait on index and view creation; use {@link Cassinate#whenIndexesBuilt()} for that.
+         * @return the updated {@link Builder}
+         */
+        public Builder buildIndexesInBackground() {
+            this.backgroundBuilds = true;
+            return this;
+        }
+
+        /**
+         * Drops the indexes and materialized views of a model's table that the model no longer declares with
+         * {@link SecondaryIndex} or {@link MaterializedView}. Off by default, so indexes from an index file or made
+         * by hand are kept.
+         * @return the updated {@link Builder}
+         */
+        public Builder dropUndeclaredIndexes() {
+            this.dropUndeclaredIndexes = true;
+            return this;
+        }
+
+        boolean isDropUndeclaredIndexes() {
+            return dropUndeclaredIndexes;
+        }
+
+        /**
+         * Moves the rows of tables whose model changed its primary key with a {@link PrimaryKeyMigration}, instead of
+         * failing. The copy blocks the sync and keeps the table's gate closed until it is done; stop writing to the
+         * table first. Combine it with {@link #coordinateMigrations()} when several instances start at once.
+         * @return the updated {@link Builder}
+         */
+        public Builder migratePrimaryKeys() {
+            this.primaryKeyMigrations = true;
+            return this;
+        }
+
+        /**
+         * Runs {@link Cassinate#advisePartitions()} once the keyspace is in sync, logging the tables whose rows or
+         * partitions are over the default {@link PartitionLimits}
+         * @return the updated {@link Builder}
+         */
+        public Builder advisePartitions() {
+            this.advisePartitions = true;
+            return this;
+        }
+
+        /**
+         * Like {@link #advisePartitions()}, against {@link limits}
+         * @param limits
+         * @return the updated {@link Builder}
+         */
+        public Builder advisePartitions(PartitionLimits limits) {
+            this.advisePartitions = true;
+            this.partitionLimits = limits;
+            return this;
+        }
+
+        /**
+         * Sets where {@link Cassinate#advisePartitions()} reads partition statistics instead of
+         * {@code system.size_estimates}, e.g. a {@link RecordedStatsSource}
+         * @param source
+         * @return the updated {@link Builder}
+         */
+        public Builder usePartitionStatsSource(PartitionStatsSource source) {
+            this.partitionStats = source;
+            return this;
+        }
+
+        /**
+         * Lets a single instance apply schema changes at a time, through a lease in the
+         * {@value TableLeaseStore#TABLE} table. The other instances wait for it to finish and for the cluster to
+         * agree on the schema. Use this when many instances of a service start at once.
+         * <p/>
+         * The others give up after the wait timeout, unless the holder is running a {@link #migratePrimaryKeys()}
+         * copy: they keep waiting for as long as it holds the lease.
+         * @return the updated {@link Builder}
+         */
+        public Builder coordinateMigrations() {
+            this.coordinateMigrations = true;
+            return this;
+        }
+
+        /**
+         * Like {@link #coordinateMigrations()}
+         * @param leaseTtl how long the lease outlives an instance that crashed while migrating
+         * @param waitTimeout how long to wait for another instance to migrate before failing
+         * @param unit unit of {@link leaseTtl} and {@link waitTimeout}
+         * @return the updated {@link Builder}
+         */
+        public Builder coordinateMigrations(long leaseTtl, long waitTimeout, TimeUnit unit) {
+            if (unit.toSeconds(leaseTtl) < 1)
+                throw new IllegalArgumentException("leaseTtl must be at least one second");
+            this.coordinateMigrations = true;
+            this.leaseTtlSeconds = (int) Math.min(Integer.MAX_VALUE, unit.toSeconds(leaseTtl));
+            this.leaseWaitTimeoutSeconds = unit.toSeconds(waitTimeout);
+            return this;
+        }
+
+        /**
+         * Sets the {@link LeaseStore} used by {@link #coordinateMigrations()} instead of the
+         * {@value TableLeaseStore#TABLE} table
+         * @param store
+         * @return the updated {@link Builder}
+         */
+        public Builder useLeaseStore(LeaseStore store) {
+            this.coordinateMigrations = true;
+            this.leaseStore = store;
+            return this;
+        }
+
         /**
          * Builds a new {@link Cassinate} instance from the preconfigured settings
-         * @return the new instance
+         * @return the new instance, with the keyspace in sync
          */
         public Cassinate build() {
+            Cassinate cassinate = connect();
+            try {
+                cassinate.sync();
+                startWatching(cassinate);
+            }
+            catch (RuntimeException e) {
+                cassinate.close();
+                throw e;
+            }
+            return cassinate;
+        }
+
+        /**
+         * Like {@link #buildAsync(Executor)}, on {@link ForkJoinPool#commonPool()}
+         * @return a future of the new instance
+         */
+        public CompletableFuture<Cassinate> buildAsync() {
+            return buildAsync(ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Builds a new {@link Cassinate} instance without blocking the calling thread. The future completes once
+         * Cassinate is connected and has found the models; the schema sync then continues on {@link executor}.
+         * Wait on {@link Cassinate#whenTableReady} for the tables a request needs, or on
+         * {@link Cassinate#whenReady()} for all of them:
+         * <pre>
+         *   Cassinate cassinate = Cassinate.builder().buildAsync(executor).join();
+         *   cassinate.whenTableReady("users").thenRunAsync(server::start, executor);
+         * </pre>
+         * @param executor runs the connect, scan and sync phases. They block, so avoid a small shared pool.
+         * @return a future of the new instance, failed if it could not connect or scan
+         */
+        public CompletableFuture<Cassinate> buildAsync(Executor executor) {
+            return CompletableFuture.supplyAsync(this::connect, executor).thenApply(cassinate -> {
+                CompletableFuture.runAsync(() -> {
+                    cassinate.sync();
+                    startWatching(cassinate);
+                }, executor).whenComplete((v, error) -> {
+                    if (null != error)
+                        LOG.error("Could not sync keyspace {}", cassinate.keyspaceName, error);
+                });
+                return cassinate;
+            });
+        }
+
+        private void startWatching(Cassinate cassinate) {
+            if (watchDirectories.length == 0)
+                return;
+            try {
+                cassinate.watch(watchDirectories);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Could not watch " + Arrays.toString(watchDirectories), e);
+            }
+        }
+
+        /**
+         * Connects and loads the models, closing the connection again if that fails
+         * @return the instance, not synced yet
+         */
+        private Cassinate connect() {
             CassinateHelper helper;
-            if (null != session) {
+            if (null != schemaBackend) {
+                helper = new CassinateHelper(schemaBackend);
+            }
+            else if (null != session) {
                 helper = new CassinateHelper(session);
             }
             else if (null != cluster) {
                 helper = new CassinateHelper(cluster);
             }
             else {
-                helper = new CassinateHelper(contactPoints.toArray(new String[contactPoints.size()]));
+                helper = new CassinateHelper(poolingOptions, contactPoints.toArray(new String[contactPoints.size()]));
+            }
+            try {
+                return connect(helper);
+            }
+            catch (RuntimeException e) {
+                helper.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Loads the models and sets up the stores {@link helper} needs
+         * @return the instance, not synced yet
+         */
+        private Cassinate connect(CassinateHelper helper) {
+            List<CassinateListener> all = new ArrayList<>(listeners);
+            if (dryRun) {
+                all.add(new CassinateListener() {
+                    @Override
+                    public void onStatementExecuted(DdlResult result) {
+                        LOG.info("Dry run:\n{}", result.getStatement());
+                    }
+                });
+            }
+            CassinateListener listener = CompositeListener.of(all);
+            mp.setListener(listener);
+            helper.setListener(listener);
+            helper.setDdlConcurrency(ddlConcurrency);
+            helper.setDdlCheckpointInterval(ddlCheckpointInterval);
+            ScanReport report = new ScanReport();
+            listener.onScanStart(scanPackages);
+            List<Model> models = null != plan ? loadPlan(report) : loadModels(report);
+            LOG.info("Cassinate startup: {}", report);
+            listener.onScanEnd(report);
+            if (dryRun)
+                ((InMemorySchemaBackend) schemaBackend).createKeyspace(keyspaceName);
+            if (!helper.isConnected() && (fingerprintTable || (coordinateMigrations && null == leaseStore)))
+                throw new IllegalStateException("Fingerprint and lease tables need a cluster connection; use "
+                        + "useFingerprintStore or useLeaseStore with a schema backend");
+            FingerprintStore store = fingerprintStore;
+            if (fingerprintTable)
+                store = new TableFingerprintStore(helper.session, keyspaceName);
+            MigrationLease lease = null;
+            if (coordinateMigrations) {
+                LeaseStore leases = null != leaseStore ? leaseStore : new TableLeaseStore(helper.session, keyspaceName);
+                lease = new MigrationLease(leases, leaseTtlSeconds, leaseWaitTimeoutSeconds, TimeUnit.SECONDS,
+                        helper.scheduler());
             }
-            return new Cassinate(keyspaceName, mp, helper);
+            return new Cassinate(this, helper, models, report, store, lease);
+        }
+
+        /**
+         * Loads the models of {@link #plan}
+         * @param report report to fill in
+         * @return the models to validate
+         */
+        private List<Model> loadPlan(ScanReport report) {
+            long start = System.nanoTime();
+            MigrationPlan migrationPlan;
+            try {
+                migrationPlan = MigrationPlan.read(plan);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Could not read migration plan " + plan, e);
+            }
+            if (null == keyspaceName)
+                keyspaceName = migrationPlan.getKeyspaceName();
+            else if (!keyspaceName.equals(migrationPlan.getKeyspaceName()))
+                throw new IllegalStateException(String.format("Migration plan %s is for keyspace %s, not %s", plan,
+                        migrationPlan.getKeyspaceName(), keyspaceName));
+            LOG.info("Using migration plan {} ({} models, {} planned statements)", plan,
+                    migrationPlan.getModels().size(), migrationPlan.getStatements().size());
+            report.setSource(ScanReport.Source.PLAN);
+            report.setScanNanos(System.nanoTime() - start);
+            report.setClassCount(migrationPlan.getModels().size());
+            report.setModelCount(migrationPlan.getModels().size());
+            return new ArrayList<>(migrationPlan.getModels());
+        }
+
+        /**
+         * Loads the models from the compile time {@link ModelIndex}, falling back to a classpath scan when there
+         * is no index, or it can't be read.
+         * @param report report to fill in
+         * @return the models to validate
+         * @throws TypeResolver.UnsupportedTypeException if a model has a field without a cql type
+         * @throws IllegalArgumentException if a model is invalid, as {@link ModelProcessor} reports it
+         */
+        List<Model> loadModels(ScanReport report) {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (null == loader)
+                loader = Cassinate.class.getClassLoader();
+
+            if (useModelIndex) {
+                try {
+                    long start = System.nanoTime();
+                    ModelIndex index = ModelIndex.load(loader);
+                    if (null != index) {
+                        long loaded = System.nanoTime();
+                        List<Model> models = index.toModels(mp);
+                        report.setSource(ScanReport.Source.INDEX);
+                        report.setScanNanos(loaded - start);
+                        report.setModelNanos(System.nanoTime() - loaded);
+                        report.setClassCount(index.size());
+                        report.setModelCount(models.size());
+                        return models;
+                    }
+                }
+                catch (IOException | TypeNotPresentException | NoClassDefFoundError e) {
+                    // Only for an index that can't be used; an invalid model would fail the scan the same way
+                    LOG.warn("Could not load model index. Scanning classpath instead.", e);
+                }
+            }
+            return scan(loader, report);
+        }
+
+        private List<Model> scan(ClassLoader loader, ScanReport report) {
+            report.setSource(ScanReport.Source.SCAN);
+            report.setPackages(scanPackages);
+            report.setThreads(scanThreads);
+
+            ExecutorService executor = scanThreads > 1 ? Executors.newFixedThreadPool(scanThreads) : null;
+            try {
+                long start = System.nanoTime();
+                FastClasspathScanner scanner = new FastClasspathScanner(scanPackages);
+                ScanResult result = null != executor ? scanner.scan(executor, scanThreads) : scanner.scan();
+                List<String> classNames = result.getNamesOfClassesWithAnnotation(ModelProcessor.annotation);
+                long scanned = System.nanoTime();
+                report.setScanNanos(scanned - start);
+                report.setClassCount(classNames.size());
+
+                if (null != executor) {
+                    mp.processMatches(classNames, loader, executor);
+                }
+                else {
+                    for (String className : classNames) {
+                        try {
+                            mp.processMatch(Class.forName(className, false, loader));
+                        }
+                        catch (ClassNotFoundException | LinkageError e) {
+                            LOG.error("Could not load class: {}", className, e);
+                        }
+                    }
+                }
+                report.setModelNanos(System.nanoTime() - scanned);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while scanning for models", e);
+            }
+            finally {
+                if (null != executor)
+                    executor.shutdownNow();
+            }
+            List<Model> models = mp.getModels();
+            report.setModelCount(models.size());
+            return models;
         }
     }
 
@@ -194,91 +1182,234 @@ public class Cassinate {
      * @param models Models to validate
      */
     private void validateModels(List<Model> models) {
-        KeyspaceMetadata km = helper.cluster.getMetadata().getKeyspace(keyspaceName);
-        List<String> queriesToExecute = new ArrayList<>();
+        if (verifyOnly) {
+            List<MigrationOp> ops = diffModels(models);
+            if (!ops.isEmpty())
+                throw new IllegalStateException(String.format("Keyspace %s does not match the migration plan, "
+                        + "missing:%n%s", keyspaceName, String.join("\n", SchemaDiff.toCql(ops))));
+            return;
+        }
+        if (null == migrationLease) {
+            applyOps(diffModels(models));
+            return;
+        }
+        String modelHash = SchemaFingerprint.hash(keyspaceName, models);
+        migrationLease.migrate(keyspaceName, () -> diffModels(models), this::applyOps,
+                helper.getBackend()::checkSchemaAgreement, () -> new SchemaFingerprint(modelHash, contentVersion()),
+                this::migratingPrimaryKeys);
+    }
+
+    /**
+     * @return true if the keyspace has the staging table of a {@link PrimaryKeyMigration}, which can take hours to
+     * copy its rows
+     */
+    private boolean migratingPrimaryKeys() {
+        SchemaSnapshot snapshot = helper.getBackend().getKeyspace(keyspaceName);
+        if (null == snapshot)
+            return false;
+        for (String table : snapshot.getTables().keySet()) {
+            if (table.endsWith(PrimaryKeyMigration.STAGING_SUFFIX))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@link SchemaSnapshot#getContentVersion()} of the keyspace as the driver's metadata shows it
+     */
+    private UUID contentVersion() {
+        SchemaSnapshot snapshot = helper.getBackend().getKeyspace(keyspaceName);
+        return null == snapshot ? null : snapshot.getContentVersion();
+    }
 
+    /**
+     * Diffs {@link models} against the current keyspace metadata
+     * @param models
+     * @return the operations bringing the keyspace up to date, empty if it already is. Column changes are merged
+     * when every node supports it.
+     */
+    private List<MigrationOp> diffModels(List<Model> models) {
+        // A lazily ensured table only needs its own metadata, not a copy of the whole keyspace
+        SchemaSnapshot snapshot = models.size() == 1
+                ? helper.getBackend().getKeyspace(keyspaceName, models.get(0).getName())
+                : helper.getBackend().getKeyspace(keyspaceName);
+        if (null == snapshot)
+            snapshot = SchemaSnapshot.builder(keyspaceName).build();
+        Set<String> copied = null == helper.session ? Collections.emptySet()
+                : PrimaryKeyMigration.copiedTables(helper.session, keyspaceName);
+        List<MigrationOp> ops = new ArrayList<>();
         for (Model model : models) {
-            TableMetadata table = km.getTable(model.getName());
-            if (null == table) {
-                queriesToExecute.add(createModel(model));
-                continue;
-            }
-            Map<String, ? super DataType> modelCols = new HashMap<>(model.getColumns());
-            Iterator<ColumnMetadata> columnsIterator = table.getColumns().iterator();
+            long start = System.nanoTime();
+            int before = ops.size();
+            if (migrationStopped(model, snapshot, copied))
+                ops.add(MigrationOp.resumePrimaryKey(model));
+            else
+                SchemaDiff.diff(model, snapshot, dropUndeclaredIndexes, ops);
+            listener.onModelDiffed(model.getName(), ops.size() - before, System.nanoTime() - start);
+            if (ops.size() == before)
+                openGate(model.getName());
+        }
+        LOG.debug("Found {} schema changes for {} models", ops.size(), models.size());
+        if (!ops.isEmpty() && SchemaDiff.supportsMultiColumnAlter(helper.getMinCassandraVersion()))
+            return SchemaDiff.coalesce(ops);
+        return ops;
+    }
 
-            List<ColumnMetadata> keys = table.getPrimaryKey();
-            // TODO what if primary key was changed? Drop all and recreate
+    /**
+     * @param copied tables whose {@link PrimaryKeyMigration} finished its copy
+     * @return true if a {@link PrimaryKeyMigration} of the table of {@link model} stopped after its copy, or after
+     * dropping the table: a plain diff would create an empty table, or miss the rows left in the staging table
+     */
+    private boolean migrationStopped(Model model, SchemaSnapshot snapshot, Set<String> copied) {
+        if (copied.contains(SchemaSnapshot.handleId(model.getName())))
+            return true;
+        if (null != snapshot.getTable(model.getName()))
+            return false;
+        // The snapshot of a lazily ensured table doesn't have the staging table
+        String staging = PrimaryKeyMigration.stagingTable(model);
+        SchemaSnapshot keyspace = helper.getBackend().getKeyspace(keyspaceName, staging);
+        return null != keyspace && null != keyspace.getTable(staging);
+    }
 
-            while (columnsIterator.hasNext()) {
-                ColumnMetadata next = columnsIterator.next();
-                DataType type = null;
+    private void applyOps(List<MigrationOp> ops) {
+        List<MigrationOp> keyChanges = new ArrayList<>();
+        List<MigrationOp> ddl = new ArrayList<>(ops.size());
+        for (MigrationOp op : ops) {
+            (op.getKind() == MigrationOp.Kind.CHANGE_PRIMARY_KEY ? keyChanges : ddl).add(op);
+        }
+        applyDdl(ddl);
+        if (!keyChanges.isEmpty())
+            migratePrimaryKeys(keyChanges);
+    }
 
-                try {
-                    type = DataType.class.cast(modelCols.get(next.getName()));
-                }
-                catch (ClassCastException e) {
-                    LOG.debug("Could not cast to Datatype. Tying Collection.", e);
-                    type = CollectionType.class.cast(modelCols.get(next.getName()));
-                }
+    /**
+     * Copies the tables of {@link ops} to their new primary key with a {@link PrimaryKeyMigration}, keeping their
+     * gates closed until the cutover is done, then applies what else their models need
+     * @param ops {@link MigrationOp.Kind#CHANGE_PRIMARY_KEY} operations
+     * @throws IllegalStateException if {@link Builder#migratePrimaryKeys()} is off or a migration failed
+     */
+    private void migratePrimaryKeys(List<MigrationOp> ops) {
+        if (!primaryKeyMigrations || null == helper.session) {
+            IllegalStateException error = new IllegalStateException(String.format("Primary keys changed in keyspace "
+                    + "%s; enable Builder.migratePrimaryKeys() or run a PrimaryKeyMigration:%n%s", keyspaceName,
+                    String.join("\n", SchemaDiff.toCql(ops))));
+            for (MigrationOp op : ops) {
+                failGate(op.getTable(), error);
+            }
+            throw error;
+        }
 
-                if (null == type) {
-                    // Column has been deleted from model. Drop it.
-                    queriesToExecute.add(String.format("ALTER TABLE %s DROP %s;", model.getName(), next.getName()));
-                }
-                else if (type.getName().equals(next.getType().getName())) {
-                    // Everything matches
-                    modelCols.remove(next.getName());
-                }
-                else {
-                    // Column type needs to be changed
-                    queriesToExecute.add(String.format("ALTER TABLE %s ALTER %s TYPE %s;", model.getName(),
-                            next.getName(), modelCols.get(next.getName())));
-                }
+        List<Model> migrated = new ArrayList<>(ops.size());
+        for (MigrationOp op : ops) {
+            try {
+                new PrimaryKeyMigration(helper.session, keyspaceName, op.getModel()).run();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                IllegalStateException error = new IllegalStateException("Interrupted migrating " + op.getTable(), e);
+                failGate(op.getTable(), error);
+                throw error;
             }
+            catch (RuntimeException e) {
+                failGate(op.getTable(), e);
+                throw e;
+            }
+            migrated.add(op.getModel());
+        }
+        // The recreated tables still need their indexes and views
+        applyOps(diffModels(migrated));
+    }
 
-            // Create the remaining
-            for (Entry<String, ? super DataType> e : modelCols.entrySet()) {
-                // Alter tables
-                // https://docs.datastax.com/en/cql/3.1/cql/cql_reference/alter_table_r.html#reference_ds_xqq_hpc_xj__adding-a-column
-                if (e.getValue() instanceof CollectionType) {
-                    CollectionType ct = (CollectionType) e.getValue();
-                    StringBuilder sb = new StringBuilder();
-                    sb.append(ct.getName().name() + "<");
-                    for (DataType dt : ct.getTypeArguments()) {
-                        sb.append(dt.getName().name() + ", ");
-                    }
-                    sb.replace(sb.length() - 2, sb.length(), ">");
+    private void applyDdl(List<MigrationOp> ops) {
+        if (ops.isEmpty())
+            return;
+        List<MigrationOp> background = new ArrayList<>();
+        if (backgroundBuilds) {
+            List<MigrationOp> foreground = new ArrayList<>(ops.size());
+            for (MigrationOp op : ops) {
+                (op.isBuild() ? background : foreground).add(op);
+            }
+            ops = foreground;
+            if (ops.isEmpty()) {
+                startBuilds(background);
+                return;
+            }
+        }
 
-                    queriesToExecute.add(
-                            String.format("ALTER TABLE %s ADD %s %s;", model.getName(), e.getKey(), sb.toString()));
-                }
-                else {
-                    queriesToExecute.add(String.format("ALTER TABLE %s ADD %s %s;", model.getName(), e.getKey(),
-                            ((DataType) e.getValue()).getName()));
-                }
+        int columnChanges = 0;
+        for (MigrationOp op : ops) {
+            columnChanges += op.getColumnCount();
+        }
+        if (ops.size() < columnChanges)
+            LOG.info("Merged {} schema changes into {} statements, saving {} schema round trips", columnChanges,
+                    ops.size(), columnChanges - ops.size());
+        listener.onMigrationPlanned(keyspaceName, columnChanges, ops.size());
 
-            }
+        // Open each table's gate once its last statement is done
+        List<String> queries = new ArrayList<>(ops.size());
+        Map<String, String> tableOfQuery = new HashMap<>();
+        Map<String, AtomicInteger> remaining = new ConcurrentHashMap<>();
+        for (MigrationOp op : ops) {
+            String query = op.toCql();
+            queries.add(query);
+            tableOfQuery.put(query, op.getTable());
+            remaining.computeIfAbsent(op.getTable(), k -> new AtomicInteger()).incrementAndGet();
         }
-        helper.executeQueriesInKeyspace(keyspaceName, queriesToExecute);
+        applyQueries(queries, new CassinateListener() {
+            @Override
+            public void onStatementExecuted(DdlResult result) {
+                String table = tableOfQuery.get(result.getStatement());
+                if (null == table)
+                    return;
+                if (!result.isSuccess() && !(result.getError() instanceof AlreadyExistsException))
+                    failGate(table, result.getError());
+                else if (remaining.get(table).decrementAndGet() == 0)
+                    openGate(table);
+            }
+        });
+        if (!background.isEmpty())
+            startBuilds(background);
+    }
 
+    /**
+     * Runs the index and view creations of {@link ops} without waiting for them. The gates of their tables open
+     * right away; {@link #whenIndexesBuilt()} tracks the statements.
+     * @param ops
+     */
+    private void startBuilds(List<MigrationOp> ops) {
+        for (MigrationOp op : ops) {
+            openGate(op.getTable());
+        }
+        LOG.info("Building {} indexes and views of keyspace {} in the background", ops.size(), keyspaceName);
+        CompletableFuture<Void> started = helper.executeQueriesAsync(keyspaceName, SchemaDiff.toCql(ops))
+                .thenAccept(results -> {
+                    for (DdlResult result : results) {
+                        if (!result.isSuccess() && !(result.getError() instanceof AlreadyExistsException))
+                            throw new CompletionException(result.getError());
+                    }
+                });
+        started.whenComplete((v, error) -> {
+            if (null != error)
+                LOG.error("Could not build the indexes of keyspace {}", keyspaceName, error);
+        });
+        builds.updateAndGet(previous -> CompletableFuture.allOf(previous, started));
     }
 
     /**
-     * Generates the cql query for Tables that weren't found
-     * @param model
-     * @return
+     * Runs {@link queries} through the {@link DdlExecutor} and waits for them
+     * @param queries DDL to run
+     * @param queryListener notified of these queries only
      */
-    private String createModel(Model model) {
-        StringBuilder queryBuilder = new StringBuilder();
-        queryBuilder.append(String.format("CREATE TABLE IF NOT EXISTS %s (\n", model.getName()));
-        for (Entry<String, ? super DataType> e : model.getColumns().entrySet()) {
-            queryBuilder.append(String.format("%s %s,%s", e.getKey(), ((DataType) e.getValue()).getName(), "\n"));
-        }
-        queryBuilder.append("PRIMARY KEY (");
-        for (String key : model.getPrimaryKeys()) {
-            queryBuilder.append(key + ", ");
-        }
-        queryBuilder.replace(queryBuilder.length() - 2, queryBuilder.length(), ")\n);");
-        return queryBuilder.toString();
+    private void applyQueries(List<String> queries, CassinateListener queryListener) {
+        if (queries.isEmpty())
+            return;
+        List<DdlResult> results = helper.executeQueriesAsync(keyspaceName, queries, queryListener).join();
+        for (DdlResult result : results) {
+            if (result.isSuccess() || result.getError() instanceof AlreadyExistsException)
+                continue;
+            if (result.getError() instanceof RuntimeException)
+                throw (RuntimeException) result.getError();
+            throw new IllegalStateException("Could not execute query: " + result.getStatement(), result.getError());
+        }
     }
 }
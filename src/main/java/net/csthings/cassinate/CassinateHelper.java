@@ -20,24 +20,39 @@ SOFTWARE.
  */
 package net.csthings.cassinate;
 
-import java.io.File;
+import java.io.Closeable;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PoolingOptions;
 import com.datastax.driver.core.Session;
-import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.VersionNumber;
 import com.datastax.driver.core.exceptions.AlreadyExistsException;
 
-public class CassinateHelper {
+import net.csthings.cassinate.SchemaSnapshot.TableSnapshot;
+
+public class CassinateHelper implements Closeable {
     public static final Logger LOG = LoggerFactory.getLogger(CassinateHelper.class);
 
     public static final String CASSANDRA_SERVERS_KEY = "db.cassandra.servers";
@@ -50,31 +65,165 @@ public class CassinateHelper {
 
     public static final String CASSANDRA_LOCAL_TABLES_FILE = "resources/cassandra/tables.cql";
     public static final String CASSANDRA_LOCAL_DATA_FILE = "resources/cassandra/data.cql";
+    public static final String CASSANDRA_LOCAL_INDEX_FILE = "resources/cassandra/indexes.cql";
 
     protected Cluster cluster;
     protected Session session;
+    protected SchemaBackend backend;
+
+    /** Sessions connected to a keyspace, shared by every caller of {@link #openSession}. Guarded by this. */
+    private final Map<String, CachedSession> keyspaceSessions = new HashMap<>();
+    private final boolean ownsCluster;
+    private boolean closed;
+    private ScheduledExecutorService scheduler;
+
+    private int ddlConcurrency = DdlExecutor.DEFAULT_CONCURRENCY;
+    private int ddlCheckpointInterval;
+    private long schemaAgreementTimeoutSeconds = DdlExecutor.DEFAULT_AGREEMENT_TIMEOUT_SECONDS;
+    private int bulkLoadMaxInFlight = BulkLoader.DEFAULT_MAX_IN_FLIGHT;
+    private int bulkLoadBatchSize = BulkLoader.DEFAULT_BATCH_SIZE;
+    private int exportConcurrency = TokenRangeScanner.DEFAULT_CONCURRENCY;
+    private CassinateListener listener = CassinateListener.NOOP;
 
     public CassinateHelper(String... contactPoints) {
-        cluster = Cluster.builder().addContactPoints(contactPoints).build();
+        this(new PoolingOptions(), contactPoints);
+    }
+
+    /**
+     * Builds a new {@link Cluster} that is closed by {@link #close()}
+     * @param poolingOptions connection pool sizing of the cluster
+     * @param contactPoints
+     */
+    public CassinateHelper(PoolingOptions poolingOptions, String... contactPoints) {
+        cluster = Cluster.builder().addContactPoints(contactPoints).withPoolingOptions(poolingOptions).build();
         session = cluster.connect();
+        ownsCluster = true;
+        backend = new ClusterSchemaBackend(this);
     }
 
     public CassinateHelper(Cluster cluster) {
         this.cluster = cluster;
         session = cluster.connect();
+        ownsCluster = false;
+        backend = new ClusterSchemaBackend(this);
     }
 
     public CassinateHelper(Session session) {
         this.session = session;
         cluster = session.getCluster();
+        ownsCluster = false;
+        backend = new ClusterSchemaBackend(this);
+    }
+
+    /**
+     * Works on {@link backend} without connecting to a cluster. Only the schema methods
+     * ({@link #containsDatabase}, {@link #containsTable}, {@link #getSchemaVersion},
+     * {@link #getMinCassandraVersion}, {@link #executeQueriesAsync}) are available.
+     * @param backend e.g. an {@link InMemorySchemaBackend}
+     */
+    public CassinateHelper(SchemaBackend backend) {
+        this.backend = backend;
+        ownsCluster = false;
+    }
+
+    /**
+     * @return the backend the schema is read from and DDL is sent to
+     */
+    public SchemaBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * @return true if this helper has a cluster connection, false if it only has a {@link SchemaBackend}
+     */
+    public boolean isConnected() {
+        return null != session;
+    }
+
+    /**
+     * Returns a handle on the cached {@link Session} connected to {@link keyspaceName}, connecting it on first use.
+     * Close the handle when done; the session itself stays cached until {@link #close()}.
+     * @param keyspaceName
+     * @return the handle
+     */
+    public synchronized KeyspaceSession openSession(String keyspaceName) {
+        if (closed)
+            throw new IllegalStateException("CassinateHelper is closed");
+        checkConnected();
+        CachedSession cached = keyspaceSessions.get(keyspaceName);
+        if (null == cached) {
+            LOG.debug("Connecting session to keyspace: {}", keyspaceName);
+            cached = new CachedSession(keyspaceName, cluster.connect(keyspaceName));
+            keyspaceSessions.put(keyspaceName, cached);
+        }
+        cached.references++;
+        return new KeyspaceSession(cached);
+    }
+
+    private synchronized void release(CachedSession cached) {
+        cached.references--;
+        if (closed && cached.references == 0) {
+            keyspaceSessions.remove(cached.keyspaceName);
+            cached.session.closeAsync();
+            if (keyspaceSessions.isEmpty() && ownsCluster)
+                cluster.closeAsync();
+        }
+    }
+
+    /**
+     * Closes the cached keyspace sessions, and the {@link Cluster} if this helper built it. Sessions with open
+     * {@link KeyspaceSession} handles are closed once their last handle is.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        if (null != scheduler)
+            scheduler.shutdownNow();
+        Iterator<CachedSession> it = keyspaceSessions.values().iterator();
+        while (it.hasNext()) {
+            CachedSession cached = it.next();
+            if (cached.references == 0) {
+                cached.session.close();
+                it.remove();
+            }
+        }
+        if (keyspaceSessions.isEmpty() && ownsCluster)
+            cluster.close();
+    }
+
+    /**
+     * @throws IllegalStateException if this helper was built on a {@link SchemaBackend} only
+     */
+    private void checkConnected() {
+        if (null == session)
+            throw new IllegalStateException("CassinateHelper is not connected to a cluster");
     }
 
     public boolean containsDatabase(String keyspaceName) {
-        return cluster.getMetadata().getKeyspace(keyspaceName) != null;
+        return backend.getKeyspace(keyspaceName) != null;
     }
 
     public boolean containsTable(String keyspaceName, String tableName) {
-        return cluster.getMetadata().getKeyspace(keyspaceName).getTable(tableName) != null;
+        return backend.getKeyspace(keyspaceName).getTable(tableName) != null;
+    }
+
+    /**
+     * Reads the schema version of the coordinator node. All nodes report the same version once they agree on the
+     * schema.
+     * @return the schema version
+     */
+    public UUID getSchemaVersion() {
+        return backend.getSchemaVersion();
+    }
+
+    /**
+     * Lowest Cassandra version among the hosts the driver knows about
+     * @return the version or null if no host reported one
+     */
+    public VersionNumber getMinCassandraVersion() {
+        return backend.getMinCassandraVersion();
     }
 
     public void dropDatabase(String keyspaceName) {
@@ -82,18 +231,67 @@ public class CassinateHelper {
         executeQuery(StringUtils.join("DROP KEYSPACE ", keyspaceName, ";"), session);
     }
 
-    public void dropAllTables(String keyspaceName) {
-        Iterator<TableMetadata> tables = cluster.getMetadata().getKeyspace(keyspaceName).getTables().iterator();
-        LOG.debug("Truncating tables: {}", tables.toString());
-        tables.forEachRemaining(
-                t -> session.executeAsync(String.format("DROP TABLE %s.%s ;", keyspaceName, t.getName())));
+    public CompletableFuture<Void> dropAllTables(String keyspaceName) {
+        return dropAllTables(keyspaceName, new ResetOptions());
     }
 
-    public void truncateAllTables(String keyspaceName) {
-        Iterator<TableMetadata> tables = cluster.getMetadata().getKeyspace(keyspaceName).getTables().iterator();
+    /**
+     * Drops every table of {@link keyspaceName}, at most {@link ResetOptions#getMaxConcurrency()} at a time. The
+     * materialized views go first, since Cassandra refuses to drop a table that has views.
+     * @param keyspaceName
+     * @param options
+     * @return a future completing once every table is dropped
+     */
+    public CompletableFuture<Void> dropAllTables(String keyspaceName, ResetOptions options) {
+        List<String> views = new ArrayList<>();
+        for (ViewDefinition view : backend.getKeyspace(keyspaceName).getViews().values()) {
+            views.add(SchemaSnapshot.cqlId(view.getName()));
+        }
+        List<String> tables = getTableNames(keyspaceName);
+        LOG.debug("Dropping views in {}: {}, then tables: {}", keyspaceName, views, tables);
+        TableReset reset = new TableReset(session, scheduler(), options);
+        return reset.run(keyspaceName, views, "DROP MATERIALIZED VIEW IF EXISTS %s.%s ;", false)
+                .thenCompose(v -> reset.run(keyspaceName, tables, "DROP TABLE IF EXISTS %s.%s ;", false));
+    }
+
+    public CompletableFuture<Void> truncateAllTables(String keyspaceName) {
+        return truncateAllTables(keyspaceName, new ResetOptions());
+    }
+
+    /**
+     * Truncates every table of {@link keyspaceName}, at most {@link ResetOptions#getMaxConcurrency()} at a time
+     * @param keyspaceName
+     * @param options
+     * @return a future completing once every table is truncated
+     */
+    public CompletableFuture<Void> truncateAllTables(String keyspaceName, ResetOptions options) {
+        List<String> tables = getTableNames(keyspaceName);
         LOG.debug("Truncating tables in {}", keyspaceName);
-        tables.forEachRemaining(
-                t -> session.executeAsync(String.format("TRUNCATE TABLE %s.%s ;", keyspaceName, t.getName())));
+        return new TableReset(session, scheduler(), options).run(keyspaceName, tables, "TRUNCATE TABLE %s.%s ;",
+                options.isSkipEmptyTables());
+    }
+
+    private List<String> getTableNames(String keyspaceName) {
+        List<String> tables = new ArrayList<>();
+        for (TableSnapshot table : backend.getKeyspace(keyspaceName).getTables().values()) {
+            tables.add(SchemaSnapshot.cqlId(table.getName()));
+        }
+        return tables;
+    }
+
+    /**
+     * Scheduler for retries, started on first use and stopped by {@link #close()}
+     * @return
+     */
+    protected synchronized ScheduledExecutorService scheduler() {
+        if (null == scheduler) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cassinate-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
     }
 
     private static void executeQuery(String query, Session session) {
@@ -118,45 +316,264 @@ public class CassinateHelper {
     }
 
     public void executeQueriesInKeyspace(String keyspaceName, List<String> queries) {
-        Session localSession = cluster.connect(keyspaceName);
-        executeQueries(queries, localSession);
+        try (KeyspaceSession localSession = openSession(keyspaceName)) {
+            executeQueries(queries, localSession.getSession());
+        }
+    }
+
+    /**
+     * Runs {@link queries} in {@link keyspaceName} with a {@link DdlExecutor}
+     * @param keyspaceName keyspace to run the queries in
+     * @param queries DDL statements
+     * @return a future of the per statement results, in the order of {@link queries}
+     */
+    public CompletableFuture<List<DdlResult>> executeQueriesAsync(String keyspaceName, List<String> queries) {
+        return executeQueriesAsync(keyspaceName, queries, CassinateListener.NOOP);
+    }
+
+    /**
+     * Like {@link #executeQueriesAsync(String, List)}, also notifying {@link queryListener} of these queries only
+     * @param keyspaceName keyspace to run the queries in
+     * @param queries DDL statements
+     * @param queryListener listener notified along with {@link #getListener()}
+     * @return a future of the per statement results, in the order of {@link queries}
+     */
+    public CompletableFuture<List<DdlResult>> executeQueriesAsync(String keyspaceName, List<String> queries,
+            CassinateListener queryListener) {
+        CassinateListener both = queryListener == CassinateListener.NOOP ? listener
+                : CompositeListener.of(Arrays.asList(listener, queryListener));
+        return newDdlExecutor(keyspaceName, both).execute(queries);
+    }
+
+    protected DdlExecutor newDdlExecutor(String keyspaceName, CassinateListener listener) {
+        return new DdlExecutor(backend, keyspaceName, ddlConcurrency, ddlCheckpointInterval,
+                schemaAgreementTimeoutSeconds, TimeUnit.SECONDS, scheduler(), listener);
+    }
+
+    public CassinateListener getListener() {
+        return listener;
+    }
+
+    public void setListener(CassinateListener listener) {
+        this.listener = listener;
+    }
+
+    public int getDdlConcurrency() {
+        return ddlConcurrency;
+    }
+
+    public void setDdlConcurrency(int ddlConcurrency) {
+        this.ddlConcurrency = ddlConcurrency;
+    }
+
+    public int getDdlCheckpointInterval() {
+        return ddlCheckpointInterval;
+    }
+
+    public void setDdlCheckpointInterval(int ddlCheckpointInterval) {
+        this.ddlCheckpointInterval = ddlCheckpointInterval;
+    }
+
+    public long getSchemaAgreementTimeoutSeconds() {
+        return schemaAgreementTimeoutSeconds;
+    }
+
+    public void setSchemaAgreementTimeoutSeconds(long schemaAgreementTimeoutSeconds) {
+        this.schemaAgreementTimeoutSeconds = schemaAgreementTimeoutSeconds;
     }
 
     public void executeFile(String filename) throws IOException {
-        List<String> queries = getQueries(filename);
-        LOG.debug("Found {} queries in file: {}.", queries.size(), filename);
-        executeQueries(queries, session);
+        executeFile(filename, session);
     }
 
     public void executeFileInKeyspace(String keyspaceName, String filename) throws IOException {
-        Session localSession = cluster.connect(keyspaceName);
-        List<String> queries = getQueries(filename);
-        LOG.debug("Found {} queries in file: {}.", queries.size(), filename);
-        executeQueries(queries, localSession);
+        try (KeyspaceSession localSession = openSession(keyspaceName)) {
+            executeFile(filename, localSession.getSession());
+        }
     }
 
-    public static List<String> getQueries(String filename) throws IOException {
-        File file = new File(filename);
-        String query = "";
-        List<String> lines = FileUtils.readLines(file, Charset.forName("UTF-8"));
-        List<String> queries = new ArrayList<>();
+    /**
+     * Streams the statements of {@link filename} into {@link session} as they are read
+     * @param filename cql script
+     * @param session session to execute in
+     * @throws IOException
+     */
+    private static void executeFile(String filename, Session session) throws IOException {
         LOG.debug("Executing file: {}", filename);
-        for (String line : lines) {
-            if (!StringUtils.isAnyBlank(line)) {
-                query = StringUtils.join(query, line);
-                continue;
+        int count = 0;
+        try (CqlScriptReader reader = CqlScriptReader.open(Paths.get(filename))) {
+            String query;
+            while ((query = reader.readStatement()) != null) {
+                executeQuery(query, session);
+                count++;
             }
-            queries.add(query);
-            query = "";
         }
-        if (!StringUtils.isAnyBlank(query))
-            queries.add(query);
+        LOG.debug("Executed {} queries in file: {}.", count, filename);
+    }
+
+    /**
+     * Runs the index script configured under {@link #CASSANDRA_INDEX_FILE_KEY}, or
+     * {@link #CASSANDRA_LOCAL_INDEX_FILE} if it isn't set, with a {@link DdlExecutor}. Use it for the indexes and
+     * views not declared with {@link SecondaryIndex} or {@link MaterializedView}.
+     * <p/>
+     * The returned future doesn't need to be waited on; Cassandra builds the index data in the background either way.
+     * @param keyspaceName keyspace to run the script in
+     * @param config configuration holding the index file
+     * @return a future of the per statement results, empty if the file isn't configured and
+     * {@link #CASSANDRA_LOCAL_INDEX_FILE} doesn't exist
+     * @throws IOException if the script can't be read
+     */
+    public CompletableFuture<List<DdlResult>> executeIndexFile(String keyspaceName, Configuration config)
+            throws IOException {
+        String filename = config.getString(CASSANDRA_INDEX_FILE_KEY, CASSANDRA_LOCAL_INDEX_FILE);
+        if (CASSANDRA_LOCAL_INDEX_FILE.equals(filename) && !Files.exists(Paths.get(filename)))
+            return CompletableFuture.completedFuture(Collections.emptyList());
+
+        List<String> queries = new ArrayList<>();
+        try (CqlScriptReader reader = CqlScriptReader.open(Paths.get(filename))) {
+            String query;
+            while ((query = reader.readStatement()) != null) {
+                queries.add(query);
+            }
+        }
+        LOG.debug("Executing {} queries in index file: {}", queries.size(), filename);
+        return executeQueriesAsync(keyspaceName, queries);
+    }
+
+    /**
+     * Loads the seed data script {@link filename} into {@link keyspaceName} with a {@link BulkLoader}
+     * @param keyspaceName keyspace to load into
+     * @param filename cql script of INSERT statements
+     * @return the load report
+     * @throws IOException
+     */
+    public BulkLoadReport bulkLoadFile(String keyspaceName, String filename) throws IOException {
+        try (KeyspaceSession localSession = openSession(keyspaceName)) {
+            return new BulkLoader(localSession.getSession(), bulkLoadMaxInFlight, bulkLoadBatchSize)
+                    .load(Paths.get(filename));
+        }
+    }
+
+    /**
+     * Bulk loads the data file configured under {@link #CASSANDRA_DATA_FILE_KEY}, or
+     * {@link #CASSANDRA_LOCAL_DATA_FILE} if it isn't set
+     * @param keyspaceName keyspace to load into
+     * @param config configuration holding the data file
+     * @return the load report
+     * @throws IOException
+     */
+    public BulkLoadReport bulkLoadDataFile(String keyspaceName, Configuration config) throws IOException {
+        return bulkLoadFile(keyspaceName, config.getString(CASSANDRA_DATA_FILE_KEY, CASSANDRA_LOCAL_DATA_FILE));
+    }
+
+    /**
+     * Exports every row of {@link model}'s table in {@link keyspaceName} to a {@link TableDataFile}, scanning
+     * {@link #getExportConcurrency()} token ranges at once. Much faster to reload than a data script, see
+     * {@link #importTable}.
+     * @param keyspaceName
+     * @param model model of the table, which has to match it
+     * @param file file to write, replaced if it exists
+     * @return the scan report
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public RangeScanReport exportTable(String keyspaceName, Model model, Path file)
+            throws IOException, InterruptedException {
+        try (KeyspaceSession localSession = openSession(keyspaceName)) {
+            return new TableExporter(localSession.getSession(), keyspaceName, exportConcurrency).export(model, file);
+        }
+    }
+
+    /**
+     * Loads a file written by {@link #exportTable} into its table in {@link keyspaceName}, with at most
+     * {@link #getBulkLoadMaxInFlight()} requests in flight
+     * @param keyspaceName
+     * @param file
+     * @return the load report
+     * @throws IOException
+     */
+    public BulkLoadReport importTable(String keyspaceName, Path file) throws IOException {
+        try (KeyspaceSession localSession = openSession(keyspaceName)) {
+            return new BulkLoader(localSession.getSession(), bulkLoadMaxInFlight, bulkLoadBatchSize)
+                    .loadSnapshot(file);
+        }
+    }
 
+    public int getExportConcurrency() {
+        return exportConcurrency;
+    }
+
+    public void setExportConcurrency(int exportConcurrency) {
+        this.exportConcurrency = exportConcurrency;
+    }
+
+    public int getBulkLoadMaxInFlight() {
+        return bulkLoadMaxInFlight;
+    }
+
+    public void setBulkLoadMaxInFlight(int bulkLoadMaxInFlight) {
+        this.bulkLoadMaxInFlight = bulkLoadMaxInFlight;
+    }
+
+    public int getBulkLoadBatchSize() {
+        return bulkLoadBatchSize;
+    }
+
+    public void setBulkLoadBatchSize(int bulkLoadBatchSize) {
+        this.bulkLoadBatchSize = bulkLoadBatchSize;
+    }
+
+    /**
+     * Reads every statement of {@link filename} into memory. Prefer {@link CqlScriptReader} for large scripts.
+     * @param filename cql script
+     * @return the statements
+     * @throws IOException
+     */
+    public static List<String> getQueries(String filename) throws IOException {
+        List<String> queries = new ArrayList<>();
+        try (CqlScriptReader reader = CqlScriptReader.open(Paths.get(filename))) {
+            String query;
+            while ((query = reader.readStatement()) != null) {
+                queries.add(query);
+            }
+        }
         return queries;
     }
 
     public int getTableCount(String keyspaceName) {
-        return cluster.getMetadata().getKeyspace(keyspaceName).getTables().size();
+        return backend.getKeyspace(keyspaceName).getTables().size();
     }
 
+    /**
+     * @purpose - Handle on a cached keyspace {@link Session}. Closing the handle releases it, not the session.
+     */
+    public final class KeyspaceSession implements Closeable {
+        private final CachedSession cached;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private KeyspaceSession(CachedSession cached) {
+            this.cached = cached;
+        }
+
+        public Session getSession() {
+            return cached.session;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true))
+                release(cached);
+        }
+    }
+
+    private static class CachedSession {
+        private final String keyspaceName;
+        private final Session session;
+        private int references;
+
+        CachedSession(String keyspaceName, Session session) {
+            this.keyspaceName = keyspaceName;
+            this.session = session;
+        }
+    }
 }
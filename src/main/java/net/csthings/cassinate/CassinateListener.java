@@ -0,0 +1,94 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Receives timing events from Cassinate's startup and DDL paths.
+ * <p/>
+ * Every method has an empty default, so implementations only override what they need. Methods may be called from
+ * several threads at once (scan threads, driver I/O threads), so implementations must be thread safe and fast.
+ * See {@link MetricsListener} for an in-memory implementation.
+ */
+public interface CassinateListener {
+    /**
+     * Listener that ignores every event
+     */
+    CassinateListener NOOP = new CassinateListener() {
+    };
+
+    /**
+     * Called before the models are loaded
+     * @param packages packages the scan is limited to, empty for the whole classpath
+     */
+    default void onScanStart(String[] packages) {
+    }
+
+    /**
+     * Called once the models are loaded
+     * @param report timing breakdown of the scan
+     */
+    default void onScanEnd(ScanReport report) {
+    }
+
+    /**
+     * Called after {@link ModelProcessor} reflected over a class
+     * @param clazz the class
+     * @param nanos time spent on it
+     */
+    default void onClassProcessed(Class<?> clazz, long nanos) {
+    }
+
+    /**
+     * Called after a model was diffed against the keyspace
+     * @param table table of the model
+     * @param operations number of operations found
+     * @param nanos time spent on the diff
+     */
+    default void onModelDiffed(String table, int operations, long nanos) {
+    }
+
+    /**
+     * Called once the schema changes of a keyspace are planned, before they run
+     * @param keyspaceName
+     * @param changes number of changes found by the diff, counting each added or dropped column
+     * @param statements number of statements they were merged into
+     */
+    default void onMigrationPlanned(String keyspaceName, int changes, int statements) {
+    }
+
+    /**
+     * Called after a DDL statement completed or failed
+     * @param result outcome and latency of the statement
+     */
+    default void onStatementExecuted(DdlResult result) {
+    }
+
+    /**
+     * Called after waiting for schema agreement
+     * @param reached false if the wait timed out
+     * @param nanos time spent waiting
+     */
+    default void onSchemaAgreement(boolean reached, long nanos) {
+    }
+}
@@ -0,0 +1,118 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.VersionNumber;
+
+import net.csthings.cassinate.CassinateHelper.KeyspaceSession;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - {@link SchemaBackend} of a live cluster, reading the driver's schema metadata
+ */
+public class ClusterSchemaBackend implements SchemaBackend {
+    private final Cluster cluster;
+    private final Session session;
+    private final CassinateHelper helper;
+
+    /**
+     * Runs every statement on {@link session}, whatever keyspace it is asked to run in
+     * @param session session connected to the keyspace the statements target
+     */
+    public ClusterSchemaBackend(Session session) {
+        this(session.getCluster(), session, null);
+    }
+
+    /**
+     * Runs statements on {@link helper}'s cached keyspace sessions
+     * @param helper
+     */
+    ClusterSchemaBackend(CassinateHelper helper) {
+        this(helper.cluster, helper.session, helper);
+    }
+
+    private ClusterSchemaBackend(Cluster cluster, Session session, CassinateHelper helper) {
+        this.cluster = cluster;
+        this.session = session;
+        this.helper = helper;
+    }
+
+    @Override
+    public SchemaSnapshot getKeyspace(String keyspaceName) {
+        KeyspaceMetadata km = cluster.getMetadata().getKeyspace(keyspaceName);
+        return null == km ? null : SchemaSnapshot.of(km);
+    }
+
+    @Override
+    public SchemaSnapshot getKeyspace(String keyspaceName, String tableName) {
+        KeyspaceMetadata km = cluster.getMetadata().getKeyspace(keyspaceName);
+        return null == km ? null : SchemaSnapshot.of(km, tableName);
+    }
+
+    @Override
+    public UUID getSchemaVersion() {
+        Row row = session.execute("SELECT schema_version FROM system.local;").one();
+        return null == row ? null : row.getUUID("schema_version");
+    }
+
+    @Override
+    public VersionNumber getMinCassandraVersion() {
+        VersionNumber min = null;
+        for (Host host : cluster.getMetadata().getAllHosts()) {
+            VersionNumber version = host.getCassandraVersion();
+            if (null != version && (null == min || version.compareTo(min) < 0))
+                min = version;
+        }
+        return min;
+    }
+
+    @Override
+    public boolean checkSchemaAgreement() {
+        return cluster.getMetadata().checkSchemaAgreement();
+    }
+
+    @Override
+    public CompletableFuture<ResultSet> executeAsync(String keyspaceName, String statement) {
+        if (null == helper || null == keyspaceName)
+            return CassinateFutures.toCompletable(session.executeAsync(statement));
+
+        KeyspaceSession keyspaceSession = helper.openSession(keyspaceName);
+        try {
+            return CassinateFutures.toCompletable(keyspaceSession.getSession().executeAsync(statement))
+                    .whenComplete((rs, error) -> keyspaceSession.close());
+        }
+        catch (RuntimeException e) {
+            keyspaceSession.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Forwards every event to a list of {@link CassinateListener}s
+ */
+class CompositeListener implements CassinateListener {
+    private final List<CassinateListener> listeners;
+
+    private CompositeListener(List<CassinateListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * @param listeners
+     * @return {@link CassinateListener#NOOP}, the only listener or a composite of all of them
+     */
+    static CassinateListener of(List<CassinateListener> listeners) {
+        if (listeners.isEmpty())
+            return NOOP;
+        if (listeners.size() == 1)
+            return listeners.get(0);
+        return new CompositeListener(new ArrayList<>(listeners));
+    }
+
+    @Override
+    public void onScanStart(String[] packages) {
+        for (CassinateListener listener : listeners) {
+            listener.onScanStart(packages);
+        }
+    }
+
+    @Override
+    public void onScanEnd(ScanReport report) {
+        for (CassinateListener listener : listeners) {
+            listener.onScanEnd(report);
+        }
+    }
+
+    @Override
+    public void onClassProcessed(Class<?> clazz, long nanos) {
+        for (CassinateListener listener : listeners) {
+            listener.onClassProcessed(clazz, nanos);
+        }
+    }
+
+    @Override
+    public void onModelDiffed(String table, int operations, long nanos) {
+        for (CassinateListener listener : listeners) {
+            listener.onModelDiffed(table, operations, nanos);
+        }
+    }
+
+    @Override
+    public void onStatementExecuted(DdlResult result) {
+        for (CassinateListener listener : listeners) {
+            listener.onStatementExecuted(result);
+        }
+    }
+
+    @Override
+    public void onSchemaAgreement(boolean reached, long nanos) {
+        for (CassinateListener listener : listeners) {
+            listener.onSchemaAgreement(reached, nanos);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Reads cql statements from a script one at a time.
+ * <p/>
+ * Statements end at a {@code ;} outside of quotes, comments and {@code $$} blocks. Comments ({@code --},
+ * {@code //} and block comments) are dropped. Only the statement being read is held in memory, so scripts of any
+ * size are read in constant memory.
+ * <pre>
+ *   try (CqlScriptReader reader = CqlScriptReader.open(path)) {
+ *       String statement;
+ *       while ((statement = reader.readStatement()) != null) {
+ *           session.execute(statement);
+ *       }
+ *   }
+ * </pre>
+ */
+public class CqlScriptReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private enum State {
+        NORMAL, SINGLE_QUOTE, DOUBLE_QUOTE, LINE_COMMENT, BLOCK_COMMENT, DOLLAR
+    }
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder statement = new StringBuilder();
+    private int position;
+    private int limit;
+
+    public CqlScriptReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Opens {@link path} as UTF-8 through a {@link FileChannel}
+     * @param path script to read
+     * @return the reader
+     * @throws IOException
+     */
+    public static CqlScriptReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new CqlScriptReader(Channels.newReader(channel,
+                StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT), BUFFER_SIZE));
+    }
+
+    /**
+     * Reads the next statement
+     * @return the statement without its trailing {@code ;}, or null at the end of the script
+     * @throws IOException
+     */
+    public String readStatement() throws IOException {
+        statement.setLength(0);
+        State state = State.NORMAL;
+        int c;
+        while ((c = read()) >= 0) {
+            switch (state) {
+            case NORMAL:
+                if (c == ';') {
+                    String next = takeStatement();
+                    if (null != next)
+                        return next;
+                }
+                else if (c == '\'') {
+                    statement.append((char) c);
+                    state = State.SINGLE_QUOTE;
+                }
+                else if (c == '"') {
+                    statement.append((char) c);
+                    state = State.DOUBLE_QUOTE;
+                }
+                else if ((c == '-' && peek() == '-') || (c == '/' && peek() == '/')) {
+                    read();
+                    state = State.LINE_COMMENT;
+                }
+                else if (c == '/' && peek() == '*') {
+                    read();
+                    state = State.BLOCK_COMMENT;
+                }
+                else if (c == '$' && peek() == '$') {
+                    statement.append((char) c).append((char) read());
+                    state = State.DOLLAR;
+                }
+                else if (statement.length() > 0 || !Character.isWhitespace(c)) {
+                    statement.append((char) c);
+                }
+                break;
+            case SINGLE_QUOTE:
+            case DOUBLE_QUOTE:
+                statement.append((char) c);
+                char quote = state == State.SINGLE_QUOTE ? '\'' : '"';
+                if (c == quote) {
+                    if (peek() == quote)
+                        statement.append((char) read()); // Escaped quote
+                    else
+                        state = State.NORMAL;
+                }
+                break;
+            case LINE_COMMENT:
+                if (c == '\n') {
+                    if (statement.length() > 0)
+                        statement.append('\n');
+                    state = State.NORMAL;
+                }
+                break;
+            case BLOCK_COMMENT:
+                if (c == '*' && peek() == '/') {
+                    read();
+                    if (statement.length() > 0)
+                        statement.append(' ');
+                    state = State.NORMAL;
+                }
+                break;
+            case DOLLAR:
+                statement.append((char) c);
+                if (c == '$' && peek() == '$') {
+                    statement.append((char) read());
+                    state = State.NORMAL;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown state: " + state);
+            }
+        }
+        // A last statement without a trailing ;
+        return takeStatement();
+    }
+
+    private String takeStatement() {
+        int end = statement.length();
+        while (end > 0 && Character.isWhitespace(statement.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0)
+            return null;
+        String next = statement.substring(0, end);
+        statement.setLength(0);
+        return next;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
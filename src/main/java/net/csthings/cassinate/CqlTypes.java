@@ -0,0 +1,148 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Parses cql type strings (as written by {@link DataType#toString()}) back into {@link DataType}s
+ */
+final class CqlTypes {
+    private static final Map<String, DataType> primitives;
+    /** A cql identifier, quoted or not */
+    static final String IDENTIFIER = "(?:\"(?:[^\"]|\"\")+\"|\\w+)";
+    /** An identifier, optionally qualified by a keyspace */
+    static final String QUALIFIED_NAME = IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + ")?";
+    private static final Pattern USER_TYPE = Pattern.compile(QUALIFIED_NAME);
+
+    static {
+        primitives = new HashMap<>();
+        for (DataType type : DataType.allPrimitiveTypes()) {
+            primitives.put(type.getName().toString(), type);
+        }
+    }
+
+    private CqlTypes() {
+    }
+
+    /**
+     * Parses {@link cql} into a {@link DataType}
+     * @param cql type such as {@code text}, {@code list<bigint>}, {@code frozen<map<text, int>>} or
+     *            {@code frozen<address>} for a user type
+     * @return the parsed type
+     * @throws IllegalArgumentException if {@link cql} is not a known type
+     */
+    static DataType parse(String cql) {
+        String type = cql.trim();
+        int open = type.indexOf('<');
+        if (open < 0) {
+            DataType primitive = primitives.get(type.toLowerCase());
+            if (primitive == null)
+                throw new IllegalArgumentException("Unknown cql type: " + cql);
+            return primitive;
+        }
+        if (!type.endsWith(">"))
+            throw new IllegalArgumentException("Unknown cql type: " + cql);
+
+        String name = type.substring(0, open).trim().toLowerCase();
+        String args = type.substring(open + 1, type.length() - 1);
+        switch (name) {
+        case "frozen":
+            return frozen(args.trim(), cql);
+        case "list":
+            return DataType.list(parse(args));
+        case "set":
+            return DataType.set(parse(args));
+        case "map":
+            int split = topLevelComma(args);
+            if (split < 0)
+                throw new IllegalArgumentException("Unknown cql type: " + cql);
+            return DataType.map(parse(args.substring(0, split)), parse(args.substring(split + 1)));
+        default:
+            throw new IllegalArgumentException("Unknown cql type: " + cql);
+        }
+    }
+
+    /**
+     * Parses the type inside {@code frozen<...>}: a collection, which is frozen, or the name of a user type
+     */
+    private static DataType frozen(String inner, String cql) {
+        if (inner.indexOf('<') >= 0) {
+            DataType type = parse(inner);
+            List<DataType> args = type.getTypeArguments();
+            switch (type.getName()) {
+            case LIST:
+                return DataType.frozenList(args.get(0));
+            case SET:
+                return DataType.frozenSet(args.get(0));
+            case MAP:
+                return DataType.frozenMap(args.get(0), args.get(1));
+            default:
+                throw new IllegalArgumentException("Unknown cql type: " + cql);
+            }
+        }
+        if (!USER_TYPE.matcher(inner).matches() || primitives.containsKey(inner.toLowerCase()))
+            throw new IllegalArgumentException("Unknown cql type: " + cql);
+        // Drop the keyspace, user types are compared on their name
+        int dot = inner.lastIndexOf('.');
+        String typeName = dot < 0 ? inner : inner.substring(dot + 1).trim();
+        return new TypeResolver.UserTypeName(typeName.startsWith("\"") ? typeName : typeName.toLowerCase());
+    }
+
+    /**
+     * @param name a table, index or view name, optionally qualified by its keyspace
+     * @return the name without its keyspace, as stored by {@link SchemaSnapshot}
+     */
+    static String unqualified(String name) {
+        boolean quoted = false;
+        int dot = -1;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (c == '.' && !quoted)
+                dot = i;
+        }
+        return SchemaSnapshot.handleId(name.substring(dot + 1).trim());
+    }
+
+    private static int topLevelComma(String args) {
+        int depth = 0;
+        for (int i = 0; i < args.length(); i++) {
+            char c = args.charAt(i);
+            if (c == '<')
+                depth++;
+            else if (c == '>')
+                depth--;
+            else if (c == ',' && depth == 0)
+                return i;
+        }
+        return -1;
+    }
+}
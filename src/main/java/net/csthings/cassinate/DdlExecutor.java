@@ -0,0 +1,346 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Runs DDL through a {@link SchemaBackend}, usually {@link Session#executeAsync}.
+ * <p/>
+ * Statements for different tables run in parallel, up to {@link #concurrency} tables at a time. Statements for the
+ * same table run in the order given. Statements that don't target a table (keyspaces, types, ...) run on their own,
+ * after everything before them. Schema agreement is checked at checkpoints: after every {@link #checkpointInterval}
+ * table statements, around every non-table statement and at the end.
+ * <p/>
+ * The driver also waits for schema agreement after each DDL response. Set
+ * {@link com.datastax.driver.core.Cluster.Builder#withMaxSchemaAgreementWaitSeconds} to 0 to leave that to the
+ * checkpoints.
+ */
+public class DdlExecutor {
+    public static final Logger LOG = LoggerFactory.getLogger(DdlExecutor.class);
+    public static final int DEFAULT_CONCURRENCY = 8;
+    public static final long DEFAULT_AGREEMENT_TIMEOUT_SECONDS = 30;
+
+    private static final long AGREEMENT_POLL_MILLIS = 200;
+    private static final Pattern TABLE_STATEMENT = Pattern.compile(
+            "^\\s*(?:(?:CREATE|ALTER|DROP)\\s+(?:TABLE|COLUMNFAMILY)|TRUNCATE(?:\\s+TABLE)?)\\s+"
+                    + "(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?([\\w.\"]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INDEX_STATEMENT = Pattern.compile(
+            "^\\s*CREATE\\s+(?:CUSTOM\\s+)?INDEX\\b.*?\\bON\\s+([\\w.\"]+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final SchemaBackend backend;
+    private final String keyspaceName;
+    private final int concurrency;
+    private final int checkpointInterval;
+    private final long agreementTimeoutMillis;
+    private final ScheduledExecutorService agreementScheduler;
+    private final CassinateListener listener;
+
+    /**
+     * @param session session to run the statements in
+     * @param concurrency maximum number of tables with statements in flight
+     * @param checkpointInterval number of table statements between schema agreement checks, 0 to only check at the
+     *        end
+     * @param agreementTimeout how long to wait for schema agreement at each checkpoint
+     * @param unit unit of {@link agreementTimeout}
+     */
+    public DdlExecutor(Session session, int concurrency, int checkpointInterval, long agreementTimeout,
+            TimeUnit unit) {
+        this(session, concurrency, checkpointInterval, agreementTimeout, unit, DefaultScheduler.INSTANCE,
+                CassinateListener.NOOP);
+    }
+
+    /**
+     * @param agreementScheduler scheduler polling for schema agreement between checks
+     * @param listener listener notified of every statement and schema agreement wait
+     */
+    public DdlExecutor(Session session, int concurrency, int checkpointInterval, long agreementTimeout,
+            TimeUnit unit, ScheduledExecutorService agreementScheduler, CassinateListener listener) {
+        this(new ClusterSchemaBackend(session), session.getLoggedKeyspace(), concurrency, checkpointInterval,
+                agreementTimeout, unit, agreementScheduler, listener);
+    }
+
+    /**
+     * @param backend backend to run the statements on
+     * @param keyspaceName keyspace of unqualified table names, or null
+     */
+    public DdlExecutor(SchemaBackend backend, String keyspaceName, int concurrency, int checkpointInterval,
+            long agreementTimeout, TimeUnit unit, ScheduledExecutorService agreementScheduler,
+            CassinateListener listener) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        this.backend = backend;
+        this.keyspaceName = keyspaceName;
+        this.concurrency = concurrency;
+        this.checkpointInterval = Math.max(0, checkpointInterval);
+        this.agreementTimeoutMillis = unit.toMillis(agreementTimeout);
+        this.agreementScheduler = agreementScheduler;
+        this.listener = listener;
+    }
+
+    /**
+     * Runs {@link statements}. Failed statements don't stop the others; check {@link DdlResult#getError()}.
+     * @param statements statements to run
+     * @return a future of the results, in the order of {@link statements}
+     */
+    public CompletableFuture<List<DdlResult>> execute(List<String> statements) {
+        DdlResult[] results = new DdlResult[statements.size()];
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        for (List<Integer> segment : segment(statements)) {
+            done = done.thenCompose(v -> runSegment(statements, segment, results))
+                    .thenCompose(v -> awaitSchemaAgreement());
+        }
+        return done.thenApply(v -> Arrays.asList(results));
+    }
+
+    /**
+     * Returns the table targeted by {@link statement} or null if it doesn't target a table
+     * @param statement
+     * @return the lower cased table name, with its keyspace if the statement has one
+     */
+    public static String tableOf(String statement) {
+        Matcher matcher = TABLE_STATEMENT.matcher(statement);
+        if (!matcher.find()) {
+            matcher = INDEX_STATEMENT.matcher(statement);
+            if (!matcher.find())
+                return null;
+        }
+        return matcher.group(1).replace("\"", "").toLowerCase();
+    }
+
+    /**
+     * Splits {@link statements} into the runs between schema agreement checkpoints
+     * @param statements
+     * @return indexes into {@link statements}
+     */
+    private List<List<Integer>> segment(List<String> statements) {
+        List<List<Integer>> segments = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        for (int i = 0; i < statements.size(); i++) {
+            if (null == tableOf(statements.get(i))) {
+                if (!current.isEmpty()) {
+                    segments.add(current);
+                    current = new ArrayList<>();
+                }
+                segments.add(Collections.singletonList(i));
+                continue;
+            }
+            current.add(i);
+            if (checkpointInterval > 0 && current.size() >= checkpointInterval) {
+                segments.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty())
+            segments.add(current);
+        return segments;
+    }
+
+    private CompletableFuture<Void> runSegment(List<String> statements, List<Integer> segment,
+            DdlResult[] results) {
+        Map<String, List<Integer>> chains = new LinkedHashMap<>();
+        for (int i : segment) {
+            String table = tableOf(statements.get(i));
+            chains.computeIfAbsent(null == table ? "" : table, k -> new ArrayList<>()).add(i);
+        }
+
+        Queue<List<Integer>> pending = new ConcurrentLinkedQueue<>(chains.values());
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(concurrency, chains.size())];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = drain(pending, statements, results);
+        }
+        return CompletableFuture.allOf(workers);
+    }
+
+    /**
+     * Runs the pending chains one after the other until there are none left. Statements that complete right away
+     * are handled in a loop rather than through nested callbacks, so long chains can't overflow the stack.
+     */
+    private CompletableFuture<Void> drain(Queue<List<Integer>> pending, List<String> statements,
+            DdlResult[] results) {
+        Worker worker = new Worker(pending, statements, results);
+        worker.run();
+        return worker.done;
+    }
+
+    /**
+     * Takes chains off the queue and runs their statements in order
+     */
+    private final class Worker {
+        private final Queue<List<Integer>> pending;
+        private final List<String> statements;
+        private final DdlResult[] results;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private List<Integer> chain = Collections.emptyList();
+        private int position;
+
+        Worker(Queue<List<Integer>> pending, List<String> statements, DdlResult[] results) {
+            this.pending = pending;
+            this.statements = statements;
+            this.results = results;
+        }
+
+        /**
+         * Runs statements until one is still in flight, which resumes the worker once it completes
+         */
+        void run() {
+            while (true) {
+                if (position == chain.size()) {
+                    chain = pending.poll();
+                    position = 0;
+                    if (null == chain) {
+                        done.complete(null);
+                        return;
+                    }
+                    continue;
+                }
+                int index = chain.get(position++);
+                CompletableFuture<DdlResult> future = executeStatement(statements.get(index));
+                if (!future.isDone()) {
+                    future.whenComplete((result, error) -> {
+                        if (complete(index, result, error))
+                            run();
+                    });
+                    return;
+                }
+                DdlResult result = null;
+                Throwable error = null;
+                try {
+                    result = future.join();
+                }
+                catch (CompletionException e) {
+                    error = e.getCause();
+                }
+                if (!complete(index, result, error))
+                    return;
+            }
+        }
+
+        private boolean complete(int index, DdlResult result, Throwable error) {
+            if (null != error) {
+                // Only a failing listener gets here, statement errors are in the result
+                done.completeExceptionally(error);
+                return false;
+            }
+            results[index] = result;
+            return true;
+        }
+    }
+
+    private CompletableFuture<DdlResult> executeStatement(String statement) {
+        String table = tableOf(statement);
+        long start = System.nanoTime();
+        LOG.debug("Executing query:\n===\n{}\n===", statement);
+        CompletableFuture<ResultSet> future;
+        try {
+            future = backend.executeAsync(keyspaceName, statement);
+        }
+        catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        return future.handle((rs, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (null != cause)
+                LOG.error("Could not execute query: {}", statement, cause);
+            DdlResult result = new DdlResult(statement, table, rs, cause, System.nanoTime() - start);
+            listener.onStatementExecuted(result);
+            return result;
+        });
+    }
+
+    private CompletableFuture<Void> awaitSchemaAgreement() {
+        CompletableFuture<Void> agreed = new CompletableFuture<>();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(agreementTimeoutMillis);
+        try {
+            // Checking blocks on a query, so never on the thread completing the statements
+            agreementScheduler.execute(() -> pollSchemaAgreement(agreed, start, deadline));
+        }
+        catch (RejectedExecutionException e) {
+            agreed.completeExceptionally(e);
+        }
+        return agreed;
+    }
+
+    /**
+     * Checks schema agreement once, scheduling the next check if it isn't reached yet
+     */
+    private void pollSchemaAgreement(CompletableFuture<Void> agreed, long start, long deadline) {
+        try {
+            if (backend.checkSchemaAgreement()) {
+                long waited = System.nanoTime() - start;
+                LOG.debug("Schema agreement reached in {} ms", TimeUnit.NANOSECONDS.toMillis(waited));
+                listener.onSchemaAgreement(true, waited);
+                agreed.complete(null);
+            }
+            else if (System.nanoTime() > deadline) {
+                LOG.warn("Schema agreement not reached after {} ms", agreementTimeoutMillis);
+                listener.onSchemaAgreement(false, System.nanoTime() - start);
+                agreed.complete(null);
+            }
+            else {
+                agreementScheduler.schedule(() -> pollSchemaAgreement(agreed, start, deadline),
+                        AGREEMENT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (RuntimeException e) {
+            agreed.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Scheduler of the executors built without one, created on first use
+     */
+    private static final class DefaultScheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cassinate-ddl-agreement");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
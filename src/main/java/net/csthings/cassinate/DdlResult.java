@@ -0,0 +1,87 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.concurrent.TimeUnit;
+
+import com.datastax.driver.core.ResultSet;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Outcome of one statement run by the {@link DdlExecutor}
+ */
+public class DdlResult {
+    private final String statement;
+    private final String table;
+    private final ResultSet resultSet;
+    private final Throwable error;
+    private final long latencyNanos;
+
+    DdlResult(String statement, String table, ResultSet resultSet, Throwable error, long latencyNanos) {
+        this.statement = statement;
+        this.table = table;
+        this.resultSet = resultSet;
+        this.error = error;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * Table the statement targets or null if it does not target a table
+     * @return
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the result or null if the statement failed
+     */
+    public ResultSet getResultSet() {
+        return resultSet;
+    }
+
+    /**
+     * @return the failure or null if the statement succeeded
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return null == error;
+    }
+
+    public long getLatency(TimeUnit unit) {
+        return unit.convert(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "DdlResult [table=" + table + ", success=" + isSuccess() + ", latencyMs="
+                + getLatency(TimeUnit.MILLISECONDS) + ", statement=" + statement + "]";
+    }
+}
@@ -0,0 +1,101 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - {@link FingerprintStore} backed by a local properties file
+ */
+public class FileFingerprintStore implements FingerprintStore {
+    public static final Logger LOG = LoggerFactory.getLogger(FileFingerprintStore.class);
+
+    private final File file;
+
+    public FileFingerprintStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized SchemaFingerprint load(String keyspaceName) {
+        if (!file.isFile())
+            return null;
+        Properties props = read();
+        String hash = props.getProperty(keyspaceName + ".models");
+        String version = props.getProperty(keyspaceName + ".schema_version");
+        if (null == hash || null == version)
+            return null;
+        try {
+            return new SchemaFingerprint(hash, UUID.fromString(version));
+        }
+        catch (IllegalArgumentException e) {
+            LOG.warn("Ignoring malformed schema version in {}", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void save(String keyspaceName, SchemaFingerprint fingerprint) {
+        Properties props = file.isFile() ? read() : new Properties();
+        props.setProperty(keyspaceName + ".models", fingerprint.getModelHash());
+        props.setProperty(keyspaceName + ".schema_version", String.valueOf(fingerprint.getSchemaVersion()));
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        try {
+            if (null != parent)
+                Files.createDirectories(parent.toPath());
+            // Write next to the file and move it over, so a crash never leaves a half written fingerprint
+            File tmp = new File(parent, file.getName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+                props.store(out, "Cassinate schema fingerprints");
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            LOG.warn("Could not save schema fingerprint to {}", file, e);
+        }
+    }
+
+    private Properties read() {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            props.load(in);
+        }
+        catch (IOException e) {
+            LOG.warn("Could not read schema fingerprints from {}", file, e);
+        }
+        return props;
+    }
+}
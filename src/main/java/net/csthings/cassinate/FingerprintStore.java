@@ -0,0 +1,44 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Keeps the {@link SchemaFingerprint} of the last schema Cassinate applied to a keyspace
+ * <p/>
+ * See {@link FileFingerprintStore} and {@link TableFingerprintStore}
+ */
+public interface FingerprintStore {
+    /**
+     * @param keyspaceName
+     * @return the last saved fingerprint or null if there is none
+     */
+    SchemaFingerprint load(String keyspaceName);
+
+    /**
+     * Saves {@link fingerprint} for {@link keyspaceName}, replacing the previous one
+     * @param keyspaceName
+     * @param fingerprint
+     */
+    void save(String keyspaceName, SchemaFingerprint fingerprint);
+}
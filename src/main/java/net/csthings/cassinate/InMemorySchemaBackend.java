@@ -0,0 +1,574 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.VersionNumber;
+import com.datastax.driver.core.exceptions.AlreadyExistsException;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - {@link SchemaBackend} keeping keyspaces and tables in memory. It understands the DDL Cassinate emits
+ * (CREATE/DROP KEYSPACE, CREATE/ALTER/DROP/TRUNCATE TABLE, CREATE/DROP INDEX and MATERIALIZED VIEW) and fails like
+ * Cassandra does, with {@link AlreadyExistsException} and {@link InvalidQueryException}. Other statements are
+ * accepted and ignored.
+ * <p/>
+ * Use it for unit tests and offline dry runs ({@link Cassinate.Builder#dryRun()}):
+ * <pre>
+ *   InMemorySchemaBackend backend = new InMemorySchemaBackend();
+ *   backend.execute("CREATE KEYSPACE ks WITH replication = {'class': 'SimpleStrategy', 'replication_factor': 1}");
+ *   Cassinate.builder().useKeyspace("ks").useSchemaBackend(backend).build();
+ *   backend.getExecutedStatements(); // the DDL Cassinate applied
+ * </pre>
+ */
+public class InMemorySchemaBackend implements SchemaBackend {
+    public static final Logger LOG = LoggerFactory.getLogger(InMemorySchemaBackend.class);
+    public static final VersionNumber DEFAULT_CASSANDRA_VERSION = VersionNumber.parse("3.11.0");
+
+    private static final String ID = "(?:\"(?:[^\"]|\"\")+\"|\\w+)";
+    private static final String NAME = "(" + ID + "(?:\\s*\\.\\s*" + ID + ")?)";
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.DOTALL;
+    private static final Pattern CREATE_KEYSPACE = Pattern.compile(
+            "^CREATE\\s+(?:KEYSPACE|SCHEMA)\\s+(IF\\s+NOT\\s+EXISTS\\s+)?(" + ID + ")", FLAGS);
+    private static final Pattern DROP_KEYSPACE = Pattern.compile(
+            "^DROP\\s+(?:KEYSPACE|SCHEMA)\\s+(IF\\s+EXISTS\\s+)?(" + ID + ")", FLAGS);
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "^CREATE\\s+(?:TABLE|COLUMNFAMILY)\\s+(IF\\s+NOT\\s+EXISTS\\s+)?" + NAME + "\\s*\\(", FLAGS);
+    private static final Pattern ALTER_TABLE = Pattern.compile(
+            "^ALTER\\s+(?:TABLE|COLUMNFAMILY)\\s+" + NAME + "\\s+(ADD|DROP|ALTER|RENAME|WITH)\\b\\s*(.*)$", FLAGS);
+    private static final Pattern DROP_TABLE = Pattern.compile(
+            "^DROP\\s+(?:TABLE|COLUMNFAMILY)\\s+(IF\\s+EXISTS\\s+)?" + NAME, FLAGS);
+    private static final Pattern CREATE_INDEX = Pattern.compile("^CREATE\\s+(?:CUSTOM\\s+)?INDEX\\s+"
+            + "(IF\\s+NOT\\s+EXISTS\\s+)?(?:" + ID + ")?\\s*ON\\s+" + NAME, FLAGS);
+    private static final Pattern DROP_INDEX = Pattern.compile("^DROP\\s+INDEX\\s+(IF\\s+EXISTS\\s+)?" + NAME,
+            FLAGS);
+    private static final Pattern CREATE_VIEW = Pattern.compile("^CREATE\\s+MATERIALIZED\\s+VIEW\\s+"
+            + "(IF\\s+NOT\\s+EXISTS\\s+)?" + NAME + "\\s+AS\\s+SELECT\\s+.*?\\s+FROM\\s+" + NAME, FLAGS);
+    private static final Pattern DROP_VIEW = Pattern.compile(
+            "^DROP\\s+MATERIALIZED\\s+VIEW\\s+(IF\\s+EXISTS\\s+)?" + NAME, FLAGS);
+    private static final Pattern TRUNCATE = Pattern.compile("^TRUNCATE\\s+(?:TABLE\\s+)?" + NAME, FLAGS);
+    private static final Pattern PRIMARY_KEY = Pattern.compile("^PRIMARY\\s+KEY\\s*\\((.*)\\)$", FLAGS);
+    private static final Pattern INLINE_KEY = Pattern.compile("\\s+PRIMARY\\s+KEY\\s*$", FLAGS);
+    private static final Pattern STATIC = Pattern.compile("\\s+STATIC\\s*$", FLAGS);
+    private static final Pattern WITH = Pattern.compile("^\\s*WITH\\s+(.*)$", FLAGS);
+    private static final Pattern ALTER_TYPE = Pattern.compile("^(" + ID + ")\\s+TYPE\\s+(.+)$", FLAGS);
+
+    private final Map<String, Map<String, Table>> keyspaces = new LinkedHashMap<>();
+    private final List<String> executed = new ArrayList<>();
+    private final VersionNumber cassandraVersion;
+    private UUID schemaVersion = UUID.randomUUID();
+
+    public InMemorySchemaBackend() {
+        this(DEFAULT_CASSANDRA_VERSION);
+    }
+
+    /**
+     * @param cassandraVersion version reported by {@link #getMinCassandraVersion()}, to exercise version gated DDL
+     */
+    public InMemorySchemaBackend(VersionNumber cassandraVersion) {
+        this.cassandraVersion = cassandraVersion;
+    }
+
+    /**
+     * Creates {@link keyspaceName} if it doesn't exist
+     * @param keyspaceName
+     */
+    public synchronized void createKeyspace(String keyspaceName) {
+        if (null == keyspaces.putIfAbsent(SchemaSnapshot.handleId(keyspaceName), new LinkedHashMap<>()))
+            schemaVersion = UUID.randomUUID();
+    }
+
+    /**
+     * Runs {@link statement} without a current keyspace
+     * @param statement
+     * @throws AlreadyExistsException
+     * @throws InvalidQueryException
+     */
+    public void execute(String statement) {
+        execute(null, statement);
+    }
+
+    /**
+     * Runs {@link statement} with {@link keyspaceName} as the current keyspace
+     * @param keyspaceName keyspace of unqualified table names, or null
+     * @param statement
+     * @throws AlreadyExistsException
+     * @throws InvalidQueryException
+     */
+    public synchronized void execute(String keyspaceName, String statement) {
+        String cql = statement.trim();
+        if (cql.endsWith(";"))
+            cql = cql.substring(0, cql.length() - 1).trim();
+        if (apply(null == keyspaceName ? null : SchemaSnapshot.handleId(keyspaceName), cql)) {
+            executed.add(statement);
+            schemaVersion = UUID.randomUUID();
+        }
+    }
+
+    /**
+     * @return the schema changing statements applied so far, in order
+     */
+    public synchronized List<String> getExecutedStatements() {
+        return Collections.unmodifiableList(new ArrayList<>(executed));
+    }
+
+    @Override
+    public synchronized SchemaSnapshot getKeyspace(String keyspaceName) {
+        String ks = SchemaSnapshot.handleId(keyspaceName);
+        Map<String, Table> tables = keyspaces.get(ks);
+        if (null == tables)
+            return null;
+        SchemaSnapshot.Builder builder = SchemaSnapshot.builder(ks);
+        for (Entry<String, Table> e : tables.entrySet()) {
+            Table table = e.getValue();
+            builder.addTable(new SchemaSnapshot.TableSnapshot(e.getKey(), new LinkedHashMap<>(table.columns),
+                    new ArrayList<>(table.primaryKey.subList(0, table.partitionKeySize)),
+                    new ArrayList<>(table.primaryKey.subList(table.partitionKeySize, table.primaryKey.size())),
+                    table.settings, new ArrayList<>(table.indexes.values())));
+            for (ViewDefinition view : table.views.values()) {
+                builder.addView(view);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public synchronized UUID getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    @Override
+    public VersionNumber getMinCassandraVersion() {
+        return cassandraVersion;
+    }
+
+    @Override
+    public boolean checkSchemaAgreement() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<ResultSet> executeAsync(String keyspaceName, String statement) {
+        CompletableFuture<ResultSet> future = new CompletableFuture<>();
+        try {
+            execute(keyspaceName, statement);
+            future.complete(null);
+        }
+        catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return true if the schema changed
+     */
+    private boolean apply(String keyspaceName, String cql) {
+        Matcher m;
+        if ((m = CREATE_KEYSPACE.matcher(cql)).find()) {
+            String ks = SchemaSnapshot.handleId(m.group(2));
+            if (keyspaces.containsKey(ks)) {
+                if (null != m.group(1))
+                    return false;
+                throw new AlreadyExistsException(ks, "");
+            }
+            keyspaces.put(ks, new LinkedHashMap<>());
+            return true;
+        }
+        if ((m = DROP_KEYSPACE.matcher(cql)).find()) {
+            String ks = SchemaSnapshot.handleId(m.group(2));
+            if (null == keyspaces.remove(ks) && null == m.group(1))
+                throw new InvalidQueryException("Cannot drop non existing keyspace '" + ks + "'.");
+            return true;
+        }
+        if ((m = CREATE_TABLE.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(2));
+            Map<String, Table> tables = keyspace(name[0]);
+            if (tables.containsKey(name[1])) {
+                if (null != m.group(1))
+                    return false;
+                throw new AlreadyExistsException(name[0], name[1]);
+            }
+            String body = enclosed(cql, m.end() - 1);
+            Table table = parseTable(body);
+            Matcher with = WITH.matcher(cql.substring(m.end() + body.length() + 1));
+            if (with.find())
+                table.settings = settings(with.group(1));
+            tables.put(name[1], table);
+            return true;
+        }
+        if ((m = ALTER_TABLE.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(1));
+            alter(table(name), m.group(2).toUpperCase(), m.group(3).trim());
+            return true;
+        }
+        if ((m = DROP_TABLE.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(2));
+            Map<String, Table> tables = keyspace(name[0]);
+            Table table = tables.get(name[1]);
+            if (null != table && !table.views.isEmpty())
+                throw new InvalidQueryException("Cannot drop table when materialized views still depend on it ("
+                        + name[0] + ".{" + String.join(",", table.views.keySet()) + "})");
+            if (null == tables.remove(name[1]) && null == m.group(1))
+                throw new InvalidQueryException("unconfigured table " + name[1]);
+            return true;
+        }
+        if ((m = CREATE_INDEX.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(2));
+            Table table = table(name);
+            IndexDefinition index = IndexDefinition.parse(cql);
+            if (null == index)
+                throw new InvalidQueryException("Invalid index: " + cql);
+            if (!table.columns.containsKey(index.getColumn()))
+                throw new InvalidQueryException("Undefined column name " + index.getColumn());
+            if (null != findIndex(name[0], index.getName())) {
+                if (null != m.group(1))
+                    return false;
+                throw new InvalidQueryException("Index " + index.getName() + " already exists");
+            }
+            table.indexes.put(index.getName(), index);
+            return true;
+        }
+        if ((m = DROP_INDEX.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(2));
+            Table table = findIndex(name[0], name[1]);
+            if (null == table) {
+                if (null != m.group(1))
+                    return false;
+                throw new InvalidQueryException("Index '" + name[1] + "' could not be found in any of the tables of "
+                        + "keyspace '" + name[0] + "'");
+            }
+            table.indexes.remove(name[1]);
+            return true;
+        }
+        if ((m = CREATE_VIEW.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(2));
+            String[] base = qualify(keyspaceName, m.group(3));
+            Table table = table(base);
+            ViewDefinition view = ViewDefinition.parse(cql);
+            if (null == view)
+                throw new InvalidQueryException("Invalid materialized view: " + cql);
+            if (null != findView(name[0], name[1]) || keyspace(name[0]).containsKey(name[1])) {
+                if (null != m.group(1))
+                    return false;
+                throw new AlreadyExistsException(name[0], name[1]);
+            }
+            List<String> key = new ArrayList<>(view.getPartitionKey());
+            key.addAll(view.getClusteringColumns());
+            for (String column : key) {
+                if (!table.columns.containsKey(column))
+                    throw new InvalidQueryException("Undefined column name " + column);
+            }
+            for (String column : table.primaryKey) {
+                if (!key.contains(column))
+                    throw new InvalidQueryException("Cannot create Materialized View " + name[1] + " without "
+                            + "primary key columns from base " + base[1] + " (" + column + ")");
+            }
+            table.views.put(name[1], view);
+            return true;
+        }
+        if ((m = DROP_VIEW.matcher(cql)).find()) {
+            String[] name = qualify(keyspaceName, m.group(2));
+            Table table = findView(name[0], name[1]);
+            if (null == table) {
+                if (null != m.group(1))
+                    return false;
+                throw new InvalidQueryException("Cannot drop non existing materialized view '" + name[1]
+                        + "' in keyspace '" + name[0] + "'.");
+            }
+            table.views.remove(name[1]);
+            return true;
+        }
+        if ((m = TRUNCATE.matcher(cql)).find()) {
+            table(qualify(keyspaceName, m.group(1)));
+            return false;
+        }
+        LOG.debug("Ignoring statement: {}", cql);
+        return false;
+    }
+
+    private Map<String, Table> keyspace(String keyspaceName) {
+        if (null == keyspaceName)
+            throw new InvalidQueryException("No keyspace has been specified. USE a keyspace, or explicitly specify "
+                    + "keyspace.tablename");
+        Map<String, Table> tables = keyspaces.get(keyspaceName);
+        if (null == tables)
+            throw new InvalidQueryException("Keyspace " + keyspaceName + " does not exist");
+        return tables;
+    }
+
+    /**
+     * @return the table with index {@link name} or null if there is none
+     */
+    private Table findIndex(String keyspaceName, String name) {
+        for (Table table : keyspace(keyspaceName).values()) {
+            if (table.indexes.containsKey(name))
+                return table;
+        }
+        return null;
+    }
+
+    /**
+     * @return the base table of view {@link name} or null if there is none
+     */
+    private Table findView(String keyspaceName, String name) {
+        for (Table table : keyspace(keyspaceName).values()) {
+            if (table.views.containsKey(name))
+                return table;
+        }
+        return null;
+    }
+
+    private Table table(String[] name) {
+        Table table = keyspace(name[0]).get(name[1]);
+        if (null == table)
+            throw new InvalidQueryException("unconfigured table " + name[1]);
+        return table;
+    }
+
+    private static Table parseTable(String body) {
+        Table table = new Table();
+        for (String definition : splitTopLevel(body)) {
+            Matcher key = PRIMARY_KEY.matcher(definition);
+            if (key.find()) {
+                String keys = key.group(1).trim();
+                table.partitionKeySize = keys.startsWith("(") ? splitTopLevel(enclosed(keys, 0)).size() : 1;
+                for (String column : splitTopLevel(key.group(1).replace("(", " ").replace(")", " "))) {
+                    table.primaryKey.add(SchemaSnapshot.handleId(column));
+                }
+                continue;
+            }
+            boolean inlineKey = INLINE_KEY.matcher(definition).find();
+            String column = STATIC.matcher(INLINE_KEY.matcher(definition).replaceFirst("")).replaceFirst("");
+            String[] parts = column.split("\\s+", 2);
+            if (parts.length < 2)
+                throw new InvalidQueryException("Invalid column definition: " + definition);
+            String columnName = SchemaSnapshot.handleId(parts[0]);
+            table.columns.put(columnName, type(parts[1]));
+            if (inlineKey) {
+                table.primaryKey.add(columnName);
+                table.partitionKeySize = 1;
+            }
+        }
+        if (table.primaryKey.isEmpty())
+            throw new InvalidQueryException("No PRIMARY KEY specifed (exactly one required)");
+        for (String key : table.primaryKey) {
+            if (!table.columns.containsKey(key))
+                throw new InvalidQueryException("Unknown definition " + key + " referenced in PRIMARY KEY");
+        }
+        return table;
+    }
+
+    private static void alter(Table table, String action, String rest) {
+        switch (action) {
+        case "ADD":
+            for (String definition : list(rest)) {
+                String[] parts = definition.split("\\s+", 2);
+                if (parts.length < 2)
+                    throw new InvalidQueryException("Invalid column definition: " + definition);
+                String column = SchemaSnapshot.handleId(parts[0]);
+                if (table.columns.containsKey(column))
+                    throw new InvalidQueryException("Invalid column name " + column
+                            + " because it conflicts with an existing column");
+                table.columns.put(column, type(STATIC.matcher(parts[1]).replaceFirst("")));
+            }
+            break;
+        case "DROP":
+            for (String name : list(rest)) {
+                String column = SchemaSnapshot.handleId(name);
+                if (table.primaryKey.contains(column))
+                    throw new InvalidQueryException("Cannot drop PRIMARY KEY part " + column);
+                if (!table.views.isEmpty())
+                    throw new InvalidQueryException("Cannot drop column " + column
+                            + " on base table with materialized views.");
+                for (IndexDefinition index : table.indexes.values()) {
+                    if (index.getColumn().equals(column))
+                        throw new InvalidQueryException("Cannot drop column " + column
+                                + " because it has dependent secondary indexes (" + index.getName() + ")");
+                }
+                if (null == table.columns.remove(column))
+                    throw new InvalidQueryException("Column " + column + " was not found in table");
+            }
+            break;
+        case "ALTER":
+            Matcher m = ALTER_TYPE.matcher(rest);
+            if (!m.find())
+                throw new InvalidQueryException("Invalid ALTER: " + rest);
+            String column = SchemaSnapshot.handleId(m.group(1));
+            if (!table.columns.containsKey(column))
+                throw new InvalidQueryException("Column " + column + " was not found in table");
+            table.columns.put(column, type(m.group(2)));
+            break;
+        case "RENAME":
+            for (String rename : rest.split("(?i)\\s+AND\\s+")) {
+                String[] parts = rename.trim().split("(?i)\\s+TO\\s+");
+                String from = SchemaSnapshot.handleId(parts[0].trim());
+                String to = SchemaSnapshot.handleId(parts[1].trim());
+                int position = table.primaryKey.indexOf(from);
+                if (position < 0)
+                    throw new InvalidQueryException("Cannot rename non PRIMARY KEY part " + from);
+                Map<String, DataType> columns = new LinkedHashMap<>();
+                for (Entry<String, DataType> e : table.columns.entrySet()) {
+                    columns.put(e.getKey().equals(from) ? to : e.getKey(), e.getValue());
+                }
+                table.columns = columns;
+                table.primaryKey.set(position, to);
+            }
+            break;
+        default:
+            // WITH: only the options Cassinate manages are tracked
+            table.settings = table.settings.merge(settings(rest));
+            break;
+        }
+    }
+
+    /**
+     * @return the items of {@code (a, b)} or the single item {@code a}
+     */
+    private static List<String> list(String value) {
+        String items = value.trim();
+        if (items.startsWith("("))
+            items = enclosed(items, 0);
+        return splitTopLevel(items);
+    }
+
+    private static TableSettings settings(String with) {
+        try {
+            return TableSettings.parse(with);
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidQueryException("Invalid table options " + with.trim(), e);
+        }
+    }
+
+    private static DataType type(String cql) {
+        try {
+            return CqlTypes.parse(cql);
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidQueryException("Unknown type " + cql.trim(), e);
+        }
+    }
+
+    /**
+     * @return keyspace (or null) and table of {@link name}
+     */
+    private static String[] qualify(String keyspaceName, String name) {
+        List<String> parts = splitOutsideQuotes(name, '.');
+        if (parts.size() == 2)
+            return new String[] { SchemaSnapshot.handleId(parts.get(0).trim()),
+                    SchemaSnapshot.handleId(parts.get(1).trim()) };
+        return new String[] { keyspaceName, SchemaSnapshot.handleId(name.trim()) };
+    }
+
+    /**
+     * @return the text between the parenthesis at {@link open} and its closing parenthesis
+     */
+    private static String enclosed(String cql, int open) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = open; i < cql.length(); i++) {
+            char c = cql.charAt(i);
+            if (c == '"' || c == '\'')
+                quoted = !quoted;
+            else if (!quoted && c == '(')
+                depth++;
+            else if (!quoted && c == ')' && --depth == 0)
+                return cql.substring(open + 1, i);
+        }
+        throw new InvalidQueryException("Unbalanced parenthesis in: " + cql);
+    }
+
+    /**
+     * Splits on the commas that are not inside {@code <>}, {@code ()} or quotes
+     */
+    private static List<String> splitTopLevel(String value) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\'')
+                quoted = !quoted;
+            else if (!quoted && (c == '<' || c == '('))
+                depth++;
+            else if (!quoted && (c == '>' || c == ')'))
+                depth--;
+            else if (!quoted && depth == 0 && c == ',') {
+                addPart(parts, value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        addPart(parts, value.substring(start));
+        return parts;
+    }
+
+    private static void addPart(List<String> parts, String part) {
+        String trimmed = part.trim();
+        if (!trimmed.isEmpty())
+            parts.add(trimmed);
+    }
+
+    private static List<String> splitOutsideQuotes(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (!quoted && c == separator) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    private static class Table {
+        private Map<String, DataType> columns = new LinkedHashMap<>();
+        private final List<String> primaryKey = new ArrayList<>();
+        private int partitionKeySize;
+        private TableSettings settings = TableSettings.NONE;
+        private final Map<String, IndexDefinition> indexes = new LinkedHashMap<>();
+        private final Map<String, ViewDefinition> views = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,208 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.datastax.driver.core.IndexMetadata;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - A secondary index, declared with {@link SecondaryIndex} or read from the live table
+ */
+public final class IndexDefinition {
+    private static final Pattern CREATE_INDEX = Pattern.compile("^\\s*CREATE\\s+(CUSTOM\\s+)?INDEX\\s+"
+            + "(?:IF\\s+NOT\\s+EXISTS\\s+)?(" + CqlTypes.IDENTIFIER + ")?\\s*ON\\s+(" + CqlTypes.QUALIFIED_NAME
+            + ")\\s*\\((.*)\\)\\s*(?:USING\\s+'((?:[^']|'')*)')?\\s*(?:WITH\\s+OPTIONS\\s*=\\s*(\\{.*\\}))?\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TARGET = Pattern.compile("^(\\w+)\\s*\\((.*)\\)$", Pattern.DOTALL);
+
+    private final String name;
+    private final String table;
+    private final String column;
+    private final String target;
+    private final String using;
+    private final Map<String, String> options;
+
+    /**
+     * @param name index name or null for {@code <table>_<column>_idx}
+     * @param table indexed table
+     * @param column indexed column
+     * @param target {@code keys}, {@code values}, {@code entries} or {@code full} for collections, empty otherwise
+     * @param using custom index class, empty for a regular index
+     * @param options custom index options
+     */
+    public IndexDefinition(String name, String table, String column, String target, String using,
+            Map<String, String> options) {
+        this.table = SchemaSnapshot.handleId(table);
+        this.column = SchemaSnapshot.handleId(column);
+        this.name = null == name || name.isEmpty() ? this.table + "_" + this.column + "_idx"
+                : SchemaSnapshot.handleId(name);
+        this.target = null == target ? "" : target.toLowerCase();
+        this.using = null == using ? "" : using;
+        this.options = Collections.unmodifiableMap(new LinkedHashMap<>(options));
+    }
+
+    /**
+     * @param table table of the model
+     * @param column column of the annotated field
+     * @param index
+     * @return the declared index
+     * @throws IllegalArgumentException if an option isn't {@code name=value}
+     */
+    static IndexDefinition of(String table, String column, SecondaryIndex index) {
+        return new IndexDefinition(index.name(), table, column, index.target(), index.using(),
+                TableSettings.options("@SecondaryIndex", Arrays.asList(index.options())));
+    }
+
+    static IndexDefinition of(IndexMetadata index) {
+        String[] target = target(index.getTarget());
+        // The target is cql, quoted if needed; the names are exact
+        return new IndexDefinition(SchemaSnapshot.exactId(index.getName()),
+                SchemaSnapshot.exactId(index.getTable().getName()), target[1], target[0],
+                index.isCustomIndex() ? index.getIndexClassName() : "", Collections.emptyMap());
+    }
+
+    /**
+     * Reads a {@code CREATE [CUSTOM] INDEX} statement
+     * @param cql
+     * @return the index or null if {@link cql} doesn't create an index
+     */
+    static IndexDefinition parse(String cql) {
+        Matcher m = CREATE_INDEX.matcher(cql);
+        if (!m.find())
+            return null;
+        String[] target = target(m.group(4).trim());
+        Map<String, String> options = null == m.group(6) ? Collections.emptyMap()
+                : TableSettings.parseMap(m.group(6));
+        return new IndexDefinition(m.group(2), CqlTypes.unqualified(m.group(3)), target[1], target[0],
+                null == m.group(5) ? "" : m.group(5).replace("''", "'"), options);
+    }
+
+    /**
+     * @return {target function or empty, column}
+     */
+    private static String[] target(String target) {
+        Matcher m = TARGET.matcher(target.trim());
+        if (m.find())
+            return new String[] { m.group(1), m.group(2).trim() };
+        return new String[] { "", target.trim() };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getUsing() {
+        return using;
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    /**
+     * Checks whether {@link existing} indexes the same thing the same way. Options are not compared; Cassandra
+     * doesn't report them back consistently.
+     * @param existing index of the live table
+     * @return true if {@link existing} doesn't need to be recreated
+     */
+    public boolean matches(IndexDefinition existing) {
+        return table.equals(existing.table) && column.equals(existing.column)
+                && normalizedTarget().equals(existing.normalizedTarget())
+                && simpleName(using).equalsIgnoreCase(simpleName(existing.using));
+    }
+
+    /**
+     * Regular indexes on a collection index its values
+     */
+    private String normalizedTarget() {
+        return target.isEmpty() ? "values" : target;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    public String toCql() {
+        StringBuilder sb = new StringBuilder("CREATE ");
+        if (!using.isEmpty())
+            sb.append("CUSTOM ");
+        sb.append("INDEX IF NOT EXISTS ").append(SchemaSnapshot.cqlId(name)).append(" ON ")
+                .append(SchemaSnapshot.cqlId(table)).append(" (");
+        if (target.isEmpty())
+            sb.append(SchemaSnapshot.cqlId(column));
+        else
+            sb.append(target).append('(').append(SchemaSnapshot.cqlId(column)).append(')');
+        sb.append(')');
+        if (!using.isEmpty()) {
+            sb.append(" USING '").append(using.replace("'", "''")).append('\'');
+            if (!options.isEmpty())
+                sb.append(" WITH OPTIONS = ").append(TableSettings.mapCql(options));
+        }
+        return sb.append(';').toString();
+    }
+
+    public String toDropCql() {
+        return "DROP INDEX IF EXISTS " + SchemaSnapshot.cqlId(name) + ";";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof IndexDefinition))
+            return false;
+        IndexDefinition other = (IndexDefinition) obj;
+        return name.equals(other.name) && table.equals(other.table) && column.equals(other.column)
+                && target.equals(other.target) && using.equals(other.using) && options.equals(other.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, table, column, target, using, options);
+    }
+
+    @Override
+    public String toString() {
+        return toCql();
+    }
+}
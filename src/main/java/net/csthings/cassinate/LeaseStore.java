@@ -0,0 +1,82 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Holds the per keyspace lease that decides which instance applies schema changes
+ * <p/>
+ * See {@link MigrationLease} and {@link TableLeaseStore}
+ */
+public interface LeaseStore {
+    /**
+     * Takes the lease of {@link keyspaceName} if nobody holds it
+     * @param keyspaceName
+     * @param owner id of the instance taking the lease
+     * @param ttlSeconds seconds after which the lease expires unless renewed
+     * @return true if {@link owner} now holds the lease
+     */
+    boolean tryAcquire(String keyspaceName, String owner, int ttlSeconds);
+
+    /**
+     * Extends the lease of {@link keyspaceName} by {@link ttlSeconds} if {@link owner} still holds it
+     * @param keyspaceName
+     * @param owner
+     * @param ttlSeconds
+     * @return false if the lease expired or was taken by someone else
+     */
+    boolean renew(String keyspaceName, String owner, int ttlSeconds);
+
+    /**
+     * Releases the lease of {@link keyspaceName} if {@link owner} holds it
+     * @param keyspaceName
+     * @param owner
+     */
+    void release(String keyspaceName, String owner);
+
+    /**
+     * Releases the lease of {@link keyspaceName} if {@link owner} holds it, recording the schema it left behind for
+     * the instances waiting on it. Stores that can't record it only release the lease.
+     * @param keyspaceName
+     * @param owner
+     * @param applied hash of the applied models and {@link SchemaSnapshot#getContentVersion()} of the keyspace after
+     *            applying them
+     */
+    default void release(String keyspaceName, String owner, SchemaFingerprint applied) {
+        release(keyspaceName, owner);
+    }
+
+    /**
+     * @param keyspaceName
+     * @return the schema recorded by the last holder to release the lease, or null if there is none
+     */
+    default SchemaFingerprint getApplied(String keyspaceName) {
+        return null;
+    }
+
+    /**
+     * @param keyspaceName
+     * @return the owner currently holding the lease or null if it is free
+     */
+    String getHolder(String keyspaceName);
+}
@@ -0,0 +1,63 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Materialized view over the table of a {@code @Table} class. Cassinate creates it after the table,
+ * recreates it when its key or columns change, and drops views of model tables that no class declares.
+ * <pre>
+ *   &#64;Table(name = "users")
+ *   &#64;MaterializedView(name = "users_by_email", partitionKey = "email", clusteringColumns = "id")
+ *   public class User { ... }
+ * </pre>
+ * Every column of the view's primary key gets an {@code IS NOT NULL} restriction.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(MaterializedViews.class)
+public @interface MaterializedView {
+    String name();
+
+    /**
+     * Partition key columns of the view
+     */
+    String[] partitionKey();
+
+    /**
+     * Clustering columns of the view. With {@link #partitionKey()} they must hold every primary key column of the
+     * table.
+     */
+    String[] clusteringColumns() default {};
+
+    /**
+     * Columns selected by the view besides its primary key, every column by default
+     */
+    String[] columns() default {};
+}
@@ -0,0 +1,311 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - {@link CassinateListener} keeping in-memory latency histograms and a startup timeline.
+ * <p/>
+ * An example use would be
+ * <pre>
+ *   MetricsListener metrics = new MetricsListener();
+ *   Cassinate.builder().addListener(metrics).build();
+ *   Files.write(path, metrics.toJson().getBytes(StandardCharsets.UTF_8));
+ * </pre>
+ */
+public class MetricsListener implements CassinateListener {
+    /** Timeline events kept at most, so a listener left attached doesn't grow forever */
+    public static final int MAX_TIMELINE_EVENTS = 100000;
+
+    private final long startNanos = System.nanoTime();
+    private final long startMillis = System.currentTimeMillis();
+    private final List<TimelineEvent> timeline = new ArrayList<>();
+    private final AtomicLong scanStartNanos = new AtomicLong();
+
+    private final Histogram scan = new Histogram();
+    private final Histogram classes = new Histogram();
+    private final Histogram diffs = new Histogram();
+    private final Histogram statements = new Histogram();
+    private final Histogram agreements = new Histogram();
+    private final AtomicLong statementFailures = new AtomicLong();
+    private final AtomicLong agreementTimeouts = new AtomicLong();
+    private final AtomicLong savedRoundTrips = new AtomicLong();
+
+    @Override
+    public void onScanStart(String[] packages) {
+        scanStartNanos.set(System.nanoTime());
+    }
+
+    @Override
+    public void onScanEnd(ScanReport report) {
+        long nanos = System.nanoTime() - scanStartNanos.get();
+        scan.record(nanos);
+        record("scan", String.valueOf(report.getSource()), nanos, true);
+    }
+
+    @Override
+    public void onClassProcessed(Class<?> clazz, long nanos) {
+        classes.record(nanos);
+        record("class", clazz.getName(), nanos, true);
+    }
+
+    @Override
+    public void onModelDiffed(String table, int operations, long nanos) {
+        diffs.record(nanos);
+        record("diff", table, nanos, true);
+    }
+
+    @Override
+    public void onMigrationPlanned(String keyspaceName, int changes, int statements) {
+        savedRoundTrips.addAndGet(changes - statements);
+    }
+
+    @Override
+    public void onStatementExecuted(DdlResult result) {
+        long nanos = result.getLatency(TimeUnit.NANOSECONDS);
+        statements.record(nanos);
+        if (!result.isSuccess())
+            statementFailures.incrementAndGet();
+        record("ddl", result.getStatement(), nanos, result.isSuccess());
+    }
+
+    @Override
+    public void onSchemaAgreement(boolean reached, long nanos) {
+        agreements.record(nanos);
+        if (!reached)
+            agreementTimeouts.incrementAndGet();
+        record("agreement", "", nanos, reached);
+    }
+
+    private void record(String phase, String name, long nanos, boolean success) {
+        long end = System.nanoTime() - startNanos;
+        synchronized (timeline) {
+            if (timeline.size() < MAX_TIMELINE_EVENTS)
+                timeline.add(new TimelineEvent(phase, name, end - nanos, nanos, success));
+        }
+    }
+
+    /**
+     * @return time spent loading models
+     */
+    public Histogram getScan() {
+        return scan;
+    }
+
+    /**
+     * @return reflection time per class in {@link ModelProcessor}
+     */
+    public Histogram getClasses() {
+        return classes;
+    }
+
+    /**
+     * @return diff time per model
+     */
+    public Histogram getDiffs() {
+        return diffs;
+    }
+
+    /**
+     * @return latency per DDL statement
+     */
+    public Histogram getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return schema agreement wait time per checkpoint
+     */
+    public Histogram getAgreements() {
+        return agreements;
+    }
+
+    public long getStatementFailures() {
+        return statementFailures.get();
+    }
+
+    public long getAgreementTimeouts() {
+        return agreementTimeouts.get();
+    }
+
+    /**
+     * @return DDL statements avoided by merging column changes
+     */
+    public long getSavedRoundTrips() {
+        return savedRoundTrips.get();
+    }
+
+    /**
+     * Exports the histograms and the startup timeline as JSON. Timeline offsets are in microseconds since this
+     * listener was created.
+     * @return the JSON document
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"startedAt\":").append(startMillis);
+        sb.append(",\"statementFailures\":").append(statementFailures.get());
+        sb.append(",\"agreementTimeouts\":").append(agreementTimeouts.get());
+        sb.append(",\"savedRoundTrips\":").append(savedRoundTrips.get());
+        sb.append(",\"histograms\":{");
+        scan.appendJson(sb.append("\"scan\":"));
+        classes.appendJson(sb.append(",\"class\":"));
+        diffs.appendJson(sb.append(",\"diff\":"));
+        statements.appendJson(sb.append(",\"ddl\":"));
+        agreements.appendJson(sb.append(",\"agreement\":"));
+        sb.append("},\"timeline\":[");
+        synchronized (timeline) {
+            for (int i = 0; i < timeline.size(); i++) {
+                if (i > 0)
+                    sb.append(',');
+                timeline.get(i).appendJson(sb);
+            }
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20)
+                    sb.append(String.format("\\u%04x", (int) c));
+                else
+                    sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * @purpose - Lock free latency histogram with power of two nanosecond buckets
+     */
+    public static class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value) - (value == 0 ? 0 : 1));
+            count.incrementAndGet();
+            total.addAndGet(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotal(TimeUnit unit) {
+            return unit.convert(total.get(), TimeUnit.NANOSECONDS);
+        }
+
+        public long getMax(TimeUnit unit) {
+            return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @param unit
+         * @return upper bound of the bucket holding {@link percentile}, or 0 if nothing was recorded
+         */
+        public long getPercentile(double percentile, TimeUnit unit) {
+            long n = count.get();
+            if (n == 0)
+                return 0;
+            long rank = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(1, rank))
+                    return unit.convert(Math.min(max.get(), (2L << i) - 1), TimeUnit.NANOSECONDS);
+            }
+            return getMax(unit);
+        }
+
+        void appendJson(StringBuilder sb) {
+            sb.append("{\"count\":").append(getCount());
+            sb.append(",\"totalUs\":").append(getTotal(TimeUnit.MICROSECONDS));
+            sb.append(",\"p50Us\":").append(getPercentile(50, TimeUnit.MICROSECONDS));
+            sb.append(",\"p99Us\":").append(getPercentile(99, TimeUnit.MICROSECONDS));
+            sb.append(",\"maxUs\":").append(getMax(TimeUnit.MICROSECONDS)).append('}');
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Histogram ");
+            appendJson(sb);
+            return sb.toString();
+        }
+    }
+
+    private static class TimelineEvent {
+        private final String phase;
+        private final String name;
+        private final long startNanos;
+        private final long durationNanos;
+        private final boolean success;
+
+        TimelineEvent(String phase, String name, long startNanos, long durationNanos, boolean success) {
+            this.phase = phase;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.success = success;
+        }
+
+        void appendJson(StringBuilder sb) {
+            sb.append("{\"phase\":\"").append(phase).append("\",\"name\":");
+            appendString(sb, name);
+            sb.append(",\"startUs\":").append(TimeUnit.NANOSECONDS.toMicros(startNanos));
+            sb.append(",\"durationUs\":").append(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+            sb.append(",\"success\":").append(success).append('}');
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Lets one instance of a service apply schema changes while the others wait, instead of every instance
+ * sending the same DDL at once.
+ * <p/>
+ * An instance with nothing to apply never touches the lease. Otherwise it tries to take the lease: the holder
+ * checks again what is left to apply and applies it, renewing the lease while it works. The others wait for the
+ * lease to be released (or to expire) and for the cluster to agree on the schema, then check again.
+ * <p/>
+ * The driver refreshes its schema metadata a while after another client changed it, so an instance that checks
+ * right after a release can still see the old schema. The holder records the schema it applied when it releases
+ * the lease, and the others wait until their own metadata shows it before checking again.
+ */
+public class MigrationLease {
+    public static final Logger LOG = LoggerFactory.getLogger(MigrationLease.class);
+    public static final int DEFAULT_TTL_SECONDS = 60;
+    public static final long DEFAULT_WAIT_TIMEOUT_SECONDS = 300;
+    static final long POLL_MILLIS = 500;
+
+    private final LeaseStore store;
+    private final String owner;
+    private final int ttlSeconds;
+    private final long waitTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param store where the lease is kept
+     * @param ttlSeconds seconds a lease outlives a crashed holder
+     * @param waitTimeout how long to wait for another holder before giving up
+     * @param unit unit of {@link waitTimeout}
+     * @param scheduler scheduler renewing the lease while it is held, or null to not renew
+     */
+    public MigrationLease(LeaseStore store, int ttlSeconds, long waitTimeout, TimeUnit unit,
+            ScheduledExecutorService scheduler) {
+        this(store, defaultOwner(), ttlSeconds, waitTimeout, unit, scheduler);
+    }
+
+    /**
+     * @param owner id of this instance, unique across the instances sharing the keyspace
+     */
+    public MigrationLease(LeaseStore store, String owner, int ttlSeconds, long waitTimeout, TimeUnit unit,
+            ScheduledExecutorService scheduler) {
+        if (ttlSeconds < 1)
+            throw new IllegalArgumentException("ttlSeconds must be at least 1");
+        this.store = store;
+        this.owner = owner;
+        this.ttlSeconds = ttlSeconds;
+        this.waitTimeoutMillis = unit.toMillis(waitTimeout);
+        this.scheduler = scheduler;
+    }
+
+    private static String defaultOwner() {
+        // pid@host from the runtime name, made unique for several Cassinate instances in one JVM
+        return ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Applies the changes returned by {@link pending} under the lease of {@link keyspaceName}
+     * @param keyspaceName
+     * @param pending computes the changes still to apply. Called before taking the lease and again while holding it.
+     * @param apply applies the changes
+     * @param schemaAgreement tells whether the cluster agrees on the schema
+     * @param current hash of the models to apply and {@link SchemaSnapshot#getContentVersion()} of the keyspace as
+     *            this instance's metadata shows it
+     * @return true if this instance applied changes, false if there was nothing left to apply
+     * @throws IllegalStateException if another instance held the lease, or this instance's metadata lagged behind
+     *             it, for longer than the wait timeout
+     */
+    public <T> boolean migrate(String keyspaceName, Supplier<List<T>> pending, Consumer<List<T>> apply,
+            BooleanSupplier schemaAgreement, Supplier<SchemaFingerprint> current) {
+        return migrate(keyspaceName, pending, apply, schemaAgreement, current, () -> false);
+    }
+
+    /**
+     * Like {@link #migrate(String, Supplier, Consumer, BooleanSupplier, Supplier)}, waiting past the timeout for a
+     * holder that is still working on a change that can take hours, such as a {@link PrimaryKeyMigration}. The
+     * holder keeps renewing the lease meanwhile, so it only stops waiting once the holder is done or its lease
+     * expired.
+     * @param longRunning tells whether the holder is busy with such a change
+     */
+    public <T> boolean migrate(String keyspaceName, Supplier<List<T>> pending, Consumer<List<T>> apply,
+            BooleanSupplier schemaAgreement, Supplier<SchemaFingerprint> current, BooleanSupplier longRunning) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        // Read before the first check, so a holder releasing after it is noticed
+        SchemaFingerprint seen = store.getApplied(keyspaceName);
+        while (!pending.get().isEmpty()) {
+            if (store.tryAcquire(keyspaceName, owner, ttlSeconds)) {
+                LOG.info("Took the migration lease of {} as {}", keyspaceName, owner);
+                return migrateHoldingLease(keyspaceName, seen, pending, apply, current, deadline);
+            }
+            deadline = awaitRelease(keyspaceName, schemaAgreement, longRunning, deadline);
+            SchemaFingerprint applied = store.getApplied(keyspaceName);
+            if (!Objects.equals(seen, applied) && awaitApplied(keyspaceName, applied, current, deadline))
+                return false;
+            seen = applied;
+        }
+        return false;
+    }
+
+    private <T> boolean migrateHoldingLease(String keyspaceName, SchemaFingerprint seen, Supplier<List<T>> pending,
+            Consumer<List<T>> apply, Supplier<SchemaFingerprint> current, long deadline) {
+        ScheduledFuture<?> renewal = null;
+        if (null != scheduler) {
+            long period = Math.max(1, TimeUnit.SECONDS.toMillis(ttlSeconds) / 3);
+            renewal = scheduler.scheduleAtFixedRate(() -> {
+                try {
+                    if (!store.renew(keyspaceName, owner, ttlSeconds))
+                        LOG.warn("Lost the migration lease of {} while migrating", keyspaceName);
+                }
+                catch (RuntimeException e) {
+                    LOG.warn("Could not renew the migration lease of {}", keyspaceName, e);
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        SchemaFingerprint applied = null;
+        try {
+            // Someone may have migrated between our check and taking the lease
+            SchemaFingerprint released = store.getApplied(keyspaceName);
+            if (!Objects.equals(seen, released) && awaitApplied(keyspaceName, released, current, deadline))
+                return false;
+            List<T> changes = pending.get();
+            if (changes.isEmpty())
+                return false;
+            apply.accept(changes);
+            applied = current.get();
+            return true;
+        }
+        finally {
+            if (null != renewal)
+                renewal.cancel(false);
+            try {
+                if (null != applied)
+                    store.release(keyspaceName, owner, applied);
+                else
+                    store.release(keyspaceName, owner);
+            }
+            catch (RuntimeException e) {
+                LOG.warn("Could not release the migration lease of {}. It expires in {}s.", keyspaceName,
+                        ttlSeconds, e);
+            }
+        }
+    }
+
+    /**
+     * @return {@link deadline}, pushed back while the holder is busy with a {@link longRunning} change
+     */
+    private long awaitRelease(String keyspaceName, BooleanSupplier schemaAgreement, BooleanSupplier longRunning,
+            long deadline) {
+        String holder = store.getHolder(keyspaceName);
+        if (null != holder)
+            LOG.info("Waiting for {} to migrate {}", holder, keyspaceName);
+        try {
+            while (null != holder || !schemaAgreement.getAsBoolean()) {
+                if (System.nanoTime() > deadline) {
+                    if (null == holder || !longRunning.getAsBoolean())
+                        throw new IllegalStateException(String.format(
+                                "Timed out after %d ms waiting for %s to migrate %s", waitTimeoutMillis,
+                                null != holder ? holder : "schema agreement", keyspaceName));
+                    LOG.info("{} is still migrating {}, waiting another {} ms", holder, keyspaceName,
+                            waitTimeoutMillis);
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+                }
+                Thread.sleep(POLL_MILLIS);
+                holder = store.getHolder(keyspaceName);
+            }
+            return deadline;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the migration lease", e);
+        }
+    }
+
+    /**
+     * Waits until this instance's metadata shows the schema another holder recorded
+     * @return true if the holder applied the same models, so there is nothing left to check
+     */
+    private boolean awaitApplied(String keyspaceName, SchemaFingerprint applied, Supplier<SchemaFingerprint> current,
+            long deadline) {
+        if (null == applied)
+            return false;
+        SchemaFingerprint local = current.get();
+        if (applied.getModelHash().equals(local.getModelHash())) {
+            LOG.info("Another instance applied the same models to {}", keyspaceName);
+            return true;
+        }
+        try {
+            while (!applied.getSchemaVersion().equals(local.getSchemaVersion())) {
+                if (System.nanoTime() > deadline)
+                    throw new IllegalStateException(String.format(
+                            "Timed out after %d ms waiting for the schema of %s to reach this instance",
+                            waitTimeoutMillis, keyspaceName));
+                LOG.debug("Waiting for the metadata of {} to show the migrated schema", keyspaceName);
+                Thread.sleep(POLL_MILLIS);
+                local = current.get();
+            }
+            return false;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the migrated schema", e);
+        }
+    }
+}
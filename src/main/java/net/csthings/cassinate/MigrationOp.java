@@ -0,0 +1,374 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.datastax.driver.core.DataType;
+
+import net.csthings.cassinate.SchemaSnapshot.TableSnapshot;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - One schema change found by {@link SchemaDiff}
+ */
+public class MigrationOp {
+    /**
+     * What the operation changes
+     */
+    public enum Kind {
+        CREATE_TABLE, ADD_COLUMN, DROP_COLUMN, ALTER_TYPE,
+        /** Several columns added in one statement, see {@link SchemaDiff#coalesce} */
+        ADD_COLUMNS,
+        /** Several columns dropped in one statement, see {@link SchemaDiff#coalesce} */
+        DROP_COLUMNS,
+        /** Table options changed, see {@link TableOptions} */
+        ALTER_OPTIONS,
+        /** See {@link SecondaryIndex} */
+        CREATE_INDEX, DROP_INDEX,
+        /** See {@link MaterializedView} */
+        CREATE_VIEW, DROP_VIEW,
+        /**
+         * The partition key or clustering columns changed. There is no DDL for it; the rows have to be copied by a
+         * {@link PrimaryKeyMigration}.
+         */
+        CHANGE_PRIMARY_KEY
+    }
+
+    private final Kind kind;
+    private final String table;
+    private final String column;
+    private final DataType type;
+    private final Model model;
+    private final Map<String, DataType> columns;
+    private final TableSettings settings;
+    private final IndexDefinition index;
+    private final ViewDefinition view;
+
+    private MigrationOp(Kind kind, String table, String column, DataType type, Model model) {
+        this(kind, table, column, type, model, Collections.emptyMap());
+    }
+
+    private MigrationOp(Kind kind, String table, String column, DataType type, Model model,
+            Map<String, DataType> columns) {
+        this(kind, table, column, type, model, columns, TableSettings.NONE);
+    }
+
+    private MigrationOp(Kind kind, String table, String column, DataType type, Model model,
+            Map<String, DataType> columns, TableSettings settings) {
+        this(kind, table, column, type, model, columns, settings, null, null);
+    }
+
+    private MigrationOp(Kind kind, String table, String column, DataType type, Model model,
+            Map<String, DataType> columns, TableSettings settings, IndexDefinition index, ViewDefinition view) {
+        this.kind = kind;
+        this.table = table;
+        this.column = column;
+        this.type = type;
+        this.model = model;
+        this.columns = columns;
+        this.settings = settings;
+        this.index = index;
+        this.view = view;
+    }
+
+    public static MigrationOp createTable(Model model) {
+        return new MigrationOp(Kind.CREATE_TABLE, model.getName(), null, null, model);
+    }
+
+    public static MigrationOp addColumn(String table, String column, DataType type) {
+        return new MigrationOp(Kind.ADD_COLUMN, table, column, type, null);
+    }
+
+    public static MigrationOp dropColumn(String table, String column) {
+        return new MigrationOp(Kind.DROP_COLUMN, table, column, null, null);
+    }
+
+    public static MigrationOp alterType(String table, String column, DataType type) {
+        return new MigrationOp(Kind.ALTER_TYPE, table, column, type, null);
+    }
+
+    /**
+     * Needs Cassandra 3.6 or later
+     * @param table
+     * @param columns columns to add and their types, in statement order
+     */
+    public static MigrationOp addColumns(String table, Map<String, DataType> columns) {
+        return new MigrationOp(Kind.ADD_COLUMNS, table, null, null, null,
+                Collections.unmodifiableMap(new LinkedHashMap<>(columns)));
+    }
+
+    /**
+     * Needs Cassandra 3.6 or later
+     * @param table
+     * @param columns columns to drop
+     */
+    public static MigrationOp dropColumns(String table, List<String> columns) {
+        Map<String, DataType> dropped = new LinkedHashMap<>();
+        for (String column : columns) {
+            dropped.put(column, null);
+        }
+        return new MigrationOp(Kind.DROP_COLUMNS, table, null, null, null, Collections.unmodifiableMap(dropped));
+    }
+
+    /**
+     * @param table
+     * @param settings the options to set
+     */
+    public static MigrationOp alterOptions(String table, TableSettings settings) {
+        return new MigrationOp(Kind.ALTER_OPTIONS, table, null, null, null, Collections.emptyMap(), settings);
+    }
+
+    public static MigrationOp createIndex(IndexDefinition index) {
+        return new MigrationOp(Kind.CREATE_INDEX, SchemaSnapshot.cqlId(index.getTable()),
+                SchemaSnapshot.cqlId(index.getColumn()), null, null, Collections.emptyMap(), TableSettings.NONE, index,
+                null);
+    }
+
+    public static MigrationOp dropIndex(IndexDefinition index) {
+        return new MigrationOp(Kind.DROP_INDEX, SchemaSnapshot.cqlId(index.getTable()),
+                SchemaSnapshot.cqlId(index.getColumn()), null, null, Collections.emptyMap(), TableSettings.NONE, index,
+                null);
+    }
+
+    public static MigrationOp createView(ViewDefinition view) {
+        return new MigrationOp(Kind.CREATE_VIEW, SchemaSnapshot.cqlId(view.getBaseTable()), null, null, null,
+                Collections.emptyMap(), TableSettings.NONE, null, view);
+    }
+
+    public static MigrationOp dropView(ViewDefinition view) {
+        return new MigrationOp(Kind.DROP_VIEW, SchemaSnapshot.cqlId(view.getBaseTable()), null, null, null,
+                Collections.emptyMap(), TableSettings.NONE, null, view);
+    }
+
+    /**
+     * @param model model with the new primary key
+     * @param table current table
+     */
+    public static MigrationOp changePrimaryKey(Model model, TableSnapshot table) {
+        Map<String, DataType> currentKey = new LinkedHashMap<>();
+        for (String column : table.getPrimaryKey()) {
+            currentKey.put(column, table.getColumnType(column));
+        }
+        List<String> partitionKey = table.getPartitionKey().isEmpty() ? table.getPrimaryKey().subList(0, 1)
+                : table.getPartitionKey();
+        String current = keyCql(partitionKey, table.getPrimaryKey().subList(partitionKey.size(),
+                table.getPrimaryKey().size()));
+        return new MigrationOp(Kind.CHANGE_PRIMARY_KEY, SchemaSnapshot.cqlId(table.getName()), current, null, model,
+                Collections.unmodifiableMap(currentKey));
+    }
+
+    /**
+     * @param model model with the new primary key, whose {@link PrimaryKeyMigration} stopped after its copy
+     */
+    public static MigrationOp resumePrimaryKey(Model model) {
+        return new MigrationOp(Kind.CHANGE_PRIMARY_KEY, model.getName(), null, null, model);
+    }
+
+    /**
+     * @return the columns of a {@code PRIMARY KEY (...)} clause
+     */
+    private static String keyCql(List<String> partitionKey, List<String> clusteringColumns) {
+        StringBuilder sb = new StringBuilder();
+        if (partitionKey.size() > 1)
+            sb.append('(').append(String.join(", ", partitionKey)).append(')');
+        else
+            sb.append(partitionKey.get(0));
+        for (String column : clusteringColumns) {
+            sb.append(", ").append(column);
+        }
+        return sb.toString();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the table changed, the base table of an index or view operation
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the column or null for {@link Kind#CREATE_TABLE}, {@link Kind#ADD_COLUMNS}, {@link Kind#DROP_COLUMNS},
+     * {@link Kind#ALTER_OPTIONS} and the view kinds. For a {@link Kind#CHANGE_PRIMARY_KEY}, the columns of the
+     * current {@code PRIMARY KEY} clause, or null if {@link #resumePrimaryKey} resumes it.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the new column type or null for {@link Kind#CREATE_TABLE} and {@link Kind#DROP_COLUMN}
+     */
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * @return the model to create or migrate to, null unless this is a {@link Kind#CREATE_TABLE} or
+     * {@link Kind#CHANGE_PRIMARY_KEY}
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return the columns of an {@link Kind#ADD_COLUMNS} (with their types) or {@link Kind#DROP_COLUMNS} (with null
+     * types), the current primary key of a {@link Kind#CHANGE_PRIMARY_KEY}, empty for the other kinds
+     */
+    public Map<String, DataType> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the options set by an {@link Kind#ALTER_OPTIONS}, {@link TableSettings#NONE} for the other kinds
+     */
+    public TableSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return the index of a {@link Kind#CREATE_INDEX} or {@link Kind#DROP_INDEX}, null for the other kinds
+     */
+    public IndexDefinition getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the view of a {@link Kind#CREATE_VIEW} or {@link Kind#DROP_VIEW}, null for the other kinds
+     */
+    public ViewDefinition getView() {
+        return view;
+    }
+
+    /**
+     * @return true for the operations Cassandra finishes in the background after the statement returns: building
+     * an index or a view
+     */
+    public boolean isBuild() {
+        return kind == Kind.CREATE_INDEX || kind == Kind.CREATE_VIEW;
+    }
+
+    /**
+     * @return the number of columns this operation adds or drops, 1 for the other kinds
+     */
+    public int getColumnCount() {
+        return columns.isEmpty() || kind == Kind.CHANGE_PRIMARY_KEY ? 1 : columns.size();
+    }
+
+    /**
+     * Generates the cql statement for this operation
+     * @return the statement, or a cql comment for a {@link Kind#CHANGE_PRIMARY_KEY}
+     */
+    public String toCql() {
+        switch (kind) {
+        case CREATE_TABLE:
+            return createTable();
+        case ADD_COLUMN:
+            // https://docs.datastax.com/en/cql/3.1/cql/cql_reference/alter_table_r.html#reference_ds_xqq_hpc_xj__adding-a-column
+            return String.format("ALTER TABLE %s ADD %s %s;", table, column, type);
+        case DROP_COLUMN:
+            return String.format("ALTER TABLE %s DROP %s;", table, column);
+        case ALTER_TYPE:
+            return String.format("ALTER TABLE %s ALTER %s TYPE %s;", table, column, type);
+        case ADD_COLUMNS:
+            return addColumns();
+        case DROP_COLUMNS:
+            return String.format("ALTER TABLE %s DROP (%s);", table, String.join(", ", columns.keySet()));
+        case ALTER_OPTIONS:
+            return String.format("ALTER TABLE %s WITH %s;", table, settings.toCql());
+        case CREATE_INDEX:
+            return index.toCql();
+        case DROP_INDEX:
+            return index.toDropCql();
+        case CREATE_VIEW:
+            return view.toCql();
+        case DROP_VIEW:
+            return view.toDropCql();
+        case CHANGE_PRIMARY_KEY:
+            if (null == column)
+                return String.format("-- PRIMARY KEY migration of %s to (%s) stopped before its cutover, needs a "
+                        + "PrimaryKeyMigration", table, keyCql(model.getPartitionKeys(), model.getClusteringColumns()));
+            return String.format("-- PRIMARY KEY of %s changed from (%s) to (%s), needs a PrimaryKeyMigration", table,
+                    column, keyCql(model.getPartitionKeys(), model.getClusteringColumns()));
+        default:
+            throw new IllegalStateException("Unknown kind: " + kind);
+        }
+    }
+
+    private String addColumns() {
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder.append("ALTER TABLE ").append(table).append(" ADD (");
+        String separator = "";
+        for (Entry<String, DataType> e : columns.entrySet()) {
+            queryBuilder.append(separator).append(e.getKey()).append(' ').append(e.getValue());
+            separator = ", ";
+        }
+        return queryBuilder.append(");").toString();
+    }
+
+    /**
+     * Generates the cql query for Tables that weren't found
+     * @return
+     */
+    private String createTable() {
+        StringBuilder queryBuilder = new StringBuilder();
+        queryBuilder.append("CREATE TABLE IF NOT EXISTS ").append(table).append(" (\n");
+        for (Entry<String, ? super DataType> e : model.getColumns().entrySet()) {
+            if (null == e.getValue())
+                continue;
+            queryBuilder.append(e.getKey()).append(' ').append(e.getValue()).append(",\n");
+        }
+        queryBuilder.append("PRIMARY KEY (");
+        if (model.getPartitionKeys().size() > 1) {
+            // Composite partition key
+            queryBuilder.append('(').append(String.join(", ", model.getPartitionKeys())).append(')');
+            for (String key : model.getClusteringColumns()) {
+                queryBuilder.append(", ").append(key);
+            }
+        }
+        else {
+            queryBuilder.append(String.join(", ", model.getPrimaryKeys()));
+        }
+        queryBuilder.append(")\n)");
+        if (!model.getSettings().isEmpty())
+            queryBuilder.append(" WITH ").append(model.getSettings().toCql());
+        return queryBuilder.append(';').toString();
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationOp [kind=" + kind + ", table=" + table + ", column=" + column + ", type=" + type
+                + (columns.isEmpty() ? "" : ", columns=" + columns)
+                + (settings.isEmpty() ? "" : ", settings=" + settings)
+                + (null == index ? "" : ", index=" + index.getName())
+                + (null == view ? "" : ", view=" + view.getName()) + "]";
+    }
+}
@@ -0,0 +1,331 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Models and planned schema changes of a keyspace, written by a build step ({@link MigrationPlanner})
+ * and applied at boot with {@link Cassinate.Builder#usePlan} without scanning or loading any model class.
+ * <p/>
+ * The file is plain text so it can be reviewed like any other change. Lines are tab separated, like the
+ * {@link ModelIndex}:
+ * <pre>
+ *   # cassinate migration plan v1
+ *   keyspace     &lt;keyspace&gt;
+ *   fingerprint  &lt;{@link SchemaFingerprint#hash} of the models&gt;
+ *   model        &lt;table&gt;  &lt;class name or -&gt;
+ *   options      &lt;{@link TableSettings#toCql()}&gt;   (only for models with {@link TableOptions})
+ *   index        &lt;{@link IndexDefinition#toCql()}, escaped like an op&gt;
+ *   view         &lt;{@link ViewDefinition#toCql()}, escaped like an op&gt;
+ *   column       &lt;column&gt; &lt;cql type or -&gt; &lt;- | partition:&lt;pos&gt; | clustering:&lt;pos&gt;&gt;
+ *   op           &lt;cql, with \n \t and \\ escaped&gt;
+ * </pre>
+ * The ops are what the build step found against the schema it was pointed at. At boot the models are diffed
+ * against the live keyspace again, so a plan stays correct on a keyspace that has moved on since.
+ */
+public class MigrationPlan {
+    public static final int VERSION = 1;
+    static final String HEADER = "# cassinate migration plan v";
+
+    private static final String KEYSPACE = "keyspace";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String MODEL = "model";
+    private static final String COLUMN = "column";
+    private static final String OPTIONS = "options";
+    private static final String INDEX = "index";
+    private static final String VIEW = "view";
+    private static final String OP = "op";
+    private static final String PARTITION = "partition";
+    private static final String CLUSTERING = "clustering";
+    private static final String NONE = "-";
+
+    private final String keyspaceName;
+    private final String fingerprint;
+    private final List<Model> models;
+    private final List<String> statements;
+
+    private MigrationPlan(String keyspaceName, String fingerprint, List<Model> models, List<String> statements) {
+        this.keyspaceName = keyspaceName;
+        this.fingerprint = fingerprint;
+        this.models = Collections.unmodifiableList(models);
+        this.statements = Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Plans the changes bringing {@link snapshot} in line with {@link models}
+     * @param keyspaceName
+     * @param models
+     * @param snapshot current schema, or an empty snapshot to plan every table from scratch
+     * @return the plan
+     */
+    public static MigrationPlan create(String keyspaceName, List<Model> models, SchemaSnapshot snapshot) {
+        return create(keyspaceName, models, snapshot, false);
+    }
+
+    /**
+     * Like {@link #create(String, List, SchemaSnapshot)}
+     * @param dropUndeclared true to drop the indexes and views the models don't declare, see
+     *            {@link SchemaDiff#diff(List, SchemaSnapshot, boolean)}
+     */
+    public static MigrationPlan create(String keyspaceName, List<Model> models, SchemaSnapshot snapshot,
+            boolean dropUndeclared) {
+        List<String> statements = SchemaDiff.toCql(SchemaDiff.diff(models, snapshot, dropUndeclared));
+        return new MigrationPlan(keyspaceName, SchemaFingerprint.hash(keyspaceName, models), new ArrayList<>(models),
+                statements);
+    }
+
+    public String getKeyspaceName() {
+        return keyspaceName;
+    }
+
+    /**
+     * @return the {@link SchemaFingerprint#hash} of {@link #getModels()}
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public List<Model> getModels() {
+        return models;
+    }
+
+    /**
+     * @return the statements planned against the schema the plan was created with
+     */
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Writes the plan to {@link file}, replacing it atomically
+     * @param file
+     * @throws IOException
+     */
+    public void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            write(writer);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write(HEADER + VERSION + "\n");
+        line(writer, KEYSPACE, keyspaceName);
+        line(writer, FINGERPRINT, fingerprint);
+        for (Model model : models) {
+            line(writer, MODEL, model.getName(), null == model.getClassName() ? NONE : model.getClassName());
+            if (!model.getSettings().isEmpty())
+                line(writer, OPTIONS, escape(model.getSettings().toCql()));
+            for (IndexDefinition index : model.getIndexes()) {
+                line(writer, INDEX, escape(index.toCql()));
+            }
+            for (ViewDefinition view : model.getViews()) {
+                line(writer, VIEW, escape(view.toCql()));
+            }
+            for (Entry<String, ? super DataType> e : model.getColumns().entrySet()) {
+                String column = e.getKey();
+                String key = NONE;
+                if (model.getPartitionKeys().contains(column))
+                    key = PARTITION + ":" + model.getPartitionKeys().indexOf(column);
+                else if (model.getClusteringColumns().contains(column))
+                    key = CLUSTERING + ":" + model.getClusteringColumns().indexOf(column);
+                line(writer, COLUMN, column, null == e.getValue() ? NONE : e.getValue().toString(), key);
+            }
+        }
+        for (String statement : statements) {
+            line(writer, OP, escape(statement));
+        }
+    }
+
+    private static void line(Writer writer, String... parts) throws IOException {
+        writer.write(String.join("\t", parts));
+        writer.write('\n');
+    }
+
+    /**
+     * Reads a plan written by {@link #write(Path)}
+     * @param file
+     * @return the plan
+     * @throws IOException if the plan can't be read, has an unknown version, or its models don't match its
+     * fingerprint
+     */
+    public static MigrationPlan read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    public static MigrationPlan read(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (null == header || !header.startsWith(HEADER))
+            throw new IOException("Not a migration plan");
+        if (!String.valueOf(VERSION).equals(header.substring(HEADER.length()).trim()))
+            throw new IOException("Unsupported migration plan version: " + header.substring(HEADER.length()));
+
+        String keyspaceName = null;
+        String fingerprint = null;
+        List<Model> models = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+        Model current = null;
+        Map<String, Integer> keyPositions = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] parts = line.split("\t", -1);
+            if (KEYSPACE.equals(parts[0]) && parts.length == 2) {
+                keyspaceName = parts[1];
+            }
+            else if (FINGERPRINT.equals(parts[0]) && parts.length == 2) {
+                fingerprint = parts[1];
+            }
+            else if (MODEL.equals(parts[0]) && parts.length == 3) {
+                if (null != current)
+                    ModelProcessor.orderKeys(current, keyPositions);
+                current = new Model();
+                current.setName(parts[1]);
+                current.setClassName(NONE.equals(parts[2]) ? null : parts[2]);
+                keyPositions = new HashMap<>();
+                models.add(current);
+            }
+            else if (COLUMN.equals(parts[0]) && parts.length == 4 && null != current) {
+                try {
+                    current.getColumns().put(parts[1], NONE.equals(parts[2]) ? null : CqlTypes.parse(parts[2]));
+                }
+                catch (IllegalArgumentException e) {
+                    throw new IOException("Malformed migration plan line: " + line, e);
+                }
+                String[] key = parts[3].split(":");
+                if (PARTITION.equals(key[0]))
+                    current.getPartitionKeys().add(parts[1]);
+                else if (CLUSTERING.equals(key[0]))
+                    current.getClusteringColumns().add(parts[1]);
+                else
+                    continue;
+                keyPositions.put(parts[1], key.length > 1 ? Integer.parseInt(key[1]) : 0);
+            }
+            else if (OPTIONS.equals(parts[0]) && parts.length == 2 && null != current) {
+                try {
+                    current.setSettings(TableSettings.parse(unescape(parts[1])));
+                }
+                catch (IllegalArgumentException e) {
+                    throw new IOException("Malformed migration plan line: " + line, e);
+                }
+            }
+            else if (INDEX.equals(parts[0]) && parts.length == 2 && null != current) {
+                IndexDefinition index = IndexDefinition.parse(unescape(parts[1]));
+                if (null == index)
+                    throw new IOException("Malformed migration plan line: " + line);
+                current.getIndexes().add(index);
+            }
+            else if (VIEW.equals(parts[0]) && parts.length == 2 && null != current) {
+                ViewDefinition view = ViewDefinition.parse(unescape(parts[1]));
+                if (null == view)
+                    throw new IOException("Malformed migration plan line: " + line);
+                current.getViews().add(view);
+            }
+            else if (OP.equals(parts[0]) && parts.length == 2) {
+                statements.add(unescape(parts[1]));
+            }
+            else {
+                throw new IOException("Malformed migration plan line: " + line);
+            }
+        }
+        if (null != current)
+            ModelProcessor.orderKeys(current, keyPositions);
+
+        if (null == keyspaceName || null == fingerprint)
+            throw new IOException("Migration plan is missing its keyspace or fingerprint");
+        String actual = SchemaFingerprint.hash(keyspaceName, models);
+        if (!actual.equals(fingerprint))
+            throw new IOException("Migration plan models don't match its fingerprint; was the plan edited by hand?");
+        return new MigrationPlan(keyspaceName, fingerprint, models, statements);
+    }
+
+    static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+            case 'n':
+                sb.append('\n');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            default:
+                sb.append(next);
+            }
+        }
+        return sb.toString();
+    }
+}
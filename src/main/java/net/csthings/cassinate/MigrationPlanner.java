@@ -0,0 +1,122 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.KeyspaceMetadata;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Build step writing a {@link MigrationPlan}. Run it with the application's classes on the classpath:
+ * <pre>
+ *   java -cp app.jar:cassinate.jar net.csthings.cassinate.MigrationPlanner --keyspace ks --out cassinate.plan \
+ *       [--package com.example.model]... [--contact-point 10.0.0.1]... [--ignore-subclasses] \
+ *       [--drop-undeclared-indexes]
+ * </pre>
+ * Without a contact point the plan is made against an empty keyspace, so it lists every CREATE TABLE.
+ */
+public final class MigrationPlanner {
+    public static final Logger LOG = LoggerFactory.getLogger(MigrationPlanner.class);
+
+    private MigrationPlanner() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String keyspaceName = null;
+        Path out = null;
+        List<String> packages = new ArrayList<>();
+        List<String> contactPoints = new ArrayList<>();
+        Cassinate.Builder builder = Cassinate.builder();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--keyspace":
+                keyspaceName = value(args, ++i);
+                break;
+            case "--out":
+                out = Paths.get(value(args, ++i));
+                break;
+            case "--package":
+                packages.add(value(args, ++i));
+                break;
+            case "--contact-point":
+                contactPoints.add(value(args, ++i));
+                break;
+            case "--ignore-subclasses":
+                builder.ignoreSubclasses();
+                break;
+            case "--drop-undeclared-indexes":
+                builder.dropUndeclaredIndexes();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (null == keyspaceName || null == out)
+            throw new IllegalArgumentException("Usage: MigrationPlanner --keyspace <keyspace> --out <file> "
+                    + "[--package <package>]... [--contact-point <host>]... [--ignore-subclasses] "
+                    + "[--drop-undeclared-indexes]");
+
+        builder.scanPackages(packages.toArray(new String[packages.size()]));
+        MigrationPlan plan = plan(builder, keyspaceName, contactPoints);
+        plan.write(out);
+        LOG.info("Wrote migration plan for {} models with {} statements to {}", plan.getModels().size(),
+                plan.getStatements().size(), out);
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        return args[i];
+    }
+
+    /**
+     * Finds the models the way {@link builder} would and plans them against the keyspace at
+     * {@link contactPoints}
+     * @param builder builder holding the scan settings
+     * @param keyspaceName
+     * @param contactPoints hosts of the cluster to plan against, empty to plan against an empty keyspace
+     * @return the plan
+     */
+    public static MigrationPlan plan(Cassinate.Builder builder, String keyspaceName, List<String> contactPoints) {
+        List<Model> models = builder.loadModels(new ScanReport());
+        if (contactPoints.isEmpty())
+            return MigrationPlan.create(keyspaceName, models, SchemaSnapshot.builder(keyspaceName).build(),
+                    builder.isDropUndeclaredIndexes());
+
+        try (Cluster cluster = Cluster.builder().addContactPoints(contactPoints.toArray(new String[0])).build()) {
+            KeyspaceMetadata km = cluster.getMetadata().getKeyspace(keyspaceName);
+            SchemaSnapshot snapshot = null == km ? SchemaSnapshot.builder(keyspaceName).build()
+                    : SchemaSnapshot.of(km);
+            return MigrationPlan.create(keyspaceName, models, snapshot, builder.isDropUndeclaredIndexes());
+        }
+    }
+}
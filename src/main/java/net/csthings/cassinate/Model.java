@@ -15,12 +15,22 @@ import com.datastax.driver.core.DataType;
  */
 public class Model {
     private String name;
+    private String className;
     private Map<String, ? super DataType> columns;
     private List<String> primaryKeys;
+    private List<String> partitionKeys;
+    private List<String> clusteringColumns;
+    private TableSettings settings = TableSettings.NONE;
+    private List<IndexDefinition> indexes;
+    private List<ViewDefinition> views;
 
     public Model() {
         columns = new HashMap<>();
         primaryKeys = new ArrayList<>();
+        partitionKeys = new ArrayList<>();
+        clusteringColumns = new ArrayList<>();
+        indexes = new ArrayList<>();
+        views = new ArrayList<>();
     }
 
     public String getName() {
@@ -31,6 +41,18 @@ public class Model {
         this.name = name;
     }
 
+    /**
+     * Binary name of the {@code @Table} class this model was built from, as returned by {@link Class#getName()}
+     * @return the class name or null if the model wasn't built from a class
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
     public Map<String, ? super DataType> getColumns() {
         return columns;
     }
@@ -47,9 +69,73 @@ public class Model {
         this.primaryKeys = primaryKeys;
     }
 
+    /**
+     * Partition key columns, in partition key order. A subset of {@link #getPrimaryKeys()}.
+     * @return
+     */
+    public List<String> getPartitionKeys() {
+        return partitionKeys;
+    }
+
+    public void setPartitionKeys(List<String> partitionKeys) {
+        this.partitionKeys = partitionKeys;
+    }
+
+    /**
+     * Clustering columns, in clustering order. A subset of {@link #getPrimaryKeys()}.
+     * @return
+     */
+    public List<String> getClusteringColumns() {
+        return clusteringColumns;
+    }
+
+    public void setClusteringColumns(List<String> clusteringColumns) {
+        this.clusteringColumns = clusteringColumns;
+    }
+
+    /**
+     * Table options from the class's {@link TableOptions}
+     * @return the settings, {@link TableSettings#NONE} if the class has no {@link TableOptions}
+     */
+    public TableSettings getSettings() {
+        return settings;
+    }
+
+    public void setSettings(TableSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Indexes declared with {@link SecondaryIndex} on the class's fields
+     * @return
+     */
+    public List<IndexDefinition> getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(List<IndexDefinition> indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * Views declared with {@link MaterializedView} on the class
+     * @return
+     */
+    public List<ViewDefinition> getViews() {
+        return views;
+    }
+
+    public void setViews(List<ViewDefinition> views) {
+        this.views = views;
+    }
+
     @Override
     public String toString() {
-        return "Model [name=" + name + ", columns=" + columns + ", primaryKeys=" + primaryKeys + "]";
+        return "Model [name=" + name + ", className=" + className + ", columns=" + columns + ", primaryKeys="
+                + primaryKeys + ", partitionKeys=" + partitionKeys + ", clusteringColumns=" + clusteringColumns
+                + (settings.isEmpty() ? "" : ", settings=" + settings)
+                + (indexes.isEmpty() ? "" : ", indexes=" + indexes) + (views.isEmpty() ? "" : ", views=" + views)
+                + "]";
     }
 
 }
@@ -0,0 +1,267 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Model index generated at compile time by {@code net.csthings.cassinate.processor.ModelIndexProcessor}
+ * <p/>
+ * Loading the index replaces the {@link ModelProcessor} classpath scan. It costs one read per index resource and
+ * does not load or reflect over the model classes. Annotations are recorded as their attributes and built into
+ * {@link TableSettings}, {@link IndexDefinition}s and {@link ViewDefinition}s the same way {@link ModelProcessor}
+ * builds them by reflection.
+ */
+public class ModelIndex {
+    public static final Logger LOG = LoggerFactory.getLogger(ModelIndex.class);
+    public static final String RESOURCE = "META-INF/cassinate/models.index";
+    public static final int VERSION = 2;
+    static final String HEADER = "# cassinate model index v";
+
+    private static final String MODEL = "model";
+    private static final String COLUMN = "column";
+    private static final String OPTIONS = "options";
+    private static final String INDEX = "index";
+    private static final String VIEW = "view";
+    private static final String PARTITION = "partition";
+    private static final String CLUSTERING = "clustering";
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    ModelIndex() {
+    }
+
+    /**
+     * Loads every {@value #RESOURCE} visible to {@link loader}
+     * @param loader class loader to read the index from
+     * @return the index or null if no index was found
+     * @throws IOException if an index could not be read, or was written by a processor of another version
+     */
+    public static ModelIndex load(ClassLoader loader) throws IOException {
+        Enumeration<URL> resources = loader.getResources(RESOURCE);
+        if (!resources.hasMoreElements())
+            return null;
+
+        ModelIndex index = new ModelIndex();
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            LOG.debug("Reading model index: {}", url);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                index.read(reader);
+            }
+        }
+        return index;
+    }
+
+    void read(BufferedReader reader) throws IOException {
+        Entry current = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(HEADER) && !line.equals(HEADER + VERSION))
+                throw new IOException("Model index " + line.substring(2) + " needs to be rebuilt for version "
+                        + VERSION);
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] parts = line.split("\t");
+            if (MODEL.equals(parts[0]) && parts.length >= 4) {
+                current = new Entry(parts[1], parts[2], "1".equals(parts[3]));
+                entries.add(current);
+            }
+            else if (COLUMN.equals(parts[0]) && parts.length >= 7 && current != null) {
+                current.columns.add(parts);
+            }
+            else if (OPTIONS.equals(parts[0]) && current != null) {
+                current.options = attributes(parts, 1);
+            }
+            else if (INDEX.equals(parts[0]) && parts.length >= 2 && current != null) {
+                Map<String, List<String>> index = attributes(parts, 2);
+                index.put(COLUMN, Collections.singletonList(parts[1]));
+                current.indexes.add(index);
+            }
+            else if (VIEW.equals(parts[0]) && current != null) {
+                current.views.add(attributes(parts, 1));
+            }
+            else {
+                throw new IOException("Malformed model index line: " + line);
+            }
+        }
+    }
+
+    /**
+     * Reads the {@code name=value} fields of an annotation record from {@link from} on
+     * @return the values of each attribute, in record order
+     * @throws IOException if a field isn't {@code name=value}
+     */
+    private static Map<String, List<String>> attributes(String[] parts, int from) throws IOException {
+        Map<String, List<String>> attributes = new HashMap<>();
+        for (int i = from; i < parts.length; i++) {
+            int eq = parts[i].indexOf('=');
+            if (eq <= 0)
+                throw new IOException("Malformed model index attribute: " + parts[i]);
+            attributes.computeIfAbsent(parts[i].substring(0, eq), k -> new ArrayList<>())
+                    .add(MigrationPlan.unescape(parts[i].substring(eq + 1)));
+        }
+        return attributes;
+    }
+
+    /**
+     * Builds the {@link Model}s in this index, applying the ignore rules of {@link mp}
+     * @param mp processor holding the ignore rules configured on the {@link Cassinate.Builder}
+     * @return the models
+     * @throws IllegalArgumentException if an annotation has malformed options, or a view leaves out a primary key
+     * column, as {@link ModelProcessor} reports them
+     */
+    public List<Model> toModels(ModelProcessor mp) {
+        Set<String> ignoredAnnotations = new HashSet<>();
+        for (Class<?> annotation : mp.getAnnotationIgnoreList()) {
+            ignoredAnnotations.add(annotation.getName());
+        }
+        List<Model> models = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.nested && mp.isIgnoreSubclasses())
+                continue;
+
+            Model model = new Model();
+            model.setName(entry.name);
+            model.setClassName(entry.className);
+            if (null != entry.options)
+                model.setSettings(TableSettings.of(first(entry.options, "compaction", ""),
+                        all(entry.options, "compactionOptions"), first(entry.options, "keysCaching", ""),
+                        first(entry.options, "rowsPerPartition", ""),
+                        Double.parseDouble(first(entry.options, "bloomFilterFpChance", "-1")),
+                        Integer.parseInt(first(entry.options, "defaultTtl", "-1"))));
+            Map<String, Integer> keyPositions = new HashMap<>();
+            for (String[] column : entry.columns) {
+                int mods = Integer.parseInt(column[4]);
+                if ((mp.modifierToIgnore & mods) != 0 || hasIgnoredAnnotation(column[6], ignoredAnnotations)) {
+                    LOG.debug("Skipping ignored field: {}", column[2]);
+                    continue;
+                }
+                if ("-".equals(column[3])) {
+                    // Scanning reports the field as well
+                    throw new TypeResolver.UnsupportedTypeException(
+                            entry.className + "." + column[2] + " has no cql type in the model index");
+                }
+                model.getColumns().put(column[1], CqlTypes.parse(column[3]));
+                String[] key = column[5].split(":");
+                if (PARTITION.equals(key[0]))
+                    model.getPartitionKeys().add(column[1]);
+                else if (CLUSTERING.equals(key[0]))
+                    model.getClusteringColumns().add(column[1]);
+                else
+                    continue;
+                keyPositions.put(column[1], key.length > 1 ? Integer.parseInt(key[1]) : 0);
+            }
+            ModelProcessor.orderKeys(model, keyPositions);
+            for (Map<String, List<String>> attributes : entry.indexes) {
+                IndexDefinition index = new IndexDefinition(first(attributes, "name", ""), entry.name,
+                        first(attributes, COLUMN, ""), first(attributes, "target", ""), first(attributes, "using", ""),
+                        TableSettings.options("@SecondaryIndex", all(attributes, "options")));
+                // Skip the indexes of ignored fields
+                if (hasColumn(model, index.getColumn()))
+                    model.getIndexes().add(index);
+            }
+            for (Map<String, List<String>> attributes : entry.views) {
+                model.getViews().add(ModelProcessor.checkView(model, new ViewDefinition(first(attributes, "name", ""),
+                        entry.name, all(attributes, "columns"), all(attributes, "partitionKey"),
+                        all(attributes, "clusteringColumns"))));
+            }
+            models.add(model);
+        }
+        return models;
+    }
+
+    private static String first(Map<String, List<String>> attributes, String name, String defaultValue) {
+        List<String> values = attributes.get(name);
+        return null == values ? defaultValue : values.get(0);
+    }
+
+    private static List<String> all(Map<String, List<String>> attributes, String name) {
+        List<String> values = attributes.get(name);
+        return null == values ? Collections.emptyList() : values;
+    }
+
+    private static boolean hasIgnoredAnnotation(String annotations, Set<String> ignored) {
+        if (ignored.isEmpty() || "-".equals(annotations))
+            return false;
+        for (String annotation : annotations.split(",")) {
+            if (ignored.contains(annotation))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean hasColumn(Model model, String column) {
+        for (String name : model.getColumns().keySet()) {
+            if (SchemaSnapshot.handleId(name).equals(column))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Number of models in this index
+     * @return
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final String name;
+        private final String className;
+        private final boolean nested;
+        private final List<String[]> columns = new ArrayList<>();
+        private Map<String, List<String>> options;
+        private final List<Map<String, List<String>>> indexes = new ArrayList<>();
+        private final List<Map<String, List<String>>> views = new ArrayList<>();
+
+        Entry(String name, String className, boolean nested) {
+            this.name = name;
+            this.className = className;
+            this.nested = nested;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry [name=" + name + ", className=" + className + "]";
+        }
+    }
+}
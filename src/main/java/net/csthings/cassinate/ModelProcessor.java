@@ -20,28 +20,27 @@ SOFTWARE.
  */
 package net.csthings.cassinate;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.net.InetAddress;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.driver.core.DataType;
-import com.datastax.driver.core.DataType.CollectionType;
 import com.datastax.driver.mapping.annotations.ClusteringColumn;
 import com.datastax.driver.mapping.annotations.Column;
 import com.datastax.driver.mapping.annotations.PartitionKey;
 import com.datastax.driver.mapping.annotations.Table;
-import com.google.inject.internal.MoreTypes.ParameterizedTypeImpl;
 
 import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
 import io.github.lukehutch.fastclasspathscanner.matchprocessor.ClassAnnotationMatchProcessor;
@@ -56,71 +55,97 @@ import io.github.lukehutch.fastclasspathscanner.matchprocessor.ClassAnnotationMa
 public class ModelProcessor implements ClassAnnotationMatchProcessor {
     public static final Logger LOG = LoggerFactory.getLogger(ModelProcessor.class);
     public static final Class<?> annotation = Table.class;
-    /**
-     * Mappings for cassandra java types
-     * http://docs.datastax.com/en/developer/java-driver/3.1/manual/
-     */
-    private static final Map<Class<?>, DataType> mappings;
-    private static final Map<ParameterizedType, CollectionType> collectionMappings;
-
-    static {
-        mappings = new HashMap<>();
-        mappings.put(String.class, DataType.text());
-        mappings.put(long.class, DataType.bigint());
-        mappings.put(ByteBuffer.class, DataType.blob());
-        mappings.put(int.class, DataType.cint());
-        mappings.put(boolean.class, DataType.cboolean());
-        mappings.put(Date.class, DataType.timestamp());
-        mappings.put(double.class, DataType.cdouble());
-        mappings.put(InetAddress.class, DataType.inet());
-        mappings.put(UUID.class, DataType.timeuuid());
-
-        collectionMappings = new HashMap<>();
-        try {
-            for (Class<?> c : mappings.keySet()) {
-                collectionMappings.put(
-                        new ParameterizedTypeImpl(null, List.class, c.isPrimitive() ? getWrapperType(c) : c),
-                        DataType.list(mappings.get(c)));
-                collectionMappings.put(
-                        new ParameterizedTypeImpl(null, Set.class, c.isPrimitive() ? getWrapperType(c) : c),
-                        DataType.set(mappings.get(c)));
-                // TODO map ?? Construct in a function
-            }
-        }
-        catch (IllegalArgumentException e) {
-            LOG.error("Could not init", e);
-        }
-    }
-
-    private List<Model> models;
-    private boolean ignoreSubclasses;
+    private final List<Model> models;
+    private volatile boolean ignoreSubclasses;
 
     private List<Class<?>> annotationIgnoreList;
-    protected int modifierToIgnore;
+    protected volatile int modifierToIgnore;
+    private volatile CassinateListener listener = CassinateListener.NOOP;
 
     public ModelProcessor() {
-        models = new ArrayList<>();
-        annotationIgnoreList = new ArrayList<>();
+        models = Collections.synchronizedList(new ArrayList<>());
+        annotationIgnoreList = new CopyOnWriteArrayList<>();
     }
 
     /**
      * Processes the class {@link clazz} into a  {@link Model} and adds it to {@link models}
      * This is automatically called after {@link FastClasspathScanner#scan()}
+     * <p/>
+     * Safe to call from several threads at once.
      * @param clazz Class matching the annotation provided to {@link FastClasspathScanner#matchClassesWithAnnotation}
      */
     @Override
     public void processMatch(Class<?> clazz) {
+        Model model = processTimed(clazz);
+        if (null != model)
+            models.add(model);
+    }
+
+    /**
+     * Loads and processes {@link classNames} on {@link executor}, adding the resulting {@link Model}s to
+     * {@link models} in the order of {@link classNames}
+     * @param classNames names of the classes matching {@link #annotation}
+     * @param loader class loader to load the classes with
+     * @param executor executor to run the reflection on
+     * @throws InterruptedException
+     */
+    public void processMatches(List<String> classNames, ClassLoader loader, ExecutorService executor)
+            throws InterruptedException {
+        List<Future<Model>> futures = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            futures.add(executor.submit(() -> processTimed(Class.forName(className, false, loader))));
+        }
+
+        List<Model> processed = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Model model = futures.get(i).get();
+                if (null != model)
+                    processed.add(model);
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException)
+                    throw (IllegalArgumentException) e.getCause();
+                LOG.error("Could not load class: {}", classNames.get(i), e.getCause());
+            }
+        }
+        models.addAll(processed);
+    }
+
+    /**
+     * Builds the {@link Model} for {@link clazz} with this processor's ignore rules, without adding it to
+     * {@link models}
+     * @param clazz
+     * @return the model or null if {@link clazz} is skipped
+     */
+    Model toModel(Class<?> clazz) {
+        return processTimed(clazz);
+    }
+
+    private Model processTimed(Class<?> clazz) {
+        long start = System.nanoTime();
+        Model model = process(clazz);
+        listener.onClassProcessed(clazz, System.nanoTime() - start);
+        return model;
+    }
+
+    /**
+     * Builds the {@link Model} for {@link clazz} without adding it to {@link models}
+     * @param clazz
+     * @return the model or null if {@link clazz} is skipped
+     */
+    private Model process(Class<?> clazz) {
         Class<?> parent = clazz.getDeclaringClass();
         if (null != parent && ignoreSubclasses) {
             // Skip sub classes
-            return;
+            return null;
         }
 
         try {
             Table table = clazz.getDeclaredAnnotation(Table.class);
             if (table == null) {
                 // Skip classes without the table annotation
-                return;
+                return null;
             }
             String name = table.name();
             if (name.isEmpty())
@@ -128,8 +153,11 @@ public class ModelProcessor implements ClassAnnotationMatchProcessor {
 
             Model model = new Model();
             model.setName(name);
+            model.setClassName(clazz.getName());
+            model.setSettings(TableSettings.of(clazz.getDeclaredAnnotation(TableOptions.class)));
             LOG.debug("Processing {}", name);
 
+            Map<String, Integer> keyPositions = new HashMap<>();
             Field[] fields = clazz.getDeclaredFields();
             for (Field field : fields) {
                 int mods = field.getModifiers();
@@ -137,33 +165,78 @@ public class ModelProcessor implements ClassAnnotationMatchProcessor {
                     LOG.debug("Skipping ignored field: {}", field.getName());
                     continue;
                 }
+                if (TypeResolver.isTransient(field) || hasIgnoredAnnotation(field)) {
+                    LOG.debug("Skipping transient field: {}", field.getName());
+                    continue;
+                }
 
                 String fieldName = field.getName().toLowerCase();
                 Column col = field.getDeclaredAnnotation(Column.class);
                 if (col != null && !col.name().isEmpty())
                     fieldName = col.name();
 
-                DataType type = mappings.get(field.getType());
-                if (type == null)
-                    type = collectionMappings.get(field.getGenericType());
+                DataType type = TypeResolver.resolve(field);
 
                 model.getColumns().put(fieldName, type);
-                boolean isPrimKey = field.getAnnotation(PartitionKey.class) != null;
-                boolean isClusKey = field.getAnnotation(ClusteringColumn.class) != null;
-                if (isPrimKey || isClusKey) {
-                    model.getPrimaryKeys().add(field.getName());
+                SecondaryIndex index = field.getDeclaredAnnotation(SecondaryIndex.class);
+                if (index != null)
+                    model.getIndexes().add(IndexDefinition.of(name, fieldName, index));
+                PartitionKey partitionKey = field.getAnnotation(PartitionKey.class);
+                ClusteringColumn clusteringColumn = field.getAnnotation(ClusteringColumn.class);
+                if (partitionKey != null) {
+                    model.getPartitionKeys().add(fieldName);
+                    keyPositions.put(fieldName, partitionKey.value());
+                }
+                else if (clusteringColumn != null) {
+                    model.getClusteringColumns().add(fieldName);
+                    keyPositions.put(fieldName, clusteringColumn.value());
                 }
             }
-            models.add(model);
+            orderKeys(model, keyPositions);
+            for (MaterializedView view : clazz.getDeclaredAnnotationsByType(MaterializedView.class)) {
+                model.getViews().add(checkView(model, ViewDefinition.of(model.getName(), view)));
+            }
+            return model;
+        }
+        catch (IllegalArgumentException e) {
+            // Unsupported field types, invalid table options and invalid views
+            throw e;
         }
         catch (Exception e) {
             LOG.error("Could not load class: {}", clazz.getName(), e);
-            return;
+            return null;
+        }
+    }
+
+    /**
+     * @return {@link view}
+     * @throws IllegalArgumentException if the view's primary key leaves out a primary key column of {@link model}
+     */
+    static ViewDefinition checkView(Model model, ViewDefinition view) {
+        List<String> key = new ArrayList<>(view.getPartitionKey());
+        key.addAll(view.getClusteringColumns());
+        for (String column : model.getPrimaryKeys()) {
+            if (!key.contains(SchemaSnapshot.handleId(column)))
+                throw new IllegalArgumentException("Materialized view " + view.getName() + " of " + model.getName()
+                        + " must have primary key column " + column + " in its primary key");
+        }
+        return view;
+    }
+
+    private boolean hasIgnoredAnnotation(Field field) {
+        for (Annotation a : field.getDeclaredAnnotations()) {
+            // By name: the ModelWatcher's class loader defines its own copy of an annotation compiled with the models
+            String name = a.annotationType().getName();
+            for (Class<?> ignored : annotationIgnoreList) {
+                if (ignored.getName().equals(name))
+                    return true;
+            }
         }
+        return false;
     }
 
     /**
-     * List of processed {@link Model}s
+     * List of processed {@link Model}s. Synchronized, so hold its lock while iterating during a scan.
      * @return
      */
     public List<Model> getModels() {
@@ -186,32 +259,25 @@ public class ModelProcessor implements ClassAnnotationMatchProcessor {
         this.annotationIgnoreList = annotationIgnoreList;
     }
 
+    public CassinateListener getListener() {
+        return listener;
+    }
+
+    public void setListener(CassinateListener listener) {
+        this.listener = listener;
+    }
+
     /**
-     * Returns the wrapper type of {@link type} if it is primitive else returns{@link type}
-     * @param type
-     * @return
+     * Sorts the partition keys and clustering columns of {@link model} by their annotated position (declaration
+     * order breaks ties) and sets its primary key to the partition keys followed by the clustering columns
+     * @param model
+     * @param positions annotated position of each key column
      */
-    private static Class<?> getWrapperType(Class<?> type) {
-        if (!type.isPrimitive())
-            return type;
-
-        if (type == double.class)
-            return Double.class;
-        else if (type == float.class)
-            return Float.class;
-        else if (type == long.class)
-            return Long.class;
-        else if (type == int.class)
-            return Integer.class;
-        else if (type == short.class)
-            return Short.class;
-        else if (type == char.class)
-            return Character.class;
-        else if (type == byte.class)
-            return Byte.class;
-        else if (type == boolean.class)
-            return Boolean.class;
-        else
-            return null;
+    static void orderKeys(Model model, Map<String, Integer> positions) {
+        model.getPartitionKeys().sort(Comparator.comparing(positions::get));
+        model.getClusteringColumns().sort(Comparator.comparing(positions::get));
+        model.getPrimaryKeys().clear();
+        model.getPrimaryKeys().addAll(model.getPartitionKeys());
+        model.getPrimaryKeys().addAll(model.getClusteringColumns());
     }
 }
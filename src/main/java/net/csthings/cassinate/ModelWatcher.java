@@ -0,0 +1,284 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.mapping.annotations.Table;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Watches class output directories and re-syncs the tables of recompiled {@code @Table} classes.
+ * <p/>
+ * Each batch of changed class files is loaded by a new child-first class loader over the watched directories, so
+ * the new version of a class is seen even though the application already loaded the old one. Only the changed
+ * classes go through {@link ModelProcessor}, and only their tables are diffed and migrated. Deleted classes are
+ * ignored; tables are never dropped.
+ */
+public class ModelWatcher implements Closeable {
+    public static final Logger LOG = LoggerFactory.getLogger(ModelWatcher.class);
+    /**
+     * How long the directories must be quiet before a batch of changes is synced. Compilers write a class file
+     * (and its nested classes) in several steps.
+     */
+    public static final long QUIET_MILLIS = 100;
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Cassinate cassinate;
+    private final ModelProcessor mp;
+    private final List<Path> roots;
+    private final ClassLoader parent;
+    private final URL[] urls;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watched = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * @param cassinate instance to re-sync
+     * @param mp processor holding the ignore rules
+     * @param roots class output directories
+     * @param parent loader of everything outside {@link roots}
+     * @throws IOException if a directory could not be watched
+     */
+    ModelWatcher(Cassinate cassinate, ModelProcessor mp, List<Path> roots, ClassLoader parent) throws IOException {
+        this.cassinate = cassinate;
+        this.mp = mp;
+        this.roots = new ArrayList<>(roots.size());
+        this.parent = parent;
+        this.urls = new URL[roots.size()];
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (int i = 0; i < roots.size(); i++) {
+            Path root = roots.get(i).toAbsolutePath().normalize();
+            this.roots.add(root);
+            urls[i] = toUrl(root);
+            register(root, null);
+        }
+        this.thread = new Thread(this::run, "cassinate-model-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+        LOG.info("Watching {} for model changes", roots);
+    }
+
+    /**
+     * Stops watching
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        }
+        catch (IOException e) {
+            LOG.warn("Could not close the watch service", e);
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                WatchKey key;
+                while (null != (key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS))) {
+                    collect(key, changed);
+                }
+                if (!changed.isEmpty())
+                    sync(changed);
+            }
+        }
+        catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Adds the class files of {@link key}'s events to {@link changed}, watching any new directory
+     */
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = watched.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                LOG.warn("Missed model changes in {}, save the classes again to sync them", dir);
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            if (Files.isDirectory(file)) {
+                if (event.kind() == ENTRY_CREATE) {
+                    try {
+                        register(file, changed);
+                    }
+                    catch (IOException e) {
+                        LOG.warn("Could not watch {}", file, e);
+                    }
+                }
+            }
+            else if (file.toString().endsWith(CLASS_SUFFIX)) {
+                changed.add(file);
+            }
+        }
+        if (!key.reset())
+            watched.remove(key);
+    }
+
+    /**
+     * Loads the changed classes and re-syncs the models among them
+     * @param files changed class files
+     */
+    private void sync(Set<Path> files) {
+        long start = System.nanoTime();
+        List<Model> models = new ArrayList<>();
+        try (ChildFirstClassLoader loader = new ChildFirstClassLoader(urls, parent)) {
+            for (Path file : files) {
+                String className = className(file);
+                if (null == className || !Files.exists(file))
+                    continue;
+                try {
+                    Class<?> clazz = Class.forName(className, false, loader);
+                    if (!clazz.isAnnotationPresent(Table.class))
+                        continue;
+                    Model model = mp.toModel(clazz);
+                    if (null != model)
+                        models.add(model);
+                }
+                catch (ClassNotFoundException | LinkageError e) {
+                    LOG.warn("Could not reload {}", className, e);
+                }
+            }
+            if (models.isEmpty())
+                return;
+            cassinate.resync(models);
+            LOG.info("Re-synced {} changed models in {} ms", models.size(), (System.nanoTime() - start) / 1000000);
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.error("Could not re-sync changed models {}", models, e);
+        }
+    }
+
+    /**
+     * @return the binary name of the class in {@link file} or null if it is outside the roots
+     */
+    private String className(Path file) {
+        for (Path root : roots) {
+            if (!file.startsWith(root))
+                continue;
+            String name = root.relativize(file).toString();
+            name = name.substring(0, name.length() - CLASS_SUFFIX.length()).replace(file.getFileSystem()
+                    .getSeparator(), ".");
+            return name.endsWith("package-info") || name.endsWith("module-info") ? null : name;
+        }
+        return null;
+    }
+
+    /**
+     * Watches {@link dir} and its subdirectories, adding any class file already in a new directory to
+     * {@link changed}
+     */
+    private void register(Path dir, Set<Path> changed) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                watched.put(d.register(watchService, ENTRY_CREATE, ENTRY_MODIFY), d);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (null != changed && file.toString().endsWith(CLASS_SUFFIX))
+                    changed.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static URL toUrl(Path root) {
+        try {
+            return root.toUri().toURL();
+        }
+        catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Not a class directory: " + root, e);
+        }
+    }
+
+    /**
+     * Loads classes from the watched directories before asking its parent, so recompiled classes are defined again
+     */
+    private static class ChildFirstClassLoader extends URLClassLoader {
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        ChildFirstClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (null == c) {
+                    try {
+                        c = findClass(name);
+                    }
+                    catch (ClassNotFoundException e) {
+                        return super.loadClass(name, resolve);
+                    }
+                }
+                if (resolve)
+                    resolveClass(c);
+                return c;
+            }
+        }
+    }
+}
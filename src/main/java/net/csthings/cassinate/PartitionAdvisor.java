@@ -0,0 +1,192 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.TupleType;
+import com.datastax.driver.core.UserType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Flags tables whose rows or partitions are too large.
+ * <p/>
+ * The row width is estimated from the model's column types alone. When a {@link PartitionStatsSource} is given, the
+ * sampled size estimates are checked too: the mean partition size, overall and per token range, the rows per
+ * partition it implies, and ranges whose partitions are far larger than the rest of the table, the sign of a hot
+ * partition.
+ */
+public class PartitionAdvisor {
+    public static final Logger LOG = LoggerFactory.getLogger(PartitionAdvisor.class);
+
+    private final PartitionStatsSource source;
+    private final PartitionLimits limits;
+
+    /**
+     * @param source statistics to check, or null for the row width check only
+     * @param limits
+     */
+    public PartitionAdvisor(PartitionStatsSource source, PartitionLimits limits) {
+        this.source = source;
+        this.limits = limits;
+    }
+
+    /**
+     * Checks every model of {@link keyspaceName}
+     * @param keyspaceName
+     * @param models
+     * @return the report
+     */
+    public PartitionReport advise(String keyspaceName, List<Model> models) {
+        List<PartitionReport.TableAdvice> tables = new ArrayList<>();
+        for (Model model : models) {
+            tables.add(advise(keyspaceName, model));
+        }
+        PartitionReport report = new PartitionReport(keyspaceName, tables);
+        for (PartitionReport.TableAdvice advice : report.getFlagged()) {
+            LOG.warn("Table {}.{} is over the partition limits: {}", keyspaceName, advice.getTable(),
+                    advice.getWarnings());
+        }
+        LOG.info("Partition advice: {}", report);
+        return report;
+    }
+
+    /**
+     * Checks the table of {@link model}
+     * @param keyspaceName
+     * @param model
+     * @return the advice
+     */
+    public PartitionReport.TableAdvice advise(String keyspaceName, Model model) {
+        String table = SchemaSnapshot.handleId(model.getName());
+        long rowBytes = estimateRowBytes(model);
+        List<String> warnings = new ArrayList<>();
+        if (rowBytes > limits.getMaxRowBytes())
+            warnings.add(String.format("rows are about %d bytes, over the limit of %d", rowBytes,
+                    limits.getMaxRowBytes()));
+
+        List<PartitionStatsSource.SizeEstimate> estimates = null == source ? new ArrayList<>()
+                : source.getSizeEstimates(SchemaSnapshot.handleId(keyspaceName), table);
+        long partitions = 0;
+        double totalBytes = 0;
+        PartitionStatsSource.SizeEstimate largest = null;
+        for (PartitionStatsSource.SizeEstimate estimate : estimates) {
+            partitions += estimate.getPartitionsCount();
+            totalBytes += (double) estimate.getMeanPartitionSize() * estimate.getPartitionsCount();
+            if (estimate.getPartitionsCount() > 0
+                    && (null == largest || estimate.getMeanPartitionSize() > largest.getMeanPartitionSize()))
+                largest = estimate;
+        }
+        long meanBytes = partitions == 0 ? 0 : (long) (totalBytes / partitions);
+        long maxRangeBytes = null == largest ? 0 : largest.getMeanPartitionSize();
+
+        if (meanBytes > limits.getMaxPartitionBytes()) {
+            warnings.add(String.format("partitions average %d bytes, over the limit of %d", meanBytes,
+                    limits.getMaxPartitionBytes()));
+        }
+        else if (maxRangeBytes > limits.getMaxPartitionBytes()) {
+            warnings.add(String.format("partitions of range (%s, %s] average %d bytes, over the limit of %d",
+                    largest.getRangeStart(), largest.getRangeEnd(), maxRangeBytes, limits.getMaxPartitionBytes()));
+        }
+        else if (meanBytes > 0 && maxRangeBytes >= limits.getHotPartitionFactor() * meanBytes
+                && maxRangeBytes * limits.getHotPartitionFactor() >= limits.getMaxPartitionBytes()) {
+            warnings.add(String.format("partitions of range (%s, %s] average %d bytes, %.1f times the table's mean; "
+                    + "likely hot partitions", largest.getRangeStart(), largest.getRangeEnd(), maxRangeBytes,
+                    (double) maxRangeBytes / meanBytes));
+        }
+        if (!model.getClusteringColumns().isEmpty() && rowBytes > 0) {
+            long rows = maxRangeBytes / rowBytes;
+            if (rows > limits.getMaxPartitionRows())
+                warnings.add(String.format("partitions hold up to about %d rows, over the limit of %d; bucket the "
+                        + "partition key", rows, limits.getMaxPartitionRows()));
+        }
+        return new PartitionReport.TableAdvice(table, rowBytes, partitions, meanBytes, maxRangeBytes, warnings);
+    }
+
+    /**
+     * Estimates the width of a row of {@link model} from its column types, assuming
+     * {@link PartitionLimits#getVariableValueBytes()} per variable length value and
+     * {@link PartitionLimits#getCollectionElements()} per collection. Storage overhead isn't counted.
+     * @param model
+     * @return the estimated width in bytes
+     */
+    public long estimateRowBytes(Model model) {
+        long bytes = 0;
+        for (Object type : model.getColumns().values()) {
+            if (null != type)
+                bytes += estimateBytes((DataType) type);
+        }
+        return bytes;
+    }
+
+    private long estimateBytes(DataType type) {
+        switch (type.getName()) {
+        case BOOLEAN:
+        case TINYINT:
+            return 1;
+        case SMALLINT:
+            return 2;
+        case INT:
+        case FLOAT:
+        case DATE:
+            return 4;
+        case BIGINT:
+        case COUNTER:
+        case DOUBLE:
+        case TIMESTAMP:
+        case TIME:
+            return 8;
+        case UUID:
+        case TIMEUUID:
+        case INET:
+            return 16;
+        case LIST:
+        case SET:
+            return limits.getCollectionElements() * estimateBytes(type.getTypeArguments().get(0));
+        case MAP:
+            return limits.getCollectionElements() * (estimateBytes(type.getTypeArguments().get(0))
+                    + estimateBytes(type.getTypeArguments().get(1)));
+        case TUPLE:
+            long tuple = 0;
+            for (DataType component : ((TupleType) type).getComponentTypes()) {
+                tuple += estimateBytes(component);
+            }
+            return tuple;
+        case UDT:
+            if (!(type instanceof UserType))
+                return limits.getVariableValueBytes(); // Only known by name, see TypeResolver.UserTypeName
+            long fields = 0;
+            for (UserType.Field field : (UserType) type) {
+                fields += estimateBytes(field.getType());
+            }
+            return fields;
+        default:
+            return limits.getVariableValueBytes();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Limits the {@link PartitionAdvisor} checks tables against, and the guesses behind its row estimates
+ * <pre>
+ *   new PartitionAdvisor(source, new PartitionLimits().maxPartitionBytes(50 << 20).maxPartitionRows(10000));
+ * </pre>
+ */
+public class PartitionLimits {
+    public static final long DEFAULT_MAX_PARTITION_BYTES = 100L << 20;
+    public static final long DEFAULT_MAX_PARTITION_ROWS = 100_000;
+    public static final long DEFAULT_MAX_ROW_BYTES = 1L << 20;
+    public static final double DEFAULT_HOT_PARTITION_FACTOR = 10;
+    public static final int DEFAULT_VARIABLE_VALUE_BYTES = 64;
+    public static final int DEFAULT_COLLECTION_ELEMENTS = 10;
+
+    private long maxPartitionBytes = DEFAULT_MAX_PARTITION_BYTES;
+    private long maxPartitionRows = DEFAULT_MAX_PARTITION_ROWS;
+    private long maxRowBytes = DEFAULT_MAX_ROW_BYTES;
+    private double hotPartitionFactor = DEFAULT_HOT_PARTITION_FACTOR;
+    private int variableValueBytes = DEFAULT_VARIABLE_VALUE_BYTES;
+    private int collectionElements = DEFAULT_COLLECTION_ELEMENTS;
+
+    /**
+     * Sets the largest mean partition size, overall or within a token range
+     * @param maxPartitionBytes
+     * @return the updated {@link PartitionLimits}
+     */
+    public PartitionLimits maxPartitionBytes(long maxPartitionBytes) {
+        if (maxPartitionBytes < 1)
+            throw new IllegalArgumentException("maxPartitionBytes must be at least 1");
+        this.maxPartitionBytes = maxPartitionBytes;
+        return this;
+    }
+
+    /**
+     * Sets the largest number of rows per partition, estimated from the mean partition size and the row width
+     * @param maxPartitionRows
+     * @return the updated {@link PartitionLimits}
+     */
+    public PartitionLimits maxPartitionRows(long maxPartitionRows) {
+        if (maxPartitionRows < 1)
+            throw new IllegalArgumentException("maxPartitionRows must be at least 1");
+        this.maxPartitionRows = maxPartitionRows;
+        return this;
+    }
+
+    /**
+     * Sets the largest estimated row width
+     * @param maxRowBytes
+     * @return the updated {@link PartitionLimits}
+     */
+    public PartitionLimits maxRowBytes(long maxRowBytes) {
+        if (maxRowBytes < 1)
+            throw new IllegalArgumentException("maxRowBytes must be at least 1");
+        this.maxRowBytes = maxRowBytes;
+        return this;
+    }
+
+    /**
+     * Sets how many times the table's mean partition size a token range's mean has to reach to count as hot. Only
+     * ranges within that factor of {@link #maxPartitionBytes} are reported, small partitions being harmless.
+     * @param hotPartitionFactor
+     * @return the updated {@link PartitionLimits}
+     */
+    public PartitionLimits hotPartitionFactor(double hotPartitionFactor) {
+        if (hotPartitionFactor <= 1)
+            throw new IllegalArgumentException("hotPartitionFactor must be over 1");
+        this.hotPartitionFactor = hotPartitionFactor;
+        return this;
+    }
+
+    /**
+     * Sets the size assumed for text, blob, varint, decimal and custom values
+     * @param variableValueBytes
+     * @return the updated {@link PartitionLimits}
+     */
+    public PartitionLimits variableValueBytes(int variableValueBytes) {
+        this.variableValueBytes = Math.max(0, variableValueBytes);
+        return this;
+    }
+
+    /**
+     * Sets the number of elements assumed in each collection
+     * @param collectionElements
+     * @return the updated {@link PartitionLimits}
+     */
+    public PartitionLimits collectionElements(int collectionElements) {
+        this.collectionElements = Math.max(0, collectionElements);
+        return this;
+    }
+
+    public long getMaxPartitionBytes() {
+        return maxPartitionBytes;
+    }
+
+    public long getMaxPartitionRows() {
+        return maxPartitionRows;
+    }
+
+    public long getMaxRowBytes() {
+        return maxRowBytes;
+    }
+
+    public double getHotPartitionFactor() {
+        return hotPartitionFactor;
+    }
+
+    public int getVariableValueBytes() {
+        return variableValueBytes;
+    }
+
+    public int getCollectionElements() {
+        return collectionElements;
+    }
+}
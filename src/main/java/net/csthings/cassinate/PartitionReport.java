@@ -0,0 +1,159 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Result of a {@link PartitionAdvisor} run, one {@link TableAdvice} per model
+ */
+public class PartitionReport {
+    private final String keyspaceName;
+    private final List<TableAdvice> tables;
+
+    PartitionReport(String keyspaceName, List<TableAdvice> tables) {
+        this.keyspaceName = keyspaceName;
+        this.tables = Collections.unmodifiableList(new ArrayList<>(tables));
+    }
+
+    public String getKeyspaceName() {
+        return keyspaceName;
+    }
+
+    public List<TableAdvice> getTables() {
+        return tables;
+    }
+
+    /**
+     * @param table
+     * @return the advice for {@link table} or null if it wasn't checked
+     */
+    public TableAdvice getTable(String table) {
+        String name = SchemaSnapshot.handleId(table);
+        for (TableAdvice advice : tables) {
+            if (advice.getTable().equals(name))
+                return advice;
+        }
+        return null;
+    }
+
+    /**
+     * @return the tables over a limit
+     */
+    public List<TableAdvice> getFlagged() {
+        List<TableAdvice> flagged = new ArrayList<>();
+        for (TableAdvice advice : tables) {
+            if (advice.isFlagged())
+                flagged.add(advice);
+        }
+        return flagged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PartitionReport [keyspace=%s, tables=%d, flagged=%d]", keyspaceName, tables.size(),
+                getFlagged().size());
+    }
+
+    /**
+     * Estimates and warnings for one table
+     */
+    public static class TableAdvice {
+        private final String table;
+        private final long estimatedRowBytes;
+        private final long partitions;
+        private final long meanPartitionBytes;
+        private final long maxRangePartitionBytes;
+        private final List<String> warnings;
+
+        TableAdvice(String table, long estimatedRowBytes, long partitions, long meanPartitionBytes,
+                long maxRangePartitionBytes, List<String> warnings) {
+            this.table = table;
+            this.estimatedRowBytes = estimatedRowBytes;
+            this.partitions = partitions;
+            this.meanPartitionBytes = meanPartitionBytes;
+            this.maxRangePartitionBytes = maxRangePartitionBytes;
+            this.warnings = Collections.unmodifiableList(new ArrayList<>(warnings));
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        /**
+         * @return row width estimated from the model's column types
+         */
+        public long getEstimatedRowBytes() {
+            return estimatedRowBytes;
+        }
+
+        /**
+         * @return estimated number of partitions, 0 without statistics
+         */
+        public long getPartitions() {
+            return partitions;
+        }
+
+        /**
+         * @return mean partition size in bytes over every sampled range, 0 without statistics
+         */
+        public long getMeanPartitionBytes() {
+            return meanPartitionBytes;
+        }
+
+        /**
+         * @return largest mean partition size of a single range, 0 without statistics
+         */
+        public long getMaxRangePartitionBytes() {
+            return maxRangePartitionBytes;
+        }
+
+        /**
+         * @return estimated rows per partition, 0 without statistics
+         */
+        public long getEstimatedPartitionRows() {
+            return estimatedRowBytes == 0 ? 0 : meanPartitionBytes / estimatedRowBytes;
+        }
+
+        /**
+         * @return a description of each limit the table is over
+         */
+        public List<String> getWarnings() {
+            return warnings;
+        }
+
+        public boolean isFlagged() {
+            return !warnings.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("TableAdvice [table=%s, estimatedRowBytes=%d, partitions=%d, meanPartitionBytes=%d, "
+                    + "maxRangePartitionBytes=%d, warnings=%s]", table, estimatedRowBytes, partitions,
+                    meanPartitionBytes, maxRangePartitionBytes, warnings);
+        }
+    }
+}
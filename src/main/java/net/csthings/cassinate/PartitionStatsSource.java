@@ -0,0 +1,82 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.List;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Supplies the partition statistics read by the {@link PartitionAdvisor}
+ * <p/>
+ * See {@link SystemStatsSource} for a live cluster and {@link RecordedStatsSource} for recorded fixtures
+ */
+public interface PartitionStatsSource {
+    /**
+     * @param keyspaceName
+     * @param table
+     * @return the size estimates of {@link table}'s token ranges, empty if there are none yet
+     */
+    List<SizeEstimate> getSizeEstimates(String keyspaceName, String table);
+
+    /**
+     * Estimated partitions of one token range, as kept in {@code system.size_estimates}
+     */
+    final class SizeEstimate {
+        private final String rangeStart;
+        private final String rangeEnd;
+        private final long meanPartitionSize;
+        private final long partitionsCount;
+
+        public SizeEstimate(String rangeStart, String rangeEnd, long meanPartitionSize, long partitionsCount) {
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.meanPartitionSize = meanPartitionSize;
+            this.partitionsCount = partitionsCount;
+        }
+
+        public String getRangeStart() {
+            return rangeStart;
+        }
+
+        public String getRangeEnd() {
+            return rangeEnd;
+        }
+
+        /**
+         * @return mean size of the range's partitions in bytes
+         */
+        public long getMeanPartitionSize() {
+            return meanPartitionSize;
+        }
+
+        public long getPartitionsCount() {
+            return partitionsCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SizeEstimate [range=(%s, %s], meanPartitionSize=%d, partitionsCount=%d]",
+                    rangeStart, rangeEnd, meanPartitionSize, partitionsCount);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Prepared statements for the standard operations on each {@link Model}, plus a bounded cache of ad-hoc
+ * statements.
+ * <p/>
+ * {@link #warmUp} prepares every model statement in parallel, so the first request to a table doesn't pay the
+ * prepare round trip.
+ */
+public class PreparedStatementRegistry {
+    public static final Logger LOG = LoggerFactory.getLogger(PreparedStatementRegistry.class);
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * Statements generated for each model
+     */
+    public enum Operation {
+        /** Insert every column */
+        INSERT,
+        /** Select every column by the full primary key */
+        SELECT,
+        /** Delete by the full primary key */
+        DELETE,
+        /** Select every column by the partition key */
+        SELECT_BY_PARTITION
+    }
+
+    private final Session session;
+    private final String keyspaceName;
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+    private final Map<String, Map<Operation, PreparedStatement>> statements = new ConcurrentHashMap<>();
+    private final Map<String, PreparedStatement> adHoc;
+
+    /**
+     * @param session session to prepare with, or null when Cassinate only has a {@link SchemaBackend}
+     * @param keyspaceName keyspace the model tables live in
+     * @param cacheSize maximum number of ad-hoc statements kept by {@link #prepare}
+     */
+    public PreparedStatementRegistry(Session session, String keyspaceName, int cacheSize) {
+        this.session = session;
+        this.keyspaceName = keyspaceName;
+        this.adHoc = Collections.synchronizedMap(new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Registers {@link models} and prepares all their statements in parallel
+     * @param models models to prepare
+     * @return a future completing once every statement is prepared or has failed
+     * @throws IllegalStateException if there is no {@link Session} to prepare with
+     */
+    public CompletableFuture<Void> warmUp(Collection<Model> models) {
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (Model model : models) {
+            register(model);
+            if (model.getPrimaryKeys().isEmpty())
+                continue;
+            for (Operation op : Operation.values()) {
+                String cql = cql(keyspaceName, model, op);
+                futures.add(CassinateFutures.toCompletable(session().prepareAsync(cql)).handle((ps, error) -> {
+                    if (null != error)
+                        LOG.warn("Could not prepare {}", cql, error);
+                    else
+                        put(model.getName(), op, ps);
+                    return null;
+                }));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenRun(() -> LOG.info("Prepared {} statements for {} models in {} ms", futures.size(),
+                        models.size(), (System.nanoTime() - start) / 1000000));
+    }
+
+    /**
+     * Registers {@link model} so its statements can be prepared on first use. Replacing the model of a table drops
+     * the statements prepared for the old one.
+     * @param model
+     */
+    public void register(Model model) {
+        Model previous = models.put(model.getName(), model);
+        if (null != previous && previous != model)
+            statements.remove(model.getName());
+    }
+
+    /**
+     * Returns the statement for {@link op} on {@link table}, preparing it if it wasn't warmed up
+     * @param table name of a registered model
+     * @param op
+     * @return the prepared statement
+     * @throws IllegalArgumentException if no model is registered for {@link table}
+     * @throws IllegalStateException if there is no {@link Session} to prepare with
+     */
+    public PreparedStatement get(String table, Operation op) {
+        Map<Operation, PreparedStatement> byOp = statements.get(table);
+        PreparedStatement ps = null == byOp ? null : byOp.get(op);
+        if (null != ps)
+            return ps;
+
+        Model model = models.get(table);
+        if (null == model)
+            throw new IllegalArgumentException("No model registered for table " + table);
+        ps = session().prepare(cql(keyspaceName, model, op));
+        put(table, op, ps);
+        return ps;
+    }
+
+    public PreparedStatement get(Model model, Operation op) {
+        return get(model.getName(), op);
+    }
+
+    /**
+     * Prepares an ad-hoc statement, reusing it while it stays in the cache
+     * @param cql
+     * @return the prepared statement
+     * @throws IllegalStateException if there is no {@link Session} to prepare with
+     */
+    public PreparedStatement prepare(String cql) {
+        PreparedStatement ps = adHoc.get(cql);
+        if (null == ps) {
+            ps = session().prepare(cql);
+            adHoc.put(cql, ps);
+        }
+        return ps;
+    }
+
+    private Session session() {
+        if (null == session)
+            throw new IllegalStateException("Prepared statements need a live Session, not only a SchemaBackend; "
+                    + "build Cassinate with a cluster, contact points or useSession");
+        return session;
+    }
+
+    private void put(String table, Operation op, PreparedStatement ps) {
+        statements.computeIfAbsent(table, t -> Collections.synchronizedMap(new EnumMap<>(Operation.class)))
+                .put(op, ps);
+    }
+
+    /**
+     * Generates the cql of {@link op} on {@link model}
+     * @param keyspaceName keyspace of the table, or null for an unqualified table
+     * @param model
+     * @param op
+     * @return the cql with bind markers
+     */
+    public static String cql(String keyspaceName, Model model, Operation op) {
+        String table = null == keyspaceName ? model.getName() : keyspaceName + "." + model.getName();
+        List<String> columns = new ArrayList<>();
+        model.getColumns().forEach((name, type) -> {
+            if (null != type)
+                columns.add(name);
+        });
+
+        switch (op) {
+        case INSERT:
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.size(), "?")) + ");";
+        case SELECT:
+            return "SELECT " + String.join(", ", columns) + " FROM " + table + where(model.getPrimaryKeys()) + ";";
+        case DELETE:
+            return "DELETE FROM " + table + where(model.getPrimaryKeys()) + ";";
+        case SELECT_BY_PARTITION:
+            List<String> partition = model.getPartitionKeys().isEmpty()
+                    ? model.getPrimaryKeys().subList(0, 1) : model.getPartitionKeys();
+            return "SELECT " + String.join(", ", columns) + " FROM " + table + where(partition) + ";";
+        default:
+            throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    private static String where(List<String> keys) {
+        StringBuilder sb = new StringBuilder(" WHERE ");
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0)
+                sb.append(" AND ");
+            sb.append(keys.get(i)).append(" = ?");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,372 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.MaterializedViewMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TokenRange;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Moves the rows of a table to the new primary key of its {@link Model}, which no ALTER TABLE can do.
+ * <p/>
+ * {@link #copy()} creates {@code <table>}{@value #STAGING_SUFFIX} with the new key and copies every row into it with
+ * a {@link TokenRangeScanner}. {@link #cutover()} then drops the table, creates it again with the new key, copies the
+ * rows back and drops the staging table. Cassandra can't rename a table, hence the second copy; the table is empty
+ * or partial until the cutover is done, so keep it out of service meanwhile ({@link Cassinate} keeps its gate closed).
+ * <p/>
+ * Every copied range is checkpointed in the {@value #PROGRESS_TABLE} table, so running a phase again after a crash
+ * resumes where it stopped; {@link Cassinate} resumes a migration that stopped after its copy before diffing the
+ * table again, see {@link #copiedTables}. Stop writing to the table before starting: writes made during the copy may
+ * be lost, and the copied cells get new write times and no TTL. Columns dropped from the model or whose type changed
+ * are not copied. Dropping the table takes a snapshot of it when {@code auto_snapshot} is on, the default.
+ */
+public class PrimaryKeyMigration {
+    public static final Logger LOG = LoggerFactory.getLogger(PrimaryKeyMigration.class);
+    public static final String PROGRESS_TABLE = "cassinate_migration_progress";
+    public static final String STAGING_SUFFIX = "_pk_migration";
+
+    private static final String COPY = "copy";
+    private static final String CUTOVER = "cutover";
+    /** Range key of the row marking a finished phase */
+    private static final String COMPLETE = "";
+
+    private final Session session;
+    private final String keyspaceName;
+    private final Model model;
+    private final String table;
+    private final String staging;
+    private final int concurrency;
+    private final int fetchSize;
+    private final int maxInFlight;
+    private final PreparedStatement doneRanges;
+    private final PreparedStatement markDone;
+    private final PreparedStatement clear;
+
+    public PrimaryKeyMigration(Session session, String keyspaceName, Model model) {
+        this(session, keyspaceName, model, TokenRangeScanner.DEFAULT_CONCURRENCY, TokenRangeScanner.DEFAULT_FETCH_SIZE,
+                TokenRangeScanner.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Creates the {@value #PROGRESS_TABLE} table in {@link keyspaceName} if it doesn't exist yet
+     * @param session
+     * @param keyspaceName
+     * @param model model with the new primary key
+     * @param concurrency number of token ranges copied at once
+     * @param fetchSize rows per page
+     * @param maxInFlight maximum number of writes in flight
+     */
+    public PrimaryKeyMigration(Session session, String keyspaceName, Model model, int concurrency, int fetchSize,
+            int maxInFlight) {
+        this.session = session;
+        this.keyspaceName = keyspaceName;
+        this.model = model;
+        this.table = SchemaSnapshot.handleId(model.getName());
+        this.staging = stagingTable(model);
+        this.concurrency = concurrency;
+        this.fetchSize = fetchSize;
+        this.maxInFlight = maxInFlight;
+
+        KeyspaceMetadata km = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+        if (null == km || null == km.getTable(PROGRESS_TABLE)) {
+            LOG.debug("Creating {}.{}", keyspaceName, PROGRESS_TABLE);
+            session.execute(String.format("CREATE TABLE IF NOT EXISTS %s.%s (migration text, phase text, "
+                    + "range_start text, range_end text, rows bigint, PRIMARY KEY (migration, phase, range_start, "
+                    + "range_end));", keyspaceName, PROGRESS_TABLE));
+        }
+        doneRanges = session.prepare(String.format("SELECT range_start, range_end FROM %s.%s WHERE migration = ? "
+                + "AND phase = ?;", keyspaceName, PROGRESS_TABLE));
+        markDone = session.prepare(String.format("INSERT INTO %s.%s (migration, phase, range_start, range_end, rows) "
+                + "VALUES (?, ?, ?, ?, ?);", keyspaceName, PROGRESS_TABLE));
+        clear = session.prepare(String.format("DELETE FROM %s.%s WHERE migration = ?;", keyspaceName, PROGRESS_TABLE));
+    }
+
+    /**
+     * Runs {@link #copy()} then {@link #cutover()}. A copy that already finished is not run again, so a run
+     * interrupted during the cutover, even after the table was dropped, resumes with the cutover.
+     * @return the report of both phases
+     * @throws IllegalStateException if a range could not be copied. Run again to resume.
+     * @throws InterruptedException
+     */
+    public RangeScanReport run() throws InterruptedException {
+        return copy().plus(cutover());
+    }
+
+    /**
+     * Copies the rows of the table into the staging table, skipping the ranges a previous run already copied. Does
+     * nothing once the copy finished, even if the table was dropped by the cutover since.
+     * @return the report
+     * @throws IllegalArgumentException if a column of the new primary key isn't in the table
+     * @throws IllegalStateException if a range could not be copied. Run again to resume.
+     * @throws InterruptedException
+     */
+    public RangeScanReport copy() throws InterruptedException {
+        if (isComplete(COPY) && null != metadata(staging)) {
+            LOG.info("{}.{} is already copied to {}", keyspaceName, table, staging);
+            return new RangeScanReport(0, 0, 0, 0, 0);
+        }
+        TableMetadata source = metadata(table);
+        if (null == source)
+            throw new IllegalStateException("No table " + keyspaceName + "." + table);
+        if (hasNewKey(source)) {
+            LOG.info("{}.{} already has the new primary key, nothing to copy", keyspaceName, table);
+            return new RangeScanReport(0, 0, 0, 0, 0);
+        }
+        for (String key : model.getPrimaryKeys()) {
+            if (null == source.getColumn(Metadata.quote(SchemaSnapshot.handleId(key))))
+                throw new IllegalArgumentException("New primary key column " + key + " is not in " + keyspaceName
+                        + "." + table + "; add and fill it before changing the key");
+        }
+
+        LOG.info("Copying {}.{} to {} with PRIMARY KEY ({})", keyspaceName, table, staging,
+                String.join(", ", model.getPrimaryKeys()));
+        session.execute(MigrationOp.createTable(renamed(staging)).toCql());
+        return copyRows(table, staging, COPY);
+    }
+
+    /**
+     * Replaces the table with one with the new primary key and copies the staged rows into it, then drops the
+     * staging table. The materialized views of the old table are dropped; {@link Cassinate} creates the declared
+     * ones again on its next sync.
+     * @return the report
+     * @throws IllegalStateException if {@link #copy()} didn't finish, or a range could not be copied. Run again to
+     * resume.
+     * @throws InterruptedException
+     */
+    public RangeScanReport cutover() throws InterruptedException {
+        TableMetadata current = metadata(table);
+        if (null == metadata(staging)) {
+            if (null != current && hasNewKey(current)) {
+                // A previous run may have stopped between dropping the staging table and clearing its progress
+                session.execute(clear.bind(migrationId()));
+                return new RangeScanReport(0, 0, 0, 0, 0);
+            }
+            throw new IllegalStateException("No staging table " + keyspaceName + "." + staging + ", run copy() first");
+        }
+        if (!isComplete(COPY))
+            throw new IllegalStateException("The copy of " + keyspaceName + "." + table + " didn't finish, run copy() "
+                    + "first");
+
+        if (null != current && !hasNewKey(current)) {
+            LOG.info("Dropping {}.{} to recreate it with the new primary key", keyspaceName, table);
+            for (MaterializedViewMetadata view : current.getViews()) {
+                session.execute(String.format("DROP MATERIALIZED VIEW IF EXISTS %s.%s;", keyspaceName,
+                        Metadata.quote(view.getName())));
+            }
+            session.execute(String.format("DROP TABLE IF EXISTS %s.%s;", keyspaceName, Metadata.quote(table)));
+            current = null;
+        }
+        // IF NOT EXISTS, in case a previous run stopped right after creating it
+        if (null == current)
+            session.execute(MigrationOp.createTable(renamed(table)).toCql());
+
+        RangeScanReport report = copyRows(staging, table, CUTOVER);
+        session.execute(String.format("DROP TABLE IF EXISTS %s.%s;", keyspaceName, Metadata.quote(staging)));
+        session.execute(clear.bind(migrationId()));
+        LOG.info("Migrated {}.{} to PRIMARY KEY ({})", keyspaceName, table, String.join(", ", model.getPrimaryKeys()));
+        return report;
+    }
+
+    /**
+     * Finds the migrations of {@link keyspaceName} that stopped after their copy finished. Diffing their tables
+     * would miss the rows left in the staging table, or create an empty table if the cutover dropped it already.
+     * Does not create the {@value #PROGRESS_TABLE} table.
+     * @param session
+     * @param keyspaceName
+     * @return the names of their tables
+     */
+    public static Set<String> copiedTables(Session session, String keyspaceName) {
+        Set<String> tables = new HashSet<>();
+        KeyspaceMetadata km = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+        if (null == km || null == km.getTable(PROGRESS_TABLE))
+            return tables;
+        String prefix = keyspaceName + ".";
+        for (Row row : session.execute(String.format("SELECT DISTINCT migration FROM %s.%s;", keyspaceName,
+                PROGRESS_TABLE))) {
+            String migration = row.getString("migration");
+            if (!migration.startsWith(prefix))
+                continue;
+            Row complete = session.execute(String.format("SELECT rows FROM %s.%s WHERE migration = ? AND phase = ? "
+                    + "AND range_start = ?;", keyspaceName, PROGRESS_TABLE), migration, COPY, COMPLETE).one();
+            if (null != complete)
+                tables.add(migration.substring(prefix.length()));
+        }
+        return tables;
+    }
+
+    /**
+     * @return the name of the staging table of the table of {@link model}
+     */
+    static String stagingTable(Model model) {
+        return SchemaSnapshot.handleId(model.getName()) + STAGING_SUFFIX;
+    }
+
+    /**
+     * Copies the shared columns of {@link from} into {@link to}, checkpointing each range under {@link phase}
+     */
+    private RangeScanReport copyRows(String from, String to, String phase) throws InterruptedException {
+        TableMetadata source = metadata(from);
+        TableMetadata target = metadata(to);
+        List<String> columns = new ArrayList<>();
+        for (ColumnMetadata column : target.getColumns()) {
+            ColumnMetadata existing = source.getColumn(Metadata.quote(column.getName()));
+            if (null == existing)
+                continue;
+            if (!TypeResolver.sameType(existing.getType(), column.getType())) {
+                LOG.warn("Not copying {} of {}.{}, its type changed from {} to {}", column.getName(), keyspaceName,
+                        from, existing.getType(), column.getType());
+                continue;
+            }
+            columns.add(Metadata.quote(column.getName()));
+        }
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            values.append(i == 0 ? "?" : ", ?");
+        }
+        PreparedStatement insert = session.prepare(String.format("INSERT INTO %s.%s (%s) VALUES (%s);", keyspaceName,
+                Metadata.quote(to), String.join(", ", columns), values));
+        // Unset values need protocol v4; before that a null is written as a tombstone
+        boolean unset = session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion()
+                .compareTo(ProtocolVersion.V4) >= 0;
+
+        TokenRangeScanner scanner = new TokenRangeScanner(session, keyspaceName, Metadata.quote(from), concurrency,
+                fetchSize, maxInFlight);
+        Set<List<String>> done = doneRanges(phase);
+        List<TokenRange> ranges = new ArrayList<>();
+        for (TokenRange range : scanner.split()) {
+            if (!done.contains(rangeKey(range)))
+                ranges.add(range);
+        }
+        if (!done.isEmpty())
+            LOG.info("Resuming the {} of {}.{}: {} ranges left", phase, keyspaceName, table, ranges.size());
+
+        RangeScanReport report = scanner.scan(ranges, columns, new TokenRangeScanner.RangeHandler() {
+            @Override
+            public ListenableFuture<?> onRow(TokenRange range, Row row) {
+                BoundStatement bound = insert.bind();
+                for (int i = 0; i < columns.size(); i++) {
+                    ByteBuffer value = row.getBytesUnsafe(i);
+                    if (null != value || !unset)
+                        bound.setBytesUnsafe(i, value);
+                }
+                return session.executeAsync(bound);
+            }
+
+            @Override
+            public void onRangeDone(TokenRange range, long rows) {
+                List<String> key = rangeKey(range);
+                session.execute(markDone.bind(migrationId(), phase, key.get(0), key.get(1), rows));
+            }
+        });
+        report = new RangeScanReport(report.getRanges(), done.size(), report.getFailedRanges(), report.getRows(),
+                report.getElapsed(TimeUnit.NANOSECONDS));
+        if (report.getFailedRanges() > 0)
+            throw new IllegalStateException(String.format("Could not copy %d ranges of %s.%s to %s, run again to "
+                    + "resume", report.getFailedRanges(), keyspaceName, from, to));
+        session.execute(markDone.bind(migrationId(), phase, COMPLETE, COMPLETE, report.getRows()));
+        return report;
+    }
+
+    private Set<List<String>> doneRanges(String phase) {
+        Set<List<String>> done = new HashSet<>();
+        for (Row row : session.execute(doneRanges.bind(migrationId(), phase))) {
+            if (!COMPLETE.equals(row.getString("range_start")))
+                done.add(Arrays.asList(row.getString("range_start"), row.getString("range_end")));
+        }
+        return done;
+    }
+
+    private boolean isComplete(String phase) {
+        for (Row row : session.execute(doneRanges.bind(migrationId(), phase))) {
+            if (COMPLETE.equals(row.getString("range_start")))
+                return true;
+        }
+        return false;
+    }
+
+    private static List<String> rangeKey(TokenRange range) {
+        return Arrays.asList(range.getStart().toString(), range.getEnd().toString());
+    }
+
+    private String migrationId() {
+        return keyspaceName + "." + table;
+    }
+
+    private TableMetadata metadata(String name) {
+        KeyspaceMetadata km = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+        return null == km ? null : km.getTable(Metadata.quote(name));
+    }
+
+    /**
+     * @return true if {@link existing} has the primary key of the model
+     */
+    private boolean hasNewKey(TableMetadata existing) {
+        List<String> partitionKey = new ArrayList<>();
+        for (ColumnMetadata column : existing.getPartitionKey()) {
+            partitionKey.add(column.getName());
+        }
+        List<String> clusteringColumns = new ArrayList<>();
+        for (ColumnMetadata column : existing.getClusteringColumns()) {
+            clusteringColumns.add(column.getName());
+        }
+        SchemaSnapshot.TableSnapshot snapshot = SchemaSnapshot.TableSnapshot.exact(existing.getName(),
+                new LinkedHashMap<>(), partitionKey, clusteringColumns, TableSettings.NONE, new ArrayList<>());
+        return !SchemaDiff.primaryKeyChanged(model, snapshot);
+    }
+
+    /**
+     * @return a copy of the model's table definition named {@link name}, in {@link keyspaceName}
+     */
+    private Model renamed(String name) {
+        Model copy = new Model();
+        copy.setName(Metadata.quote(keyspaceName) + "." + Metadata.quote(name));
+        copy.setColumns(new LinkedHashMap<>(model.getColumns()));
+        copy.getPrimaryKeys().addAll(model.getPrimaryKeys());
+        copy.getPartitionKeys().addAll(model.getPartitionKeys());
+        copy.getClusteringColumns().addAll(model.getClusteringColumns());
+        copy.setSettings(model.getSettings());
+        return copy;
+    }
+}
@@ -0,0 +1,98 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Summary of a {@link TokenRangeScanner} run
+ */
+public class RangeScanReport {
+    private final long ranges;
+    private final long skippedRanges;
+    private final long failedRanges;
+    private final long rows;
+    private final long elapsedNanos;
+
+    RangeScanReport(long ranges, long skippedRanges, long failedRanges, long rows, long elapsedNanos) {
+        this.ranges = ranges;
+        this.skippedRanges = skippedRanges;
+        this.failedRanges = failedRanges;
+        this.rows = rows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Adds up this report and {@link other}, e.g. for the phases of a {@link PrimaryKeyMigration}
+     * @param other
+     * @return the sum
+     */
+    RangeScanReport plus(RangeScanReport other) {
+        return new RangeScanReport(ranges + other.ranges, skippedRanges + other.skippedRanges,
+                failedRanges + other.failedRanges, rows + other.rows, elapsedNanos + other.elapsedNanos);
+    }
+
+    /**
+     * @return number of token ranges scanned
+     */
+    public long getRanges() {
+        return ranges;
+    }
+
+    /**
+     * @return number of token ranges skipped because they were already done, e.g. when resuming
+     */
+    public long getSkippedRanges() {
+        return skippedRanges;
+    }
+
+    /**
+     * @return number of token ranges that failed every attempt or had a failed write
+     */
+    public long getFailedRanges() {
+        return failedRanges;
+    }
+
+    /**
+     * @return number of rows handed to the handler
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RangeScanReport [ranges=%d, skippedRanges=%d, failedRanges=%d, rows=%d, elapsedMs=%d, "
+                + "rowsPerSecond=%.1f]", ranges, skippedRanges, failedRanges, rows, getElapsed(TimeUnit.MILLISECONDS),
+                getRowsPerSecond());
+    }
+}
@@ -0,0 +1,140 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Partition statistics recorded from a cluster, to run the {@link PartitionAdvisor} without one.
+ * <p/>
+ * The fixture file has one tab separated estimate per line; blank lines and lines starting with {@code #} are
+ * skipped:
+ *
+ * <pre>
+ * keyspace_name  table_name  range_start  range_end  mean_partition_size  partitions_count
+ * </pre>
+ */
+public class RecordedStatsSource implements PartitionStatsSource {
+    private final Map<String, List<SizeEstimate>> estimates = new TreeMap<>();
+
+    /**
+     * Reads the fixture {@link file}
+     * @param file
+     * @return the recorded statistics
+     * @throws IOException if {@link file} can't be read or has a malformed line
+     */
+    public static RecordedStatsSource load(Path file) throws IOException {
+        RecordedStatsSource source = new RecordedStatsSource();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.trim().isEmpty() || line.startsWith("#"))
+                    continue;
+                String[] fields = line.split("\t");
+                try {
+                    if (fields.length != 6)
+                        throw new IllegalArgumentException("expected 6 fields, got " + fields.length);
+                    source.add(fields[0], fields[1], new SizeEstimate(fields[2], fields[3],
+                            Long.parseLong(fields[4].trim()), Long.parseLong(fields[5].trim())));
+                }
+                catch (IllegalArgumentException e) {
+                    throw new IOException(String.format("Malformed size estimate at %s:%d: %s", file, number,
+                            e.getMessage()), e);
+                }
+            }
+        }
+        return source;
+    }
+
+    /**
+     * Records the current statistics of {@link tables} from {@link source}, e.g. a {@link SystemStatsSource}
+     * @param source
+     * @param keyspaceName
+     * @param tables
+     * @return the recorded statistics, see {@link #save}
+     */
+    public static RecordedStatsSource record(PartitionStatsSource source, String keyspaceName, List<String> tables) {
+        RecordedStatsSource recorded = new RecordedStatsSource();
+        for (String table : tables) {
+            for (SizeEstimate estimate : source.getSizeEstimates(keyspaceName, table)) {
+                recorded.add(keyspaceName, table, estimate);
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Adds an estimate of {@link keyspaceName}.{@link table}
+     * @param keyspaceName
+     * @param table
+     * @param estimate
+     * @return this source
+     */
+    public RecordedStatsSource add(String keyspaceName, String table, SizeEstimate estimate) {
+        estimates.computeIfAbsent(key(keyspaceName, table), k -> new ArrayList<>()).add(estimate);
+        return this;
+    }
+
+    /**
+     * Writes the recorded statistics to the fixture {@link file}
+     * @param file
+     * @throws IOException
+     */
+    public void save(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# keyspace_name\ttable_name\trange_start\trange_end\tmean_partition_size\tpartitions_count");
+            writer.newLine();
+            for (Entry<String, List<SizeEstimate>> e : estimates.entrySet()) {
+                for (SizeEstimate estimate : e.getValue()) {
+                    writer.write(e.getKey() + '\t' + estimate.getRangeStart() + '\t' + estimate.getRangeEnd() + '\t'
+                            + estimate.getMeanPartitionSize() + '\t' + estimate.getPartitionsCount());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<SizeEstimate> getSizeEstimates(String keyspaceName, String table) {
+        List<SizeEstimate> recorded = estimates.get(key(keyspaceName, table));
+        return null == recorded ? Collections.emptyList() : Collections.unmodifiableList(recorded);
+    }
+
+    private static String key(String keyspaceName, String table) {
+        return keyspaceName + '\t' + table;
+    }
+}
@@ -0,0 +1,103 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Settings for {@link CassinateHelper#truncateAllTables} and {@link CassinateHelper#dropAllTables}
+ * <pre>
+ *   helper.truncateAllTables("ks", new ResetOptions().maxConcurrency(2).skipEmptyTables(true)).join();
+ * </pre>
+ */
+public class ResetOptions {
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BACKOFF_MILLIS = 500;
+
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long backoffMillis = DEFAULT_BACKOFF_MILLIS;
+    private boolean skipEmptyTables;
+
+    /**
+     * Sets the maximum number of tables reset at the same time
+     * @param maxConcurrency
+     * @return the updated {@link ResetOptions}
+     */
+    public ResetOptions maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Sets how often a table is retried after a timeout
+     * @param maxRetries
+     * @return the updated {@link ResetOptions}
+     */
+    public ResetOptions maxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+        return this;
+    }
+
+    /**
+     * Sets the delay before the first retry. Each following retry waits twice as long.
+     * @param backoff
+     * @param unit
+     * @return the updated {@link ResetOptions}
+     */
+    public ResetOptions backoff(long backoff, TimeUnit unit) {
+        this.backoffMillis = unit.toMillis(backoff);
+        return this;
+    }
+
+    /**
+     * Sets the rule to check each table with a {@code LIMIT 1} read and skip it if it is already empty. Only applies
+     * to truncation.
+     * @param skipEmptyTables
+     * @return the updated {@link ResetOptions}
+     */
+    public ResetOptions skipEmptyTables(boolean skipEmptyTables) {
+        this.skipEmptyTables = skipEmptyTables;
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    public boolean isSkipEmptyTables() {
+        return skipEmptyTables;
+    }
+}
@@ -0,0 +1,129 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Startup report splitting the time spent finding model classes from the time spent building
+ * {@link Model}s out of them
+ */
+public class ScanReport {
+    /**
+     * Where the models came from
+     */
+    public enum Source {
+        INDEX, SCAN, PLAN
+    }
+
+    private Source source;
+    private String[] packages = new String[0];
+    private int threads = 1;
+    private long scanNanos;
+    private long modelNanos;
+    private int classCount;
+    private int modelCount;
+
+    public Source getSource() {
+        return source;
+    }
+
+    void setSource(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Packages the scan was limited to. Empty if the whole classpath was scanned.
+     * @return
+     */
+    public String[] getPackages() {
+        return packages.clone();
+    }
+
+    void setPackages(String[] packages) {
+        this.packages = packages.clone();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Time spent scanning the classpath (or reading the {@link ModelIndex})
+     * @param unit
+     * @return
+     */
+    public long getScanTime(TimeUnit unit) {
+        return unit.convert(scanNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void setScanNanos(long scanNanos) {
+        this.scanNanos = scanNanos;
+    }
+
+    /**
+     * Time spent loading the matched classes and building their {@link Model}s
+     * @param unit
+     * @return
+     */
+    public long getModelTime(TimeUnit unit) {
+        return unit.convert(modelNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void setModelNanos(long modelNanos) {
+        this.modelNanos = modelNanos;
+    }
+
+    /**
+     * Number of classes matching {@link ModelProcessor#annotation}
+     * @return
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    void setClassCount(int classCount) {
+        this.classCount = classCount;
+    }
+
+    public int getModelCount() {
+        return modelCount;
+    }
+
+    void setModelCount(int modelCount) {
+        this.modelCount = modelCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanReport [source=" + source + ", packages=" + Arrays.toString(packages) + ", threads=" + threads
+                + ", scanMs=" + getScanTime(TimeUnit.MILLISECONDS) + ", modelMs="
+                + getModelTime(TimeUnit.MILLISECONDS) + ", classes=" + classCount + ", models=" + modelCount + "]";
+    }
+}
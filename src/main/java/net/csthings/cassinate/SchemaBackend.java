@@ -0,0 +1,89 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.VersionNumber;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Where {@link CassinateHelper} and {@link DdlExecutor} read the schema from and send DDL to.
+ * <p/>
+ * {@link ClusterSchemaBackend} talks to a cluster through the driver. {@link InMemorySchemaBackend} keeps the schema
+ * in memory, so the whole build, scan, diff and apply cycle can run in a unit test or as an offline dry run.
+ */
+public interface SchemaBackend {
+    /**
+     * @param keyspaceName
+     * @return the tables of {@link keyspaceName} or null if the keyspace doesn't exist
+     */
+    SchemaSnapshot getKeyspace(String keyspaceName);
+
+    /**
+     * Like {@link #getKeyspace(String)}, with only {@link tableName} and its materialized views
+     * @param keyspaceName
+     * @param tableName
+     * @return the snapshot or null if the keyspace doesn't exist
+     */
+    default SchemaSnapshot getKeyspace(String keyspaceName, String tableName) {
+        SchemaSnapshot keyspace = getKeyspace(keyspaceName);
+        if (null == keyspace)
+            return null;
+        SchemaSnapshot.Builder builder = SchemaSnapshot.builder(keyspace.getKeyspaceName());
+        SchemaSnapshot.TableSnapshot table = keyspace.getTable(tableName);
+        if (null != table) {
+            builder.addTable(table);
+            for (ViewDefinition view : keyspace.getViews().values()) {
+                if (view.getBaseTable().equals(table.getName()))
+                    builder.addView(view);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the current schema version, or null if unknown
+     */
+    UUID getSchemaVersion();
+
+    /**
+     * @return the lowest Cassandra version of the nodes, or null if unknown
+     */
+    VersionNumber getMinCassandraVersion();
+
+    /**
+     * @return true if every node agrees on the schema
+     */
+    boolean checkSchemaAgreement();
+
+    /**
+     * Runs {@link statement} in {@link keyspaceName}
+     * @param keyspaceName keyspace for unqualified table names, or null for none
+     * @param statement a CQL statement
+     * @return a future of the result set, which may complete with null for backends without one
+     */
+    CompletableFuture<ResultSet> executeAsync(String keyspaceName, String statement);
+}
@@ -0,0 +1,322 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.VersionNumber;
+
+import net.csthings.cassinate.SchemaSnapshot.TableSnapshot;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Diffs {@link Model}s against a {@link SchemaSnapshot}.
+ * <p/>
+ * The diff only reads its inputs, so it runs the same at boot, in CI or in a unit test. A table that already
+ * matches its model costs two passes over its columns and no allocation per column.
+ */
+public final class SchemaDiff {
+    public static final Logger LOG = LoggerFactory.getLogger(SchemaDiff.class);
+    /** First Cassandra version accepting {@code ALTER TABLE t ADD (a int, b text)} and {@code DROP (a, b)} */
+    public static final VersionNumber MULTI_COLUMN_ALTER_VERSION = VersionNumber.parse("3.6");
+
+    private SchemaDiff() {
+    }
+
+    /**
+     * Finds the operations that bring {@link snapshot} in line with {@link models}, keeping the indexes and views
+     * the models don't declare
+     * @param models models to diff
+     * @param snapshot tables as they currently exist
+     * @return the operations, grouped by model in the order of {@link models}
+     */
+    public static List<MigrationOp> diff(List<Model> models, SchemaSnapshot snapshot) {
+        return diff(models, snapshot, false);
+    }
+
+    /**
+     * Finds the operations that bring {@link snapshot} in line with {@link models}
+     * @param models models to diff
+     * @param snapshot tables as they currently exist
+     * @param dropUndeclared true to drop the indexes and views of a model's table that the model doesn't declare
+     * @return the operations, grouped by model in the order of {@link models}
+     */
+    public static List<MigrationOp> diff(List<Model> models, SchemaSnapshot snapshot, boolean dropUndeclared) {
+        List<MigrationOp> ops = new ArrayList<>();
+        for (Model model : models) {
+            diff(model, snapshot, dropUndeclared, ops);
+        }
+        return ops;
+    }
+
+    /**
+     * Like {@link #diff(Model, SchemaSnapshot, boolean, List)}, keeping the indexes and views {@link model} doesn't
+     * declare
+     */
+    public static void diff(Model model, SchemaSnapshot snapshot, List<MigrationOp> ops) {
+        diff(model, snapshot, false, ops);
+    }
+
+    /**
+     * Adds the operations that bring the table of {@link model} and its materialized views in line with
+     * {@link model} to {@link ops}. Views that no longer match are dropped before the table changes, since Cassandra
+     * refuses to drop a column of a table with views; missing views are created after.
+     * <p/>
+     * Indexes and views the model doesn't declare may come from an index file or be managed by hand, so they are
+     * only dropped with {@link dropUndeclared}.
+     * @param model
+     * @param snapshot tables and views as they currently exist
+     * @param dropUndeclared true to drop the indexes and views {@link model} doesn't declare
+     * @param ops list to add to
+     */
+    public static void diff(Model model, SchemaSnapshot snapshot, boolean dropUndeclared, List<MigrationOp> ops) {
+        TableSnapshot table = snapshot.getTable(model.getName());
+        if (null != table && primaryKeyChanged(model, table)) {
+            // The views follow once the table is migrated
+            ops.add(MigrationOp.changePrimaryKey(model, table));
+            return;
+        }
+        List<ViewDefinition> missing = new ArrayList<>();
+        if (null == table) {
+            missing.addAll(model.getViews());
+        }
+        else {
+            for (ViewDefinition view : model.getViews()) {
+                ViewDefinition existing = snapshot.getView(view.getName());
+                if (null != existing && !view.matches(existing))
+                    ops.add(MigrationOp.dropView(existing));
+                if (null == existing || !view.matches(existing))
+                    missing.add(view);
+            }
+            for (ViewDefinition existing : snapshot.getViews().values()) {
+                if (!existing.getBaseTable().equals(table.getName()) || declaresView(model, existing.getName()))
+                    continue;
+                if (dropUndeclared)
+                    ops.add(MigrationOp.dropView(existing));
+                else
+                    LOG.debug("Keeping view {} of {}, the model doesn't declare it", existing.getName(),
+                            table.getName());
+            }
+        }
+
+        diff(model, table, dropUndeclared, ops);
+        for (ViewDefinition view : missing) {
+            ops.add(MigrationOp.createView(view));
+        }
+    }
+
+    /**
+     * Like {@link #diff(Model, TableSnapshot, boolean, List)}, keeping the indexes {@link model} doesn't declare
+     */
+    public static void diff(Model model, TableSnapshot table, List<MigrationOp> ops) {
+        diff(model, table, false, ops);
+    }
+
+    /**
+     * Adds the operations that bring {@link table} and its indexes in line with {@link model} to {@link ops}
+     * @param model
+     * @param table current table or null if it doesn't exist
+     * @param dropUndeclared true to drop the indexes {@link model} doesn't declare
+     * @param ops list to add to
+     */
+    public static void diff(Model model, TableSnapshot table, boolean dropUndeclared, List<MigrationOp> ops) {
+        if (null == table) {
+            ops.add(MigrationOp.createTable(model));
+            for (IndexDefinition index : model.getIndexes()) {
+                ops.add(MigrationOp.createIndex(index));
+            }
+            return;
+        }
+        if (primaryKeyChanged(model, table)) {
+            // Nothing else can be altered until the rows are in a table with the new key
+            ops.add(MigrationOp.changePrimaryKey(model, table));
+            return;
+        }
+
+        // Indexes go first; Cassandra refuses to drop or alter an indexed column
+        List<IndexDefinition> missing = new ArrayList<>();
+        for (IndexDefinition index : model.getIndexes()) {
+            IndexDefinition existing = table.getIndexes().get(index.getName());
+            if (null != existing && !index.matches(existing))
+                ops.add(MigrationOp.dropIndex(existing));
+            if (null == existing || !index.matches(existing))
+                missing.add(index);
+        }
+        for (IndexDefinition existing : table.getIndexes().values()) {
+            if (declaresIndex(model, existing.getName()))
+                continue;
+            if (dropUndeclared)
+                ops.add(MigrationOp.dropIndex(existing));
+            else
+                LOG.debug("Keeping index {} of {}, the model doesn't declare it", existing.getName(),
+                        table.getName());
+        }
+
+        Map<String, ? super DataType> modelCols = model.getColumns();
+        for (Entry<String, ? super DataType> e : modelCols.entrySet()) {
+            DataType type = (DataType) e.getValue();
+            if (null == type) {
+                LOG.warn("No cql type for {}.{}, leaving it as is", model.getName(), e.getKey());
+                continue;
+            }
+            DataType existing = table.getColumnType(e.getKey());
+            if (null == existing) {
+                ops.add(MigrationOp.addColumn(SchemaSnapshot.cqlId(table.getName()), e.getKey(), type));
+            }
+            else if (!TypeResolver.sameType(existing, type)) {
+                // Column type needs to be changed
+                ops.add(MigrationOp.alterType(SchemaSnapshot.cqlId(table.getName()), e.getKey(), type));
+            }
+        }
+
+        for (String column : table.getColumns().keySet()) {
+            if (!containsColumn(modelCols, column) && !table.getPrimaryKey().contains(column)) {
+                // Column has been deleted from model. Drop it.
+                ops.add(MigrationOp.dropColumn(SchemaSnapshot.cqlId(table.getName()), SchemaSnapshot.cqlId(column)));
+            }
+        }
+
+        TableSettings drift = model.getSettings().drift(table.getSettings());
+        if (!drift.isEmpty())
+            ops.add(MigrationOp.alterOptions(SchemaSnapshot.cqlId(table.getName()), drift));
+        for (IndexDefinition index : missing) {
+            ops.add(MigrationOp.createIndex(index));
+        }
+    }
+
+    /**
+     * @return true if the primary key columns of {@link model}, their order, or where its partition key ends differ
+     * from {@link table}
+     */
+    static boolean primaryKeyChanged(Model model, TableSnapshot table) {
+        if (model.getPrimaryKeys().isEmpty())
+            return false; // Not a valid table, leave it to Cassandra to reject
+        if (model.getPrimaryKeys().size() != table.getPrimaryKey().size())
+            return true;
+        for (int i = 0; i < model.getPrimaryKeys().size(); i++) {
+            if (!SchemaSnapshot.handleId(model.getPrimaryKeys().get(i)).equals(table.getPrimaryKey().get(i)))
+                return true;
+        }
+        // Snapshots built without partition keys can't tell ((a, b)) from (a, b)
+        return !table.getPartitionKey().isEmpty()
+                && model.getPartitionKeys().size() != table.getPartitionKey().size();
+    }
+
+    private static boolean declaresIndex(Model model, String name) {
+        for (IndexDefinition index : model.getIndexes()) {
+            if (index.getName().equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean declaresView(Model model, String name) {
+        for (ViewDefinition view : model.getViews()) {
+            if (view.getName().equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merges the {@link MigrationOp.Kind#ADD_COLUMN}s of each table into one {@link MigrationOp.Kind#ADD_COLUMNS}
+     * and its {@link MigrationOp.Kind#DROP_COLUMN}s into one {@link MigrationOp.Kind#DROP_COLUMNS}, so each table
+     * costs one schema change per kind instead of one per column. A merged operation takes the place of the first
+     * operation it replaces; the order of everything else is kept.
+     * <p/>
+     * Only use the result on clusters where {@link #supportsMultiColumnAlter} holds.
+     * @param ops operations from {@link #diff}
+     * @return the merged operations
+     */
+    public static List<MigrationOp> coalesce(List<MigrationOp> ops) {
+        Map<String, Map<String, DataType>> adds = new HashMap<>();
+        Map<String, List<String>> drops = new HashMap<>();
+        for (MigrationOp op : ops) {
+            if (op.getKind() == MigrationOp.Kind.ADD_COLUMN)
+                adds.computeIfAbsent(op.getTable(), k -> new LinkedHashMap<>()).put(op.getColumn(), op.getType());
+            else if (op.getKind() == MigrationOp.Kind.DROP_COLUMN)
+                drops.computeIfAbsent(op.getTable(), k -> new ArrayList<>()).add(op.getColumn());
+        }
+
+        List<MigrationOp> merged = new ArrayList<>(ops.size());
+        for (MigrationOp op : ops) {
+            if (op.getKind() == MigrationOp.Kind.ADD_COLUMN) {
+                Map<String, DataType> columns = adds.remove(op.getTable());
+                if (null == columns)
+                    continue; // Already merged
+                merged.add(columns.size() > 1 ? MigrationOp.addColumns(op.getTable(), columns) : op);
+            }
+            else if (op.getKind() == MigrationOp.Kind.DROP_COLUMN) {
+                List<String> columns = drops.remove(op.getTable());
+                if (null == columns)
+                    continue;
+                merged.add(columns.size() > 1 ? MigrationOp.dropColumns(op.getTable(), columns) : op);
+            }
+            else {
+                merged.add(op);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @param minVersion lowest Cassandra version in the cluster or null if unknown
+     * @return true if every node accepts the statements of {@link #coalesce}
+     */
+    public static boolean supportsMultiColumnAlter(VersionNumber minVersion) {
+        return null != minVersion && minVersion.compareTo(MULTI_COLUMN_ALTER_VERSION) >= 0;
+    }
+
+    /**
+     * Generates the cql for {@link ops}
+     * @param ops
+     * @return one statement per operation
+     */
+    public static List<String> toCql(List<MigrationOp> ops) {
+        List<String> queries = new ArrayList<>(ops.size());
+        for (MigrationOp op : ops) {
+            queries.add(op.toCql());
+        }
+        return queries;
+    }
+
+    private static boolean containsColumn(Map<String, ?> modelCols, String column) {
+        if (modelCols.containsKey(column))
+            return true;
+        // Snapshot columns are lower case, model columns keep the case of their @Column name
+        for (String name : modelCols.keySet()) {
+            if (SchemaSnapshot.handleId(name).equals(column))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,139 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Stable hash of a model set, paired with the schema version it was last applied at.
+ * <p/>
+ * When both match what a {@link FingerprintStore} recorded, the keyspace already matches the models and
+ * {@link Cassinate} skips the diff.
+ */
+public class SchemaFingerprint {
+    private final String modelHash;
+    private final UUID schemaVersion;
+
+    public SchemaFingerprint(String modelHash, UUID schemaVersion) {
+        this.modelHash = modelHash;
+        this.schemaVersion = schemaVersion;
+    }
+
+    /**
+     * Hashes {@link models}. The hash does not depend on the order of the models or their columns, but does on the
+     * order of the partition key and clustering columns.
+     * @param keyspaceName keyspace the models belong to
+     * @param models models to hash
+     * @return hex encoded SHA-256
+     */
+    public static String hash(String keyspaceName, List<Model> models) {
+        List<Model> sorted = new ArrayList<>(models);
+        sorted.sort(Comparator.comparing(Model::getName));
+
+        StringBuilder sb = new StringBuilder(keyspaceName).append('\n');
+        for (Model model : sorted) {
+            sb.append(model.getName()).append('(');
+            for (Entry<String, ? super DataType> e : new TreeMap<>(model.getColumns()).entrySet()) {
+                sb.append(e.getKey()).append(' ').append(e.getValue()).append(',');
+            }
+            // Partition key and clustering columns apart, so ((a, b)) and (a, b) differ. Clustering columns are in
+            // clustering order; models always cluster ascending.
+            sb.append(") PARTITION KEY ").append(model.getPartitionKeys()).append(" CLUSTERING ")
+                    .append(model.getClusteringColumns());
+            if (!model.getSettings().isEmpty())
+                sb.append(" WITH ").append(model.getSettings().toCql());
+            for (String cql : definitions(model)) {
+                sb.append(' ').append(cql);
+            }
+            sb.append('\n');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @return the sorted cql of the model's indexes and views
+     */
+    private static List<String> definitions(Model model) {
+        List<String> definitions = new ArrayList<>();
+        for (IndexDefinition index : model.getIndexes()) {
+            definitions.add(index.toCql());
+        }
+        for (ViewDefinition view : model.getViews()) {
+            definitions.add(view.toCql());
+        }
+        Collections.sort(definitions);
+        return definitions;
+    }
+
+    public String getModelHash() {
+        return modelHash;
+    }
+
+    public UUID getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof SchemaFingerprint))
+            return false;
+        SchemaFingerprint other = (SchemaFingerprint) obj;
+        return Objects.equals(modelHash, other.modelHash) && Objects.equals(schemaVersion, other.schemaVersion);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(modelHash, schemaVersion);
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaFingerprint [modelHash=" + modelHash + ", schemaVersion=" + schemaVersion + "]";
+    }
+}
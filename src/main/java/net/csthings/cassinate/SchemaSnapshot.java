@@ -0,0 +1,401 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.IndexMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.MaterializedViewMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.TableMetadata;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Immutable copy of the tables and materialized views in a keyspace, as seen by {@link SchemaDiff}.
+ * <p/>
+ * Built from live {@link KeyspaceMetadata} with {@link #of}, or by hand with {@link #builder} to diff without a
+ * cluster.
+ */
+public class SchemaSnapshot {
+    private static final Pattern UNQUOTED_ID = Pattern.compile("[a-z][a-z0-9_]*");
+
+    private final String keyspaceName;
+    private final Map<String, TableSnapshot> tables;
+    private final Map<String, ViewDefinition> views;
+
+    private SchemaSnapshot(String keyspaceName, Map<String, TableSnapshot> tables, Map<String, ViewDefinition> views) {
+        this.keyspaceName = keyspaceName;
+        this.tables = Collections.unmodifiableMap(tables);
+        this.views = Collections.unmodifiableMap(views);
+    }
+
+    /**
+     * Copies the tables of {@link km}
+     * @param km keyspace metadata, or null for a keyspace without tables
+     * @return the snapshot
+     */
+    public static SchemaSnapshot of(KeyspaceMetadata km) {
+        if (null == km)
+            return new SchemaSnapshot(null, new HashMap<>(), new HashMap<>());
+        Builder builder = builder(km.getName());
+        for (TableMetadata table : km.getTables()) {
+            builder.addTable(TableSnapshot.of(table));
+        }
+        for (MaterializedViewMetadata view : km.getMaterializedViews()) {
+            builder.addView(ViewDefinition.of(view));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copies only {@link tableName} of {@link km} and its materialized views, for diffing one model without copying
+     * the whole keyspace
+     * @param km keyspace metadata, or null for a keyspace without tables
+     * @param tableName
+     * @return the snapshot, without tables if {@link tableName} doesn't exist
+     */
+    public static SchemaSnapshot of(KeyspaceMetadata km, String tableName) {
+        if (null == km)
+            return new SchemaSnapshot(null, new HashMap<>(), new HashMap<>());
+        Builder builder = builder(km.getName());
+        TableMetadata table = km.getTable(tableName);
+        if (null != table) {
+            builder.addTable(TableSnapshot.of(table));
+            for (MaterializedViewMetadata view : table.getViews()) {
+                builder.addView(ViewDefinition.of(view));
+            }
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(String keyspaceName) {
+        return new Builder(keyspaceName);
+    }
+
+    public String getKeyspaceName() {
+        return keyspaceName;
+    }
+
+    /**
+     * Finds a table the way {@link KeyspaceMetadata#getTable} does: case insensitive unless the name is quoted
+     * @param name
+     * @return the table or null if it doesn't exist
+     */
+    public TableSnapshot getTable(String name) {
+        TableSnapshot table = tables.get(name);
+        return null != table ? table : tables.get(handleId(name));
+    }
+
+    public Map<String, TableSnapshot> getTables() {
+        return tables;
+    }
+
+    /**
+     * @param name
+     * @return the materialized view or null if it doesn't exist
+     */
+    public ViewDefinition getView(String name) {
+        return views.get(handleId(name));
+    }
+
+    public Map<String, ViewDefinition> getViews() {
+        return views;
+    }
+
+    /**
+     * Versions the content of the snapshot. Unlike the cluster's schema version, it tells whether two instances'
+     * metadata show the same tables, whatever changed elsewhere or when each instance refreshed it.
+     * @return a name based UUID of the tables, indexes and views, equal for equal snapshots
+     */
+    public UUID getContentVersion() {
+        StringBuilder sb = new StringBuilder();
+        for (TableSnapshot table : new TreeMap<>(tables).values()) {
+            sb.append(table.getName()).append('(');
+            for (Map.Entry<String, DataType> e : new TreeMap<>(table.getColumns()).entrySet()) {
+                sb.append(e.getKey()).append(' ').append(e.getValue()).append(',');
+            }
+            sb.append(')').append(table.getPartitionKey()).append(table.getPrimaryKey());
+            if (!table.getSettings().isEmpty())
+                sb.append(" WITH ").append(table.getSettings().toCql());
+            for (IndexDefinition index : new TreeMap<>(table.getIndexes()).values()) {
+                sb.append(' ').append(index.toCql());
+            }
+            sb.append('\n');
+        }
+        for (ViewDefinition view : new TreeMap<>(views).values()) {
+            sb.append(view.toCql()).append('\n');
+        }
+        return UUID.nameUUIDFromBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads an identifier the way cql does: case insensitive unless quoted. For names given by the user; the names
+     * in the driver's metadata are exact, see {@link #exactId}.
+     */
+    static String handleId(String id) {
+        if (id.length() > 1 && id.charAt(0) == '"' && id.charAt(id.length() - 1) == '"')
+            return id.substring(1, id.length() - 1);
+        return id.toLowerCase();
+    }
+
+    /**
+     * @return {@link id} quoted, so {@link #handleId} keeps a name read from the driver's metadata as it is
+     */
+    static String exactId(String id) {
+        return '"' + id + '"';
+    }
+
+    /**
+     * @return the exact name {@link id} as a cql identifier, quoted unless it's lower case
+     */
+    static String cqlId(String id) {
+        return UNQUOTED_ID.matcher(id).matches() ? id : Metadata.quote(id);
+    }
+
+    /**
+     * @purpose - Builder class for {@link SchemaSnapshot}
+     */
+    public static class Builder {
+        private final String keyspaceName;
+        private final Map<String, TableSnapshot> tables = new HashMap<>();
+        private final Map<String, ViewDefinition> views = new HashMap<>();
+
+        private Builder(String keyspaceName) {
+            this.keyspaceName = keyspaceName;
+        }
+
+        public Builder addTable(TableSnapshot table) {
+            tables.put(table.getName(), table);
+            return this;
+        }
+
+        /**
+         * @param name table name
+         * @param columns column types, in table order
+         * @param primaryKey partition key columns followed by the clustering columns
+         * @return the updated {@link Builder}
+         */
+        public Builder addTable(String name, Map<String, DataType> columns, List<String> primaryKey) {
+            return addTable(new TableSnapshot(name, columns, primaryKey));
+        }
+
+        public Builder addView(ViewDefinition view) {
+            views.put(view.getName(), view);
+            return this;
+        }
+
+        public SchemaSnapshot build() {
+            return new SchemaSnapshot(keyspaceName, new HashMap<>(tables), new HashMap<>(views));
+        }
+    }
+
+    /**
+     * @purpose - Immutable copy of one table
+     */
+    public static class TableSnapshot {
+        private final String name;
+        private final Map<String, DataType> columns;
+        private final List<String> primaryKey;
+        private final int partitionKeySize;
+        private final TableSettings settings;
+        private final Map<String, IndexDefinition> indexes;
+
+        public TableSnapshot(String name, Map<String, DataType> columns, List<String> primaryKey) {
+            this(name, columns, primaryKey, TableSettings.NONE);
+        }
+
+        /**
+         * @param name
+         * @param columns column types, in table order
+         * @param primaryKey partition key columns followed by the clustering columns
+         * @param settings the table's options
+         */
+        public TableSnapshot(String name, Map<String, DataType> columns, List<String> primaryKey,
+                TableSettings settings) {
+            this(name, columns, primaryKey, settings, Collections.emptyList());
+        }
+
+        /**
+         * @param name
+         * @param columns column types, in table order
+         * @param primaryKey partition key columns followed by the clustering columns
+         * @param settings the table's options
+         * @param indexes the table's secondary indexes
+         */
+        public TableSnapshot(String name, Map<String, DataType> columns, List<String> primaryKey,
+                TableSettings settings, Collection<IndexDefinition> indexes) {
+            this(name, columns, primaryKey, 0, settings, indexes);
+        }
+
+        /**
+         * @param name
+         * @param columns column types, in table order
+         * @param partitionKey partition key columns
+         * @param clusteringColumns clustering columns
+         * @param settings the table's options
+         * @param indexes the table's secondary indexes
+         */
+        public TableSnapshot(String name, Map<String, DataType> columns, List<String> partitionKey,
+                List<String> clusteringColumns, TableSettings settings, Collection<IndexDefinition> indexes) {
+            this(name, columns, concat(partitionKey, clusteringColumns), partitionKey.size(), settings, indexes);
+        }
+
+        private TableSnapshot(String name, Map<String, DataType> columns, List<String> primaryKey,
+                int partitionKeySize, TableSettings settings, Collection<IndexDefinition> indexes) {
+            this.name = handleId(name);
+            this.partitionKeySize = partitionKeySize;
+            this.settings = settings;
+            Map<String, IndexDefinition> byName = new LinkedHashMap<>();
+            for (IndexDefinition index : indexes) {
+                byName.put(index.getName(), index);
+            }
+            this.indexes = Collections.unmodifiableMap(byName);
+            Map<String, DataType> copy = new LinkedHashMap<>();
+            for (Map.Entry<String, DataType> e : columns.entrySet()) {
+                copy.put(handleId(e.getKey()), e.getValue());
+            }
+            this.columns = Collections.unmodifiableMap(copy);
+            List<String> keys = new ArrayList<>(primaryKey.size());
+            for (String key : primaryKey) {
+                keys.add(handleId(key));
+            }
+            this.primaryKey = Collections.unmodifiableList(keys);
+        }
+
+        private static List<String> concat(List<String> partitionKey, List<String> clusteringColumns) {
+            List<String> keys = new ArrayList<>(partitionKey);
+            keys.addAll(clusteringColumns);
+            return keys;
+        }
+
+        static TableSnapshot of(TableMetadata table) {
+            Map<String, DataType> columns = new LinkedHashMap<>();
+            for (ColumnMetadata column : table.getColumns()) {
+                columns.put(column.getName(), column.getType());
+            }
+            List<String> partitionKey = new ArrayList<>();
+            for (ColumnMetadata column : table.getPartitionKey()) {
+                partitionKey.add(column.getName());
+            }
+            List<String> clusteringColumns = new ArrayList<>();
+            for (ColumnMetadata column : table.getClusteringColumns()) {
+                clusteringColumns.add(column.getName());
+            }
+            List<IndexDefinition> indexes = new ArrayList<>();
+            for (IndexMetadata index : table.getIndexes()) {
+                indexes.add(IndexDefinition.of(index));
+            }
+            return exact(table.getName(), columns, partitionKey, clusteringColumns,
+                    TableSettings.of(table.getOptions()), indexes);
+        }
+
+        /**
+         * Like {@link #TableSnapshot(String, Map, List, List, TableSettings, Collection)}, with the names kept as
+         * they are, whatever their case, as the driver's metadata has them
+         */
+        static TableSnapshot exact(String name, Map<String, DataType> columns, List<String> partitionKey,
+                List<String> clusteringColumns, TableSettings settings, Collection<IndexDefinition> indexes) {
+            Map<String, DataType> exactColumns = new LinkedHashMap<>();
+            for (Map.Entry<String, DataType> e : columns.entrySet()) {
+                exactColumns.put(exactId(e.getKey()), e.getValue());
+            }
+            return new TableSnapshot(exactId(name), exactColumns, exactIds(partitionKey), exactIds(clusteringColumns),
+                    settings, indexes);
+        }
+
+        private static List<String> exactIds(List<String> names) {
+            List<String> ids = new ArrayList<>(names.size());
+            for (String name : names) {
+                ids.add(exactId(name));
+            }
+            return ids;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return column types, in table order
+         */
+        public Map<String, DataType> getColumns() {
+            return columns;
+        }
+
+        /**
+         * @param column
+         * @return the type of {@link column} or null if the table doesn't have it
+         */
+        public DataType getColumnType(String column) {
+            DataType type = columns.get(column);
+            return null != type ? type : columns.get(handleId(column));
+        }
+
+        /**
+         * @return the options Cassinate manages, {@link TableSettings#NONE} if they weren't read
+         */
+        public TableSettings getSettings() {
+            return settings;
+        }
+
+        /**
+         * @return secondary indexes by name
+         */
+        public Map<String, IndexDefinition> getIndexes() {
+            return indexes;
+        }
+
+        /**
+         * @return partition key columns followed by the clustering columns
+         */
+        public List<String> getPrimaryKey() {
+            return primaryKey;
+        }
+
+        /**
+         * @return partition key columns, empty if the snapshot was built without telling them from the clustering
+         * columns
+         */
+        public List<String> getPartitionKey() {
+            return primaryKey.subList(0, partitionKeySize);
+        }
+
+        @Override
+        public String toString() {
+            return "TableSnapshot [name=" + name + ", columns=" + columns + ", primaryKey=" + primaryKey + "]";
+        }
+    }
+}
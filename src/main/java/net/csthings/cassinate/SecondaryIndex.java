@@ -0,0 +1,67 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Secondary index on a model field. Cassinate creates it with the table and drops indexes of model tables
+ * that no field declares.
+ * <pre>
+ *   &#64;SecondaryIndex
+ *   private String email;
+ *
+ *   &#64;SecondaryIndex(using = SecondaryIndex.SASI, options = "mode=CONTAINS")
+ *   private String description;
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface SecondaryIndex {
+    /** Index class of SASI indexes, for {@link #using()} */
+    String SASI = "org.apache.cassandra.index.sasi.SASIIndex";
+
+    /**
+     * Index name, {@code <table>_<column>_idx} by default
+     */
+    String name() default "";
+
+    /**
+     * What to index in a collection: {@code KEYS}, {@code VALUES}, {@code ENTRIES} or {@code FULL}
+     */
+    String target() default "";
+
+    /**
+     * Custom index class, such as {@link #SASI}
+     */
+    String using() default "";
+
+    /**
+     * Custom index options as {@code name=value}
+     */
+    String[] options() default {};
+}
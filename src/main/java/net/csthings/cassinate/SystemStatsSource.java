@@ -0,0 +1,74 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Reads partition statistics from {@code system.size_estimates}.
+ * <p/>
+ * Each node only estimates its own primary ranges and refreshes them every few minutes, so the estimates are a
+ * sample from whichever node coordinates the query, not an exact count.
+ */
+public class SystemStatsSource implements PartitionStatsSource {
+    private final Session session;
+    private volatile PreparedStatement select;
+
+    public SystemStatsSource(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public List<SizeEstimate> getSizeEstimates(String keyspaceName, String table) {
+        List<SizeEstimate> estimates = new ArrayList<>();
+        for (Row row : session.execute(select().bind(keyspaceName, table))) {
+            estimates.add(new SizeEstimate(row.getString("range_start"), row.getString("range_end"),
+                    row.getLong("mean_partition_size"), row.getLong("partitions_count")));
+        }
+        return estimates;
+    }
+
+    /**
+     * Prepared on first use, so a cluster without {@code system.size_estimates} only fails once it is read
+     */
+    private PreparedStatement select() {
+        PreparedStatement prepared = select;
+        if (null == prepared) {
+            synchronized (this) {
+                prepared = select;
+                if (null == prepared) {
+                    prepared = session.prepare("SELECT range_start, range_end, mean_partition_size, "
+                            + "partitions_count FROM system.size_estimates WHERE keyspace_name = ? AND table_name = ?");
+                    select = prepared;
+                }
+            }
+        }
+        return prepared;
+    }
+}
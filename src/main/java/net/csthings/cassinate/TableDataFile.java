@@ -0,0 +1,350 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.datastax.driver.core.Row;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Compact columnar snapshot of the rows of one table, written by {@link TableExporter} and loaded by
+ * {@link BulkLoader#loadSnapshot}.
+ * <p/>
+ * Values are kept as the driver's serialized bytes, so nothing is parsed or formatted on either side. The file is a
+ * header followed by independent row groups:
+ *
+ * <pre>
+ * header    := MAGIC VERSION table:string count:int (name:string type:string){count}
+ * row group := rows:int length:long (block:int value{rows}){count}
+ * value     := length:int bytes, length -1 for null
+ * string    := length:int utf-8 bytes
+ * </pre>
+ *
+ * Column blocks are in header order and {@code length} is the size of the blocks that follow it. Groups are written
+ * whole, in no particular order, so several ranges can append to the same file.
+ */
+public final class TableDataFile {
+    /** "CSTF" */
+    public static final int MAGIC = 0x43535446;
+    public static final int VERSION = 1;
+    /** Rows per group, a group is also written once its values exceed {@link #MAX_GROUP_BYTES} */
+    public static final int GROUP_ROWS = 4096;
+    public static final int MAX_GROUP_BYTES = 8 << 20;
+
+    private static final int GROUP_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private TableDataFile() {
+    }
+
+    /**
+     * Buffers rows column by column until they're written as one group
+     */
+    public static final class RowGroup {
+        private final ByteArrayOutputStream[] blocks;
+        private final DataOutputStream[] outs;
+        private int rows;
+        private long bytes;
+
+        public RowGroup(int columns) {
+            blocks = new ByteArrayOutputStream[columns];
+            outs = new DataOutputStream[columns];
+            for (int i = 0; i < columns; i++) {
+                blocks[i] = new ByteArrayOutputStream();
+                outs[i] = new DataOutputStream(blocks[i]);
+            }
+        }
+
+        /**
+         * Adds the values of {@link row}, selected in header order
+         * @param row
+         */
+        public void add(Row row) {
+            try {
+                for (int i = 0; i < outs.length; i++) {
+                    ByteBuffer value = row.getBytesUnsafe(i);
+                    if (null == value) {
+                        outs[i].writeInt(-1);
+                        bytes += Integer.BYTES;
+                        continue;
+                    }
+                    value = value.duplicate();
+                    outs[i].writeInt(value.remaining());
+                    bytes += Integer.BYTES + value.remaining();
+                    if (value.hasArray()) {
+                        outs[i].write(value.array(), value.arrayOffset() + value.position(), value.remaining());
+                    }
+                    else {
+                        byte[] copy = new byte[value.remaining()];
+                        value.get(copy);
+                        outs[i].write(copy);
+                    }
+                }
+            }
+            catch (IOException e) {
+                // ByteArrayOutputStream doesn't throw
+                throw new IllegalStateException(e);
+            }
+            rows++;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * @return true once the group should be written
+         */
+        public boolean isFull() {
+            return rows >= GROUP_ROWS || bytes >= MAX_GROUP_BYTES;
+        }
+
+        private void clear() {
+            for (ByteArrayOutputStream block : blocks) {
+                block.reset();
+            }
+            rows = 0;
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Appends row groups to a new file. Safe to share between threads.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final int columns;
+        private long rows;
+
+        /**
+         * Creates {@link file}, replacing it if it exists, and writes its header
+         * @param file
+         * @param table
+         * @param names column names, as the table knows them
+         * @param types cql type of each column
+         * @throws IOException
+         */
+        public Writer(Path file, String table, List<String> names, List<String> types) throws IOException {
+            if (names.size() != types.size())
+                throw new IllegalArgumentException("Expected a type for each column");
+            this.columns = names.size();
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, table);
+            out.writeInt(columns);
+            for (int i = 0; i < columns; i++) {
+                writeString(out, names.get(i));
+                writeString(out, types.get(i));
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            writeFully(ByteBuffer.wrap(header.toByteArray()));
+        }
+
+        /**
+         * Writes {@link group} if it has any rows and clears it
+         * @param group
+         * @throws IOException
+         */
+        public void write(RowGroup group) throws IOException {
+            if (group.rows == 0)
+                return;
+            if (group.blocks.length != columns)
+                throw new IllegalArgumentException("Expected " + columns + " columns, got " + group.blocks.length);
+            long length = 0;
+            for (ByteArrayOutputStream block : group.blocks) {
+                length += Integer.BYTES + block.size();
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) (GROUP_HEADER_BYTES + length));
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(group.rows);
+            out.writeLong(length);
+            for (ByteArrayOutputStream block : group.blocks) {
+                out.writeInt(block.size());
+                block.writeTo(out);
+            }
+            synchronized (this) {
+                writeFully(ByteBuffer.wrap(buffer.toByteArray()));
+                rows += group.rows;
+            }
+            group.clear();
+        }
+
+        public synchronized long getRows() {
+            return rows;
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a file group by group through memory mapped regions
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private final String table;
+        private final List<String> names;
+        private final List<String> types;
+        private long position;
+
+        /**
+         * Opens {@link file} and reads its header
+         * @param file
+         * @throws IOException if {@link file} is not a table data file
+         */
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                size = channel.size();
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        Math.min(size, Integer.MAX_VALUE));
+                if (header.remaining() < 2 * Integer.BYTES || header.getInt() != MAGIC)
+                    throw new IOException(file + " is not a table data file");
+                int version = header.getInt();
+                if (version != VERSION)
+                    throw new IOException("Unsupported table data file version " + version + ": " + file);
+                table = readString(header);
+                int count = header.getInt();
+                List<String> names = new ArrayList<>(count);
+                List<String> types = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    names.add(readString(header));
+                    types.add(readString(header));
+                }
+                this.names = Collections.unmodifiableList(names);
+                this.types = Collections.unmodifiableList(types);
+                position = header.position();
+            }
+            catch (RuntimeException e) {
+                channel.close();
+                throw new IOException(file + " is not a table data file", e);
+            }
+            catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public List<String> getColumns() {
+            return names;
+        }
+
+        public List<String> getTypes() {
+            return types;
+        }
+
+        /**
+         * Maps the next row group
+         * @return the values of the group by row then column, or null at the end of the file. Buffers stay valid
+         *         after the reader is closed.
+         * @throws IOException if the file is truncated
+         */
+        public ByteBuffer[][] nextGroup() throws IOException {
+            if (position >= size)
+                return null;
+            if (size - position < GROUP_HEADER_BYTES)
+                throw new IOException("Truncated row group at " + position);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, position, GROUP_HEADER_BYTES);
+            int rows = header.getInt();
+            long length = header.getLong();
+            if (rows < 0 || length < 0 || length > size - position - GROUP_HEADER_BYTES || length > Integer.MAX_VALUE)
+                throw new IOException("Truncated row group at " + position);
+            MappedByteBuffer group = channel.map(FileChannel.MapMode.READ_ONLY, position + GROUP_HEADER_BYTES,
+                    length);
+            position += GROUP_HEADER_BYTES + length;
+            try {
+                return readGroup(group, rows);
+            }
+            catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Corrupt row group ending at " + position, e);
+            }
+        }
+
+        private ByteBuffer[][] readGroup(ByteBuffer group, int rows) throws IOException {
+            ByteBuffer[][] values = new ByteBuffer[rows][names.size()];
+            for (int column = 0; column < names.size(); column++) {
+                int end = group.getInt();
+                end += group.position();
+                for (int row = 0; row < rows; row++) {
+                    int valueLength = group.getInt();
+                    if (valueLength < 0)
+                        continue;
+                    ByteBuffer value = group.slice();
+                    value.limit(valueLength);
+                    values[row][column] = value;
+                    group.position(group.position() + valueLength);
+                }
+                if (group.position() != end)
+                    throw new IOException("Corrupt column block " + names.get(column) + " in row group ending at "
+                            + position);
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
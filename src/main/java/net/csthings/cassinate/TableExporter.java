@@ -0,0 +1,142 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Exports the rows of a model's table to a {@link TableDataFile}, scanning token ranges in parallel.
+ * <p/>
+ * The exported columns and their types come from the {@link Model}, which has to match the table. Each range fills
+ * its own row group and appends it once full. A range retried by the {@link TokenRangeScanner} starts a new group,
+ * so groups it had already written appear twice in the file; loading them again overwrites the same rows.
+ */
+public class TableExporter {
+    public static final Logger LOG = LoggerFactory.getLogger(TableExporter.class);
+
+    private final Session session;
+    private final String keyspaceName;
+    private final int concurrency;
+
+    /**
+     * @param session
+     * @param keyspaceName keyspace of the exported tables
+     * @param concurrency number of ranges scanned at once
+     */
+    public TableExporter(Session session, String keyspaceName, int concurrency) {
+        this.session = session;
+        this.keyspaceName = keyspaceName;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Writes every row of {@link model}'s table to {@link file}, replacing it
+     * @param model
+     * @param file
+     * @return the scan report
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws IllegalStateException if the table doesn't match {@link model}, or some ranges couldn't be exported
+     */
+    public RangeScanReport export(Model model, Path file) throws IOException, InterruptedException {
+        String table = SchemaSnapshot.handleId(model.getName());
+        TokenRangeScanner scanner = new TokenRangeScanner(session, keyspaceName, Metadata.quote(table), concurrency,
+                TokenRangeScanner.DEFAULT_FETCH_SIZE, TokenRangeScanner.DEFAULT_MAX_IN_FLIGHT);
+
+        List<String> names = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        List<String> select = new ArrayList<>();
+        for (Entry<String, ? super DataType> e : model.getColumns().entrySet()) {
+            DataType type = (DataType) e.getValue();
+            if (null == type) {
+                LOG.warn("No cql type for {}.{}, not exporting it", model.getName(), e.getKey());
+                continue;
+            }
+            ColumnMetadata column = scanner.getTable().getColumn(Metadata.quote(SchemaSnapshot.handleId(e.getKey())));
+            if (null == column || !TypeResolver.sameType(column.getType(), type))
+                throw new IllegalStateException(String.format("Column %s of %s.%s doesn't match the model, sync the "
+                        + "schema before exporting", e.getKey(), keyspaceName, table));
+            names.add(column.getName());
+            types.add(type.toString());
+            select.add(Metadata.quote(column.getName()));
+        }
+
+        RangeScanReport report;
+        try (TableDataFile.Writer writer = new TableDataFile.Writer(file, table, names, types)) {
+            Map<TokenRange, TableDataFile.RowGroup> groups = new ConcurrentHashMap<>();
+            report = scanner.scan(scanner.split(), select, new TokenRangeScanner.RangeHandler() {
+                @Override
+                public void onRangeStart(TokenRange range) {
+                    groups.put(range, new TableDataFile.RowGroup(names.size()));
+                }
+
+                @Override
+                public ListenableFuture<?> onRow(TokenRange range, Row row) {
+                    TableDataFile.RowGroup group = groups.get(range);
+                    group.add(row);
+                    if (group.isFull())
+                        write(writer, group);
+                    return null;
+                }
+
+                @Override
+                public void onRangeDone(TokenRange range, long rows) {
+                    write(writer, groups.remove(range));
+                }
+            });
+        }
+        if (report.getFailedRanges() > 0)
+            throw new IllegalStateException(String.format("Could not export %d ranges of %s.%s to %s",
+                    report.getFailedRanges(), keyspaceName, table, file));
+        LOG.info("Exported {}.{} to {}: {}", keyspaceName, table, file, report);
+        return report;
+    }
+
+    private static void write(TableDataFile.Writer writer, TableDataFile.RowGroup group) {
+        try {
+            writer.write(group);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
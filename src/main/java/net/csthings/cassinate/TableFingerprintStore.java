@@ -0,0 +1,72 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - {@link FingerprintStore} backed by the {@value #TABLE} table in the managed keyspace, so every instance
+ * of a service shares one fingerprint
+ */
+public class TableFingerprintStore implements FingerprintStore {
+    public static final Logger LOG = LoggerFactory.getLogger(TableFingerprintStore.class);
+    public static final String TABLE = "cassinate_fingerprint";
+
+    private final Session session;
+
+    /**
+     * Creates the {@value #TABLE} table in {@link keyspaceName} if it doesn't exist yet
+     * @param session
+     * @param keyspaceName
+     */
+    public TableFingerprintStore(Session session, String keyspaceName) {
+        this.session = session;
+        KeyspaceMetadata km = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+        if (null == km || null == km.getTable(TABLE)) {
+            LOG.debug("Creating {}.{}", keyspaceName, TABLE);
+            session.execute(String.format("CREATE TABLE IF NOT EXISTS %s.%s (keyspace_name text PRIMARY KEY, "
+                    + "models text, schema_version uuid);", keyspaceName, TABLE));
+        }
+    }
+
+    @Override
+    public SchemaFingerprint load(String keyspaceName) {
+        Row row = session.execute(String.format("SELECT models, schema_version FROM %s.%s WHERE keyspace_name = ?;",
+                keyspaceName, TABLE), keyspaceName).one();
+        if (null == row)
+            return null;
+        return new SchemaFingerprint(row.getString("models"), row.getUUID("schema_version"));
+    }
+
+    @Override
+    public void save(String keyspaceName, SchemaFingerprint fingerprint) {
+        session.execute(String.format("INSERT INTO %s.%s (keyspace_name, models, schema_version) VALUES (?, ?, ?);",
+                keyspaceName, TABLE), keyspaceName, fingerprint.getModelHash(), fingerprint.getSchemaVersion());
+    }
+}
@@ -0,0 +1,132 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - {@link LeaseStore} backed by lightweight transactions on the {@value #TABLE} table of the managed
+ * keyspace. The owner is written with a TTL so a crashed holder releases the lease on its own. Releasing clears the
+ * owner and records the applied schema in the same row.
+ * <p/>
+ * The table is created by the first instance that starts. Create it ahead of a large rollout to keep that one
+ * statement from racing as well:
+ * <pre>
+ *   CREATE TABLE cassinate_lease (keyspace_name text PRIMARY KEY, owner text, acquired_at timestamp,
+ *       model_hash text, content_version uuid);
+ * </pre>
+ */
+public class TableLeaseStore implements LeaseStore {
+    public static final Logger LOG = LoggerFactory.getLogger(TableLeaseStore.class);
+    public static final String TABLE = "cassinate_lease";
+
+    private final Session session;
+    private final PreparedStatement acquire;
+    private final PreparedStatement renew;
+    private final PreparedStatement release;
+    private final PreparedStatement releaseApplied;
+    private final PreparedStatement holder;
+    private final PreparedStatement applied;
+
+    /**
+     * Creates the {@value #TABLE} table in {@link keyspaceName} if it doesn't exist yet
+     * @param session
+     * @param keyspaceName
+     */
+    public TableLeaseStore(Session session, String keyspaceName) {
+        this.session = session;
+        KeyspaceMetadata km = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+        if (null == km || null == km.getTable(TABLE)) {
+            LOG.debug("Creating {}.{}", keyspaceName, TABLE);
+            session.execute(String.format("CREATE TABLE IF NOT EXISTS %s.%s (keyspace_name text PRIMARY KEY, "
+                    + "owner text, acquired_at timestamp, model_hash text, content_version uuid);", keyspaceName,
+                    TABLE));
+        }
+        // A released row keeps the applied schema, so the lease is free when it has no owner
+        acquire = session.prepare(String.format("UPDATE %s.%s USING TTL ? SET owner = ?, acquired_at = ? "
+                + "WHERE keyspace_name = ? IF owner = null;", keyspaceName, TABLE));
+        renew = session.prepare(String.format("UPDATE %s.%s USING TTL ? SET owner = ?, acquired_at = ? "
+                + "WHERE keyspace_name = ? IF owner = ?;", keyspaceName, TABLE));
+        release = session.prepare(String.format("DELETE owner, acquired_at FROM %s.%s WHERE keyspace_name = ? "
+                + "IF owner = ?;", keyspaceName, TABLE));
+        releaseApplied = session.prepare(String.format("UPDATE %s.%s SET owner = null, acquired_at = null, "
+                + "model_hash = ?, content_version = ? WHERE keyspace_name = ? IF owner = ?;", keyspaceName, TABLE));
+        holder = session.prepare(String.format("SELECT owner FROM %s.%s WHERE keyspace_name = ?;",
+                keyspaceName, TABLE));
+        applied = session.prepare(String.format("SELECT model_hash, content_version FROM %s.%s "
+                + "WHERE keyspace_name = ?;", keyspaceName, TABLE));
+        // Linearizable reads, so a lease taken or released by a concurrent transaction is seen
+        holder.setConsistencyLevel(ConsistencyLevel.SERIAL);
+        applied.setConsistencyLevel(ConsistencyLevel.SERIAL);
+    }
+
+    @Override
+    public boolean tryAcquire(String keyspaceName, String owner, int ttlSeconds) {
+        ResultSet rs = session.execute(acquire.bind(ttlSeconds, owner, new Date(), keyspaceName));
+        return rs.wasApplied();
+    }
+
+    @Override
+    public boolean renew(String keyspaceName, String owner, int ttlSeconds) {
+        ResultSet rs = session.execute(renew.bind(ttlSeconds, owner, new Date(), keyspaceName, owner));
+        return rs.wasApplied();
+    }
+
+    @Override
+    public void release(String keyspaceName, String owner) {
+        session.execute(release.bind(keyspaceName, owner));
+    }
+
+    @Override
+    public void release(String keyspaceName, String owner, SchemaFingerprint fingerprint) {
+        session.execute(releaseApplied.bind(fingerprint.getModelHash(), fingerprint.getSchemaVersion(),
+                keyspaceName, owner));
+    }
+
+    @Override
+    public SchemaFingerprint getApplied(String keyspaceName) {
+        Row row = session.execute(applied.bind(keyspaceName)).one();
+        if (null == row || row.isNull("content_version"))
+            return null;
+        UUID version = row.getUUID("content_version");
+        return new SchemaFingerprint(row.getString("model_hash"), version);
+    }
+
+    @Override
+    public String getHolder(String keyspaceName) {
+        Row row = session.execute(holder.bind(keyspaceName)).one();
+        return null == row ? null : row.getString("owner");
+    }
+}
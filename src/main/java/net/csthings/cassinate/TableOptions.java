@@ -0,0 +1,76 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Table options for the table of a {@code @Table} class. They are added to its {@code CREATE TABLE} and
+ * an {@code ALTER TABLE ... WITH} is issued when the live table drifts from them. Options left unset keep whatever
+ * the table has.
+ * <pre>
+ *   &#64;Table(name = "events")
+ *   &#64;TableOptions(compaction = "TimeWindowCompactionStrategy",
+ *           compactionOptions = { "compaction_window_unit=DAYS", "compaction_window_size=1" },
+ *           defaultTtl = 604800)
+ *   public class Event { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TableOptions {
+    /**
+     * Compaction strategy class, such as {@code TimeWindowCompactionStrategy} or
+     * {@code LeveledCompactionStrategy}
+     */
+    String compaction() default "";
+
+    /**
+     * Compaction sub-options as {@code name=value}. Needs {@link #compaction()}.
+     */
+    String[] compactionOptions() default {};
+
+    /**
+     * Key cache: {@code ALL} or {@code NONE}
+     */
+    String keysCaching() default "";
+
+    /**
+     * Row cache: {@code ALL}, {@code NONE} or the number of rows cached per partition
+     */
+    String rowsPerPartition() default "";
+
+    /**
+     * {@code bloom_filter_fp_chance}, between 0 (exclusive) and 1
+     */
+    double bloomFilterFpChance() default -1;
+
+    /**
+     * {@code default_time_to_live} in seconds
+     */
+    int defaultTtl() default -1;
+}
@@ -0,0 +1,167 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.QueryExecutionException;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Runs one statement per table (TRUNCATE, DROP) with bounded concurrency and retries with backoff.
+ * A table that no longer exists counts as reset.
+ */
+class TableReset {
+    public static final Logger LOG = LoggerFactory.getLogger(TableReset.class);
+
+    private final Session session;
+    private final ScheduledExecutorService scheduler;
+    private final ResetOptions options;
+
+    TableReset(Session session, ScheduledExecutorService scheduler, ResetOptions options) {
+        this.session = session;
+        this.scheduler = scheduler;
+        this.options = options;
+    }
+
+    /**
+     * @param keyspaceName
+     * @param tables tables to reset
+     * @param statementFormat format of the statement, given the keyspace and the table
+     * @param probe whether to skip tables that are already empty
+     * @return a future completing once every table is reset, or failing with the first table that couldn't be
+     */
+    CompletableFuture<Void> run(String keyspaceName, List<String> tables, String statementFormat, boolean probe) {
+        Queue<String> pending = new ConcurrentLinkedQueue<>(tables);
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(options.getMaxConcurrency(),
+                tables.size())];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = drain(pending, keyspaceName, statementFormat, probe);
+        }
+        return CompletableFuture.allOf(workers);
+    }
+
+    private CompletableFuture<Void> drain(Queue<String> pending, String keyspaceName, String statementFormat,
+            boolean probe) {
+        String table = pending.poll();
+        if (null == table)
+            return CompletableFuture.completedFuture(null);
+        return reset(keyspaceName, table, statementFormat, probe)
+                .thenCompose(v -> drain(pending, keyspaceName, statementFormat, probe));
+    }
+
+    private CompletableFuture<Void> reset(String keyspaceName, String table, String statementFormat,
+            boolean probe) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        statements(keyspaceName, table, statementFormat, probe).whenComplete((v, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (null == cause) {
+                result.complete(null);
+            }
+            else if (isUnconfiguredTable(cause)) {
+                // Dropped by someone else since the table list was read
+                LOG.debug("Skipping missing table: {}.{}", keyspaceName, table);
+                result.complete(null);
+            }
+            else {
+                result.completeExceptionally(cause);
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Void> statements(String keyspaceName, String table, String statementFormat,
+            boolean probe) {
+        String statement = String.format(statementFormat, keyspaceName, table);
+        if (!probe)
+            return execute(statement, 0).thenApply(rs -> null);
+
+        String select = String.format("SELECT * FROM %s.%s LIMIT 1;", keyspaceName, table);
+        return execute(select, 0).thenCompose(rs -> {
+            if (null == rs.one()) {
+                LOG.debug("Skipping empty table: {}.{}", keyspaceName, table);
+                return CompletableFuture.completedFuture(null);
+            }
+            return execute(statement, 0).thenApply(r -> null);
+        });
+    }
+
+    private CompletableFuture<ResultSet> execute(String statement, int attempt) {
+        LOG.debug("Executing query: {}", statement);
+        CompletableFuture<ResultSet> result = new CompletableFuture<>();
+        CassinateFutures.toCompletable(session.executeAsync(statement)).whenComplete((rs, error) -> {
+            if (null == error) {
+                result.complete(rs);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (attempt >= options.getMaxRetries() || !isRetryable(cause)) {
+                if (!isUnconfiguredTable(cause))
+                    LOG.error("Could not execute query: {}", statement, cause);
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = options.getBackoffMillis() << attempt;
+            LOG.warn("Retrying in {} ms after {}: {}", delay, cause.getClass().getSimpleName(), statement);
+            try {
+                scheduler.schedule(() -> execute(statement, attempt + 1).whenComplete((r, e) -> {
+                    if (null == e)
+                        result.complete(r);
+                    else
+                        result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                }), delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                // The helper was closed while retrying
+                e.addSuppressed(cause);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private static boolean isUnconfiguredTable(Throwable t) {
+        // Cassandra reports "unconfigured table" (2.x: "unconfigured columnfamily") for a missing table
+        return t instanceof InvalidQueryException && null != t.getMessage()
+                && t.getMessage().toLowerCase().contains("unconfigured");
+    }
+
+    private static boolean isRetryable(Throwable t) {
+        // Timeouts, unavailable replicas and failed truncates are worth another try
+        return t instanceof OperationTimedOutException || t instanceof QueryExecutionException;
+    }
+}
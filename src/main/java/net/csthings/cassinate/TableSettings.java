@@ -0,0 +1,385 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.datastax.driver.core.TableOptionsMetadata;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - The table options Cassinate manages: compaction, caching, bloom filter and default TTL.
+ * <p/>
+ * Built from a {@link TableOptions} annotation for a model, or from the live table for a {@link SchemaSnapshot}.
+ * Unset options are empty maps or null and are never compared.
+ */
+public final class TableSettings {
+    public static final TableSettings NONE = new TableSettings(Collections.emptyMap(), Collections.emptyMap(), null,
+            null);
+
+    static final String COMPACTION = "compaction";
+    static final String CACHING = "caching";
+    static final String BLOOM_FILTER_FP_CHANCE = "bloom_filter_fp_chance";
+    static final String DEFAULT_TIME_TO_LIVE = "default_time_to_live";
+    private static final double EPSILON = 1e-9;
+
+    private final Map<String, String> compaction;
+    private final Map<String, String> caching;
+    private final Double bloomFilterFpChance;
+    private final Integer defaultTtl;
+
+    /**
+     * @param compaction compaction map including its {@code class}, empty to leave it unset
+     * @param caching caching map ({@code keys}, {@code rows_per_partition}), empty to leave it unset
+     * @param bloomFilterFpChance or null to leave it unset
+     * @param defaultTtl in seconds or null to leave it unset
+     */
+    public TableSettings(Map<String, String> compaction, Map<String, String> caching, Double bloomFilterFpChance,
+            Integer defaultTtl) {
+        this.compaction = Collections.unmodifiableMap(new LinkedHashMap<>(compaction));
+        this.caching = Collections.unmodifiableMap(new LinkedHashMap<>(caching));
+        this.bloomFilterFpChance = bloomFilterFpChance;
+        this.defaultTtl = defaultTtl;
+    }
+
+    /**
+     * @param options annotation of a model class or null
+     * @return the settings, {@link #NONE} if {@link options} is null
+     * @throws IllegalArgumentException if compaction options are given without a compaction class, or one isn't
+     * {@code name=value}
+     */
+    public static TableSettings of(TableOptions options) {
+        if (null == options)
+            return NONE;
+        return of(options.compaction(), Arrays.asList(options.compactionOptions()), options.keysCaching(),
+                options.rowsPerPartition(), options.bloomFilterFpChance(), options.defaultTtl());
+    }
+
+    /**
+     * Builds the settings from the attributes of a {@link TableOptions}, as read by reflection or recorded in the
+     * {@link ModelIndex}
+     * @throws IllegalArgumentException if compaction options are given without a compaction class, or one isn't
+     * {@code name=value}
+     */
+    static TableSettings of(String compactionClass, List<String> compactionOptions, String keysCaching,
+            String rowsPerPartition, double bloomFilterFpChance, int defaultTtl) {
+        Map<String, String> compaction = new LinkedHashMap<>();
+        if (!compactionClass.isEmpty())
+            compaction.put("class", compactionClass);
+        else if (!compactionOptions.isEmpty())
+            throw new IllegalArgumentException("@TableOptions compactionOptions need a compaction class");
+        compaction.putAll(options("@TableOptions compaction", compactionOptions));
+        Map<String, String> caching = new LinkedHashMap<>();
+        if (!keysCaching.isEmpty())
+            caching.put("keys", keysCaching);
+        if (!rowsPerPartition.isEmpty())
+            caching.put("rows_per_partition", rowsPerPartition);
+        return new TableSettings(compaction, caching, bloomFilterFpChance < 0 ? null : bloomFilterFpChance,
+                defaultTtl < 0 ? null : defaultTtl);
+    }
+
+    /**
+     * Splits annotation options written as {@code name=value}
+     * @param annotation annotation and attribute, for the error message
+     * @param options
+     * @return the options in declaration order
+     * @throws IllegalArgumentException if an option isn't {@code name=value}
+     */
+    static Map<String, String> options(String annotation, List<String> options) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String option : options) {
+            int eq = option.indexOf('=');
+            if (eq <= 0)
+                throw new IllegalArgumentException(annotation + " option is not name=value: " + option);
+            map.put(option.substring(0, eq).trim(), option.substring(eq + 1).trim());
+        }
+        return map;
+    }
+
+    /**
+     * @param options options of a live table or null
+     * @return its settings, {@link #NONE} if {@link options} is null
+     */
+    static TableSettings of(TableOptionsMetadata options) {
+        if (null == options)
+            return NONE;
+        return new TableSettings(nullToEmpty(options.getCompaction()), nullToEmpty(options.getCaching()),
+                options.getBloomFilterFalsePositiveChance(), options.getDefaultTimeToLive());
+    }
+
+    /**
+     * Reads the options of a {@code WITH} clause, ignoring the ones Cassinate doesn't manage
+     * @param with clause without the {@code WITH}, such as {@code compaction = {'class': 'X'} AND
+     *            default_time_to_live = 60}
+     * @return the settings
+     * @throws IllegalArgumentException if a managed option has a malformed value
+     */
+    static TableSettings parse(String with) {
+        Map<String, String> compaction = Collections.emptyMap();
+        Map<String, String> caching = Collections.emptyMap();
+        Double bloomFilterFpChance = null;
+        Integer defaultTtl = null;
+        String clause = with.trim();
+        if (clause.endsWith(";"))
+            clause = clause.substring(0, clause.length() - 1);
+        for (String option : splitOptions(clause)) {
+            int eq = option.indexOf('=');
+            if (eq < 0)
+                continue; // CLUSTERING ORDER BY, COMPACT STORAGE
+            String value = option.substring(eq + 1).trim();
+            switch (option.substring(0, eq).trim().toLowerCase()) {
+            case COMPACTION:
+                compaction = parseMap(value);
+                break;
+            case CACHING:
+                caching = parseMap(value);
+                break;
+            case BLOOM_FILTER_FP_CHANCE:
+                bloomFilterFpChance = Double.valueOf(unquote(value));
+                break;
+            case DEFAULT_TIME_TO_LIVE:
+                defaultTtl = Integer.valueOf(unquote(value));
+                break;
+            default:
+                break;
+            }
+        }
+        return new TableSettings(compaction, caching, bloomFilterFpChance, defaultTtl);
+    }
+
+    public Map<String, String> getCompaction() {
+        return compaction;
+    }
+
+    public Map<String, String> getCaching() {
+        return caching;
+    }
+
+    public Double getBloomFilterFpChance() {
+        return bloomFilterFpChance;
+    }
+
+    public Integer getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    /**
+     * @return true if no option is set
+     */
+    public boolean isEmpty() {
+        return compaction.isEmpty() && caching.isEmpty() && null == bloomFilterFpChance && null == defaultTtl;
+    }
+
+    /**
+     * Finds the options set here that {@link actual} doesn't match. Compaction classes are compared on their
+     * simple name, since Cassandra reports them fully qualified.
+     * @param actual settings of the live table
+     * @return the drifted options, {@link #NONE} if the table matches
+     */
+    public TableSettings drift(TableSettings actual) {
+        boolean compactionDrift = false;
+        for (Entry<String, String> e : compaction.entrySet()) {
+            String value = actual.compaction.get(e.getKey());
+            if ("class".equals(e.getKey()) ? !simpleName(e.getValue()).equalsIgnoreCase(simpleName(value))
+                    : !e.getValue().equalsIgnoreCase(value)) {
+                compactionDrift = true;
+                break;
+            }
+        }
+        boolean cachingDrift = false;
+        for (Entry<String, String> e : caching.entrySet()) {
+            if (!e.getValue().equalsIgnoreCase(actual.caching.get(e.getKey()))) {
+                cachingDrift = true;
+                break;
+            }
+        }
+        boolean bloomDrift = null != bloomFilterFpChance && (null == actual.bloomFilterFpChance
+                || Math.abs(bloomFilterFpChance - actual.bloomFilterFpChance) > EPSILON);
+        boolean ttlDrift = null != defaultTtl && !defaultTtl.equals(actual.defaultTtl);
+        if (!compactionDrift && !cachingDrift && !bloomDrift && !ttlDrift)
+            return NONE;
+        return new TableSettings(compactionDrift ? compaction : Collections.emptyMap(),
+                cachingDrift ? caching : Collections.emptyMap(), bloomDrift ? bloomFilterFpChance : null,
+                ttlDrift ? defaultTtl : null);
+    }
+
+    /**
+     * Applies {@link changes} on top of these settings, the way {@code ALTER TABLE ... WITH} does
+     * @param changes
+     * @return the merged settings
+     */
+    TableSettings merge(TableSettings changes) {
+        return new TableSettings(changes.compaction.isEmpty() ? compaction : changes.compaction,
+                changes.caching.isEmpty() ? caching : changes.caching,
+                null == changes.bloomFilterFpChance ? bloomFilterFpChance : changes.bloomFilterFpChance,
+                null == changes.defaultTtl ? defaultTtl : changes.defaultTtl);
+    }
+
+    /**
+     * @return the options as the body of a {@code WITH} clause, empty if none are set
+     */
+    public String toCql() {
+        List<String> options = new ArrayList<>(4);
+        if (!compaction.isEmpty())
+            options.add(COMPACTION + " = " + mapCql(compaction));
+        if (!caching.isEmpty())
+            options.add(CACHING + " = " + mapCql(caching));
+        if (null != bloomFilterFpChance)
+            options.add(BLOOM_FILTER_FP_CHANCE + " = " + BigDecimal.valueOf(bloomFilterFpChance).toPlainString());
+        if (null != defaultTtl)
+            options.add(DEFAULT_TIME_TO_LIVE + " = " + defaultTtl);
+        return String.join(" AND ", options);
+    }
+
+    static String mapCql(Map<String, String> map) {
+        StringBuilder sb = new StringBuilder("{");
+        String separator = "";
+        for (Entry<String, String> e : map.entrySet()) {
+            sb.append(separator).append(quote(e.getKey())).append(": ").append(quote(e.getValue()));
+            separator = ", ";
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String quote(String value) {
+        return '\'' + value.replace("'", "''") + '\'';
+    }
+
+    static String unquote(String value) {
+        String v = value.trim();
+        if (v.length() > 1 && v.charAt(0) == '\'' && v.charAt(v.length() - 1) == '\'')
+            return v.substring(1, v.length() - 1).replace("''", "'");
+        return v;
+    }
+
+    private static String simpleName(String className) {
+        if (null == className)
+            return "";
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static Map<String, String> nullToEmpty(Map<String, String> map) {
+        return null == map ? Collections.emptyMap() : map;
+    }
+
+    /**
+     * Parses a cql map literal such as {@code {'class': 'X', 'size': 1}}
+     */
+    static Map<String, String> parseMap(String value) {
+        String body = value.trim();
+        if (!body.startsWith("{") || !body.endsWith("}"))
+            throw new IllegalArgumentException("Not a map: " + value);
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String entry : split(body.substring(1, body.length() - 1), ',')) {
+            if (entry.trim().isEmpty())
+                continue;
+            List<String> kv = split(entry, ':');
+            if (kv.size() != 2)
+                throw new IllegalArgumentException("Not a map entry: " + entry);
+            map.put(unquote(kv.get(0)), unquote(kv.get(1)));
+        }
+        return map;
+    }
+
+    /**
+     * Splits {@link value} on {@link separator} outside of quotes and braces
+     */
+    private static List<String> split(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        boolean quoted = false;
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'')
+                quoted = !quoted;
+            else if (!quoted && c == '{')
+                depth++;
+            else if (!quoted && c == '}')
+                depth--;
+            else if (!quoted && depth == 0 && c == separator) {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    /**
+     * Splits a {@code WITH} clause on the {@code AND}s outside of quotes and braces
+     */
+    private static List<String> splitOptions(String clause) {
+        List<String> options = new ArrayList<>();
+        boolean quoted = false;
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < clause.length(); i++) {
+            char c = clause.charAt(i);
+            if (c == '\'')
+                quoted = !quoted;
+            else if (!quoted && c == '{')
+                depth++;
+            else if (!quoted && c == '}')
+                depth--;
+            else if (!quoted && depth == 0 && Character.isWhitespace(c) && i + 4 < clause.length()
+                    && clause.regionMatches(true, i + 1, "AND", 0, 3) && Character.isWhitespace(clause.charAt(i + 4))) {
+                options.add(clause.substring(start, i));
+                start = i + 4;
+                i += 3;
+            }
+        }
+        options.add(clause.substring(start));
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof TableSettings))
+            return false;
+        TableSettings other = (TableSettings) obj;
+        return compaction.equals(other.compaction) && caching.equals(other.caching)
+                && Objects.equals(bloomFilterFpChance, other.bloomFilterFpChance)
+                && Objects.equals(defaultTtl, other.defaultTtl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(compaction, caching, bloomFilterFpChance, defaultTtl);
+    }
+
+    @Override
+    public String toString() {
+        return toCql();
+    }
+}
@@ -0,0 +1,368 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Reads a whole table by splitting the token ring into ranges and scanning {@link #concurrency} of them
+ * at once with paged {@code SELECT ... WHERE token(key) > ? AND token(key) <= ?} queries.
+ * <p/>
+ * Each range is read by one thread, so a handler sees the rows of a range in token order. Writes returned by the
+ * handler are asynchronous, with at most {@link #maxInFlight} in flight across all ranges. A range is done once its
+ * last write has succeeded; {@link RangeHandler#onRangeDone} is the place to checkpoint it.
+ */
+public class TokenRangeScanner {
+    public static final Logger LOG = LoggerFactory.getLogger(TokenRangeScanner.class);
+    public static final int DEFAULT_CONCURRENCY = 8;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 128;
+    /** Attempts per range before it counts as failed. Rows of a retried range are handed over again. */
+    public static final int MAX_ATTEMPTS = 3;
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Session session;
+    private final String keyspaceName;
+    private final TableMetadata table;
+    private final int concurrency;
+    private final int fetchSize;
+    private final int maxInFlight;
+
+    /**
+     * Handles the rows of a scan
+     */
+    public interface RangeHandler {
+        /**
+         * Called before the first row of each attempt at {@link range}. A retried range starts over.
+         * @param range
+         */
+        default void onRangeStart(TokenRange range) {
+        }
+
+        /**
+         * Handles one row. Called from the thread scanning {@link range}, in token order.
+         * @param range
+         * @param row
+         * @return a future of the write made for {@link row}, or null if there is none
+         */
+        ListenableFuture<?> onRow(TokenRange range, Row row);
+
+        /**
+         * Called once every row of {@link range} was handled and its writes succeeded
+         * @param range
+         * @param rows number of rows in the range
+         */
+        default void onRangeDone(TokenRange range, long rows) {
+        }
+    }
+
+    public TokenRangeScanner(Session session, String keyspaceName, String table) {
+        this(session, keyspaceName, table, DEFAULT_CONCURRENCY, DEFAULT_FETCH_SIZE, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param session
+     * @param keyspaceName
+     * @param table table to scan, case insensitive unless quoted
+     * @param concurrency number of ranges scanned at once
+     * @param fetchSize rows per page
+     * @param maxInFlight maximum number of handler writes in flight
+     * @throws IllegalArgumentException if the table doesn't exist
+     */
+    public TokenRangeScanner(Session session, String keyspaceName, String table, int concurrency, int fetchSize,
+            int maxInFlight) {
+        if (concurrency < 1 || fetchSize < 1 || maxInFlight < 1)
+            throw new IllegalArgumentException("concurrency, fetchSize and maxInFlight must be at least 1");
+        Metadata metadata = session.getCluster().getMetadata();
+        this.table = null == metadata.getKeyspace(keyspaceName) ? null
+                : metadata.getKeyspace(keyspaceName).getTable(table);
+        if (null == this.table)
+            throw new IllegalArgumentException("No table " + keyspaceName + "." + table);
+        this.session = session;
+        this.keyspaceName = keyspaceName;
+        this.concurrency = concurrency;
+        this.fetchSize = fetchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Splits the token ring into at least {@link minRanges} ranges, none of them wrapping around
+     * @param minRanges
+     * @return the ranges, in token order
+     */
+    public List<TokenRange> split(int minRanges) {
+        Set<TokenRange> ring = session.getCluster().getMetadata().getTokenRanges();
+        int splits = Math.max(1, (minRanges + ring.size() - 1) / ring.size());
+        List<TokenRange> ranges = new ArrayList<>();
+        for (TokenRange range : ring) {
+            for (TokenRange split : range.splitEvenly(splits)) {
+                ranges.addAll(split.unwrap());
+            }
+        }
+        Collections.sort(ranges);
+        return ranges;
+    }
+
+    /**
+     * Splits the ring into 16 ranges per concurrent scan
+     * @return the ranges, in token order
+     */
+    public List<TokenRange> split() {
+        return split(concurrency * 16);
+    }
+
+    /**
+     * @return metadata of the scanned table
+     */
+    public TableMetadata getTable() {
+        return table;
+    }
+
+    /**
+     * Scans every column of {@link ranges}
+     * @see #scan(List, List, RangeHandler)
+     */
+    public RangeScanReport scan(List<TokenRange> ranges, RangeHandler handler) throws InterruptedException {
+        List<String> columns = new ArrayList<>();
+        for (ColumnMetadata column : table.getColumns()) {
+            columns.add(Metadata.quote(column.getName()));
+        }
+        return scan(ranges, columns, handler);
+    }
+
+    /**
+     * Scans {@link ranges}, waiting for every range and write to finish
+     * @param ranges non wrapping ranges, see {@link #split}
+     * @param columns cql of the selected columns
+     * @param handler
+     * @return the report. Failed ranges were not passed to {@link RangeHandler#onRangeDone}.
+     * @throws InterruptedException
+     */
+    public RangeScanReport scan(List<TokenRange> ranges, List<String> columns, RangeHandler handler)
+            throws InterruptedException {
+        List<String> key = new ArrayList<>();
+        for (ColumnMetadata column : table.getPartitionKey()) {
+            key.add(Metadata.quote(column.getName()));
+        }
+        String token = "token(" + String.join(", ", key) + ")";
+        String select = String.format("SELECT %s FROM %s.%s WHERE %s > ?", String.join(", ", columns),
+                Metadata.quote(keyspaceName), Metadata.quote(table.getName()), token);
+        PreparedStatement bounded = session.prepare(select + " AND " + token + " <= ?");
+        PreparedStatement open = session.prepare(select);
+
+        Scan scan = new Scan(bounded, open, handler);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, ranges.size())));
+        List<Future<?>> futures = new ArrayList<>(ranges.size());
+        try {
+            for (TokenRange range : ranges) {
+                futures.add(executor.submit(() -> scan.scanRange(range)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (ExecutionException e) {
+                    // Only errors get here, scanRange counts everything else
+                    scan.failedRanges.incrementAndGet();
+                    LOG.error("Range scan of {}.{} failed", keyspaceName, table.getName(), e.getCause());
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        RangeScanReport report = new RangeScanReport(ranges.size(), 0, scan.failedRanges.get(), scan.rows.get(),
+                System.nanoTime() - scan.start);
+        LOG.info("Scanned {}.{}: {}", keyspaceName, table.getName(), report);
+        return report;
+    }
+
+    /**
+     * State of one {@link #scan} call
+     */
+    private class Scan {
+        private final PreparedStatement bounded;
+        private final PreparedStatement open;
+        private final RangeHandler handler;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong failedRanges = new AtomicLong();
+        private final AtomicLong lastProgress;
+        private final long start = System.nanoTime();
+
+        Scan(PreparedStatement bounded, PreparedStatement open, RangeHandler handler) {
+            this.bounded = bounded;
+            this.open = open;
+            this.handler = handler;
+            this.lastProgress = new AtomicLong(start);
+        }
+
+        void scanRange(TokenRange range) {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    long count = attemptRange(range);
+                    if (count >= 0) {
+                        handler.onRangeDone(range, count);
+                        return;
+                    }
+                    LOG.warn("Writes of range {} failed, attempt {} of {}", range, attempt, MAX_ATTEMPTS);
+                }
+                catch (DriverException e) {
+                    LOG.warn("Could not scan range {}, attempt {} of {}", range, attempt, MAX_ATTEMPTS, e);
+                }
+                catch (RuntimeException e) {
+                    // The handler failed; retrying would fail the same way
+                    LOG.error("Could not handle range {}", range, e);
+                    break;
+                }
+            }
+            failedRanges.incrementAndGet();
+        }
+
+        /**
+         * @return the number of rows, or -1 if a write failed
+         */
+        private long attemptRange(TokenRange range) {
+            handler.onRangeStart(range);
+            // After unwrap() only the range ending at the minimum token has its end before its start
+            boolean toEnd = range.getEnd().compareTo(range.getStart()) <= 0;
+            BoundStatement statement = toEnd ? open.bind().setToken(0, range.getStart())
+                    : bounded.bind().setToken(0, range.getStart()).setToken(1, range.getEnd());
+            statement.setFetchSize(fetchSize);
+
+            RangeWrites writes = new RangeWrites();
+            long count = 0;
+            ResultSet rs = session.execute(statement);
+            for (Row row : rs) {
+                if (rs.getAvailableWithoutFetching() == fetchSize / 2 && !rs.isFullyFetched())
+                    rs.fetchMoreResults(); // Prefetch the next page while this one is handled
+                inFlight.acquireUninterruptibly();
+                ListenableFuture<?> write;
+                try {
+                    write = handler.onRow(range, row);
+                }
+                catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                if (null != write)
+                    writes.track(write);
+                else
+                    inFlight.release();
+                count++;
+                progress(rows.incrementAndGet());
+            }
+            return writes.await() ? count : -1;
+        }
+
+        private void progress(long total) {
+            long now = System.nanoTime();
+            long last = lastProgress.get();
+            if (now - last > PROGRESS_INTERVAL_NANOS && lastProgress.compareAndSet(last, now))
+                LOG.info("Scan progress of {}.{}: {} rows, {} rows/s", keyspaceName, table.getName(), total,
+                        (long) (total * 1e9 / (now - start)));
+        }
+
+        /**
+         * Writes of one range attempt
+         */
+        private class RangeWrites {
+            private final AtomicLong pending = new AtomicLong();
+            private final AtomicBoolean failed = new AtomicBoolean();
+
+            /**
+             * @param write a write holding a {@link #inFlight} permit
+             */
+            void track(ListenableFuture<?> write) {
+                pending.incrementAndGet();
+                Futures.addCallback(write, new FutureCallback<Object>() {
+                    @Override
+                    public void onSuccess(Object result) {
+                        done();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        LOG.debug("Write failed", t);
+                        failed.set(true);
+                        done();
+                    }
+                });
+            }
+
+            private void done() {
+                inFlight.release();
+                synchronized (this) {
+                    if (pending.decrementAndGet() == 0)
+                        notifyAll();
+                }
+            }
+
+            /**
+             * @return true if every write succeeded
+             */
+            synchronized boolean await() {
+                while (pending.get() > 0) {
+                    try {
+                        wait();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return !failed.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.LocalDate;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.UserType;
+import com.datastax.driver.mapping.annotations.Frozen;
+import com.datastax.driver.mapping.annotations.Transient;
+import com.datastax.driver.mapping.annotations.UDT;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Resolves the cql type of a model field.
+ * <p/>
+ * Covers the types the 3.x driver (core and extras) has codecs for:
+ * <ul>
+ *   <li>primitives and their wrappers, {@link String}, {@link ByteBuffer}, {@link BigDecimal}, {@link BigInteger},
+ *       {@link InetAddress}, {@link UUID} (as {@code timeuuid}) and {@link Date}</li>
+ *   <li>{@link LocalDate}, {@link java.time.LocalDate}, {@link LocalTime} and {@link Instant}</li>
+ *   <li>enums (as {@code text}), {@link Optional} (as its value) and {@code int[]}, {@code long[]}, {@code float[]},
+ *       {@code double[]} (as lists)</li>
+ *   <li>{@link List}, {@link Set} and {@link Map} of any of these, nested to any depth</li>
+ *   <li>classes annotated with {@link UDT}, as {@code frozen<name>}</li>
+ * </ul>
+ * A collection field is frozen when it has {@link Frozen}; {@code @Frozen("...")} with a type uses that type as is.
+ * Collections nested in a collection and user types are always frozen, as cql requires, so {@code @FrozenKey} and
+ * {@code @FrozenValue} change nothing.
+ * <p/>
+ * Types are resolved once per class and cached with a {@link ClassValue}, so later lookups don't reflect again.
+ */
+public final class TypeResolver {
+    private static final Map<Class<?>, DataType> simpleTypes;
+
+    static {
+        simpleTypes = new HashMap<>();
+        simpleTypes.put(String.class, DataType.text());
+        simpleTypes.put(boolean.class, DataType.cboolean());
+        simpleTypes.put(Boolean.class, DataType.cboolean());
+        simpleTypes.put(byte.class, DataType.tinyint());
+        simpleTypes.put(Byte.class, DataType.tinyint());
+        simpleTypes.put(short.class, DataType.smallint());
+        simpleTypes.put(Short.class, DataType.smallint());
+        simpleTypes.put(int.class, DataType.cint());
+        simpleTypes.put(Integer.class, DataType.cint());
+        simpleTypes.put(long.class, DataType.bigint());
+        simpleTypes.put(Long.class, DataType.bigint());
+        simpleTypes.put(float.class, DataType.cfloat());
+        simpleTypes.put(Float.class, DataType.cfloat());
+        simpleTypes.put(double.class, DataType.cdouble());
+        simpleTypes.put(Double.class, DataType.cdouble());
+        simpleTypes.put(BigDecimal.class, DataType.decimal());
+        simpleTypes.put(BigInteger.class, DataType.varint());
+        simpleTypes.put(ByteBuffer.class, DataType.blob());
+        simpleTypes.put(UUID.class, DataType.timeuuid());
+        simpleTypes.put(Date.class, DataType.timestamp());
+        simpleTypes.put(Instant.class, DataType.timestamp());
+        simpleTypes.put(LocalDate.class, DataType.date());
+        simpleTypes.put(java.time.LocalDate.class, DataType.date());
+        simpleTypes.put(LocalTime.class, DataType.time());
+        // Primitive arrays (extras codecs)
+        simpleTypes.put(int[].class, DataType.list(DataType.cint()));
+        simpleTypes.put(long[].class, DataType.list(DataType.bigint()));
+        simpleTypes.put(float[].class, DataType.list(DataType.cfloat()));
+        simpleTypes.put(double[].class, DataType.list(DataType.cdouble()));
+    }
+
+    /**
+     * Non generic types, keyed on the class. Holds {@link #UNSUPPORTED} for classes without a cql type.
+     */
+    private static final ClassValue<DataType> classTypes = new ClassValue<DataType>() {
+        @Override
+        protected DataType computeValue(Class<?> type) {
+            DataType simple = simpleTypes.get(type);
+            if (null != simple)
+                return simple;
+            if (type.isEnum())
+                return DataType.text();
+            if (InetAddress.class.isAssignableFrom(type))
+                return DataType.inet();
+            UDT udt = type.getAnnotation(UDT.class);
+            if (null != udt)
+                return new UserTypeName(udt.caseSensitiveType() ? Metadata.quote(udt.name())
+                        : udt.name().toLowerCase());
+            return UNSUPPORTED;
+        }
+    };
+
+    /**
+     * Field types of each model class, resolved on first use
+     */
+    private static final ClassValue<Map<Field, Object>> fieldTypes = new ClassValue<Map<Field, Object>>() {
+        @Override
+        protected Map<Field, Object> computeValue(Class<?> clazz) {
+            Map<Field, Object> types = new HashMap<>();
+            for (Field field : clazz.getDeclaredFields()) {
+                try {
+                    types.put(field, resolveField(field));
+                }
+                catch (UnsupportedTypeException e) {
+                    // Kept until the field is looked up, it may be ignored
+                    types.put(field, e);
+                }
+            }
+            return Collections.unmodifiableMap(types);
+        }
+    };
+
+    private static final DataType UNSUPPORTED = DataType.custom(TypeResolver.class.getName());
+
+    private TypeResolver() {
+    }
+
+    /**
+     * Checks whether {@link field} is left out of the table
+     * @param field
+     * @return true if {@link field} is annotated with {@link Transient}
+     */
+    public static boolean isTransient(Field field) {
+        return field.isAnnotationPresent(Transient.class);
+    }
+
+    /**
+     * Resolves the cql type of {@link field}
+     * @param field a field declared by a model class
+     * @return the cql type
+     * @throws UnsupportedTypeException if the type of {@link field} has no cql type
+     */
+    public static DataType resolve(Field field) {
+        Object type = fieldTypes.get(field.getDeclaringClass()).get(field);
+        if (type instanceof UnsupportedTypeException)
+            throw (UnsupportedTypeException) type;
+        if (null == type)
+            return resolveField(field);
+        return (DataType) type;
+    }
+
+    /**
+     * Resolves the cql type of {@link type}, without any frozen annotations
+     * @param type a class or parameterized type
+     * @return the cql type
+     * @throws UnsupportedTypeException if {@link type} has no cql type
+     */
+    public static DataType resolve(Type type) {
+        DataType resolved = resolve(type, false);
+        if (null == resolved)
+            throw new UnsupportedTypeException(type.getTypeName() + " has no cql type");
+        return resolved;
+    }
+
+    private static DataType resolveField(Field field) {
+        Frozen frozen = field.getAnnotation(Frozen.class);
+        if (null != frozen && !frozen.value().isEmpty()) {
+            try {
+                return CqlTypes.parse(frozen.value());
+            }
+            catch (IllegalArgumentException e) {
+                throw new UnsupportedTypeException(field, "@Frozen(\"" + frozen.value() + "\") is not a cql type");
+            }
+        }
+
+        DataType type = resolve(field.getGenericType(), null != frozen);
+        if (null == type)
+            throw new UnsupportedTypeException(field, unsupportedPart(field.getGenericType()) + " has no cql type");
+        return type;
+    }
+
+    /**
+     * @return the type or null if it (or one of its type arguments) has no cql type
+     */
+    private static DataType resolve(Type type, boolean frozen) {
+        if (type instanceof Class) {
+            DataType resolved = classTypes.get((Class<?>) type);
+            return resolved == UNSUPPORTED ? null : resolved;
+        }
+        if (!(type instanceof ParameterizedType))
+            return null;
+
+        ParameterizedType parameterized = (ParameterizedType) type;
+        Type raw = parameterized.getRawType();
+        Type[] args = parameterized.getActualTypeArguments();
+        if (raw == Optional.class)
+            return resolve(args[0], frozen);
+
+        if (raw == List.class || raw == Set.class) {
+            DataType element = resolveElement(args[0]);
+            if (null == element)
+                return null;
+            return raw == List.class ? DataType.list(element, frozen) : DataType.set(element, frozen);
+        }
+        if (raw == Map.class) {
+            DataType key = resolveElement(args[0]);
+            DataType value = resolveElement(args[1]);
+            if (null == key || null == value)
+                return null;
+            return DataType.map(key, value, frozen);
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a collection element, freezing it if it is a collection
+     */
+    private static DataType resolveElement(Type type) {
+        DataType element = resolve(type, false);
+        if (null == element || !element.isCollection() || element.isFrozen())
+            return element;
+        List<DataType> args = element.getTypeArguments();
+        switch (element.getName()) {
+        case LIST:
+            return DataType.frozenList(args.get(0));
+        case SET:
+            return DataType.frozenSet(args.get(0));
+        default:
+            return DataType.frozenMap(args.get(0), args.get(1));
+        }
+    }
+
+    /**
+     * Finds the innermost part of {@link type} without a cql type, for error messages
+     */
+    private static String unsupportedPart(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type raw = parameterized.getRawType();
+            if (raw == List.class || raw == Set.class || raw == Map.class || raw == Optional.class) {
+                for (Type arg : parameterized.getActualTypeArguments()) {
+                    if (null == resolve(arg, false))
+                        return unsupportedPart(arg);
+                }
+            }
+        }
+        else if (type instanceof TypeVariable || type instanceof WildcardType || type instanceof GenericArrayType) {
+            return "Generic type " + type.getTypeName();
+        }
+        return type.getTypeName();
+    }
+
+    /**
+     * Compares two cql types the way {@link DataType#equals(Object)} does, except that user types are compared on
+     * their name only, so a {@link UserTypeName} matches the {@link UserType} read from the cluster
+     * @param a
+     * @param b
+     * @return true if {@link a} and {@link b} are the same cql type
+     */
+    public static boolean sameType(DataType a, DataType b) {
+        if (a.equals(b))
+            return true;
+        if (a.getName() == DataType.Name.UDT && b.getName() == DataType.Name.UDT)
+            return userTypeName(a).equals(userTypeName(b));
+        if (a.getName() != b.getName())
+            return false;
+        List<DataType> argsA = a.getTypeArguments();
+        List<DataType> argsB = b.getTypeArguments();
+        if (argsA.isEmpty() || argsA.size() != argsB.size())
+            return false;
+        for (int i = 0; i < argsA.size(); i++) {
+            if (!sameType(argsA.get(i), argsB.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static String userTypeName(DataType type) {
+        if (type instanceof UserType)
+            return ((UserType) type).getTypeName();
+        return SchemaSnapshot.handleId(((UserTypeName) type).getTypeName());
+    }
+
+    /**
+     * A user type known only by name. Stands in for a {@link UserType}, which the driver only builds from cluster
+     * metadata.
+     */
+    public static final class UserTypeName extends DataType {
+        private final String typeName;
+
+        UserTypeName(String typeName) {
+            super(DataType.Name.UDT);
+            this.typeName = typeName;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * User types are always frozen in tables
+         */
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof UserTypeName && ((UserTypeName) o).typeName.equals(typeName);
+        }
+
+        @Override
+        public int hashCode() {
+            return typeName.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "frozen<" + typeName + ">";
+        }
+    }
+
+    /**
+     * Thrown when a model field has a type with no cql equivalent
+     */
+    public static class UnsupportedTypeException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public UnsupportedTypeException(String message) {
+            super(message);
+        }
+
+        public UnsupportedTypeException(Field field, String reason) {
+            super("Cannot map " + field.getDeclaringClass().getName() + "." + field.getName() + " ("
+                    + field.getGenericType().getTypeName() + ") to a cql type: " + reason
+                    + ". Annotate it with @Transient or ignore it on the Cassinate.Builder.");
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.MaterializedViewMetadata;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - A materialized view, declared with {@link MaterializedView} or read from the live keyspace
+ */
+public final class ViewDefinition {
+    private static final Pattern CREATE_VIEW = Pattern.compile("^\\s*CREATE\\s+MATERIALIZED\\s+VIEW\\s+"
+            + "(?:IF\\s+NOT\\s+EXISTS\\s+)?(" + CqlTypes.QUALIFIED_NAME + ")\\s+AS\\s+SELECT\\s+(.*?)\\s+FROM\\s+("
+            + CqlTypes.QUALIFIED_NAME + ")\\s+WHERE\\s+.*?\\s*PRIMARY\\s+KEY\\s*\\(",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final String name;
+    private final String baseTable;
+    private final List<String> columns;
+    private final List<String> partitionKey;
+    private final List<String> clusteringColumns;
+
+    /**
+     * @param name view name
+     * @param baseTable table the view selects from
+     * @param columns selected columns, empty for every column. The primary key columns are always selected.
+     * @param partitionKey partition key of the view
+     * @param clusteringColumns clustering columns of the view
+     */
+    public ViewDefinition(String name, String baseTable, List<String> columns, List<String> partitionKey,
+            List<String> clusteringColumns) {
+        this.name = SchemaSnapshot.handleId(name);
+        this.baseTable = SchemaSnapshot.handleId(baseTable);
+        this.partitionKey = ids(partitionKey);
+        this.clusteringColumns = ids(clusteringColumns);
+        if (columns.isEmpty()) {
+            this.columns = Collections.emptyList();
+        }
+        else {
+            Set<String> selected = new LinkedHashSet<>(ids(columns));
+            selected.addAll(this.partitionKey);
+            selected.addAll(this.clusteringColumns);
+            this.columns = Collections.unmodifiableList(new ArrayList<>(selected));
+        }
+    }
+
+    static ViewDefinition of(String baseTable, MaterializedView view) {
+        return new ViewDefinition(view.name(), baseTable, Arrays.asList(view.columns()),
+                Arrays.asList(view.partitionKey()), Arrays.asList(view.clusteringColumns()));
+    }
+
+    static ViewDefinition of(MaterializedViewMetadata view) {
+        List<String> columns = new ArrayList<>();
+        for (ColumnMetadata column : view.getColumns()) {
+            columns.add(SchemaSnapshot.exactId(column.getName()));
+        }
+        return new ViewDefinition(SchemaSnapshot.exactId(view.getName()),
+                SchemaSnapshot.exactId(view.getBaseTable().getName()), columns,
+                names(view.getPartitionKey()), names(view.getClusteringColumns()));
+    }
+
+    /**
+     * Reads a {@code CREATE MATERIALIZED VIEW} statement
+     * @param cql
+     * @return the view or null if {@link cql} doesn't create a view
+     */
+    static ViewDefinition parse(String cql) {
+        Matcher m = CREATE_VIEW.matcher(cql);
+        if (!m.find())
+            return null;
+        String selected = m.group(2).trim();
+        List<String> columns = "*".equals(selected) ? Collections.emptyList() : split(selected);
+
+        // PRIMARY KEY ((a, b), c) or PRIMARY KEY (a, c)
+        String key = enclosed(cql, m.end() - 1).trim();
+        List<String> partitionKey;
+        List<String> clusteringColumns;
+        if (key.startsWith("(")) {
+            String partition = enclosed(key, 0);
+            partitionKey = split(partition);
+            String rest = key.substring(partition.length() + 2).trim();
+            clusteringColumns = rest.startsWith(",") ? split(rest.substring(1)) : Collections.emptyList();
+        }
+        else {
+            List<String> parts = split(key);
+            partitionKey = parts.subList(0, 1);
+            clusteringColumns = parts.subList(1, parts.size());
+        }
+        return new ViewDefinition(CqlTypes.unqualified(m.group(1)), CqlTypes.unqualified(m.group(3)), columns,
+                partitionKey, clusteringColumns);
+    }
+
+    private static String enclosed(String cql, int open) {
+        int depth = 0;
+        for (int i = open; i < cql.length(); i++) {
+            char c = cql.charAt(i);
+            if (c == '(')
+                depth++;
+            else if (c == ')' && --depth == 0)
+                return cql.substring(open + 1, i);
+        }
+        throw new IllegalArgumentException("Unbalanced parenthesis in: " + cql);
+    }
+
+    private static List<String> split(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.trim().isEmpty())
+                items.add(item.trim());
+        }
+        return items;
+    }
+
+    private static List<String> names(List<ColumnMetadata> columns) {
+        List<String> names = new ArrayList<>(columns.size());
+        for (ColumnMetadata column : columns) {
+            names.add(SchemaSnapshot.exactId(column.getName()));
+        }
+        return names;
+    }
+
+    private static List<String> cqlIds(List<String> ids) {
+        List<String> names = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            names.add(SchemaSnapshot.cqlId(id));
+        }
+        return names;
+    }
+
+    private static List<String> ids(List<String> names) {
+        List<String> ids = new ArrayList<>(names.size());
+        for (String name : names) {
+            ids.add(SchemaSnapshot.handleId(name));
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBaseTable() {
+        return baseTable;
+    }
+
+    /**
+     * @return selected columns, primary key included, or empty for every column
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<String> getPartitionKey() {
+        return partitionKey;
+    }
+
+    public List<String> getClusteringColumns() {
+        return clusteringColumns;
+    }
+
+    /**
+     * Checks whether {@link existing} has the same base table, primary key and, unless this view selects every
+     * column, the same columns. A view's key and columns can't be altered, so a mismatch means recreating it.
+     * @param existing view of the live keyspace
+     * @return true if {@link existing} doesn't need to be recreated
+     */
+    public boolean matches(ViewDefinition existing) {
+        if (!baseTable.equals(existing.baseTable) || !partitionKey.equals(existing.partitionKey)
+                || !clusteringColumns.equals(existing.clusteringColumns))
+            return false;
+        if (columns.isEmpty() || existing.columns.isEmpty())
+            return true;
+        return new HashSet<>(columns).equals(new HashSet<>(existing.columns));
+    }
+
+    public String toCql() {
+        List<String> partition = cqlIds(partitionKey);
+        List<String> clustering = cqlIds(clusteringColumns);
+        List<String> key = new ArrayList<>(partition);
+        key.addAll(clustering);
+        StringBuilder sb = new StringBuilder("CREATE MATERIALIZED VIEW IF NOT EXISTS ")
+                .append(SchemaSnapshot.cqlId(name)).append(" AS SELECT ")
+                .append(columns.isEmpty() ? "*" : String.join(", ", cqlIds(columns))).append(" FROM ")
+                .append(SchemaSnapshot.cqlId(baseTable)).append(" WHERE ");
+        String separator = "";
+        for (String column : key) {
+            sb.append(separator).append(column).append(" IS NOT NULL");
+            separator = " AND ";
+        }
+        sb.append(" PRIMARY KEY (");
+        if (partition.size() > 1)
+            sb.append('(').append(String.join(", ", partition)).append(')');
+        else
+            sb.append(partition.get(0));
+        for (String column : clustering) {
+            sb.append(", ").append(column);
+        }
+        return sb.append(");").toString();
+    }
+
+    public String toDropCql() {
+        return "DROP MATERIALIZED VIEW IF EXISTS " + SchemaSnapshot.cqlId(name) + ";";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ViewDefinition))
+            return false;
+        ViewDefinition other = (ViewDefinition) obj;
+        return name.equals(other.name) && baseTable.equals(other.baseTable) && columns.equals(other.columns)
+                && partitionKey.equals(other.partitionKey) && clusteringColumns.equals(other.clusteringColumns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, baseTable, columns, partitionKey, clusteringColumns);
+    }
+
+    @Override
+    public String toString() {
+        return toCql();
+    }
+}
@@ -0,0 +1,164 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Splits cql scripts into statements with {@link CqlScriptReader}, whole and one character per read
+ */
+public class CqlScriptReaderTest {
+    /** Bytes the reader decodes at a time */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = Files.createTempFile("cassinate", ".cql");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void keepsSemicolonsInQuotes() throws IOException {
+        assertStatements("INSERT INTO t (a) VALUES ('x;y');\nSELECT \"we;ird\" FROM t;",
+                "INSERT INTO t (a) VALUES ('x;y')", "SELECT \"we;ird\" FROM t");
+    }
+
+    @Test
+    public void keepsEscapedQuotes() throws IOException {
+        assertStatements("INSERT INTO t (a) VALUES ('it''s; fine');SELECT \"a\"\";b\" FROM t;",
+                "INSERT INTO t (a) VALUES ('it''s; fine')", "SELECT \"a\"\";b\" FROM t");
+    }
+
+    @Test
+    public void dropsComments() throws IOException {
+        assertStatements("-- first; comment\nSELECT a -- trailing; one\nFROM t; // other; style\n"
+                + "/* block; comment */ SELECT b /* inline; */ FROM t;",
+                "SELECT a \nFROM t", "SELECT b   FROM t");
+    }
+
+    @Test
+    public void keepsDollarBlocks() throws IOException {
+        assertStatements("CREATE FUNCTION f (a int) RETURNS NULL ON NULL INPUT RETURNS int LANGUAGE java "
+                + "AS $$ int b = a; return b; $$;\nSELECT f(a) FROM t;",
+                "CREATE FUNCTION f (a int) RETURNS NULL ON NULL INPUT RETURNS int LANGUAGE java "
+                        + "AS $$ int b = a; return b; $$",
+                "SELECT f(a) FROM t");
+    }
+
+    @Test
+    public void readsALastStatementWithoutSemicolon() throws IOException {
+        assertStatements("SELECT a FROM t;\n  SELECT b FROM t  \n", "SELECT a FROM t", "SELECT b FROM t");
+        assertStatements(" \n-- only a comment;\n;;");
+    }
+
+    @Test
+    public void readsStatementsCrossingTheBuffer() throws IOException {
+        String literal = repeat('x', BUFFER_SIZE + 100);
+        String script = "INSERT INTO t (a) VALUES ('" + literal + ";');" + repeat(' ', BUFFER_SIZE - 40)
+                + "-- comment;\nSELECT a FROM t;";
+        assertStatements(script, "INSERT INTO t (a) VALUES ('" + literal + ";')", "SELECT a FROM t");
+    }
+
+    @Test
+    public void decodesCharactersSplitAcrossReads() throws IOException {
+        String prefix = "INSERT INTO t (a) VALUES ('";
+        // The three bytes of the first euro sign straddle the end of the first read
+        String statement = prefix + repeat('x', BUFFER_SIZE - prefix.length() - 1) + "\u20ac;\u20ac')";
+        Files.write(file, (statement + ";\nSELECT a FROM t;").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(CassinateHelper.getQueries(file.toString()), Arrays.asList(statement, "SELECT a FROM t"));
+    }
+
+    @Test(expectedExceptions = MalformedInputException.class)
+    public void rejectsMalformedUtf8() throws IOException {
+        Files.write(file, new byte[] { 'S', 'E', 'L', (byte) 0xC3, '(', ';' });
+        CassinateHelper.getQueries(file.toString());
+    }
+
+    @Test
+    public void getQueriesSplitsOnSemicolons() throws IOException {
+        Files.write(file, ("CREATE TABLE a (id int PRIMARY KEY);\nINSERT INTO a (id) VALUES (1);\n\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(CassinateHelper.getQueries(file.toString()),
+                Arrays.asList("CREATE TABLE a (id int PRIMARY KEY)", "INSERT INTO a (id) VALUES (1)"));
+    }
+
+    /**
+     * Reads {@code script} whole, then one character per read so every lookahead crosses a refill
+     */
+    private static void assertStatements(String script, String... expected) throws IOException {
+        assertEquals(read(new StringReader(script)), Arrays.asList(expected));
+        assertEquals(read(new Reader() {
+            private final StringReader in = new StringReader(script);
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return in.read(cbuf, off, Math.min(len, 1));
+            }
+
+            @Override
+            public void close() {
+                in.close();
+            }
+        }), Arrays.asList(expected));
+    }
+
+    private static List<String> read(Reader in) throws IOException {
+        List<String> statements = new ArrayList<>();
+        try (CqlScriptReader reader = new CqlScriptReader(in)) {
+            String statement;
+            while ((statement = reader.readStatement()) != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    private static String repeat(char c, int count) {
+        return String.join("", Collections.nCopies(count, String.valueOf(c)));
+    }
+}
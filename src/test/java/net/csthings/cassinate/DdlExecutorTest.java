@@ -0,0 +1,115 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Runs {@link DdlExecutor} over an {@link InMemorySchemaBackend}, whose statements complete right away
+ */
+public class DdlExecutorTest {
+    private static final int TABLES = 5000;
+
+    private InMemorySchemaBackend backend;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeMethod
+    public void setUp() {
+        backend = new InMemorySchemaBackend();
+        backend.createKeyspace("ks");
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void createsManyTablesSequentially() {
+        assertCreatesTables(1);
+    }
+
+    @Test
+    public void createsManyTablesInParallel() {
+        assertCreatesTables(DdlExecutor.DEFAULT_CONCURRENCY);
+    }
+
+    @Test
+    public void keepsStatementsOfATableInOrder() {
+        List<String> statements = new ArrayList<>();
+        statements.add("CREATE TABLE users (id int PRIMARY KEY)");
+        statements.add("ALTER TABLE users ADD name text");
+        statements.add("ALTER TABLE users ADD email text");
+        statements.add("CREATE TABLE events (id int PRIMARY KEY)");
+        List<DdlResult> results = newExecutor(4).execute(statements).join();
+
+        for (DdlResult result : results) {
+            assertTrue(result.isSuccess(), result.getStatement());
+        }
+        assertEquals(backend.getKeyspace("ks").getTable("users").getColumns().keySet().size(), 3);
+    }
+
+    @Test
+    public void reportsFailedStatementsWithoutStopping() {
+        List<String> statements = new ArrayList<>();
+        statements.add("ALTER TABLE missing ADD name text");
+        statements.add("CREATE TABLE users (id int PRIMARY KEY)");
+        List<DdlResult> results = newExecutor(1).execute(statements).join();
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+    }
+
+    private void assertCreatesTables(int concurrency) {
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < TABLES; i++) {
+            statements.add("CREATE TABLE t" + i + " (id int PRIMARY KEY, value text)");
+        }
+        List<DdlResult> results = newExecutor(concurrency).execute(statements).join();
+
+        assertEquals(results.size(), TABLES);
+        for (DdlResult result : results) {
+            assertTrue(result.isSuccess(), result.getStatement());
+        }
+        assertEquals(backend.getKeyspace("ks").getTables().size(), TABLES);
+    }
+
+    private DdlExecutor newExecutor(int concurrency) {
+        return new DdlExecutor(backend, "ks", concurrency, 0, 5, TimeUnit.SECONDS, scheduler,
+                CassinateListener.NOOP);
+    }
+}
@@ -0,0 +1,164 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Builds, diffs and applies the test models against an {@link InMemorySchemaBackend}
+ */
+public class InMemoryCycleTest {
+    private InMemorySchemaBackend backend;
+
+    @BeforeMethod
+    public void setUp() {
+        backend = new InMemorySchemaBackend();
+        backend.createKeyspace("ks");
+    }
+
+    @Test
+    public void createsTablesOfNewModels() {
+        build().close();
+
+        SchemaSnapshot keyspace = backend.getKeyspace("ks");
+        SchemaSnapshot.TableSnapshot users = keyspace.getTable("users");
+        assertNotNull(users);
+        assertEquals(users.getColumnType("email"), DataType.text());
+        SchemaSnapshot.TableSnapshot events = keyspace.getTable("events");
+        assertNotNull(events);
+        assertEquals(events.getPrimaryKey(), Arrays.asList("device", "at"));
+        assertEquals(events.getPartitionKey(), Arrays.asList("device"));
+    }
+
+    @Test
+    public void secondBuildChangesNothing() {
+        build().close();
+        int executed = backend.getExecutedStatements().size();
+
+        build().close();
+        assertEquals(backend.getExecutedStatements().size(), executed);
+    }
+
+    @Test
+    public void restoresDriftedTables() {
+        build().close();
+        backend.execute("ks", "ALTER TABLE users DROP email");
+        backend.execute("ks", "ALTER TABLE events ADD legacy text");
+        List<String> before = new ArrayList<>(backend.getExecutedStatements());
+
+        build().close();
+        List<String> issued = backend.getExecutedStatements().subList(before.size(),
+                backend.getExecutedStatements().size());
+        assertEquals(issued.size(), 2, issued.toString());
+        assertNotNull(backend.getKeyspace("ks").getTable("users").getColumnType("email"));
+        assertEquals(backend.getKeyspace("ks").getTable("events").getColumnType("legacy"), null);
+    }
+
+    @Test
+    public void keepsUndeclaredIndexes() {
+        build().close();
+        backend.execute("ks", "CREATE INDEX users_name_idx ON users (name)");
+
+        build().close();
+        assertNotNull(backend.getKeyspace("ks").getTable("users").getIndexes().get("users_name_idx"));
+
+        Cassinate.builder().useKeyspace("ks").useSchemaBackend(backend).ignoreModelIndex()
+                .scanPackages("net.csthings.cassinate.testmodel").dropUndeclaredIndexes().build().close();
+        assertTrue(backend.getKeyspace("ks").getTable("users").getIndexes().isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ".*live Session.*")
+    public void preparedStatementsNeedASession() {
+        try (Cassinate cassinate = build()) {
+            cassinate.getStatements().get("users", PreparedStatementRegistry.Operation.INSERT);
+        }
+    }
+
+    @Test
+    public void dryRunLeavesTheBackendAlone() {
+        Cassinate.builder().useKeyspace("ks").useSchemaBackend(backend).ignoreModelIndex()
+                .scanPackages("net.csthings.cassinate.testmodel").dryRun().build().close();
+        assertTrue(backend.getKeyspace("ks").getTables().isEmpty());
+    }
+
+    @Test
+    public void resumesAKeyMigrationInsteadOfCreatingAnEmptyTable() {
+        // A cutover dropped users and stopped before creating it again; its rows are in the staging table
+        backend.execute("ks", "CREATE TABLE users" + PrimaryKeyMigration.STAGING_SUFFIX
+                + " (id uuid PRIMARY KEY, name text, email text)");
+
+        try {
+            build().close();
+            fail("Expected the stopped migration to need a PrimaryKeyMigration");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("users to (id) stopped before its cutover"), e.getMessage());
+        }
+        assertNull(backend.getKeyspace("ks").getTable("users"));
+        assertNotNull(backend.getKeyspace("ks").getTable("events"));
+    }
+
+    @Test
+    public void resyncReplacesAFailedGate() {
+        try (Cassinate cassinate = build()) {
+            cassinate.whenTableReady("users").completeExceptionally(new IllegalStateException("failed sync"));
+
+            Model users = new Model();
+            users.setName("users");
+            Map<String, DataType> columns = new LinkedHashMap<>();
+            columns.put("id", DataType.uuid());
+            columns.put("name", DataType.text());
+            columns.put("email", DataType.text());
+            users.setColumns(columns);
+            users.getPrimaryKeys().add("id");
+            users.getPartitionKeys().add("id");
+            cassinate.resync(Collections.singletonList(users));
+
+            CompletableFuture<Void> gate = cassinate.whenTableReady("users");
+            assertTrue(gate.isDone() && !gate.isCompletedExceptionally());
+        }
+    }
+
+    private Cassinate build() {
+        return Cassinate.builder().useKeyspace("ks").useSchemaBackend(backend).ignoreModelIndex()
+                .scanPackages("net.csthings.cassinate.testmodel").build();
+    }
+}
@@ -0,0 +1,214 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Runs {@link MigrationLease} against an in-memory {@link LeaseStore} and a keyspace whose metadata
+ * reaches this instance some time after another instance changed it, as the driver's debounced refresh does
+ */
+public class MigrationLeaseTest {
+    private static final String KEYSPACE = "ks";
+    private static final String OTHER = "other";
+    private static final UUID OLD_SCHEMA = UUID.randomUUID();
+    private static final UUID NEW_SCHEMA = UUID.randomUUID();
+
+    private MemoryLeaseStore store;
+    private ScheduledExecutorService scheduler;
+    private volatile UUID localSchema;
+    private AtomicInteger applied;
+
+    @BeforeMethod
+    public void setUp() {
+        store = new MemoryLeaseStore();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        localSchema = OLD_SCHEMA;
+        applied = new AtomicInteger();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void waitsForTheHolderSchemaBeforeChecking() {
+        store.holder = OTHER;
+        // The holder applies a newer model set, then the metadata of this instance catches up a second later
+        scheduler.schedule(() -> {
+            store.release(KEYSPACE, OTHER, new SchemaFingerprint("newer models", NEW_SCHEMA));
+            scheduler.schedule(() -> localSchema = NEW_SCHEMA, 1, TimeUnit.SECONDS);
+        }, 300, TimeUnit.MILLISECONDS);
+
+        assertFalse(migrate(5));
+        assertEquals(applied.get(), 0);
+        assertEquals(localSchema, NEW_SCHEMA);
+    }
+
+    @Test
+    public void stopsWhenTheHolderAppliedTheSameModels() {
+        store.holder = OTHER;
+        // The metadata of this instance never catches up, so only the model hash can tell the work is done
+        scheduler.schedule(() -> store.release(KEYSPACE, OTHER, new SchemaFingerprint("models", NEW_SCHEMA)), 300,
+                TimeUnit.MILLISECONDS);
+
+        assertFalse(migrate(5));
+        assertEquals(applied.get(), 0);
+    }
+
+    @Test
+    public void checksTheHolderSchemaAfterTakingTheLease() {
+        // Another instance migrates and releases between the first check and taking the lease
+        store = new MemoryLeaseStore() {
+            @Override
+            public synchronized boolean tryAcquire(String keyspaceName, String owner, int ttlSeconds) {
+                applied = new SchemaFingerprint("newer models", NEW_SCHEMA);
+                scheduler.schedule(() -> localSchema = NEW_SCHEMA, 1, TimeUnit.SECONDS);
+                return super.tryAcquire(keyspaceName, owner, ttlSeconds);
+            }
+        };
+
+        assertFalse(migrate(5));
+        assertEquals(applied.get(), 0);
+        assertNull(store.holder);
+    }
+
+    @Test
+    public void takesOverAnExpiredLease() {
+        store.holder = OTHER;
+        // The holder crashed without recording anything and its lease expires
+        scheduler.schedule(() -> store.holder = null, 300, TimeUnit.MILLISECONDS);
+
+        assertTrue(migrate(5));
+        assertEquals(applied.get(), 1);
+        assertNull(store.holder);
+        assertEquals(store.applied, new SchemaFingerprint("models", OLD_SCHEMA));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void givesUpWhenTheMetadataNeverCatchesUp() {
+        store.holder = OTHER;
+        scheduler.schedule(() -> store.release(KEYSPACE, OTHER, new SchemaFingerprint("newer models", NEW_SCHEMA)),
+                100, TimeUnit.MILLISECONDS);
+        migrate(1);
+    }
+
+    @Test
+    public void keepsWaitingForAHolderBusyWithALongChange() {
+        store.holder = OTHER;
+        // The holder copies rows for longer than the wait timeout, then records the same models
+        scheduler.schedule(() -> store.release(KEYSPACE, OTHER, new SchemaFingerprint("models", NEW_SCHEMA)),
+                2500, TimeUnit.MILLISECONDS);
+
+        MigrationLease lease = new MigrationLease(store, "me", 5, 1, TimeUnit.SECONDS, null);
+        assertFalse(lease.migrate(KEYSPACE, this::pending, changes -> applied.incrementAndGet(), () -> true,
+                current(), () -> true));
+        assertEquals(applied.get(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "Timed out.*")
+    public void givesUpOnAHolderThatNeverReleases() {
+        store.holder = OTHER;
+        migrate(1);
+    }
+
+    private boolean migrate(int waitSeconds) {
+        MigrationLease lease = new MigrationLease(store, "me", 5, waitSeconds, TimeUnit.SECONDS, null);
+        return lease.migrate(KEYSPACE, this::pending, changes -> applied.incrementAndGet(), () -> true, current());
+    }
+
+    /**
+     * One change while this instance still sees the old schema
+     */
+    private List<String> pending() {
+        return OLD_SCHEMA.equals(localSchema) && applied.get() == 0
+                ? Collections.singletonList("ALTER TABLE users ADD email text") : Collections.emptyList();
+    }
+
+    private Supplier<SchemaFingerprint> current() {
+        return () -> new SchemaFingerprint("models", localSchema);
+    }
+
+    /**
+     * Single row lease table. Releasing keeps the recorded schema like the {@link TableLeaseStore} row does.
+     */
+    private static class MemoryLeaseStore implements LeaseStore {
+        volatile String holder;
+        volatile SchemaFingerprint applied;
+
+        @Override
+        public synchronized boolean tryAcquire(String keyspaceName, String owner, int ttlSeconds) {
+            if (null != holder)
+                return false;
+            holder = owner;
+            return true;
+        }
+
+        @Override
+        public synchronized boolean renew(String keyspaceName, String owner, int ttlSeconds) {
+            return owner.equals(holder);
+        }
+
+        @Override
+        public synchronized void release(String keyspaceName, String owner) {
+            if (owner.equals(holder))
+                holder = null;
+        }
+
+        @Override
+        public synchronized void release(String keyspaceName, String owner, SchemaFingerprint fingerprint) {
+            if (owner.equals(holder)) {
+                holder = null;
+                applied = fingerprint;
+            }
+        }
+
+        @Override
+        public SchemaFingerprint getApplied(String keyspaceName) {
+            return applied;
+        }
+
+        @Override
+        public String getHolder(String keyspaceName) {
+            return holder;
+        }
+    }
+}
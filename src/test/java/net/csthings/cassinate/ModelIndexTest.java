@@ -0,0 +1,137 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.TreeSet;
+
+import org.testng.annotations.Test;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Builds models from model index text as {@code ModelIndexProcessor} writes it
+ */
+public class ModelIndexTest {
+    private static final String INDEX = ModelIndex.HEADER + ModelIndex.VERSION + "\n"
+            + "model\taccounts\tx.Account\t0\n"
+            + "options\tcompaction=LeveledCompactionStrategy\tcompactionOptions=sstable_size_in_mb=160\t"
+            + "keysCaching=ALL\trowsPerPartition=\tbloomFilterFpChance=-1.0\tdefaultTtl=60\n"
+            + "column\tid\tid\ttext\t0\tpartition:0\tcom.datastax.driver.mapping.annotations.PartitionKey\n"
+            + "column\temail\temail\ttext\t0\t-\tnet.csthings.cassinate.SecondaryIndex\n"
+            + "column\tpassword\tpassword\ttext\t0\t-\t" + Secret.class.getName() + "\n"
+            + "column\tsession\tsession\t-\t0\t-\t" + Secret.class.getName() + "\n"
+            + "column\tname\tname\ttext\t0\t-\t-\n"
+            + "index\temail\tname=\ttarget=\tusing=\n"
+            + "index\tpassword\tname=\ttarget=\tusing=\n"
+            + "index\tname\tname=name_idx\ttarget=\tusing=org.Custom\toptions=mode=CONTAINS\toptions=split=a\\tb\n"
+            + "view\tname=accounts_by_email\tpartitionKey=email\tclusteringColumns=id\n";
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Secret {
+    }
+
+    @Test
+    public void skipsFieldsWithIgnoredAnnotations() throws IOException {
+        Model model = read(INDEX).toModels(ignoring(Secret.class)).get(0);
+
+        assertEquals(new TreeSet<>(model.getColumns().keySet()).toString(), "[email, id, name]");
+        assertEquals(model.getIndexes().size(), 2);
+    }
+
+    @Test(expectedExceptions = TypeResolver.UnsupportedTypeException.class)
+    public void reportsFieldsWithoutTypeUnlessIgnored() throws IOException {
+        read(INDEX).toModels(new ModelProcessor());
+    }
+
+    @Test
+    public void buildsAnnotationsFromTheirAttributes() throws IOException {
+        Model model = read(INDEX).toModels(ignoring(Secret.class)).get(0);
+
+        assertEquals(model.getSettings().toCql(), "compaction = {'class': 'LeveledCompactionStrategy', "
+                + "'sstable_size_in_mb': '160'} AND caching = {'keys': 'ALL'} AND default_time_to_live = 60");
+        assertEquals(model.getIndexes().get(0).toCql(), "CREATE INDEX IF NOT EXISTS accounts_email_idx ON accounts "
+                + "(email);");
+        assertEquals(model.getIndexes().get(1).toCql(), "CREATE CUSTOM INDEX IF NOT EXISTS name_idx ON accounts "
+                + "(name) USING 'org.Custom' WITH OPTIONS = {'mode': 'CONTAINS', 'split': 'a\tb'};");
+        assertEquals(model.getViews().get(0).toCql(), "CREATE MATERIALIZED VIEW IF NOT EXISTS accounts_by_email AS "
+                + "SELECT * FROM accounts WHERE email IS NOT NULL AND id IS NOT NULL PRIMARY KEY (email, id);");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void checksViewsLikeTheScan() throws IOException {
+        read(INDEX.replace("clusteringColumns=id", "clusteringColumns=name")).toModels(ignoring(Secret.class));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void refusesAnIndexOfAnotherVersion() throws IOException {
+        read(INDEX.replace(ModelIndex.HEADER + ModelIndex.VERSION, ModelIndex.HEADER + 1));
+    }
+
+    @Test(expectedExceptions = TypeResolver.UnsupportedTypeException.class)
+    public void reportsInvalidModelsInsteadOfScanning() throws IOException {
+        Path file = Files.createTempFile("cassinate", ".index");
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try {
+            Files.write(file, INDEX.getBytes(StandardCharsets.UTF_8));
+            URL url = file.toUri().toURL();
+            thread.setContextClassLoader(new ClassLoader(previous) {
+                @Override
+                public Enumeration<URL> getResources(String name) throws IOException {
+                    return ModelIndex.RESOURCE.equals(name) ? Collections.enumeration(Collections.singleton(url))
+                            : super.getResources(name);
+                }
+            });
+            // A scan of the test models would succeed
+            Cassinate.builder().scanPackages("net.csthings.cassinate.testmodel").loadModels(new ScanReport());
+        }
+        finally {
+            thread.setContextClassLoader(previous);
+            Files.delete(file);
+        }
+    }
+
+    private static ModelProcessor ignoring(Class<?> annotation) {
+        ModelProcessor mp = new ModelProcessor();
+        mp.getAnnotationIgnoreList().add(annotation);
+        return mp;
+    }
+
+    private static ModelIndex read(String text) throws IOException {
+        ModelIndex index = new ModelIndex();
+        index.read(new BufferedReader(new StringReader(text)));
+        return index;
+    }
+}
@@ -0,0 +1,153 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Runs the {@link PartitionAdvisor} against the recorded statistics in {@code partition-stats.tsv}
+ */
+public class PartitionAdvisorTest {
+    private RecordedStatsSource stats;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        stats = RecordedStatsSource.load(Paths.get(getClass().getResource("partition-stats.tsv").toURI()));
+    }
+
+    @Test
+    public void passesEvenlySizedPartitions() {
+        PartitionReport.TableAdvice advice = advise(new PartitionLimits(), users("users"));
+        assertFalse(advice.isFlagged(), advice.getWarnings().toString());
+        assertEquals(advice.getPartitions(), 3000);
+        assertEquals(advice.getMeanPartitionBytes(), 1000);
+        assertEquals(advice.getMaxRangePartitionBytes(), 1100);
+    }
+
+    @Test
+    public void flagsTablesWhosePartitionsAreTooLargeOnAverage() {
+        assertWarning(advise(new PartitionLimits(), users("big")), "partitions average 209715200 bytes");
+    }
+
+    @Test
+    public void flagsARangeOverTheLimit() {
+        PartitionReport.TableAdvice advice = advise(new PartitionLimits(), users("lopsided"));
+        assertTrue(advice.getMeanPartitionBytes() < PartitionLimits.DEFAULT_MAX_PARTITION_BYTES);
+        assertWarning(advice, "average 157286400 bytes, over the limit");
+    }
+
+    @Test
+    public void flagsHotPartitions() {
+        assertWarning(advise(new PartitionLimits(), users("hot")), "likely hot partitions");
+    }
+
+    @Test
+    public void leavesHotPartitionsUnderAHigherFactor() {
+        assertFalse(advise(new PartitionLimits().hotPartitionFactor(100), users("hot")).isFlagged());
+    }
+
+    @Test
+    public void flagsPartitionsWithTooManyRows() {
+        PartitionReport.TableAdvice advice = advise(new PartitionLimits().maxPartitionRows(1000), events());
+        assertEquals(advice.getEstimatedRowBytes(), 1360);
+        assertWarning(advice, "partitions hold up to about 1470 rows");
+        assertFalse(advise(new PartitionLimits(), events()).isFlagged());
+    }
+
+    @Test
+    public void flagsWideRowsWithoutStatistics() {
+        PartitionAdvisor advisor = new PartitionAdvisor(null, new PartitionLimits().maxRowBytes(1000));
+        PartitionReport.TableAdvice advice = advisor.advise("ks", events());
+        assertEquals(advice.getPartitions(), 0);
+        assertWarning(advice, "rows are about 1360 bytes");
+    }
+
+    @Test
+    public void reportsOnlyFlaggedTables() {
+        PartitionReport report = new PartitionAdvisor(stats, new PartitionLimits()).advise("ks",
+                Arrays.asList(users("users"), users("big"), users("hot")));
+        assertEquals(report.getTables().size(), 3);
+        assertEquals(report.getFlagged().size(), 2);
+    }
+
+    private PartitionReport.TableAdvice advise(PartitionLimits limits, Model model) {
+        return new PartitionAdvisor(stats, limits).advise("ks", model);
+    }
+
+    private static void assertWarning(PartitionReport.TableAdvice advice, String expected) {
+        for (String warning : advice.getWarnings()) {
+            if (warning.contains(expected))
+                return;
+        }
+        throw new AssertionError("No warning containing \"" + expected + "\" in " + advice.getWarnings());
+    }
+
+    /**
+     * Narrow table keyed by id, about 80 bytes a row
+     */
+    private static Model users(String table) {
+        Map<String, DataType> columns = new LinkedHashMap<>();
+        columns.put("id", DataType.uuid());
+        columns.put("name", DataType.text());
+        return model(table, columns, Collections.singletonList("id"), Collections.emptyList());
+    }
+
+    /**
+     * Wide partition keyed by device and clustered by time, about 1,360 bytes a row
+     */
+    private static Model events() {
+        Map<String, DataType> columns = new LinkedHashMap<>();
+        columns.put("device", DataType.text());
+        columns.put("at", DataType.timestamp());
+        columns.put("attributes", DataType.map(DataType.text(), DataType.text()));
+        columns.put("value", DataType.cdouble());
+        return model("events", columns, Collections.singletonList("device"), Collections.singletonList("at"));
+    }
+
+    private static Model model(String table, Map<String, DataType> columns, List<String> partitionKeys,
+            List<String> clusteringColumns) {
+        Model model = new Model();
+        model.setName(table);
+        model.setColumns(columns);
+        model.getPartitionKeys().addAll(partitionKeys);
+        model.getClusteringColumns().addAll(clusteringColumns);
+        model.getPrimaryKeys().addAll(partitionKeys);
+        model.getPrimaryKeys().addAll(clusteringColumns);
+        return model;
+    }
+}
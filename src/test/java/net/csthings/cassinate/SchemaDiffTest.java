@@ -0,0 +1,115 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Merges per-column alters with {@link SchemaDiff#coalesce}
+ */
+public class SchemaDiffTest {
+    private static final IndexDefinition EMAIL_INDEX = new IndexDefinition(null, "users", "email", null, null,
+            Collections.emptyMap());
+    private static final ViewDefinition USERS_BY_NAME = new ViewDefinition("users_by_name", "users",
+            Collections.emptyList(), Arrays.asList("name"), Arrays.asList("id"));
+
+    @Test
+    public void mergesColumnsPerTable() {
+        List<MigrationOp> ops = Arrays.asList(
+                MigrationOp.addColumn("users", "age", DataType.cint()),
+                MigrationOp.addColumn("events", "source", DataType.text()),
+                MigrationOp.dropColumn("users", "legacy"),
+                MigrationOp.addColumn("users", "city", DataType.text()),
+                MigrationOp.dropColumn("events", "old"),
+                MigrationOp.addColumn("events", "level", DataType.cint()),
+                MigrationOp.dropColumn("users", "unused"));
+
+        assertEquals(cql(SchemaDiff.coalesce(ops)), Arrays.asList(
+                "ALTER TABLE users ADD (age int, city text);",
+                "ALTER TABLE events ADD (source text, level int);",
+                "ALTER TABLE users DROP (legacy, unused);",
+                "ALTER TABLE events DROP old;"));
+    }
+
+    @Test
+    public void leavesASingleColumnUnmerged() {
+        MigrationOp add = MigrationOp.addColumn("users", "age", DataType.cint());
+        MigrationOp drop = MigrationOp.dropColumn("users", "legacy");
+
+        List<MigrationOp> merged = SchemaDiff.coalesce(Arrays.asList(add, drop));
+        assertEquals(merged.size(), 2);
+        assertSame(merged.get(0), add);
+        assertSame(merged.get(1), drop);
+    }
+
+    @Test
+    public void keepsIndexAndViewOpsInPlace() {
+        List<MigrationOp> ops = Arrays.asList(
+                MigrationOp.dropView(USERS_BY_NAME),
+                MigrationOp.dropColumn("users", "legacy"),
+                MigrationOp.dropIndex(EMAIL_INDEX),
+                MigrationOp.dropColumn("users", "unused"),
+                MigrationOp.addColumn("users", "age", DataType.cint()),
+                MigrationOp.createIndex(EMAIL_INDEX),
+                MigrationOp.addColumn("users", "city", DataType.text()),
+                MigrationOp.createView(USERS_BY_NAME));
+
+        List<MigrationOp> merged = SchemaDiff.coalesce(ops);
+        assertEquals(kinds(merged), Arrays.asList(MigrationOp.Kind.DROP_VIEW, MigrationOp.Kind.DROP_COLUMNS,
+                MigrationOp.Kind.DROP_INDEX, MigrationOp.Kind.ADD_COLUMNS, MigrationOp.Kind.CREATE_INDEX,
+                MigrationOp.Kind.CREATE_VIEW));
+        assertSame(merged.get(0), ops.get(0));
+        assertSame(merged.get(2), ops.get(2));
+        assertSame(merged.get(4), ops.get(5));
+        assertSame(merged.get(5), ops.get(7));
+        assertEquals(merged.get(1).toCql(), "ALTER TABLE users DROP (legacy, unused);");
+        assertEquals(merged.get(3).toCql(), "ALTER TABLE users ADD (age int, city text);");
+    }
+
+    private static List<String> cql(List<MigrationOp> ops) {
+        List<String> statements = new ArrayList<>();
+        for (MigrationOp op : ops) {
+            statements.add(op.toCql());
+        }
+        return statements;
+    }
+
+    private static List<MigrationOp.Kind> kinds(List<MigrationOp> ops) {
+        List<MigrationOp.Kind> kinds = new ArrayList<>();
+        for (MigrationOp op : ops) {
+            kinds.add(op.getKind());
+        }
+        return kinds;
+    }
+}
@@ -0,0 +1,87 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Checks which model changes {@link SchemaFingerprint#hash} tells apart
+ */
+public class SchemaFingerprintTest {
+
+    @Test
+    public void ignoresTheOrderOfColumns() {
+        Model model = model(Arrays.asList("a"), Arrays.asList("b"));
+        Map<String, DataType> reversed = new LinkedHashMap<>();
+        reversed.put("c", DataType.text());
+        reversed.put("b", DataType.cint());
+        reversed.put("a", DataType.cint());
+        Model other = model(Arrays.asList("a"), Arrays.asList("b"));
+        other.setColumns(reversed);
+        assertEquals(hash(model), hash(other));
+    }
+
+    @Test
+    public void tellsACompositePartitionKeyFromAClusteringColumn() {
+        // PRIMARY KEY ((a, b)) against PRIMARY KEY (a, b)
+        assertNotEquals(hash(model(Arrays.asList("a", "b"), Collections.emptyList())),
+                hash(model(Arrays.asList("a"), Arrays.asList("b"))));
+    }
+
+    @Test
+    public void tellsTheClusteringOrderApart() {
+        assertNotEquals(hash(model(Arrays.asList("c"), Arrays.asList("a", "b"))),
+                hash(model(Arrays.asList("c"), Arrays.asList("b", "a"))));
+    }
+
+    private static String hash(Model model) {
+        return SchemaFingerprint.hash("ks", Collections.singletonList(model));
+    }
+
+    private static Model model(List<String> partitionKeys, List<String> clusteringColumns) {
+        Model model = new Model();
+        model.setName("users");
+        Map<String, DataType> columns = new LinkedHashMap<>();
+        columns.put("a", DataType.cint());
+        columns.put("b", DataType.cint());
+        columns.put("c", DataType.text());
+        model.setColumns(columns);
+        model.getPartitionKeys().addAll(partitionKeys);
+        model.getClusteringColumns().addAll(clusteringColumns);
+        model.getPrimaryKeys().addAll(partitionKeys);
+        model.getPrimaryKeys().addAll(clusteringColumns);
+        return model;
+    }
+}
@@ -0,0 +1,104 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.DataType;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Diffs a model with case sensitive names against a table named as the driver's metadata names it
+ */
+public class SchemaSnapshotTest {
+
+    @Test
+    public void keepsTheCaseOfMetadataNames() {
+        SchemaSnapshot snapshot = snapshot(columns("userId", "lastSeen"));
+
+        SchemaSnapshot.TableSnapshot table = snapshot.getTable("\"UserEvents\"");
+        assertNotNull(table);
+        assertEquals(table.getName(), "UserEvents");
+        assertEquals(table.getPrimaryKey(), Arrays.asList("userId"));
+        assertEquals(table.getColumnType("\"lastSeen\""), DataType.timestamp());
+        assertTrue(diff(snapshot).isEmpty(), diff(snapshot).toString());
+    }
+
+    @Test
+    public void quotesCaseSensitiveNamesInAlters() {
+        Map<String, DataType> columns = columns("userId", "Legacy");
+        assertEquals(SchemaDiff.toCql(diff(snapshot(columns))), Arrays.asList(
+                "ALTER TABLE \"UserEvents\" ADD \"lastSeen\" timestamp;",
+                "ALTER TABLE \"UserEvents\" DROP \"Legacy\";"));
+    }
+
+    private static List<MigrationOp> diff(SchemaSnapshot snapshot) {
+        List<MigrationOp> ops = new ArrayList<>();
+        SchemaDiff.diff(model(), snapshot, ops);
+        return ops;
+    }
+
+    private static Model model() {
+        Model model = new Model();
+        model.setName("\"UserEvents\"");
+        Map<String, DataType> columns = new LinkedHashMap<>();
+        columns.put("\"userId\"", DataType.uuid());
+        columns.put("\"lastSeen\"", DataType.timestamp());
+        model.setColumns(columns);
+        model.getPrimaryKeys().add("\"userId\"");
+        model.getPartitionKeys().add("\"userId\"");
+        return model;
+    }
+
+    /**
+     * @param names names of the columns, the first one being the partition key
+     */
+    private static Map<String, DataType> columns(String... names) {
+        Map<String, DataType> columns = new LinkedHashMap<>();
+        columns.put(names[0], DataType.uuid());
+        for (int i = 1; i < names.length; i++) {
+            columns.put(names[i], DataType.timestamp());
+        }
+        return columns;
+    }
+
+    /**
+     * {@code UserEvents} as {@link SchemaSnapshot.TableSnapshot#of} reads it from the driver's metadata
+     */
+    private static SchemaSnapshot snapshot(Map<String, DataType> columns) {
+        String key = columns.keySet().iterator().next();
+        return SchemaSnapshot.builder("ks").addTable(SchemaSnapshot.TableSnapshot.exact("UserEvents", columns,
+                Arrays.asList(key), Collections.emptyList(), TableSettings.NONE, Collections.emptyList())).build();
+    }
+}
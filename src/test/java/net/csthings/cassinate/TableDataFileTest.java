@@ -0,0 +1,148 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.Row;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Writes row groups with a {@link TableDataFile.Writer} and reads them back with a
+ * {@link TableDataFile.Reader}
+ */
+public class TableDataFileTest {
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = Files.createTempFile("cassinate", ".cstf");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void readsBackNullsEmptyValuesAndEveryGroup() throws IOException {
+        try (TableDataFile.Writer writer = writer()) {
+            TableDataFile.RowGroup group = new TableDataFile.RowGroup(2);
+            group.add(row(text("ada"), cint(36)));
+            group.add(row(null, cint(7)));
+            writer.write(group);
+            // A cleared group is reused; an empty one writes nothing
+            writer.write(group);
+            group.add(row(text(""), null));
+            writer.write(group);
+            assertEquals(writer.getRows(), 3);
+        }
+
+        try (TableDataFile.Reader reader = new TableDataFile.Reader(file)) {
+            assertEquals(reader.getTable(), "UserEvents");
+            assertEquals(reader.getColumns(), Arrays.asList("name", "age"));
+            assertEquals(reader.getTypes(), Arrays.asList("text", "int"));
+
+            ByteBuffer[][] first = reader.nextGroup();
+            assertEquals(first.length, 2);
+            assertEquals(first[0][0], text("ada"));
+            assertEquals(first[0][1], cint(36));
+            assertNull(first[1][0]);
+            assertEquals(first[1][1], cint(7));
+
+            ByteBuffer[][] second = reader.nextGroup();
+            assertEquals(second.length, 1);
+            assertNotNull(second[0][0]);
+            assertEquals(second[0][0].remaining(), 0);
+            assertNull(second[0][1]);
+
+            assertNull(reader.nextGroup());
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Truncated row group at .*")
+    public void failsOnATruncatedGroup() throws IOException {
+        try (TableDataFile.Writer writer = writer()) {
+            TableDataFile.RowGroup group = new TableDataFile.RowGroup(2);
+            group.add(row(text("ada"), cint(36)));
+            writer.write(group);
+            group.add(row(text("grace"), cint(45)));
+            writer.write(group);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (TableDataFile.Reader reader = new TableDataFile.Reader(file)) {
+            assertEquals(reader.nextGroup()[0][0], text("ada"));
+            reader.nextGroup();
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".* is not a table data file")
+    public void rejectsOtherFiles() throws IOException {
+        Files.write(file, "CREATE TABLE users (id uuid PRIMARY KEY);".getBytes(StandardCharsets.UTF_8));
+        new TableDataFile.Reader(file).close();
+    }
+
+    private TableDataFile.Writer writer() throws IOException {
+        return new TableDataFile.Writer(file, "UserEvents", Arrays.asList("name", "age"), Arrays.asList("text",
+                "int"));
+    }
+
+    private static ByteBuffer text(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer cint(int value) {
+        return (ByteBuffer) ByteBuffer.allocate(Integer.BYTES).putInt(value).flip();
+    }
+
+    /**
+     * Row whose only working method is {@link Row#getBytesUnsafe(int)}, all {@link TableDataFile.RowGroup} reads
+     */
+    private static Row row(ByteBuffer... values) {
+        return (Row) Proxy.newProxyInstance(Row.class.getClassLoader(), new Class<?>[] { Row.class },
+                (proxy, method, args) -> {
+                    if ("getBytesUnsafe".equals(method.getName()) && args[0] instanceof Integer)
+                        return values[(Integer) args[0]];
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
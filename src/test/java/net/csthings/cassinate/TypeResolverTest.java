@@ -0,0 +1,211 @@
+/*Copyright (c) 2017 Toluwanimi Salako
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package net.csthings.cassinate;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.LocalDate;
+import com.datastax.driver.mapping.annotations.Frozen;
+import com.datastax.driver.mapping.annotations.UDT;
+
+/**
+ * Created on: Oct 16, 2026
+ * @author Toluwanimi Salako
+ * Last edited: Oct 16, 2026
+ * @purpose - Resolves the cql types of the fields of {@link Fixture}
+ */
+public class TypeResolverTest {
+
+    @DataProvider
+    public Object[][] supportedFields() {
+        return new Object[][] {
+                { "primitiveInt", DataType.cint() },
+                { "boxedInt", DataType.cint() },
+                { "primitiveLong", DataType.bigint() },
+                { "boxedBoolean", DataType.cboolean() },
+                { "primitiveDouble", DataType.cdouble() },
+                { "text", DataType.text() },
+                { "decimal", DataType.decimal() },
+                { "blob", DataType.blob() },
+                { "id", DataType.timeuuid() },
+                { "date", DataType.timestamp() },
+                { "instant", DataType.timestamp() },
+                { "day", DataType.date() },
+                { "address", DataType.inet() },
+                { "state", DataType.text() },
+                { "ints", DataType.list(DataType.cint()) },
+                { "names", DataType.list(DataType.text()) },
+                { "tags", DataType.set(DataType.text()) },
+                { "counts", DataType.map(DataType.text(), DataType.bigint()) },
+                { "nested", DataType.list(DataType.frozenSet(DataType.text())) },
+                { "deeplyNested", DataType.map(DataType.text(),
+                        DataType.frozenList(DataType.frozenMap(DataType.cint(), DataType.text()))) },
+                { "frozenNames", DataType.frozenList(DataType.text()) },
+                { "frozenAs", DataType.frozenMap(DataType.text(), DataType.cint()) },
+                { "home", new TypeResolver.UserTypeName("location") },
+                { "office", new TypeResolver.UserTypeName("\"Office\"") },
+                { "homes", DataType.list(new TypeResolver.UserTypeName("location")) },
+                { "nickname", DataType.text() },
+                { "aliases", DataType.list(DataType.text()) },
+        };
+    }
+
+    @Test(dataProvider = "supportedFields")
+    public void resolvesSupportedFields(String name, DataType expected) throws NoSuchFieldException {
+        DataType type = TypeResolver.resolve(field(name));
+
+        assertEquals(type, expected);
+        assertEquals(type.isFrozen(), expected.isFrozen());
+    }
+
+    @DataProvider
+    public Object[][] unsupportedFields() {
+        return new Object[][] {
+                { "object", "java.lang.Object" },
+                { "objects", "java.lang.Thread" },
+                { "values", "java.lang.Thread" },
+                { "wildcard", "Generic type ?" },
+                { "maybeObject", "java.lang.Thread" },
+                { "badFrozen", "@Frozen(\"not_a_type<\") is not a cql type" },
+        };
+    }
+
+    @Test(dataProvider = "unsupportedFields")
+    public void rejectsUnsupportedFields(String name, String reason) throws NoSuchFieldException {
+        try {
+            TypeResolver.resolve(field(name));
+            fail(name + " resolved");
+        }
+        catch (TypeResolver.UnsupportedTypeException e) {
+            assertTrue(e.getMessage().contains(Fixture.class.getName() + "." + name), e.getMessage());
+            assertTrue(e.getMessage().contains(reason), e.getMessage());
+        }
+    }
+
+    @Test
+    public void cachesTheFailureOfAField() throws NoSuchFieldException {
+        Field field = field("object");
+        TypeResolver.UnsupportedTypeException first = failure(field);
+
+        // The supported fields of the class still resolve
+        assertEquals(TypeResolver.resolve(field("text")), DataType.text());
+        assertSame(failure(field), first);
+    }
+
+    @Test
+    public void resolvesTypesWithoutFrozenAnnotations() throws NoSuchFieldException {
+        assertEquals(TypeResolver.resolve(field("frozenNames").getGenericType()), DataType.list(DataType.text()));
+    }
+
+    @Test(expectedExceptions = TypeResolver.UnsupportedTypeException.class,
+            expectedExceptionsMessageRegExp = "java.lang.Thread has no cql type")
+    public void rejectsUnsupportedTypes() {
+        TypeResolver.resolve(Thread.class);
+    }
+
+    private static TypeResolver.UnsupportedTypeException failure(Field field) {
+        try {
+            TypeResolver.resolve(field);
+        }
+        catch (TypeResolver.UnsupportedTypeException e) {
+            return e;
+        }
+        throw new AssertionError(field.getName() + " resolved");
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        return Fixture.class.getDeclaredField(name);
+    }
+
+    @UDT(name = "Location")
+    static class Location {
+        String street;
+    }
+
+    @UDT(name = "Office", caseSensitiveType = true)
+    static class Office {
+        String floor;
+    }
+
+    enum State {
+        ACTIVE, DISABLED
+    }
+
+    @SuppressWarnings("unused")
+    static class Fixture {
+        int primitiveInt;
+        Integer boxedInt;
+        long primitiveLong;
+        Boolean boxedBoolean;
+        double primitiveDouble;
+        String text;
+        BigDecimal decimal;
+        ByteBuffer blob;
+        UUID id;
+        Date date;
+        Instant instant;
+        LocalDate day;
+        InetAddress address;
+        State state;
+        int[] ints;
+        List<String> names;
+        Set<String> tags;
+        Map<String, Long> counts;
+        List<Set<String>> nested;
+        Map<String, List<Map<Integer, String>>> deeplyNested;
+        @Frozen
+        List<String> frozenNames;
+        @Frozen("frozen<map<text, int>>")
+        Map<String, Integer> frozenAs;
+        Location home;
+        Office office;
+        List<Location> homes;
+        Optional<String> nickname;
+        Optional<List<String>> aliases;
+
+        Object object;
+        List<Thread> objects;
+        Map<String, Set<Thread>> values;
+        List<?> wildcard;
+        Optional<Thread> maybeObject;
+        @Frozen("not_a_type<")
+        List<String> badFrozen;
+    }
+}